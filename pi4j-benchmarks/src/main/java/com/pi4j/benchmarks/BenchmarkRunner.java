@@ -0,0 +1,66 @@
+package com.pi4j.benchmarks;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Benchmarks
+ * FILENAME      :  BenchmarkRunner.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>
+ * Runs the Pi4J benchmarks with the GC profiler and records the results as JSON, so allocation
+ * regressions (gc.alloc.rate.norm) are visible next to the timings.  Additional arguments are
+ * passed to JMH (e.g. a benchmark name pattern, or '-f 0' on small boards).
+ * </p>
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.pi4j.benchmarks.BenchmarkRunner [jmh options] [pattern]
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+    public static final String RESULT_FILE = "pi4j-benchmarks.json";
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(RESULT_FILE);
+
+        // run all benchmarks unless a pattern was given
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include("com\\.pi4j\\.benchmarks\\..*");
+        }
+        new Runner(builder.build()).run();
+    }
+}
@@ -0,0 +1,67 @@
+package com.pi4j.benchmarks.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Benchmarks
+ * FILENAME      :  BenchmarkGpioProvider.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioProvider;
+import com.pi4j.io.gpio.GpioProviderBase;
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.PinMode;
+import com.pi4j.io.gpio.PinPullResistance;
+import com.pi4j.io.gpio.impl.PinImpl;
+
+import java.util.EnumSet;
+
+/**
+ * Hardware-free provider that only uses the {@link GpioProviderBase} implementation,
+ * so the benchmarks measure the provider SPI itself.
+ */
+public class BenchmarkGpioProvider extends GpioProviderBase implements GpioProvider {
+
+    public static final String NAME = "Benchmark GPIO Provider";
+
+    /**
+     * Create the digital pins of this provider.
+     *
+     * @param count number of pins (addresses 0 to count-1)
+     * @return pins
+     */
+    public static Pin[] createPins(int count) {
+        Pin[] pins = new Pin[count];
+        for (int address = 0; address < count; address++) {
+            pins[address] = new PinImpl(NAME, address, "BENCHMARK GPIO " + address,
+                    EnumSet.of(PinMode.DIGITAL_INPUT, PinMode.DIGITAL_OUTPUT),
+                    PinPullResistance.all());
+        }
+        return pins;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
@@ -0,0 +1,122 @@
+package com.pi4j.benchmarks.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Benchmarks
+ * FILENAME      :  GpioEventDispatchBenchmark.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioFactory;
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.PinMode;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.RaspiPin;
+import com.pi4j.io.gpio.SimulatedGpioProvider;
+import com.pi4j.io.gpio.event.GpioPinListenerDigital;
+import com.pi4j.io.gpio.impl.GpioPinImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * Digital state change events from the {@link SimulatedGpioProvider} through the
+ * {@link com.pi4j.io.gpio.impl.GpioEventMonitorExecutorImpl} and the GPIO event executor
+ * to a pin listener.
+ * </p>
+ *
+ * <ul>
+ *     <li><code>throughput</code> publishes events as fast as the listener keeps up
+ *     (at most {@link #MAX_PENDING} events in flight)</li>
+ *     <li><code>latency</code> publishes a single event and waits for the listener</li>
+ * </ul>
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GpioEventDispatchBenchmark {
+
+    public static final int MAX_PENDING = 1024;
+
+    private final AtomicLong received = new AtomicLong();
+    private SimulatedGpioProvider provider;
+    private Pin pin;
+    private long published;
+    private PinState state = PinState.LOW;
+
+    @Setup
+    public void setup() {
+        provider = new SimulatedGpioProvider();
+        pin = RaspiPin.GPIO_01;
+        provider.export(pin, PinMode.DIGITAL_INPUT);
+
+        // a provisioned input pin (no controller required) registers its event monitor with the provider
+        GpioPinImpl input = new GpioPinImpl(null, provider, pin);
+        input.addListener((GpioPinListenerDigital) event -> received.incrementAndGet());
+    }
+
+    @TearDown
+    public void teardown() {
+        provider.shutdown();
+        GpioFactory.getExecutorServiceFactory().shutdown();
+    }
+
+    private void publish() {
+        state = PinState.getInverseState(state);
+        provider.setState(pin, state);
+        published++;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void throughput() {
+        while (published - received.get() >= MAX_PENDING) {
+            Thread.onSpinWait();
+        }
+        publish();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void latency() {
+        publish();
+        while (received.get() < published) {
+            Thread.onSpinWait();
+        }
+    }
+}
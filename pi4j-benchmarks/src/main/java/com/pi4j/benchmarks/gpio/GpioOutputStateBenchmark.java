@@ -0,0 +1,145 @@
+package com.pi4j.benchmarks.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Benchmarks
+ * FILENAME      :  GpioOutputStateBenchmark.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.PinMode;
+import com.pi4j.io.gpio.PinState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Digital output and input state calls of the GPIO provider SPI on exported pins (16 outputs
+ * per operation).  Once a pin is exported, these calls must not allocate; running this class directly executes the
+ * benchmark with the GC profiler and fails if the normalized allocation rate is above 0 B/op.
+ * </p>
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.pi4j.benchmarks.gpio.GpioOutputStateBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GpioOutputStateBenchmark {
+
+    public static final int OUTPUTS = 16;
+
+    // tolerance for the normalized allocation rate (JMH reports tiny non-zero noise)
+    private static final double ALLOCATION_TOLERANCE = 0.01;
+
+    private BenchmarkGpioProvider provider;
+    private Pin[] outputs;
+    private PinState state = PinState.LOW;
+
+    @Setup
+    public void setup() {
+        provider = new BenchmarkGpioProvider();
+        outputs = BenchmarkGpioProvider.createPins(OUTPUTS);
+        for (Pin output : outputs) {
+            provider.export(output, PinMode.DIGITAL_OUTPUT, PinState.LOW);
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        provider.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OUTPUTS)
+    public void setState() {
+        state = PinState.getInverseState(state);
+        for (Pin output : outputs) {
+            provider.setState(output, state);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OUTPUTS)
+    public void toggle() {
+        for (Pin output : outputs) {
+            provider.setState(output, PinState.getInverseState(provider.getState(output)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OUTPUTS)
+    public void getState(Blackhole blackhole) {
+        for (Pin output : outputs) {
+            blackhole.consume(provider.getState(output));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(GpioOutputStateBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        boolean allocates = false;
+        for (RunResult result : new Runner(options).run()) {
+            // the secondary result key is "gc.alloc.rate.norm" (prefixed with a middle dot before JMH 1.34)
+            Result allocation = result.getSecondaryResults().get("gc.alloc.rate.norm");
+            if (allocation == null) {
+                allocation = result.getSecondaryResults().get("\u00b7gc.alloc.rate.norm");
+            }
+            if (allocation == null) {
+                throw new IllegalStateException("GC profiler did not report an allocation rate");
+            }
+            if (allocation.getScore() > ALLOCATION_TOLERANCE) {
+                System.err.println(result.getParams().getBenchmark() + " allocates " + allocation.getScore() + " B/op");
+                allocates = true;
+            }
+        }
+        System.exit(allocates ? 1 : 0);
+    }
+}
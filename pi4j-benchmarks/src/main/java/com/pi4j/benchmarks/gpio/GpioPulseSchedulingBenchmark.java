@@ -0,0 +1,98 @@
+package com.pi4j.benchmarks.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Benchmarks
+ * FILENAME      :  GpioPulseSchedulingBenchmark.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioFactory;
+import com.pi4j.io.gpio.GpioPinDigitalOutput;
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.PinMode;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.impl.GpioPinImpl;
+import com.pi4j.io.gpio.impl.GpioScheduledExecutorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate at which {@link GpioScheduledExecutorImpl} schedules output pulses over a number of pins
+ * (each pulse replaces the pending pulse of its pin).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GpioPulseSchedulingBenchmark {
+
+    @Param({ "1", "16" })
+    public int pins;
+
+    @Param({ "1" })
+    public long pulseMillis;
+
+    private BenchmarkGpioProvider provider;
+    private GpioPinDigitalOutput[] outputs;
+    private int next;
+
+    @Setup
+    public void setup() {
+        provider = new BenchmarkGpioProvider();
+        Pin[] providerPins = BenchmarkGpioProvider.createPins(pins);
+        outputs = new GpioPinDigitalOutput[pins];
+        for (int i = 0; i < pins; i++) {
+            provider.export(providerPins[i], PinMode.DIGITAL_OUTPUT, PinState.LOW);
+            outputs[i] = new GpioPinImpl(null, provider, providerPins[i]);
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        provider.shutdown();
+        GpioFactory.getExecutorServiceFactory().shutdown();
+    }
+
+    @Benchmark
+    public Future<?> pulse() {
+        GpioPinDigitalOutput output = outputs[next];
+        next = (next + 1 == outputs.length) ? 0 : next + 1;
+        return GpioScheduledExecutorImpl.pulse(output, pulseMillis, PinState.HIGH, TimeUnit.MILLISECONDS);
+    }
+}
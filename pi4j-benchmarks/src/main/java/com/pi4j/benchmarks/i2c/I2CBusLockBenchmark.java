@@ -0,0 +1,98 @@
+package com.pi4j.benchmarks.i2c;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Benchmarks
+ * FILENAME      :  I2CBusLockBenchmark.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.i2c.I2CDevice;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contention on the bus lock of {@link com.pi4j.io.i2c.impl.I2CBusImpl#runBusLockedDeviceAction}
+ * when several threads access different devices of one (stubbed) bus.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class I2CBusLockBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Bus {
+        final StubI2CBus bus = new StubI2CBus(1, TimeUnit.SECONDS);
+        final AtomicInteger nextAddress = new AtomicInteger(0x20);
+    }
+
+    @State(Scope.Thread)
+    public static class Device {
+
+        // simulated transfer time inside the bus lock (JMH CPU tokens)
+        @Param({ "0", "100" })
+        public long transferTokens;
+
+        I2CDevice device;
+        Callable<Integer> action;
+
+        @Setup
+        public void setup(Bus bus) throws IOException {
+            device = bus.bus.getDevice(bus.nextAddress.getAndIncrement());
+            action = () -> {
+                Blackhole.consumeCPU(transferTokens);
+                return 0;
+            };
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Integer uncontended(Bus bus, Device device) throws IOException {
+        return bus.bus.runBusLockedDeviceAction(device.device, device.action);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Integer contended(Bus bus, Device device) throws IOException {
+        return bus.bus.runBusLockedDeviceAction(device.device, device.action);
+    }
+}
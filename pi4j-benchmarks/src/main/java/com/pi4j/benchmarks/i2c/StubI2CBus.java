@@ -0,0 +1,65 @@
+package com.pi4j.benchmarks.i2c;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Benchmarks
+ * FILENAME      :  StubI2CBus.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.i2c.I2CDevice;
+import com.pi4j.io.i2c.impl.I2CBusImpl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * I2C bus without a bus device file; device selection only records the selected address.
+ */
+public class StubI2CBus extends I2CBusImpl {
+
+    private long selections;
+
+    public StubI2CBus(long lockAquireTimeout, TimeUnit lockAquireTimeoutUnit) {
+        super(0, "/dev/null", lockAquireTimeout, lockAquireTimeoutUnit);
+    }
+
+    @Override
+    protected boolean isOpen() {
+        return true;
+    }
+
+    @Override
+    protected void selectBusSlave(I2CDevice device) {
+        if (lastAddress != device.getAddress()) {
+            lastAddress = device.getAddress();
+            selections++;
+        }
+    }
+
+    /**
+     * @return number of device selections (I2C_SLAVE ioctl calls a real bus would make)
+     */
+    public long getSelections() {
+        return selections;
+    }
+}
@@ -0,0 +1,110 @@
+package com.pi4j.benchmarks.journal;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Benchmarks
+ * FILENAME      :  EventJournalBenchmark.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.journal.EventJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Append cost of the {@link EventJournal} (records are appended to memory-mapped segments, so
+ * gc.alloc.rate.norm should be 0).  The journal keeps four 16 MB segments in a temporary directory.
+ * </p>
+ *
+ * <ul>
+ *     <li><code>digital</code> appends a GPIO state change record</li>
+ *     <li><code>serial</code> appends a 64 byte serial payload (four records)</li>
+ *     <li><code>digitalContended</code> appends GPIO state change records from four threads</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventJournalBenchmark {
+
+    private Path directory;
+    private EventJournal journal;
+    private final byte[] payload = new byte[64];
+    private long timestamp = 0;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("pi4j-journal-benchmark");
+        journal = new EventJournal(directory, 16 * 1024 * 1024, 4);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        journal.close();
+        File[] files = directory.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.toFile().delete();
+    }
+
+    @Benchmark
+    public void digital() {
+        journal.digital(4, PinState.HIGH, timestamp++);
+    }
+
+    @Benchmark
+    public void serial() {
+        journal.serial(3, payload, 0, payload.length);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void digitalContended() {
+        journal.digital(4, PinState.HIGH, System.nanoTime());
+    }
+}
@@ -0,0 +1,106 @@
+package com.pi4j.benchmarks.serial;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Benchmarks
+ * FILENAME      :  SerialByteBufferBenchmark.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.serial.impl.SerialByteBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Write/read throughput of the {@link SerialByteBuffer} receive buffer.
+ * </p>
+ *
+ * <ul>
+ *     <li><code>writeRead</code> writes and reads a chunk on the same thread</li>
+ *     <li><code>producerConsumer</code> writes on one thread (like the serial event thread)
+ *     while another thread drains the buffer</li>
+ * </ul>
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerialByteBufferBenchmark {
+
+    @Param({ "16", "256", "4096" })
+    public int chunkSize;
+
+    private SerialByteBuffer buffer;
+    private SerialByteBuffer.SerialByteBufferInputStream input;
+    private byte[] writeChunk;
+    private byte[] readChunk;
+
+    @Setup
+    public void setup() {
+        // bounded buffer; the producer drops the oldest data when the consumer falls behind
+        buffer = new SerialByteBuffer(SerialByteBuffer.DEFAULT_INITIAL_BUFFER_SIZE, 64 * 1024,
+                SerialByteBuffer.OverflowPolicy.DROP_OLDEST);
+        input = buffer.getInputStream();
+        writeChunk = new byte[chunkSize];
+        readChunk = new byte[chunkSize];
+    }
+
+    @Benchmark
+    @Group("writeRead")
+    public int writeRead() throws IOException {
+        buffer.write(writeChunk, 0, chunkSize);
+        return input.read(readChunk, 0, chunkSize);
+    }
+
+    @Benchmark
+    @Group("producerConsumer")
+    @GroupThreads(1)
+    public void produce() throws IOException {
+        buffer.write(writeChunk, 0, chunkSize);
+    }
+
+    @Benchmark
+    @Group("producerConsumer")
+    @GroupThreads(1)
+    public int consume() throws IOException {
+        // a timed read lets the consumer finish when the producer stops at the end of an iteration
+        return input.read(readChunk, 0, chunkSize, 10);
+    }
+}
@@ -0,0 +1,66 @@
+package com.pi4j.benchmarks.spi;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Benchmarks
+ * FILENAME      :  LoopbackSpiDevice.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.spi.SpiChannel;
+import com.pi4j.io.spi.SpiDevice;
+import com.pi4j.io.spi.SpiMessage;
+import com.pi4j.io.spi.impl.SpiDeviceImpl;
+
+import java.io.IOException;
+
+/**
+ * SPI device without a SPI channel; transfers return the written data (loopback).  Message
+ * transfers leave the receive buffers unchanged.
+ */
+public class LoopbackSpiDevice extends SpiDeviceImpl {
+
+    public LoopbackSpiDevice(SpiChannel channel) throws IOException {
+        super(channel, SpiDevice.DEFAULT_SPI_SPEED, SpiDevice.DEFAULT_SPI_MODE);
+    }
+
+    @Override
+    protected void setup(int speed) {
+        // nothing to set up
+    }
+
+    @Override
+    protected int transfer(byte[] buffer) {
+        return buffer.length;
+    }
+
+    @Override
+    protected int transfer(short[] buffer) {
+        return buffer.length;
+    }
+
+    @Override
+    protected void transfer(SpiMessage message) {
+        // nothing to transfer
+    }
+}
@@ -0,0 +1,106 @@
+package com.pi4j.benchmarks.spi;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Benchmarks
+ * FILENAME      :  SpiDeviceCopyBenchmark.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.spi.SpiChannel;
+import com.pi4j.io.spi.SpiMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copy and allocation overhead of the {@link com.pi4j.io.spi.impl.SpiDeviceImpl} write methods
+ * around the (loopback) transfer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpiDeviceCopyBenchmark {
+
+    @Param({ "4", "64", "1024" })
+    public int length;
+
+    private LoopbackSpiDevice device;
+    private byte[] bytes;
+    private short[] shorts;
+    private ByteBuffer buffer;
+    private ByteBuffer directBuffer;
+    private SpiMessage message;
+
+    @Setup
+    public void setup() throws IOException {
+        device = new LoopbackSpiDevice(SpiChannel.CS0);
+        bytes = new byte[length];
+        shorts = new short[length];
+        buffer = ByteBuffer.allocate(length);
+        directBuffer = ByteBuffer.allocateDirect(length);
+        message = new SpiMessage().transfer(directBuffer, ByteBuffer.allocateDirect(length));
+    }
+
+    @Benchmark
+    public byte[] writeBytes() throws IOException {
+        return device.write(bytes, 0, length);
+    }
+
+    @Benchmark
+    public short[] writeShorts() throws IOException {
+        return device.write(shorts, 0, length);
+    }
+
+    @Benchmark
+    public ByteBuffer writeByteBuffer() throws IOException {
+        return device.write(buffer);
+    }
+
+    @Benchmark
+    public ByteBuffer writeDirectByteBuffer() throws IOException {
+        return device.write(directBuffer);
+    }
+
+    @Benchmark
+    public SpiMessage executeMessage() throws IOException {
+        // prebuilt message: no allocation or copy per transfer
+        device.execute(message);
+        return message;
+    }
+}
@@ -28,18 +28,22 @@ package com.pi4j.concurrent;
  */
 
 
+import com.pi4j.metrics.Metrics;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class DefaultExecutorServiceFactory implements ExecutorServiceFactory {
 
     private static int MAX_THREADS_IN_POOL = 25;
     private static List<ExecutorService> singleThreadExecutorServices = new ArrayList<>();
+    private static HashedWheelTimer gpioTimer = null;
 
     // this seemingly odd pattern is the recommended way to lazy-initialize static fields in effective java.
     // The static "holder" class doesn't have it's static initializer called until it is accessed - and it's not accessed until the
@@ -47,7 +51,8 @@ public class DefaultExecutorServiceFactory implements ExecutorServiceFactory {
     //
     // (see effective java item 71:Use lazy initialization judiciously)
     private static class ScheduledExecutorServiceHolder {
-        static final ScheduledExecutorService heldExecutor = Executors.newScheduledThreadPool(MAX_THREADS_IN_POOL, getThreadFactory("pi4j-scheduled-executor-%d"));
+        static final ScheduledExecutorService heldExecutor = instrument("scheduled",
+                Executors.newScheduledThreadPool(MAX_THREADS_IN_POOL, getThreadFactory("pi4j-scheduled-executor-%d")));
     }
     private static ScheduledExecutorService getInternalScheduledExecutorService() {
         return ScheduledExecutorServiceHolder.heldExecutor;
@@ -61,7 +66,8 @@ public class DefaultExecutorServiceFactory implements ExecutorServiceFactory {
 
     // follow a similar lazy initialization pattern for the gpio events
     private static class GpioEventExecutorServiceHolder {
-        static final ExecutorService heldExecutor = Executors.newCachedThreadPool(getThreadFactory("pi4j-gpio-event-executor-%d"));
+        static final ExecutorService heldExecutor = instrument("gpio-event",
+                Executors.newCachedThreadPool(getThreadFactory("pi4j-gpio-event-executor-%d")));
     }
     private static ExecutorService getInternalGpioExecutorService() {
         return GpioEventExecutorServiceHolder.heldExecutor;
@@ -73,7 +79,8 @@ public class DefaultExecutorServiceFactory implements ExecutorServiceFactory {
         return GpioEventExecutorServiceWrapperHolder.heldWrapper;
     }
     private static class EventExecutorServiceHolder {
-        static final ExecutorService heldExecutor = Executors.newCachedThreadPool(getThreadFactory("pi4j-event-executor-%d"));
+        static final ExecutorService heldExecutor = instrument("event",
+                Executors.newCachedThreadPool(getThreadFactory("pi4j-event-executor-%d")));
     }
     private static ExecutorService getInternalEventExecutorService() {
         return EventExecutorServiceHolder.heldExecutor;
@@ -85,6 +92,18 @@ public class DefaultExecutorServiceFactory implements ExecutorServiceFactory {
         return EventExecutorServiceWrapperHolder.heldWrapper;
     }
 
+    /**
+     * register the active thread count and queue depth gauges of a thread pool (if metrics are enabled)
+     */
+    protected static <T extends ExecutorService> T instrument(String name, T executor) {
+        if (Metrics.ENABLED && executor instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+            Metrics.gauge("executor.active", pool::getActiveCount, "executor", name);
+            Metrics.gauge("executor.queued", () -> pool.getQueue().size(), "executor", name);
+        }
+        return executor;
+    }
+
     /**
      * return an instance to the thread factory used to create new executor services
      */
@@ -127,6 +146,20 @@ public class DefaultExecutorServiceFactory implements ExecutorServiceFactory {
         return getEventExecutorServiceWrapper();
     }
 
+    /**
+     * return the shared timer used for GPIO pin debounce filters and pulse/blink timers
+     */
+    @Override
+    public HashedWheelTimer getGpioTimer() {
+        synchronized (DefaultExecutorServiceFactory.class) {
+            // the timer (and its thread) is only created once the first pin timer needs it
+            if (gpioTimer == null || gpioTimer.isShutdown()) {
+                gpioTimer = new HashedWheelTimer(getThreadFactory("pi4j-gpio-timer-%d"));
+            }
+            return gpioTimer;
+        }
+    }
+
     /**
      * return a new instance of a single thread executor service
      *
@@ -160,6 +193,13 @@ public class DefaultExecutorServiceFactory implements ExecutorServiceFactory {
         shutdownExecutor(getInternalGpioExecutorService());
         shutdownExecutor(getInternalEventExecutorService());
 
+        // shutdown the GPIO timer
+        synchronized (DefaultExecutorServiceFactory.class) {
+            if (gpioTimer != null) {
+                gpioTimer.shutdown();
+            }
+        }
+
     }
 
     protected void shutdownExecutor(ExecutorService executor) {
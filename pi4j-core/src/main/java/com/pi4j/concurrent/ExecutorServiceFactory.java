@@ -38,6 +38,22 @@ public interface ExecutorServiceFactory
     public ExecutorService getGpioEventExecutorService();
     public ExecutorService getEventExecutorService();
 
+    /**
+     * Return the ordered lane executor used to dispatch GPIO pin events, or null to dispatch each
+     * event as an independent task on the {@link #getGpioEventExecutorService()} executor.
+     */
+    public default OrderedLaneExecutor getGpioEventLaneExecutor() {
+        return null;
+    }
+
+    /**
+     * Return the timer used for GPIO pin debounce filters and pulse/blink timers, or null to
+     * schedule these on the {@link #getScheduledExecutorService()} executor.
+     */
+    public default HashedWheelTimer getGpioTimer() {
+        return null;
+    }
+
     @Deprecated
     public ExecutorService newSingleThreadExecutorService();
     public void shutdown();
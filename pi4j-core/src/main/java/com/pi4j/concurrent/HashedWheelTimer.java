@@ -0,0 +1,348 @@
+package com.pi4j.concurrent;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  HashedWheelTimer.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * Single threaded timer built on a hashed timing wheel. Timeouts are hashed into the wheel by their
+ * deadline tick, so arming, re-arming and cancelling a timeout are O(1) operations and the timer
+ * thread only visits one wheel bucket per tick.
+ * </p>
+ *
+ * <p>
+ * {@link Timeout} instances are intrusive wheel entries: a timeout is created once (typically one per
+ * pin) and re-armed as often as needed without allocating. Expired timeouts are run on the timer
+ * thread, so {@link Timeout#expire()} must be short and must not block; longer work should be handed
+ * off to an executor. The timer thread sleeps while no timeout is armed.
+ * </p>
+ */
+public class HashedWheelTimer {
+
+    public static final long DEFAULT_TICK_DURATION = TimeUnit.MILLISECONDS.toNanos(1);
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    /**
+     * Timer entry; subclasses implement {@link #expire()}.
+     */
+    public abstract static class Timeout {
+
+        private final HashedWheelTimer timer;
+
+        // wheel linkage (guarded by the timer lock)
+        private Timeout prev;
+        private Timeout next;
+        private int bucket = -1;
+        private long deadline;
+        // bumped whenever the timeout is armed or cancelled (written under the timer lock)
+        private volatile long generation;
+
+        // expired chain (only used by the timer thread)
+        private Timeout nextExpired;
+        private long expiredGeneration;
+
+        protected Timeout(HashedWheelTimer timer) {
+            if (timer == null) {
+                throw new IllegalArgumentException("Missing timer argument.");
+            }
+            this.timer = timer;
+        }
+
+        public HashedWheelTimer getTimer() {
+            return timer;
+        }
+
+        /**
+         * Arm this timeout, replacing the current deadline if it is already armed.
+         *
+         * @return false if the timer has been shut down
+         */
+        public boolean schedule(long delay, TimeUnit unit) {
+            return timer.schedule(this, unit.toNanos(delay));
+        }
+
+        /**
+         * Arm this timeout to expire the given number of ticks after the last tick processed by the
+         * timer, replacing the current deadline if it is already armed. Unlike {@link #schedule(long, TimeUnit)}
+         * this does not round up to the next tick boundary, so a timeout re-armed from {@link #expire()}
+         * with one tick expires on every tick.
+         *
+         * @return false if the timer has been shut down
+         */
+        public boolean scheduleTicks(long ticks) {
+            return timer.scheduleTicks(this, ticks);
+        }
+
+        /**
+         * Disarm this timeout.
+         *
+         * @return true if the timeout was armed
+         */
+        public boolean cancel() {
+            return timer.cancel(this);
+        }
+
+        public boolean isArmed() {
+            synchronized (timer.lock) {
+                return bucket >= 0;
+            }
+        }
+
+        /**
+         * Invoked on the timer thread once the deadline has passed.
+         */
+        protected abstract void expire();
+    }
+
+    private final Object lock = new Object();
+    private final Timeout[] wheel;
+    private final int mask;
+    private final long tickDuration;
+    private final long startTime;
+    private final Thread thread;
+
+    // guarded by lock
+    private long tick = 0;
+    private int size = 0;
+    private boolean idle = false;
+
+    private volatile boolean shutdown = false;
+
+    /**
+     * Create a timer with 1 millisecond ticks and a wheel of {@value #DEFAULT_WHEEL_SIZE} buckets.
+     */
+    public HashedWheelTimer(ThreadFactory threadFactory) {
+        this(DEFAULT_TICK_DURATION, TimeUnit.NANOSECONDS, DEFAULT_WHEEL_SIZE, threadFactory);
+    }
+
+    /**
+     * @param tickDuration timer resolution
+     * @param unit time unit of the tick duration
+     * @param wheelSize number of wheel buckets (rounded up to a power of two)
+     * @param threadFactory factory used to create the timer thread
+     */
+    public HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize, ThreadFactory threadFactory) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("Invalid tick duration: " + tickDuration);
+        }
+        if (wheelSize < 1 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid wheel size: " + wheelSize);
+        }
+        int buckets = Integer.highestOneBit(wheelSize);
+        if (buckets < wheelSize) {
+            buckets <<= 1;
+        }
+        this.wheel = new Timeout[buckets];
+        this.mask = buckets - 1;
+        this.tickDuration = unit.toNanos(tickDuration);
+        this.startTime = System.nanoTime();
+        this.thread = threadFactory.newThread(this::run);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public long getTickDuration(TimeUnit unit) {
+        return unit.convert(tickDuration, TimeUnit.NANOSECONDS);
+    }
+
+    public int getWheelSize() {
+        return wheel.length;
+    }
+
+    /**
+     * Get the number of armed timeouts.
+     */
+    public int size() {
+        synchronized (lock) {
+            return size;
+        }
+    }
+
+    /**
+     * Stop the timer thread; armed timeouts are discarded and will not expire.
+     */
+    public void shutdown() {
+        shutdown = true;
+        synchronized (lock) {
+            for (int index = 0; index < wheel.length; index++) {
+                Timeout timeout = wheel[index];
+                while (timeout != null) {
+                    Timeout next = timeout.next;
+                    timeout.prev = timeout.next = null;
+                    timeout.bucket = -1;
+                    timeout = next;
+                }
+                wheel[index] = null;
+            }
+            size = 0;
+        }
+        LockSupport.unpark(thread);
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    private boolean schedule(Timeout timeout, long delay) {
+        if (shutdown) {
+            return false;
+        }
+        // round the deadline up to the next tick boundary (a timeout never expires early)
+        long elapsed = System.nanoTime() - startTime + Math.max(delay, 0);
+        return arm(timeout, (elapsed + tickDuration - 1) / tickDuration, false);
+    }
+
+    private boolean scheduleTicks(Timeout timeout, long ticks) {
+        if (shutdown) {
+            return false;
+        }
+        return arm(timeout, Math.max(ticks, 1), true);
+    }
+
+    private boolean arm(Timeout timeout, long deadline, boolean relative) {
+        boolean wakeup;
+        synchronized (lock) {
+            if (shutdown) {
+                return false;
+            }
+            if (relative) {
+                deadline += tick;
+            }
+            if (timeout.bucket >= 0) {
+                unlink(timeout);
+            }
+            if (deadline <= tick) {
+                deadline = tick + 1;
+            }
+            int bucket = (int) (deadline & mask);
+            timeout.deadline = deadline;
+            timeout.generation++;
+            timeout.bucket = bucket;
+            timeout.prev = null;
+            timeout.next = wheel[bucket];
+            if (wheel[bucket] != null) {
+                wheel[bucket].prev = timeout;
+            }
+            wheel[bucket] = timeout;
+            size++;
+            wakeup = idle;
+            idle = false;
+        }
+        if (wakeup) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    private boolean cancel(Timeout timeout) {
+        synchronized (lock) {
+            if (timeout.bucket < 0) {
+                return false;
+            }
+            unlink(timeout);
+            timeout.generation++;
+            return true;
+        }
+    }
+
+    // must be called while holding the lock
+    private void unlink(Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            wheel[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = timeout.next = null;
+        timeout.bucket = -1;
+        size--;
+    }
+
+    private void run() {
+        while (!shutdown) {
+            Timeout expired = null;
+            long nextTick;
+            synchronized (lock) {
+                long now = (System.nanoTime() - startTime) / tickDuration;
+                if (size == 0) {
+                    // nothing is armed; sleep until the next timeout is scheduled
+                    tick = now;
+                    idle = true;
+                    nextTick = -1;
+                } else {
+                    // visit the bucket of every elapsed tick (at most one full rotation)
+                    long ticks = Math.min(now - tick, wheel.length);
+                    for (long offset = 1; offset <= ticks; offset++) {
+                        int bucket = (int) ((tick + offset) & mask);
+                        Timeout timeout = wheel[bucket];
+                        while (timeout != null) {
+                            Timeout next = timeout.next;
+                            if (timeout.deadline <= now) {
+                                unlink(timeout);
+                                timeout.expiredGeneration = timeout.generation;
+                                timeout.nextExpired = expired;
+                                expired = timeout;
+                            }
+                            timeout = next;
+                        }
+                    }
+                    tick = Math.max(tick, now);
+                    nextTick = tick + 1;
+                }
+            }
+
+            // run the expired timeouts outside of the lock, unless they were re-armed or cancelled meanwhile
+            while (expired != null) {
+                Timeout timeout = expired;
+                expired = timeout.nextExpired;
+                timeout.nextExpired = null;
+                if (timeout.expiredGeneration == timeout.generation) {
+                    try {
+                        timeout.expire();
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+
+            if (nextTick < 0) {
+                LockSupport.park(this);
+            } else {
+                long delay;
+                while (!shutdown && (delay = startTime + nextTick * tickDuration - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(this, delay);
+                }
+            }
+        }
+    }
+}
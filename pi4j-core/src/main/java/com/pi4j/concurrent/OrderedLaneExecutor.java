@@ -0,0 +1,299 @@
+package com.pi4j.concurrent;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  OrderedLaneExecutor.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>
+ * Executes tasks on a fixed number of serial lanes. Each task is submitted with a key (typically
+ * the GPIO pin) and the key is hashed to a lane, so tasks for the same key run one at a time in
+ * submission order while tasks for different keys can run in parallel.
+ * </p>
+ *
+ * <p>
+ * Each lane holds a bounded queue. When a lane is full the configured {@link BackpressurePolicy}
+ * decides what happens to the new task.
+ * </p>
+ */
+public class OrderedLaneExecutor {
+
+    /**
+     * Overflow handling for a full lane.
+     */
+    public enum BackpressurePolicy {
+        /** discard the oldest queued task of the lane to make room for the new task */
+        DROP_OLDEST,
+        /**
+         * replace the most recently queued task with the same key by the new task, so only the
+         * latest state of a key is delivered; falls back to {@link #DROP_OLDEST} if the lane holds
+         * no task for the key
+         */
+        COALESCE,
+        /** block the submitting thread until the lane has room */
+        BLOCK
+    }
+
+    private final Lane[] lanes;
+    private final BackpressurePolicy policy;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean shutdown = false;
+
+    /**
+     * @param laneCount number of serial lanes (and threads)
+     * @param laneCapacity maximum number of queued tasks per lane
+     * @param policy overflow handling for a full lane
+     * @param threadFactory factory used to create the lane threads
+     */
+    public OrderedLaneExecutor(int laneCount, int laneCapacity, BackpressurePolicy policy, ThreadFactory threadFactory) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("Invalid lane count: " + laneCount);
+        }
+        if (laneCapacity < 1) {
+            throw new IllegalArgumentException("Invalid lane capacity: " + laneCapacity);
+        }
+        this.policy = Objects.requireNonNull(policy, "policy");
+        this.lanes = new Lane[laneCount];
+        for (int index = 0; index < laneCount; index++) {
+            lanes[index] = new Lane(laneCapacity);
+            Thread thread = threadFactory.newThread(lanes[index]);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Queue a task on the lane selected by the given key.
+     *
+     * @param key ordering key; tasks with equal keys are executed in submission order
+     * @param task task to execute
+     */
+    public void execute(Object key, Runnable task) {
+        execute(key, task, policy);
+    }
+
+    /**
+     * Queue a task on the lane selected by the given key, handling a full lane with the given
+     * policy instead of the configured one (e.g. a non-blocking policy for timer threads).
+     *
+     * @param key ordering key; tasks with equal keys are executed in submission order
+     * @param task task to execute
+     * @param policy overflow handling for a full lane
+     */
+    public void execute(Object key, Runnable task, BackpressurePolicy policy) {
+        if (shutdown) {
+            return;
+        }
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        lanes[(hash & Integer.MAX_VALUE) % lanes.length].offer(key, task, policy);
+    }
+
+    public BackpressurePolicy getPolicy() {
+        return policy;
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * Get the number of tasks queued on all lanes (not yet executing).
+     */
+    public int getQueuedCount() {
+        int queued = 0;
+        for (Lane lane : lanes) {
+            queued += lane.size();
+        }
+        return queued;
+    }
+
+    /**
+     * Get the number of tasks discarded or coalesced because a lane was full.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Stop all lanes; queued tasks are discarded.
+     */
+    public void shutdown() {
+        shutdown = true;
+        for (Lane lane : lanes) {
+            lane.stop();
+        }
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    private final class Lane implements Runnable {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Condition notFull = lock.newCondition();
+        private final Object[] keys;
+        private final Runnable[] tasks;
+        private int head = 0;
+        private int count = 0;
+        private Thread thread;
+
+        private Lane(int capacity) {
+            this.keys = new Object[capacity];
+            this.tasks = new Runnable[capacity];
+        }
+
+        private void offer(Object key, Runnable task, BackpressurePolicy policy) {
+            lock.lock();
+            try {
+                if (count == tasks.length) {
+                    switch (policy) {
+                        case BLOCK:
+                            while (count == tasks.length && !shutdown) {
+                                try {
+                                    notFull.await();
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                    dropped.incrementAndGet();
+                                    return;
+                                }
+                            }
+                            if (shutdown) {
+                                return;
+                            }
+                            break;
+                        case COALESCE:
+                            // replace the latest pending task of this key, newest first
+                            for (int offset = count - 1; offset >= 0; offset--) {
+                                int index = (head + offset) % tasks.length;
+                                if (key.equals(keys[index])) {
+                                    tasks[index] = task;
+                                    dropped.incrementAndGet();
+                                    return;
+                                }
+                            }
+                            // no pending task for this key; make room like DROP_OLDEST
+                            removeHead();
+                            dropped.incrementAndGet();
+                            break;
+                        case DROP_OLDEST:
+                        default:
+                            removeHead();
+                            dropped.incrementAndGet();
+                            break;
+                    }
+                }
+                int tail = (head + count) % tasks.length;
+                keys[tail] = key;
+                tasks[tail] = task;
+                count++;
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int size() {
+            lock.lock();
+            try {
+                return count;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Runnable removeHead() {
+            Runnable task = tasks[head];
+            keys[head] = null;
+            tasks[head] = null;
+            head = (head + 1) % tasks.length;
+            count--;
+            return task;
+        }
+
+        private void stop() {
+            lock.lock();
+            try {
+                while (count > 0) {
+                    removeHead();
+                }
+                notEmpty.signalAll();
+                notFull.signalAll();
+                if (thread != null) {
+                    thread.interrupt();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            lock.lock();
+            try {
+                thread = Thread.currentThread();
+            } finally {
+                lock.unlock();
+            }
+
+            while (!shutdown) {
+                Runnable task;
+                lock.lock();
+                try {
+                    while (count == 0 && !shutdown) {
+                        notEmpty.await();
+                    }
+                    if (shutdown) {
+                        return;
+                    }
+                    task = removeHead();
+                    notFull.signal();
+                } catch (InterruptedException e) {
+                    return;
+                } finally {
+                    lock.unlock();
+                }
+
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    // keep the lane alive for the following tasks
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}
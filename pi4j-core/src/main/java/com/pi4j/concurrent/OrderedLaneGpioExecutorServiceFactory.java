@@ -0,0 +1,92 @@
+package com.pi4j.concurrent;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  OrderedLaneGpioExecutorServiceFactory.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.metrics.Metrics;
+
+/**
+ * This {@link ExecutorServiceFactory} extends the {@link DefaultExecutorServiceFactory} but dispatches GPIO pin
+ * events on a bounded set of serial lanes (see {@link OrderedLaneExecutor}). Events of the same pin are delivered
+ * in order, events of different pins are delivered in parallel, and a full lane is handled by the configured
+ * {@link OrderedLaneExecutor.BackpressurePolicy}.
+ */
+public class OrderedLaneGpioExecutorServiceFactory extends DefaultExecutorServiceFactory {
+
+    public static final int DEFAULT_LANE_CAPACITY = 1024;
+
+    private final int laneCount;
+    private final int laneCapacity;
+    private final OrderedLaneExecutor.BackpressurePolicy policy;
+    private volatile OrderedLaneExecutor laneExecutor = null;
+
+    /**
+     * Create a factory with one lane per available processor, the default lane capacity and the
+     * {@link OrderedLaneExecutor.BackpressurePolicy#BLOCK} policy (no events are lost).
+     */
+    public OrderedLaneGpioExecutorServiceFactory() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_LANE_CAPACITY, OrderedLaneExecutor.BackpressurePolicy.BLOCK);
+    }
+
+    public OrderedLaneGpioExecutorServiceFactory(OrderedLaneExecutor.BackpressurePolicy policy) {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_LANE_CAPACITY, policy);
+    }
+
+    public OrderedLaneGpioExecutorServiceFactory(int laneCount, int laneCapacity, OrderedLaneExecutor.BackpressurePolicy policy) {
+        this.laneCount = laneCount;
+        this.laneCapacity = laneCapacity;
+        this.policy = policy;
+    }
+
+    @Override
+    public synchronized OrderedLaneExecutor getGpioEventLaneExecutor() {
+        // lanes (and their threads) are only created once the first pin event monitor needs them
+        if (laneExecutor == null || laneExecutor.isShutdown()) {
+            laneExecutor = new OrderedLaneExecutor(laneCount, laneCapacity, policy,
+                    getThreadFactory("pi4j-gpio-event-lane-%d"));
+            if (Metrics.ENABLED) {
+                Metrics.gauge("executor.queued", () -> {
+                    OrderedLaneExecutor lanes = laneExecutor;
+                    return (lanes != null) ? lanes.getQueuedCount() : 0;
+                }, "executor", "gpio-event-lanes");
+                Metrics.gauge("executor.dropped", () -> {
+                    OrderedLaneExecutor lanes = laneExecutor;
+                    return (lanes != null) ? lanes.getDroppedCount() : 0;
+                }, "executor", "gpio-event-lanes");
+            }
+        }
+        return laneExecutor;
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        if (laneExecutor != null) {
+            laneExecutor.shutdown();
+        }
+        super.shutdown();
+    }
+}
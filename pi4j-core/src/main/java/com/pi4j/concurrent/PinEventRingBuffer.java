@@ -0,0 +1,261 @@
+package com.pi4j.concurrent;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  PinEventRingBuffer.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * Preallocated ring buffer of primitive pin event slots (pin, state, timestamp).
+ * </p>
+ *
+ * <p>
+ * The buffer supports a single producer thread (typically the native interrupt reactor) and any
+ * number of consumers. Each consumer owns a {@link Cursor} and sees every published event; the
+ * producer never overwrites a slot that has not been consumed by all open cursors, so when the
+ * buffer is full the producer waits for the slowest consumer rather than dropping edges.
+ * Publishing and consuming events does not allocate.
+ * </p>
+ */
+public class PinEventRingBuffer {
+
+    /**
+     * Callback used to drain events from a {@link Cursor}.
+     */
+    public interface Handler {
+        void onEvent(int pin, boolean state, long timestamp, long sequence);
+    }
+
+    private static final Cursor[] NO_CURSORS = new Cursor[0];
+
+    private final int capacity;
+    private final int mask;
+    private final int[] pins;
+    private final boolean[] states;
+    private final long[] timestamps;
+
+    // highest published sequence number; written only by the producer thread
+    private final AtomicLong published = new AtomicLong(-1);
+
+    // producer local cache of the slowest consumer position
+    private long gatingSequence = -1;
+
+    private volatile Cursor[] cursors = NO_CURSORS;
+
+    /**
+     * Create a new ring buffer.
+     *
+     * @param capacity minimum number of event slots; rounded up to the next power of two
+     */
+    public PinEventRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid ring buffer capacity: " + capacity);
+        }
+        this.capacity = (capacity == 1) ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.pins = new int[this.capacity];
+        this.states = new boolean[this.capacity];
+        this.timestamps = new long[this.capacity];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Get the sequence number of the last published event (-1 if none).
+     */
+    public long getPublishedSequence() {
+        return published.get();
+    }
+
+    /**
+     * <p>
+     * Publish a pin event. This method must only be invoked from a single producer thread.
+     * If the buffer is full, this call waits until every open cursor has consumed enough
+     * events to free a slot.
+     * </p>
+     *
+     * @param pin pin address
+     * @param state new pin state
+     * @param timestamp event time in {@link System#nanoTime()} units
+     * @return the sequence number assigned to this event
+     */
+    public long publish(int pin, boolean state, long timestamp) {
+        long next = published.get() + 1;
+        long wrapPoint = next - capacity;
+
+        // wait for the slowest consumer if this slot has not been consumed yet
+        if (wrapPoint > gatingSequence) {
+            long minimum;
+            int spins = 0;
+            while (wrapPoint > (minimum = minimumSequence(next - 1))) {
+                if (++spins < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                }
+            }
+            gatingSequence = minimum;
+        }
+
+        int index = (int) next & mask;
+        pins[index] = pin;
+        states[index] = state;
+        timestamps[index] = timestamp;
+
+        // volatile store publishes the slot contents and orders the waiter checks below
+        published.set(next);
+
+        // wake any parked consumers
+        for (Cursor cursor : cursors) {
+            Thread waiter = cursor.waiter;
+            if (waiter != null) {
+                LockSupport.unpark(waiter);
+            }
+        }
+        return next;
+    }
+
+    private long minimumSequence(long minimum) {
+        for (Cursor cursor : cursors) {
+            long sequence = cursor.sequence.get();
+            if (sequence < minimum) {
+                minimum = sequence;
+            }
+        }
+        return minimum;
+    }
+
+    /**
+     * Open a new consumer cursor. The cursor starts after the last published event.
+     */
+    public synchronized Cursor openCursor() {
+        Cursor cursor = new Cursor(published.get());
+        Cursor[] updated = new Cursor[cursors.length + 1];
+        System.arraycopy(cursors, 0, updated, 0, cursors.length);
+        updated[cursors.length] = cursor;
+        cursors = updated;
+        return cursor;
+    }
+
+    private synchronized void closeCursor(Cursor cursor) {
+        int count = 0;
+        Cursor[] updated = new Cursor[cursors.length];
+        for (Cursor c : cursors) {
+            if (c != cursor) {
+                updated[count++] = c;
+            }
+        }
+        if (count == cursors.length) {
+            return;
+        }
+        Cursor[] trimmed = new Cursor[count];
+        System.arraycopy(updated, 0, trimmed, 0, count);
+        cursors = count == 0 ? NO_CURSORS : trimmed;
+    }
+
+    /**
+     * <p>
+     * Consumer position in the ring buffer. A cursor must only be drained by one thread at a time.
+     * </p>
+     */
+    public final class Cursor {
+
+        private final AtomicLong sequence;
+        private volatile Thread waiter;
+
+        private Cursor(long sequence) {
+            this.sequence = new AtomicLong(sequence);
+        }
+
+        /**
+         * Get the number of published events not yet consumed by this cursor.
+         */
+        public long available() {
+            return published.get() - sequence.get();
+        }
+
+        /**
+         * Deliver up to {@code maxBatch} pending events to the handler without blocking.
+         *
+         * @return the number of events delivered
+         */
+        public int poll(Handler handler, int maxBatch) {
+            long current = sequence.get();
+            long available = published.get();
+            if (available <= current) {
+                return 0;
+            }
+            long last = Math.min(available, current + maxBatch);
+            for (long seq = current + 1; seq <= last; seq++) {
+                int index = (int) seq & mask;
+                handler.onEvent(pins[index], states[index], timestamps[index], seq);
+            }
+
+            // release the consumed slots back to the producer
+            sequence.lazySet(last);
+            return (int) (last - current);
+        }
+
+        /**
+         * Deliver up to {@code maxBatch} pending events to the handler, waiting until at least
+         * one event is available.
+         *
+         * @return the number of events delivered
+         * @throws InterruptedException if the calling thread is interrupted while waiting
+         */
+        public int take(Handler handler, int maxBatch) throws InterruptedException {
+            int count;
+            while ((count = poll(handler, maxBatch)) == 0) {
+                waiter = Thread.currentThread();
+                try {
+                    // re-check after announcing the waiter so a concurrent publish cannot be missed
+                    if (published.get() <= sequence.get()) {
+                        LockSupport.park(this);
+                    }
+                } finally {
+                    waiter = null;
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Detach this cursor from the ring buffer; the producer no longer waits for it.
+         */
+        public void close() {
+            closeCursor(this);
+        }
+    }
+}
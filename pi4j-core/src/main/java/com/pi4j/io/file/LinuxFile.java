@@ -53,6 +53,11 @@ public class LinuxFile extends RandomAccessFile {
     public static final ThreadLocal<ByteBuffer> localDataBuffer = new ThreadLocal<>();
     public static final ThreadLocal<IntBuffer> localOffsetsBuffer = new ThreadLocal<>();
 
+    /* mmap protection and flags */
+    public static final int PROT_READ = 0x1;
+    public static final int PROT_WRITE = 0x2;
+    public static final int MAP_SHARED = 0x01;
+
     static {
         // Load the platform library
         NativeLibraryLoader.load("libpi4j.so", "pi4j");
@@ -173,6 +178,90 @@ public class LinuxFile extends RandomAccessFile {
         }
     }
 
+    /**
+     * Runs an ioctl on a structure whose 64-bit pointer fields (e.g. the <code>tx_buf</code> and
+     * <code>rx_buf</code> fields of <code>spi_ioc_transfer</code>) refer to other direct buffers,
+     * so the kernel reads and writes those buffers in place without any copy.  The ioctl argument
+     * starts at the position of the data buffer.
+     *
+     * @param command ioctl command
+     * @param data structure data (direct buffer), with 8 byte holes for the pointers
+     * @param buffers direct buffers referenced by the pointers
+     * @param pointers triples of (pointer offset in data, index in buffers, byte offset in that buffer);
+     *                 direct buffer in native byte order, from position to limit
+     * @throws IOException
+     */
+    public void ioctl(final long command, ByteBuffer data, ByteBuffer[] buffers, IntBuffer pointers) throws IOException {
+        ioctl(getFileDescriptor(), command, data, buffers, pointers);
+    }
+
+    /**
+     * Runs an ioctl with pointers to direct buffers (see {@link #ioctl(long, ByteBuffer, ByteBuffer[], IntBuffer)})
+     * on a POSIX file descriptor opened elsewhere (e.g. by the wiringPi SPI setup).
+     *
+     * @param fd POSIX file descriptor
+     * @param command ioctl command
+     * @param data structure data (direct buffer), with 8 byte holes for the pointers
+     * @param buffers direct buffers referenced by the pointers
+     * @param pointers triples of (pointer offset in data, index in buffers, byte offset in that buffer);
+     *                 direct buffer in native byte order, from position to limit
+     * @throws IOException
+     */
+    public static void ioctl(final int fd, final long command, ByteBuffer data, ByteBuffer[] buffers, IntBuffer pointers) throws IOException {
+        if(data == null || buffers == null || pointers == null)
+            throw new NullPointerException("data, buffers and pointers required!");
+
+        if(!data.isDirect() || !pointers.isDirect())
+            throw new IllegalArgumentException("data and pointers buffers must be direct!");
+
+        if(pointers.order() != ByteOrder.nativeOrder())
+            throw new IllegalArgumentException("provided IntBuffer pointers ByteOrder must be native!");
+
+        if((pointers.remaining() % 3) != 0)
+            throw new IllegalArgumentException("pointer buffer length must be a multiple of 3!");
+
+        for(int i = pointers.position() ; i < pointers.limit() ; i += 3) {
+            final int ptrOffset = pointers.get(i);
+            final int index = pointers.get(i + 1);
+            final int offset = pointers.get(i + 2);
+
+            if((ptrOffset + 8) > data.capacity() || ptrOffset < 0)
+                throw new IndexOutOfBoundsException("invalid pointer offset specified in buffer: " + ptrOffset);
+
+            if(index < 0 || index >= buffers.length || buffers[index] == null || !buffers[index].isDirect())
+                throw new IllegalArgumentException("invalid buffer specified for pointer: " + index);
+
+            if(offset < 0 || offset > buffers[index].capacity())
+                throw new IndexOutOfBoundsException("invalid buffer offset specified in buffer: " + offset);
+        }
+
+        final int response = directIOCTLBuffers(fd, command, data, data.position(),
+                buffers, pointers, pointers.position(), pointers.remaining() / 3);
+
+        if(response < 0)
+            throw new LinuxFileException();
+    }
+
+    /**
+     * Maps a region of this file (shared, read/write) into memory.  Unlike
+     * {@link java.nio.channels.FileChannel#map} this also works for character devices
+     * such as '/dev/gpiomem' that do not report a file size.  The mapping stays valid
+     * after this file is closed, until the process exits.
+     *
+     * @param length number of bytes to map
+     * @param offset file offset (multiple of the page size)
+     * @return direct buffer (native byte order) accessing the mapped memory
+     * @throws IOException
+     */
+    public ByteBuffer mmap(int length, int offset) throws IOException {
+        final ByteBuffer buffer = mmapBuffer(getFileDescriptor(), length, PROT_READ | PROT_WRITE, MAP_SHARED, offset);
+
+        if(buffer == null)
+            throw new LinuxFileException();
+
+        return buffer.order(ByteOrder.nativeOrder());
+    }
+
     /**
      * Gets the real POSIX file descriptor for use by custom jni calls.
      */
@@ -272,5 +361,9 @@ public class LinuxFile extends RandomAccessFile {
 
     protected static native int directIOCTLStructure(int fd, long command, ByteBuffer data, int dataOffset, IntBuffer offsetMap, int offsetMapOffset, int offsetCapacity);
 
+    protected static native int directIOCTLBuffers(int fd, long command, ByteBuffer data, int dataOffset, ByteBuffer[] buffers, IntBuffer pointerMap, int pointerMapOffset, int pointerCount);
+
     protected static native int getPosixFD(FileDescriptor fileDescriptor);
+
+    protected static native ByteBuffer mmapBuffer(int fd, int length, int prot, int flags, int offset);
 }
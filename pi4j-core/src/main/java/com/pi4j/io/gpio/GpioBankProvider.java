@@ -0,0 +1,128 @@
+package com.pi4j.io.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioBankProvider.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.exception.InvalidPinException;
+
+import java.util.BitSet;
+
+/**
+ * <p>
+ * Optional capability of a {@link GpioProvider} whose pins are organized in register banks
+ * of up to 32 pins that can be written with a single operation.  {@link GpioPinGroup}
+ * instances precompute the bank masks of their pins and use this interface to change
+ * all outputs of a bank at once; for providers without this capability the group falls
+ * back to setting the pins one by one.  Likewise {@link #getStates(Pin...)} reads each bank
+ * only once.
+ * </p>
+ */
+public interface GpioBankProvider extends GpioProvider {
+
+    /**
+     * @return number of register banks
+     */
+    int getBankCount();
+
+    /**
+     * Get the register bank of a pin.
+     *
+     * @param pin pin
+     * @return bank index
+     */
+    int getBank(Pin pin);
+
+    /**
+     * Get the bit of a pin within its register bank.
+     *
+     * @param pin pin
+     * @return bit index (0-31)
+     */
+    int getBankBit(Pin pin);
+
+    /**
+     * Drive the outputs of a bank.  Pins set in <code>highMask</code> are driven high, pins
+     * set in <code>lowMask</code> are driven low; all other pins are left unchanged.  The
+     * pins must have been exported as digital outputs.
+     *
+     * @param bank bank index
+     * @param highMask bit mask of pins to drive high
+     * @param lowMask bit mask of pins to drive low
+     * @throws com.pi4j.io.gpio.exception.InvalidPinModeException thrown if a pin is not a digital output
+     */
+    void setBankState(int bank, int highMask, int lowMask);
+
+    /**
+     * Read the levels of all pins of a bank in a single operation.
+     *
+     * @param bank bank index
+     * @return level bit mask; bit <code>n</code> holds the level of the pin at bank bit <code>n</code>
+     */
+    int readBank(int bank);
+
+    @Override
+    default long getStates(Pin... pin) {
+        if (pin.length > Long.SIZE) {
+            throw new IllegalArgumentException("Too many pins for a long state value: " + pin.length);
+        }
+        int[] levels = readBanks(pin);
+        long states = 0;
+        for (int i = 0; i < pin.length; i++) {
+            if ((levels[getBank(pin[i])] & (1 << getBankBit(pin[i]))) != 0) {
+                states |= (1L << i);
+            }
+        }
+        return states;
+    }
+
+    @Override
+    default void getStates(BitSet states, Pin... pin) {
+        int[] levels = readBanks(pin);
+        for (int i = 0; i < pin.length; i++) {
+            states.set(i, (levels[getBank(pin[i])] & (1 << getBankBit(pin[i]))) != 0);
+        }
+    }
+
+    /**
+     * Read each bank used by the pins once (unused banks are left zero).
+     */
+    private int[] readBanks(Pin... pin) {
+        int[] levels = new int[getBankCount()];
+        boolean[] read = new boolean[levels.length];
+        for (Pin p : pin) {
+            if (!hasPin(p)) {
+                throw new InvalidPinException(p);
+            }
+            int bank = getBank(p);
+            if (!read[bank]) {
+                levels[bank] = readBank(bank);
+                read[bank] = true;
+            }
+        }
+        return levels;
+    }
+}
@@ -0,0 +1,411 @@
+package com.pi4j.io.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioChipGpioProvider.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.file.LinuxFile;
+import com.pi4j.io.gpio.event.PinListener;
+import com.pi4j.io.gpio.exception.InvalidPinModeException;
+import com.pi4j.jni.GpioChip;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>
+ * {@link GpioProvider} implementation backed by the Linux GPIO character device
+ * (<code>/dev/gpiochipN</code>).  Each exported pin is requested as a GPIO line and edges on
+ * monitored input lines are captured by the kernel, so the {@link com.pi4j.io.gpio.event.PinDigitalStateChangeEvent}
+ * instances raised by this provider carry the kernel timestamp and sequence number of the edge.
+ * </p>
+ *
+ * <p>
+ * Edge detection is only enabled on input lines with listeners.  A single dedicated event thread
+ * waits on all monitored lines and reads pending edge events in batches.  Use the pins defined by
+ * {@link GpioChipPin} with this provider.
+ * </p>
+ */
+public class GpioChipGpioProvider extends GpioProviderBase implements GpioProvider {
+
+    private static final Logger logger = Logger.getLogger(GpioChipGpioProvider.class.getCanonicalName());
+
+    public static final String NAME = "Linux GPIO Character Device Provider";
+    public static final String CONSUMER = "pi4j";
+
+    // maximum number of edge events read from the kernel in one batch
+    protected static final int EVENT_BATCH_SIZE = 64;
+
+    // wait timeout of the event thread; used to observe shutdown
+    protected static final int EVENT_WAIT_TIMEOUT = 1000;
+
+    protected final String device;
+    protected final int chipFd;
+
+    // requested line file descriptors (by line offset)
+    protected final Map<Integer, Integer> lines = new ConcurrentHashMap<>();
+
+    // lines currently registered with the event set (by line offset)
+    protected final Map<Integer, Pin> monitoredPins = new ConcurrentHashMap<>();
+
+    private int eventSetFd = -1;
+    private volatile Thread eventThread;
+
+    /**
+     * Default Constructor; uses the first GPIO chip device.
+     */
+    public GpioChipGpioProvider() {
+        this(GpioChip.DEFAULT_DEVICE);
+    }
+
+    /**
+     * Alternate Constructor allowing user to select the GPIO chip device
+     *
+     * @param device the GPIO chip device path (i.e. '/dev/gpiochip0')
+     */
+    public GpioChipGpioProvider(String device) {
+        this.device = device;
+        this.chipFd = GpioChip.open(device);
+        if (chipFd < 0) {
+            throw new RuntimeException("Unable to open GPIO chip [" + device + "]; " + LinuxFile.strerror(-chipFd));
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Get the GPIO chip device path used by this provider.
+     *
+     * @return the GPIO chip device path
+     */
+    public String getDevice() {
+        return device;
+    }
+
+    @Override
+    public void export(Pin pin, PinMode mode, PinState defaultState) {
+        super.export(pin, mode);
+
+        // request the line or reconfigure an already requested line
+        int initialValue = (defaultState != null && mode == PinMode.DIGITAL_OUTPUT) ? defaultState.getValue() : -1;
+        configureLine(pin, mode, getPinCache(pin).getResistance(), initialValue);
+
+        // cache the default state for output pins
+        if (initialValue >= 0) {
+            getPinCache(pin).setState(defaultState);
+        }
+    }
+
+    @Override
+    public void export(Pin pin, PinMode mode) {
+        export(pin, mode, null);
+    }
+
+    @Override
+    public void unexport(Pin pin) {
+        super.unexport(pin);
+
+        // release the line
+        stopMonitoring(pin);
+        Integer lineFd = lines.remove(pin.getAddress());
+        if (lineFd != null) {
+            GpioChip.close(lineFd);
+        }
+    }
+
+    @Override
+    public void setMode(Pin pin, PinMode mode) {
+        super.setMode(pin, mode);
+
+        // reconfigure the line direction when the line is already requested
+        if (lines.containsKey(pin.getAddress())) {
+            configureLine(pin, mode, getPinCache(pin).getResistance(), getOutputValue(pin, mode));
+            updateMonitoring(pin);
+        }
+    }
+
+    @Override
+    public void setPullResistance(Pin pin, PinPullResistance resistance) {
+        super.setPullResistance(pin, resistance);
+
+        // reconfigure the line bias when the line is already requested
+        if (lines.containsKey(pin.getAddress())) {
+            configureLine(pin, getMode(pin), resistance, getOutputValue(pin, getMode(pin)));
+        }
+    }
+
+    @Override
+    public void setState(Pin pin, PinState state) {
+        // only permit invocation on pins set to DIGITAL_OUTPUT modes
+        GpioProviderPinCache pinCache = getValidPinCache(pin);
+        PinMode mode = pinCache.getMode();
+        if (mode != PinMode.DIGITAL_OUTPUT) {
+            throw new InvalidPinModeException(pin, "Invalid pin mode on pin [" + pin.getName() + "]; cannot setState() when pin mode is [" + mode.getName() + "]");
+        }
+
+        // control GPIO line
+        int ret = GpioChip.setValue(getLine(pin), state.getValue());
+        if (ret < 0) {
+            throw new RuntimeException("Unable to set GPIO line [" + pin.getAddress() + "] on [" + device + "]; " + LinuxFile.strerror(-ret));
+        }
+
+        // echo the event feedback and cache pin state
+        dispatchPinDigitalStateChangeEvent(pin, state);
+        pinCache.setState(state);
+    }
+
+    @Override
+    public PinState getState(Pin pin) {
+        // validate the pin and the pin mode
+        super.getState(pin);
+
+        // read GPIO line
+        int ret = GpioChip.getValue(getLine(pin));
+        if (ret < 0) {
+            throw new RuntimeException("Unable to read GPIO line [" + pin.getAddress() + "] on [" + device + "]; " + LinuxFile.strerror(-ret));
+        }
+        return PinState.getState(ret);
+    }
+
+    @Override
+    public void addListener(Pin pin, PinListener listener) {
+        super.addListener(pin, listener);
+
+        // register the line with the event thread
+        updateMonitoring(pin);
+    }
+
+    @Override
+    public void removeListener(Pin pin, PinListener listener) {
+        super.removeListener(pin, listener);
+
+        // unregister the line from the event thread
+        updateMonitoring(pin);
+    }
+
+    @Override
+    public void shutdown() {
+
+        // prevent reentrant invocation
+        if (isShutdown())
+            return;
+
+        // perform shutdown logic in base
+        super.shutdown();
+
+        // stop the event thread; the event thread releases the event set when it exits
+        synchronized (this) {
+            if (eventThread == null && eventSetFd >= 0) {
+                GpioChip.close(eventSetFd);
+            }
+            eventThread = null;
+            eventSetFd = -1;
+            monitoredPins.clear();
+        }
+
+        // release all lines and the chip
+        for (Integer lineFd : lines.values()) {
+            GpioChip.close(lineFd);
+        }
+        lines.clear();
+        GpioChip.close(chipFd);
+    }
+
+    protected int getLine(Pin pin) {
+        Integer lineFd = lines.get(pin.getAddress());
+        if (lineFd == null) {
+            throw new InvalidPinModeException(pin, "GPIO line [" + pin.getAddress() + "] on [" + device + "] has not been exported.");
+        }
+        return lineFd;
+    }
+
+    protected long getLineFlags(PinMode mode, PinPullResistance resistance, boolean edges) {
+        long flags;
+        if (mode == PinMode.DIGITAL_OUTPUT) {
+            flags = GpioChip.LINE_FLAG_OUTPUT;
+        } else {
+            // only monitored input lines detect edges (the kernel does not queue events otherwise)
+            flags = GpioChip.LINE_FLAG_INPUT;
+            if (edges) {
+                flags |= GpioChip.LINE_FLAG_EDGE_RISING | GpioChip.LINE_FLAG_EDGE_FALLING;
+            }
+        }
+
+        if (resistance == PinPullResistance.PULL_UP) {
+            flags |= GpioChip.LINE_FLAG_BIAS_PULL_UP;
+        } else if (resistance == PinPullResistance.PULL_DOWN) {
+            flags |= GpioChip.LINE_FLAG_BIAS_PULL_DOWN;
+        }
+        return flags;
+    }
+
+    /**
+     * Get the value an output line keeps when it is reconfigured (the cached pin state), since
+     * reconfiguring a line without a value drives an output line low.
+     */
+    protected int getOutputValue(Pin pin, PinMode mode) {
+        PinState state = getPinCache(pin).getState();
+        return (mode == PinMode.DIGITAL_OUTPUT && state != null) ? state.getValue() : -1;
+    }
+
+    protected synchronized void configureLine(Pin pin, PinMode mode, PinPullResistance resistance, int initialValue) {
+        long flags = getLineFlags(mode, resistance, monitoredPins.containsKey(pin.getAddress()));
+        Integer lineFd = lines.get(pin.getAddress());
+        int ret;
+        if (lineFd == null) {
+            ret = GpioChip.requestLine(chipFd, pin.getAddress(), flags, 0, initialValue, CONSUMER);
+            if (ret >= 0) {
+                lines.put(pin.getAddress(), ret);
+            }
+        } else {
+            ret = GpioChip.setLineConfig(lineFd, flags, 0, initialValue);
+        }
+
+        if (ret < 0) {
+            throw new RuntimeException("Unable to configure GPIO line [" + pin.getAddress() + "] on [" + device + "]; " + LinuxFile.strerror(-ret));
+        }
+    }
+
+    protected synchronized void updateMonitoring(Pin pin) {
+        boolean hasListeners = listeners.containsKey(pin) && !listeners.get(pin).isEmpty();
+        if (hasListeners && getPinCache(pin).getMode() == PinMode.DIGITAL_INPUT && lines.containsKey(pin.getAddress())) {
+            startMonitoring(pin);
+        } else {
+            stopMonitoring(pin);
+        }
+    }
+
+    protected synchronized void startMonitoring(Pin pin) {
+        if (monitoredPins.containsKey(pin.getAddress())) {
+            return;
+        }
+
+        // lazily create the event set and the event thread
+        if (eventSetFd < 0) {
+            eventSetFd = GpioChip.createEventSet();
+            if (eventSetFd < 0) {
+                int error = -eventSetFd;
+                eventSetFd = -1;
+                throw new RuntimeException("Unable to create GPIO event set; " + LinuxFile.strerror(error));
+            }
+        }
+
+        // enable edge detection on the line before its events are read
+        int lineFd = getLine(pin);
+        int ret = setLineEdges(pin, lineFd, true);
+        if (ret >= 0) {
+            ret = GpioChip.addEventSource(eventSetFd, lineFd);
+            if (ret < 0) {
+                setLineEdges(pin, lineFd, false);
+            }
+        }
+        if (ret < 0) {
+            throw new RuntimeException("Unable to monitor GPIO line [" + pin.getAddress() + "] on [" + device + "]; " + LinuxFile.strerror(-ret));
+        }
+        monitoredPins.put(pin.getAddress(), pin);
+
+        if (eventThread == null) {
+            final int setFd = eventSetFd;
+            Thread thread = new Thread(() -> handleEvents(setFd), "pi4j-gpiochip-event-" + device.substring(device.lastIndexOf('/') + 1));
+            thread.setDaemon(true);
+            eventThread = thread;
+            thread.start();
+        }
+    }
+
+    protected synchronized void stopMonitoring(Pin pin) {
+        if (monitoredPins.remove(pin.getAddress()) != null) {
+            Integer lineFd = lines.get(pin.getAddress());
+            if (lineFd != null) {
+                if (eventSetFd >= 0) {
+                    GpioChip.removeEventSource(eventSetFd, lineFd);
+                }
+                setLineEdges(pin, lineFd, false);
+            }
+        }
+    }
+
+    // reconfigure the edge detection of a requested input line (output lines have none)
+    private int setLineEdges(Pin pin, int lineFd, boolean edges) {
+        GpioProviderPinCache pinCache = getPinCache(pin);
+        if (pinCache.getMode() != PinMode.DIGITAL_INPUT) {
+            return 0;
+        }
+        return GpioChip.setLineConfig(lineFd, getLineFlags(PinMode.DIGITAL_INPUT, pinCache.getResistance(), edges), 0, -1);
+    }
+
+    private void handleEvents(int setFd) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(GpioChip.EVENT_SIZE * EVENT_BATCH_SIZE).order(ByteOrder.nativeOrder());
+
+        try {
+            // run until shutdown or until a failed read replaced this thread
+            while (eventThread == Thread.currentThread()) {
+                int count = GpioChip.readEvents(setFd, buffer, EVENT_WAIT_TIMEOUT);
+                if (count < 0) {
+                    // stop this event thread (the event set is closed below) so monitoring can restart
+                    synchronized (this) {
+                        if (eventThread == Thread.currentThread()) {
+                            eventThread = null;
+                            eventSetFd = -1;
+                            for (Pin pin : monitoredPins.values()) {
+                                Integer lineFd = lines.get(pin.getAddress());
+                                if (lineFd != null) {
+                                    setLineEdges(pin, lineFd, false);
+                                }
+                            }
+                            monitoredPins.clear();
+                        }
+                    }
+                    logger.log(Level.SEVERE, "Unable to read GPIO events from [" + device + "]; " + LinuxFile.strerror(-count));
+                    return;
+                }
+
+                // decode the batch of 'gpio_v2_line_event' records
+                for (int index = 0; index < count; index++) {
+                    int base = index * GpioChip.EVENT_SIZE;
+                    Pin pin = monitoredPins.get(buffer.getInt(base + GpioChip.EVENT_LINE_OFFSET));
+                    if (pin == null) {
+                        continue;
+                    }
+                    long timestamp = buffer.getLong(base + GpioChip.EVENT_TIMESTAMP_OFFSET);
+                    long sequence = buffer.getInt(base + GpioChip.EVENT_LINE_SEQNO_OFFSET) & 0xFFFFFFFFL;
+                    PinState state = (buffer.getInt(base + GpioChip.EVENT_ID_OFFSET) == GpioChip.EVENT_RISING_EDGE) ? PinState.HIGH : PinState.LOW;
+                    dispatchPinDigitalStateChangeEvent(pin, state, timestamp, sequence);
+                }
+            }
+        } finally {
+            // the event thread owns its event set; release it whenever the thread exits
+            GpioChip.close(setFd);
+        }
+    }
+}
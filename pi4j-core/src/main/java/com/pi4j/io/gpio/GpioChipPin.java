@@ -0,0 +1,74 @@
+package com.pi4j.io.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioChipPin.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.EnumSet;
+
+/**
+ * Pin definitions for the lines of a Linux GPIO character device ({@link GpioChipGpioProvider}).
+ * The pin address is the line offset on the GPIO chip.
+ */
+public class GpioChipPin extends PinProvider {
+
+    /**
+     * Get the pin instance for a GPIO chip line offset.
+     *
+     * @param offset line offset on the GPIO chip
+     * @return pin instance for the line
+     */
+    public static synchronized Pin getLine(int offset) {
+        String name = "LINE " + offset;
+        Pin pin = PinProvider.getPinByName(name);
+        if (pin == null) {
+            pin = createPin(GpioChipGpioProvider.NAME, offset, name,
+                    EnumSet.of(PinMode.DIGITAL_INPUT, PinMode.DIGITAL_OUTPUT),
+                    PinPullResistance.all(),
+                    EnumSet.allOf(PinEdge.class));
+        }
+        return pin;
+    }
+
+    // *override* static method from subclass
+    // (overriding a static method is not supported in Java
+    //  so this method definition will hide the subclass static method)
+    public static Pin getPinByName(String name) {
+        return PinProvider.getPinByName(name);
+    }
+
+    // *override* static method from subclass
+    // (overriding a static method is not supported in Java
+    //  so this method definition will hide the subclass static method)
+    public static Pin getPinByAddress(int address) {
+        return PinProvider.getPinByAddress(address);
+    }
+
+    // *override* static method from subclass
+    // (overriding a static method is not supported in Java
+    //  so this method definition will hide the subclass static method)
+    public static Pin[] allPins() { return PinProvider.allPins(); }
+}
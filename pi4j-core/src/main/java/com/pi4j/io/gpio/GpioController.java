@@ -30,6 +30,7 @@ package com.pi4j.io.gpio;
 import com.pi4j.io.gpio.event.GpioPinListener;
 import com.pi4j.io.gpio.trigger.GpioTrigger;
 
+import java.util.BitSet;
 import java.util.Collection;
 
 /**
@@ -87,9 +88,55 @@ public interface GpioController {
     boolean isState(PinState state, GpioPinDigital... pin);
     PinState getState(GpioPinDigital pin);
 
+    /**
+     * Read the state of up to 64 provisioned digital pins.  Pins of a {@link GpioBankProvider}
+     * are read with a single operation per register bank.
+     *
+     * @param pin provisioned digital pins
+     * @return bit value; bit <code>n</code> is set if <code>pin[n]</code> is high
+     */
+    long getStates(GpioPinDigital... pin);
+
+    /**
+     * Read the state of provisioned digital pins into a caller supplied bit set.
+     *
+     * @param states bit set receiving the states; bit <code>n</code> is set if <code>pin[n]</code> is high
+     * @param pin provisioned digital pins
+     */
+    void getStates(BitSet states, GpioPinDigital... pin);
+
     void toggle(GpioPinDigitalOutput... pin);
     void pulse(long milliseconds, GpioPinDigitalOutput... pin);
 
+    /**
+     * Create a group of provisioned digital output pins that are written together.
+     *
+     * @param pin provisioned output pins; the n-th pin is driven by bit n of the group value
+     * @return pin group
+     */
+    GpioPinGroup createPinGroup(GpioPinDigitalOutput... pin);
+
+    /**
+     * Create an edge counter for a provisioned digital input pin.  Edges are counted by the
+     * provider if it implements {@link GpioEdgeCounterProvider}, else from the pin state change events.
+     *
+     * @param pin provisioned input pin
+     * @param edge edges to count (both, rising or falling)
+     * @return edge counter; close it to stop counting
+     */
+    GpioEdgeCounter createEdgeCounter(GpioPinDigitalInput pin, PinEdge edge);
+
+    /**
+     * Create a quadrature encoder decoder for two provisioned digital input pins.  The transitions
+     * are decoded by the provider if it implements {@link GpioQuadratureEncoderProvider}, else from
+     * the pin state change events.
+     *
+     * @param pinA provisioned input pin of channel A
+     * @param pinB provisioned input pin of channel B
+     * @return quadrature encoder; close it to stop decoding
+     */
+    GpioQuadratureEncoder createQuadratureEncoder(GpioPinDigitalInput pinA, GpioPinDigitalInput pinB);
+
     void setValue(double value, GpioPinAnalogOutput... pin);
     double getValue(GpioPinAnalog pin);
 
@@ -178,6 +225,7 @@ public interface GpioController {
 
     Collection<GpioPin> getProvisionedPins();
     GpioPin getProvisionedPin(Pin pin);
+    GpioPin getProvisionedPin(GpioProvider provider, Pin pin);
     GpioPin getProvisionedPin(String name);
 
     void unprovisionPin(GpioPin... pin);
@@ -0,0 +1,113 @@
+package com.pi4j.io.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioEdgeCounter.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.event.GpioEdgeCounterListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Counts the edges of a digital input pin and measures the period and frequency of the signal,
+ * for flow meters, anemometers, tachometers and other pulse sources.  Providers implementing
+ * {@link GpioEdgeCounterProvider} count the edges where they are captured, so no event crosses
+ * into Java per edge; all values are read lock-free.
+ * </p>
+ *
+ * <p>
+ * Listeners receive a periodic summary {@link com.pi4j.io.gpio.event.GpioEdgeCounterEvent} instead
+ * of an event per edge (see {@link #setSummaryInterval(long, TimeUnit)}).
+ * </p>
+ *
+ * <p>
+ * The sysfs interrupts used by the WiringPi providers coalesce the edges that arrive before a pin
+ * notification has been handled: a notification without a state change is counted as one pulse
+ * (a rising and a falling edge) and any further coalesced pulses are lost.  Counts are exact for
+ * signals up to a few kHz; faster signals are under-counted.
+ * </p>
+ */
+public interface GpioEdgeCounter {
+
+    GpioPinDigitalInput getPin();
+
+    /**
+     * @return the counted edges (both, rising or falling)
+     */
+    PinEdge getEdge();
+
+    /**
+     * @return number of edges counted since the counter was created or reset
+     */
+    long getCount();
+
+    /**
+     * Restart counting from zero.
+     */
+    void reset();
+
+    /**
+     * @return monotonic timestamp ({@link System#nanoTime()} units) of the last counted edge;
+     *         0 if no edge has been counted
+     */
+    long getLastEdgeTime();
+
+    /**
+     * Get the period of the signal, measured between the last counted edges.  Once the signal slows
+     * down or stops, the time elapsed since the last edge is reported instead.
+     *
+     * @param unit time unit of the period
+     * @return signal period; 0 if fewer than two edges have been counted
+     */
+    long getPeriod(TimeUnit unit);
+
+    /**
+     * Get the frequency of the signal, measured between the last counted edges.  When both edges
+     * are counted a signal period spans two edges (count a single edge for signals whose duty
+     * cycle is not 50%).
+     *
+     * @return frequency in Hz; 0 if fewer than two edges have been counted
+     */
+    double getFrequency();
+
+    /**
+     * Set the interval of the summary events delivered to the listeners.
+     *
+     * @param interval summary interval; 0 disables the summary events
+     * @param unit time unit of the interval
+     */
+    void setSummaryInterval(long interval, TimeUnit unit);
+
+    void addListener(GpioEdgeCounterListener listener);
+
+    void removeListener(GpioEdgeCounterListener listener);
+
+    /**
+     * Stop counting and stop the summary events.
+     */
+    void close();
+}
@@ -0,0 +1,78 @@
+package com.pi4j.io.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioEdgeCounterProvider.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * Optional capability of a {@link GpioProvider} that counts the edges of an input pin where the
+ * edges are captured (for example in the native interrupt reactor) instead of raising an event per
+ * edge.  {@link GpioEdgeCounter} instances use this interface when available; for other providers
+ * the edges are counted from the pin state change events.
+ * </p>
+ *
+ * <p>
+ * The counters are written into a block of 64-bit slots in native byte order.  The block is
+ * updated under a sequence lock: {@link #COUNTER_SEQUENCE} is odd while an update is in progress
+ * and is incremented again once the update is complete.
+ * </p>
+ */
+public interface GpioEdgeCounterProvider extends GpioProvider {
+
+    /** sequence lock slot */
+    int COUNTER_SEQUENCE = 0;
+    /** number of counted edges */
+    int COUNTER_COUNT = 1;
+    /** monotonic timestamp (nanoseconds) of the first counted edge */
+    int COUNTER_FIRST_EDGE = 2;
+    /** monotonic timestamp (nanoseconds) of the last counted edge */
+    int COUNTER_LAST_EDGE = 3;
+    /** time (nanoseconds) between the last two counted edges */
+    int COUNTER_PERIOD = 4;
+
+    /** size of the counter block in bytes */
+    int COUNTER_BLOCK_SIZE = 5 * Long.BYTES;
+
+    /**
+     * Start counting the edges of an input pin.
+     *
+     * @param pin input pin
+     * @param edge edges to count (both, rising or falling)
+     * @param counters aligned direct buffer of at least {@link #COUNTER_BLOCK_SIZE} bytes; it stays
+     *                 referenced by the caller until the counter is disabled
+     */
+    void enableEdgeCounter(Pin pin, PinEdge edge, ByteBuffer counters);
+
+    /**
+     * Stop counting the edges of an input pin.
+     *
+     * @param pin input pin
+     */
+    void disableEdgeCounter(Pin pin);
+}
@@ -66,4 +66,36 @@ public interface GpioPinDigitalInput extends GpioPinDigital, GpioPinInput {
      * @param state The pin states to apply the debounce delay interval to.
      */
     void setDebounce(int debounce, PinState ... state);
+
+    /**
+     * Sets the debounce interval (in milliseconds) for all pin states and the debounce filter.
+     *
+     * @param debounce The debounce interval in milliseconds.
+     * @param filter The debounce filter.
+     */
+    default void setDebounce(int debounce, PinDebounceFilter filter) {
+        setDebounceFilter(filter);
+        setDebounce(debounce);
+    }
+
+    /**
+     * Gets the debounce filter applied to the pin state change events (default: {@link PinDebounceFilter#DELAY}).
+     *
+     * @return the debounce filter.
+     */
+    default PinDebounceFilter getDebounceFilter() {
+        return PinDebounceFilter.DELAY;
+    }
+
+    /**
+     * Sets the debounce filter applied to the pin state change events.  Implementations that only
+     * support the {@link PinDebounceFilter#DELAY} filter reject other filters.
+     *
+     * @param filter The debounce filter.
+     */
+    default void setDebounceFilter(PinDebounceFilter filter) {
+        if (filter != PinDebounceFilter.DELAY) {
+            throw new UnsupportedOperationException("Debounce filter not supported: " + filter);
+        }
+    }
 }
@@ -0,0 +1,72 @@
+package com.pi4j.io.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioPinGroup.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.List;
+
+/**
+ * <p>
+ * Fixed, ordered group of digital output pins that are written together.  Bit <code>n</code>
+ * of a written value drives the <code>n</code>-th pin of the group.  When all pins belong to
+ * a {@link GpioBankProvider}, the outputs of each register bank change with a single write;
+ * otherwise the pins are set one by one.
+ * </p>
+ */
+public interface GpioPinGroup {
+
+    /** maximum number of pins in a group */
+    int MAX_PINS = 64;
+
+    List<GpioPinDigitalOutput> getPins();
+    int size();
+
+    /**
+     * @return 'true' if the pins of this group are written per register bank
+     */
+    boolean isBanked();
+
+    /**
+     * Write a value to the group; bit <code>n</code> drives the <code>n</code>-th pin.
+     *
+     * @param value bit value
+     */
+    void write(long value);
+
+    /**
+     * Read the current state of the group pins as a bit value.
+     *
+     * @return bit value; bit <code>n</code> holds the state of the <code>n</code>-th pin
+     */
+    long read();
+
+    void high();
+    void low();
+    void toggle();
+    void setState(PinState state);
+    void setState(boolean state);
+}
@@ -2,6 +2,8 @@ package com.pi4j.io.gpio;
 
 import com.pi4j.io.gpio.event.PinListener;
 
+import java.util.BitSet;
+
 /*
  * #%L
  * **********************************************************************
@@ -56,6 +58,38 @@ public interface GpioProvider {
     void setState(Pin pin, PinState state);
     PinState getState(Pin pin);
 
+    /**
+     * Read the state of up to 64 digital pins.  Providers organized in register banks
+     * ({@link GpioBankProvider}) read each bank once; others read the pins one by one.
+     *
+     * @param pin digital pins
+     * @return bit value; bit <code>n</code> is set if <code>pin[n]</code> is high
+     */
+    default long getStates(Pin... pin) {
+        if (pin.length > Long.SIZE) {
+            throw new IllegalArgumentException("Too many pins for a long state value: " + pin.length);
+        }
+        long states = 0;
+        for (int i = 0; i < pin.length; i++) {
+            if (getState(pin[i]) == PinState.HIGH) {
+                states |= (1L << i);
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Read the state of multiple digital pins into a caller supplied bit set.
+     *
+     * @param states bit set receiving the states; bit <code>n</code> is set if <code>pin[n]</code> is high
+     * @param pin digital pins
+     */
+    default void getStates(BitSet states, Pin... pin) {
+        for (int i = 0; i < pin.length; i++) {
+            states.set(i, getState(pin[i]) == PinState.HIGH);
+        }
+    }
+
     void setValue(Pin pin, double value);
     double getValue(Pin pin);
 
@@ -41,6 +41,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Abstract base implementation of {@link com.pi4j.io.gpio.GpioProvider}.
@@ -60,16 +61,55 @@ public abstract class GpioProviderBase implements GpioProvider {
     // support up to pin address 100 by default.
     // (dynamically expand array to accommodate cases where the pin addresses
     //  may be higher than the default allocation capacity of 100.)
-    protected GpioProviderPinCache[] cache = new GpioProviderPinCache[DEFAULT_CACHE_SIZE];
+    protected volatile GpioProviderPinCache[] cache = new GpioProviderPinCache[DEFAULT_CACHE_SIZE];
 
     protected boolean isshutdown = false;
 
     @Override
     public boolean hasPin(Pin pin) {
-        return (pin.getProvider().equals(getName()));
+        // provider names are usually the same constant instance; avoid comparing characters
+        String provider = pin.getProvider();
+        String name = getName();
+        return (provider == name || provider.equals(name));
+    }
+
+    /**
+     * Get the cache entry of a pin that belongs to this provider.  Once a cache entry exists
+     * for the pin instance, no further validation (provider name comparison) is performed,
+     * so this method does not allocate in the steady state.
+     *
+     * @param pin pin
+     * @return the pin cache entry
+     * @throws InvalidPinException if the pin does not belong to this provider
+     */
+    protected GpioProviderPinCache getValidPinCache(Pin pin) {
+        GpioProviderPinCache[] entries = cache;
+        int address = pin.getAddress();
+        if (address >= 0 && address < entries.length) {
+            GpioProviderPinCache pc = entries[address];
+            if (pc != null && pc.getPin() == pin) {
+                return pc;
+            }
+        }
+        if (!hasPin(pin)) {
+            throw new InvalidPinException(pin);
+        }
+        return getPinCache(pin);
     }
 
     protected GpioProviderPinCache getPinCache(Pin pin) {
+        GpioProviderPinCache[] entries = cache;
+        int address = pin.getAddress();
+        if (address < entries.length) {
+            GpioProviderPinCache pc = entries[address];
+            if (pc != null) {
+                return pc;
+            }
+        }
+        return createPinCache(pin);
+    }
+
+    private synchronized GpioProviderPinCache createPinCache(Pin pin) {
 
         int address = pin.getAddress();
 
@@ -87,7 +127,11 @@ public abstract class GpioProviderBase implements GpioProvider {
 
         // if no pin object is found in the cache, then we need to create one at this address index in the cache array
         if(pc == null){
-            pc = cache[pin.getAddress()] = new GpioProviderPinCache(pin);
+            GpioProviderPinCache[] entries = cache;
+            pc = entries[address] = new GpioProviderPinCache(pin);
+
+            // republish the array to make the new entry visible to unsynchronized readers
+            cache = entries;
         }
         return pc;
     }
@@ -156,12 +200,8 @@ public abstract class GpioProviderBase implements GpioProvider {
 
     @Override
     public PinMode getMode(Pin pin) {
-        if (!hasPin(pin)) {
-            throw new InvalidPinException(pin);
-        }
-
         // return cached mode value
-        return getPinCache(pin).getMode();
+        return getValidPinCache(pin).getMode();
     }
 
 
@@ -191,11 +231,7 @@ public abstract class GpioProviderBase implements GpioProvider {
 
     @Override
     public void setState(Pin pin, PinState state) {
-        if (!hasPin(pin)) {
-            throw new InvalidPinException(pin);
-        }
-
-        GpioProviderPinCache pinCache = getPinCache(pin);
+        GpioProviderPinCache pinCache = getValidPinCache(pin);
 
         // only permit invocation on pins set to DIGITAL_OUTPUT modes
         if (pinCache.getMode() != PinMode.DIGITAL_OUTPUT) {
@@ -215,12 +251,12 @@ public abstract class GpioProviderBase implements GpioProvider {
         PinMode mode = getMode(pin);
 
         // only permit invocation on pins set to DIGITAL modes
-        if (!PinMode.allDigital().contains(mode)) {
-            throw new InvalidPinModeException(pin, "Invalid pin mode on pin [" + pin.getName() + "]; cannot getState() when pin mode is [" + mode.getName() + "]");
+        if (mode == null || !mode.isDigital()) {
+            throw new InvalidPinModeException(pin, "Invalid pin mode on pin [" + pin.getName() + "]; cannot getState() when pin mode is [" + (mode == null ? null : mode.getName()) + "]");
         }
 
         // return cached pin state
-        return getPinCache(pin).getState();
+        return getValidPinCache(pin).getState();
     }
 
     @Override
@@ -230,7 +266,7 @@ public abstract class GpioProviderBase implements GpioProvider {
         PinMode mode = getMode(pin);
 
         // only permit invocation on pins set to OUTPUT modes
-        if (!PinMode.allOutput().contains(mode)) {
+        if (mode == null || !mode.isOutput()) {
             throw new InvalidPinModeException(pin, "Invalid pin mode on pin [" + pin.getName() + "]; cannot setValue(" + value + ") when pin mode is [" + mode.getName() + "]");
         }
 
@@ -292,8 +328,9 @@ public abstract class GpioProviderBase implements GpioProvider {
     public void addListener(Pin pin, PinListener listener) {
         synchronized (listeners) {
             // create new pin listener entry if one does not already exist
+            // (copy-on-write lists let event dispatch iterate without copying)
             if (!listeners.containsKey(pin)) {
-                listeners.put(pin, new ArrayList<>());
+                listeners.put(pin, new CopyOnWriteArrayList<>());
             }
 
             // add the listener instance to the listeners map entry
@@ -346,25 +383,35 @@ public abstract class GpioProviderBase implements GpioProvider {
     }
 
     protected void dispatchPinDigitalStateChangeEvent(Pin pin, PinState state) {
+        // skip the timestamp and the event allocation if nobody listens to this pin
+        if (listeners.isEmpty() || !listeners.containsKey(pin)) {
+            return;
+        }
+        dispatchPinDigitalStateChangeEvent(pin, state, System.nanoTime(), 0);
+    }
+
+    protected void dispatchPinDigitalStateChangeEvent(Pin pin, PinState state, long timestamp, long sequence) {
         // if the pin listeners map contains this pin, then dispatch event
-        if (listeners.containsKey(pin)) {
+        List<PinListener> pinListeners = listeners.get(pin);
+        if (pinListeners != null && !pinListeners.isEmpty()) {
             // dispatch this event to all listener handlers
-            // iterate over all listener pins in the map
-            List<PinListener> listeners_copy = new ArrayList<>(listeners.get(pin));
-            for (PinListener listener : listeners_copy) {
-                listener.handlePinEvent(new PinDigitalStateChangeEvent(this, pin, state));
+            // (the copy-on-write list iterates over a snapshot)
+            PinDigitalStateChangeEvent event = new PinDigitalStateChangeEvent(this, pin, state, timestamp, sequence);
+            for (PinListener listener : pinListeners) {
+                listener.handlePinEvent(event);
             }
         }
     }
 
     protected void dispatchPinAnalogValueChangeEvent(Pin pin, double value) {
         // if the pin listeners map contains this pin, then dispatch event
-        if (listeners.containsKey(pin)) {
+        List<PinListener> pinListeners = listeners.get(pin);
+        if (pinListeners != null && !pinListeners.isEmpty()) {
             // dispatch this event to all listener handlers
-            // iterate over all listener pins in the map
-            List<PinListener> listeners_copy = new ArrayList<>(listeners.get(pin));
-            for (PinListener listener : listeners_copy) {
-                listener.handlePinEvent(new PinAnalogValueChangeEvent(this, pin, value));
+            // (the copy-on-write list iterates over a snapshot)
+            PinAnalogValueChangeEvent event = new PinAnalogValueChangeEvent(this, pin, value);
+            for (PinListener listener : pinListeners) {
+                listener.handlePinEvent(event);
             }
         }
     }
@@ -53,6 +53,10 @@ public class GpioProviderPinCache {
         return "PIN [" + pin.getName() + "] CACHE :: mode=" + mode.getName() + "; state=" + state.getName();
     }
 
+    public Pin getPin() {
+        return pin;
+    }
+
     public PinMode getMode() {
         return mode;
     }
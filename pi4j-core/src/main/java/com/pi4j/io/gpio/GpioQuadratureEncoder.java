@@ -0,0 +1,113 @@
+package com.pi4j.io.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioQuadratureEncoder.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.event.GpioQuadratureEncoderListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Decodes a quadrature (rotary) encoder connected to two digital input pins into a 64-bit
+ * position.  Providers implementing {@link GpioQuadratureEncoderProvider} decode the transitions of
+ * both channels in order where the edges are captured, so no event crosses into Java per edge; the
+ * position is read lock-free.
+ * </p>
+ *
+ * <p>
+ * The position counts every transition of either channel (four steps per encoder cycle) and counts
+ * up when channel A leads channel B.  Listeners receive rate-limited
+ * {@link com.pi4j.io.gpio.event.GpioQuadratureEncoderEvent} position events instead of an event per
+ * step (see {@link #setEventInterval(long, TimeUnit)}).
+ * </p>
+ *
+ * <p>
+ * The sysfs interrupts used by the WiringPi providers coalesce the edges of a channel that arrive
+ * before its notification has been handled, so steps are lost (and counted as errors) once the
+ * transitions come faster than a few kHz; the encoder is not suited to tens of kHz of steps.
+ * </p>
+ */
+public interface GpioQuadratureEncoder {
+
+    /**
+     * @return input pin of channel A
+     */
+    GpioPinDigitalInput getPinA();
+
+    /**
+     * @return input pin of channel B
+     */
+    GpioPinDigitalInput getPinB();
+
+    /**
+     * @return encoder position in quadrature steps
+     */
+    long getPosition();
+
+    /**
+     * Set the current encoder position.
+     *
+     * @param position new position in quadrature steps
+     */
+    void setPosition(long position);
+
+    /**
+     * Restart counting from position zero.
+     */
+    void reset();
+
+    /**
+     * @return number of invalid transitions (both channels changed at once, or a channel notified
+     *         without a state change) where edges were missed and the direction is unknown
+     */
+    long getErrors();
+
+    /**
+     * @return monotonic timestamp ({@link System#nanoTime()} units) of the last decoded step;
+     *         0 if the encoder has not moved
+     */
+    long getLastStepTime();
+
+    /**
+     * Set the minimum interval between the position events delivered to the listeners.  A position
+     * event is delivered at most once per interval and only when the position has changed.
+     *
+     * @param interval event interval; 0 disables the position events
+     * @param unit time unit of the interval
+     */
+    void setEventInterval(long interval, TimeUnit unit);
+
+    void addListener(GpioQuadratureEncoderListener listener);
+
+    void removeListener(GpioQuadratureEncoderListener listener);
+
+    /**
+     * Stop decoding and stop the position events.
+     */
+    void close();
+}
@@ -0,0 +1,75 @@
+package com.pi4j.io.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioQuadratureEncoderProvider.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * Optional capability of a {@link GpioProvider} that decodes a quadrature encoder connected to two
+ * input pins where the edges are captured (for example in the native interrupt reactor), so the
+ * transitions of both channels are decoded in order without raising an event per edge.
+ * {@link GpioQuadratureEncoder} instances use this interface when available; for other providers
+ * the transitions are decoded from the pin state change events.
+ * </p>
+ *
+ * <p>
+ * The encoder state is written into a block of 64-bit slots in native byte order.  The provider is
+ * the only writer and stores every slot atomically, so each slot can be read lock-free.
+ * </p>
+ */
+public interface GpioQuadratureEncoderProvider extends GpioProvider {
+
+    /** encoder position in quadrature steps (four per encoder cycle) */
+    int ENCODER_POSITION = 0;
+    /** number of invalid transitions (both channels changed; edges were missed) */
+    int ENCODER_ERRORS = 1;
+    /** monotonic timestamp (nanoseconds) of the last decoded step */
+    int ENCODER_LAST_EDGE = 2;
+
+    /** size of the encoder block in bytes */
+    int ENCODER_BLOCK_SIZE = 3 * Long.BYTES;
+
+    /**
+     * Start decoding a quadrature encoder.  The position counts up when channel A leads channel B.
+     *
+     * @param pinA input pin of channel A
+     * @param pinB input pin of channel B
+     * @param encoder aligned direct buffer of at least {@link #ENCODER_BLOCK_SIZE} bytes; it stays
+     *                referenced by the caller until the encoder is disabled
+     */
+    void enableQuadratureEncoder(Pin pinA, Pin pinB, ByteBuffer encoder);
+
+    /**
+     * Stop decoding a quadrature encoder.
+     *
+     * @param pinA input pin of channel A
+     * @param pinB input pin of channel B
+     */
+    void disableQuadratureEncoder(Pin pinA, Pin pinB);
+}
@@ -0,0 +1,408 @@
+package com.pi4j.io.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  MemoryMappedGpioProvider.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.file.LinuxFile;
+import com.pi4j.io.gpio.exception.InvalidPinException;
+import com.pi4j.io.gpio.exception.InvalidPinModeException;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * <p>
+ * {@link GpioProvider} implementation that maps the Broadcom GPIO register block (through
+ * <code>/dev/gpiomem</code> by default) into memory once and then reads and writes the
+ * <code>GPLEV</code>, <code>GPSET</code> and <code>GPCLR</code> registers directly from Java,
+ * without a native call per operation.  In addition to the {@link GpioProvider} methods, the
+ * {@link #setHigh(int)}, {@link #setLow(int)}, {@link #isHigh(int)}, {@link #setBits(int, int)}
+ * and {@link #clearBits(int, int)} methods provide an unchecked path for bit-banging, and
+ * {@link GpioPinGroup} outputs of a bank are written with one <code>GPSET</code> and one
+ * <code>GPCLR</code> write.
+ * </p>
+ *
+ * <p>
+ * Any file can be mapped: regular (e.g. memory backed) files are mapped with a
+ * {@link FileChannel}, device files with {@link LinuxFile#mmap(int, int)}.  This provider does
+ * not detect input edges; pin listeners only receive the output state changes made through
+ * this provider (use {@link GpioChipGpioProvider} for input edge events).  Use the pins defined
+ * by {@link MemoryMappedPin} with this provider.
+ * </p>
+ */
+public class MemoryMappedGpioProvider extends GpioProviderBase implements GpioBankProvider {
+
+    public static final String NAME = "Memory Mapped GPIO Provider";
+    public static final String DEFAULT_DEVICE = "/dev/gpiomem";
+
+    // size of the mapped register block (one page)
+    public static final int REGISTER_BLOCK_SIZE = 4096;
+
+    // number of GPIOs addressed by the register block (two banks)
+    public static final int GPIO_COUNT = 58;
+
+    // register byte offsets
+    public static final int GPFSEL0 = 0x00;
+    public static final int GPSET0 = 0x1C;
+    public static final int GPCLR0 = 0x28;
+    public static final int GPLEV0 = 0x34;
+    public static final int GPPUD = 0x94;                       // BCM2835 - BCM2837
+    public static final int GPPUDCLK0 = 0x98;                   // BCM2835 - BCM2837
+    public static final int GPIO_PUP_PDN_CNTRL_REG0 = 0xE4;     // BCM2711
+
+    // the (unused) pull control register 3 reads 'gpio' on chips before the BCM2711
+    private static final int GPIO_PUP_PDN_CNTRL_REG3 = 0xF0;
+    private static final int LEGACY_PULL_CONTROL_MAGIC = 0x6770696f;
+
+    // time the legacy pull control signal must be held (> 150 core clock cycles)
+    private static final long PULL_CONTROL_SETUP_NANOS = 5000;
+
+    private static final VarHandle REGISTER = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    protected final String device;
+    protected final ByteBuffer registers;
+    protected final boolean legacyPullControl;
+
+    // exported pins by GPIO number (used to update the pin cache after bank writes)
+    protected final Pin[] exportedPins = new Pin[GPIO_COUNT];
+
+    /**
+     * Default Constructor; maps '/dev/gpiomem'.
+     */
+    public MemoryMappedGpioProvider() {
+        this(DEFAULT_DEVICE);
+    }
+
+    /**
+     * Alternate Constructor allowing user to select the file holding the GPIO register block
+     *
+     * @param device the GPIO register device or file (at least {@link #REGISTER_BLOCK_SIZE} bytes)
+     */
+    public MemoryMappedGpioProvider(String device) {
+        this(device, map(device, REGISTER_BLOCK_SIZE));
+    }
+
+    /**
+     * Alternate Constructor using an already mapped register block.
+     *
+     * @param device name of the mapped GPIO register device or file
+     * @param registers direct buffer accessing the register block
+     */
+    public MemoryMappedGpioProvider(String device, ByteBuffer registers) {
+        if (registers.capacity() < GPIO_PUP_PDN_CNTRL_REG3 + 4) {
+            throw new IllegalArgumentException("GPIO register block is too small: " + registers.capacity());
+        }
+        this.device = device;
+        this.registers = registers;
+        this.legacyPullControl = (readRegister(GPIO_PUP_PDN_CNTRL_REG3) == LEGACY_PULL_CONTROL_MAGIC);
+    }
+
+    /**
+     * Map a region of a file or device (shared, read/write).
+     *
+     * @param file file or device path
+     * @param length number of bytes to map
+     * @return direct buffer accessing the mapped region
+     */
+    public static ByteBuffer map(String file, int length) {
+        try {
+            // regular files (e.g. memory backed files) can be mapped with a file channel
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                FileChannel channel = raf.getChannel();
+                if (channel.size() >= length) {
+                    return channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+                }
+            }
+
+            // character devices report no size; these are mapped natively
+            try (LinuxFile linuxFile = new LinuxFile(file, "rw")) {
+                return linuxFile.mmap(length, 0);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to map GPIO registers [" + file + "]; " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Get the GPIO register device or file mapped by this provider.
+     *
+     * @return the device path
+     */
+    public String getDevice() {
+        return device;
+    }
+
+    @Override
+    public void export(Pin pin, PinMode mode, PinState defaultState) {
+        super.export(pin, mode);
+        exportedPins[pin.getAddress()] = pin;
+
+        // apply the default state before enabling the output driver
+        if (defaultState != null && mode == PinMode.DIGITAL_OUTPUT) {
+            write(pin.getAddress(), defaultState.isHigh());
+            getPinCache(pin).setState(defaultState);
+        }
+        setFunction(pin.getAddress(), mode);
+    }
+
+    @Override
+    public void export(Pin pin, PinMode mode) {
+        export(pin, mode, null);
+    }
+
+    @Override
+    public void unexport(Pin pin) {
+        super.unexport(pin);
+        exportedPins[pin.getAddress()] = null;
+    }
+
+    @Override
+    public void setMode(Pin pin, PinMode mode) {
+        super.setMode(pin, mode);
+        setFunction(pin.getAddress(), mode);
+    }
+
+    @Override
+    public void setPullResistance(Pin pin, PinPullResistance resistance) {
+        super.setPullResistance(pin, resistance);
+        setPull(pin.getAddress(), resistance);
+    }
+
+    @Override
+    public void setState(Pin pin, PinState state) {
+        // only permit invocation on pins set to DIGITAL_OUTPUT modes
+        GpioProviderPinCache pinCache = getValidPinCache(pin);
+        if (pinCache.getMode() != PinMode.DIGITAL_OUTPUT) {
+            throw new InvalidPinModeException(pin, "Invalid pin mode on pin [" + pin.getName() + "]; cannot setState() when pin mode is [" + pinCache.getMode().getName() + "]");
+        }
+
+        // write the set or clear register
+        write(pin.getAddress(), state.isHigh());
+
+        // echo the event feedback and cache pin state
+        dispatchPinDigitalStateChangeEvent(pin, state);
+        pinCache.setState(state);
+    }
+
+    @Override
+    public PinState getState(Pin pin) {
+        // validate the pin and the pin mode
+        super.getState(pin);
+
+        // read the level register
+        return isHigh(pin.getAddress()) ? PinState.HIGH : PinState.LOW;
+    }
+
+    @Override
+    public int getBankCount() {
+        return 2;
+    }
+
+    @Override
+    public int getBank(Pin pin) {
+        return pin.getAddress() >>> 5;
+    }
+
+    @Override
+    public int getBankBit(Pin pin) {
+        return pin.getAddress() & 31;
+    }
+
+    @Override
+    public void setBankState(int bank, int highMask, int lowMask) {
+        // only permit invocation on pins set to DIGITAL_OUTPUT modes (before any pin is written)
+        int mask = highMask | lowMask;
+        for (int bits = mask; bits != 0; bits &= bits - 1) {
+            int gpio = (bank << 5) + Integer.numberOfTrailingZeros(bits);
+            Pin pin = (gpio < GPIO_COUNT) ? exportedPins[gpio] : null;
+            if (pin == null) {
+                throw new IllegalArgumentException("GPIO [" + gpio + "] has not been exported; cannot setBankState().");
+            }
+            PinMode mode = getPinCache(pin).getMode();
+            if (mode != PinMode.DIGITAL_OUTPUT) {
+                throw new InvalidPinModeException(pin, "Invalid pin mode on pin [" + pin.getName() + "]; cannot setBankState() when pin mode is [" + mode.getName() + "]");
+            }
+        }
+
+        if (highMask != 0) {
+            setBits(bank, highMask);
+        }
+        if (lowMask != 0) {
+            clearBits(bank, lowMask);
+        }
+
+        // echo the event feedback and cache the pin state of the written pins
+        for (int bits = mask; bits != 0; bits &= bits - 1) {
+            int bit = Integer.numberOfTrailingZeros(bits);
+            Pin pin = exportedPins[(bank << 5) + bit];
+            PinState state = ((highMask >>> bit) & 1) != 0 ? PinState.HIGH : PinState.LOW;
+            dispatchPinDigitalStateChangeEvent(pin, state);
+            getPinCache(pin).setState(state);
+        }
+    }
+
+    @Override
+    public long getStates(Pin... pin) {
+        if (pin.length > Long.SIZE) {
+            throw new IllegalArgumentException("Too many pins for a long state value: " + pin.length);
+        }
+
+        // snapshot both level registers once
+        long levels = (readBank(0) & 0xFFFFFFFFL) | ((long) readBank(1) << 32);
+        long states = 0;
+        for (int i = 0; i < pin.length; i++) {
+            if (!hasPin(pin[i])) {
+                throw new InvalidPinException(pin[i]);
+            }
+            states |= ((levels >>> pin[i].getAddress()) & 1L) << i;
+        }
+        return states;
+    }
+
+    /**
+     * Drive a GPIO high (no pin or mode validation).
+     *
+     * @param gpio BCM GPIO number
+     */
+    public void setHigh(int gpio) {
+        REGISTER.setOpaque(registers, GPSET0 + ((gpio >>> 5) << 2), 1 << (gpio & 31));
+    }
+
+    /**
+     * Drive a GPIO low (no pin or mode validation).
+     *
+     * @param gpio BCM GPIO number
+     */
+    public void setLow(int gpio) {
+        REGISTER.setOpaque(registers, GPCLR0 + ((gpio >>> 5) << 2), 1 << (gpio & 31));
+    }
+
+    /**
+     * Read the level of a GPIO (no pin or mode validation).
+     *
+     * @param gpio BCM GPIO number
+     * @return 'true' if the level is high
+     */
+    public boolean isHigh(int gpio) {
+        return (readBank(gpio >>> 5) & (1 << (gpio & 31))) != 0;
+    }
+
+    /**
+     * Drive all GPIOs of a bank whose bit is set in the mask high, in a single register write.
+     *
+     * @param bank register bank (0: GPIO 0-31, 1: GPIO 32-57)
+     * @param mask GPIO bit mask
+     */
+    public void setBits(int bank, int mask) {
+        REGISTER.setOpaque(registers, GPSET0 + (bank << 2), mask);
+    }
+
+    /**
+     * Drive all GPIOs of a bank whose bit is set in the mask low, in a single register write.
+     *
+     * @param bank register bank (0: GPIO 0-31, 1: GPIO 32-57)
+     * @param mask GPIO bit mask
+     */
+    public void clearBits(int bank, int mask) {
+        REGISTER.setOpaque(registers, GPCLR0 + (bank << 2), mask);
+    }
+
+    /**
+     * Read the levels of all GPIOs of a bank.
+     *
+     * @param bank register bank (0: GPIO 0-31, 1: GPIO 32-57)
+     * @return GPIO level bit mask
+     */
+    @Override
+    public int readBank(int bank) {
+        return (int) REGISTER.getOpaque(registers, GPLEV0 + (bank << 2));
+    }
+
+    protected void write(int gpio, boolean high) {
+        if (high) {
+            setHigh(gpio);
+        } else {
+            setLow(gpio);
+        }
+    }
+
+    protected int readRegister(int offset) {
+        return (int) REGISTER.getVolatile(registers, offset);
+    }
+
+    protected void writeRegister(int offset, int value) {
+        REGISTER.setVolatile(registers, offset, value);
+    }
+
+    /**
+     * Select the input or output function of a GPIO (3 function select bits per GPIO).
+     */
+    protected synchronized void setFunction(int gpio, PinMode mode) {
+        int offset = GPFSEL0 + (gpio / 10) * 4;
+        int shift = (gpio % 10) * 3;
+        int function = (mode == PinMode.DIGITAL_OUTPUT) ? 1 : 0;
+        writeRegister(offset, (readRegister(offset) & ~(7 << shift)) | (function << shift));
+    }
+
+    protected synchronized void setPull(int gpio, PinPullResistance resistance) {
+        if (!legacyPullControl) {
+            // BCM2711: 2 bits per GPIO (0: off, 1: pull up, 2: pull down)
+            int value = (resistance == PinPullResistance.PULL_UP) ? 1 : (resistance == PinPullResistance.PULL_DOWN) ? 2 : 0;
+            int offset = GPIO_PUP_PDN_CNTRL_REG0 + (gpio >>> 4) * 4;
+            int shift = (gpio & 15) * 2;
+            writeRegister(offset, (readRegister(offset) & ~(3 << shift)) | (value << shift));
+            return;
+        }
+
+        // BCM2835 - BCM2837: set the control signal, then clock it into the GPIO
+        int value = (resistance == PinPullResistance.PULL_UP) ? 2 : (resistance == PinPullResistance.PULL_DOWN) ? 1 : 0;
+        int clock = GPPUDCLK0 + ((gpio >>> 5) << 2);
+        writeRegister(GPPUD, value);
+        delay(PULL_CONTROL_SETUP_NANOS);
+        writeRegister(clock, 1 << (gpio & 31));
+        delay(PULL_CONTROL_SETUP_NANOS);
+        writeRegister(GPPUD, 0);
+        writeRegister(clock, 0);
+    }
+
+    private static void delay(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        while (System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
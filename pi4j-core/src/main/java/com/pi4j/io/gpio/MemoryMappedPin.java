@@ -0,0 +1,77 @@
+package com.pi4j.io.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  MemoryMappedPin.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.EnumSet;
+
+/**
+ * Pin definitions for the {@link MemoryMappedGpioProvider}.
+ * The pin address is the Broadcom (BCM) GPIO number.
+ */
+public class MemoryMappedPin extends PinProvider {
+
+    /**
+     * Get the pin instance for a BCM GPIO number.
+     *
+     * @param gpio BCM GPIO number (0-57)
+     * @return pin instance for the GPIO
+     */
+    public static synchronized Pin getGpio(int gpio) {
+        if (gpio < 0 || gpio >= MemoryMappedGpioProvider.GPIO_COUNT) {
+            throw new IllegalArgumentException("Invalid BCM GPIO number: " + gpio);
+        }
+        String name = "MMIO GPIO " + gpio;
+        Pin pin = PinProvider.getPinByName(name);
+        if (pin == null) {
+            pin = createPin(MemoryMappedGpioProvider.NAME, gpio, name,
+                    EnumSet.of(PinMode.DIGITAL_INPUT, PinMode.DIGITAL_OUTPUT),
+                    PinPullResistance.all(),
+                    EnumSet.noneOf(PinEdge.class));
+        }
+        return pin;
+    }
+
+    // *override* static method from subclass
+    // (overriding a static method is not supported in Java
+    //  so this method definition will hide the subclass static method)
+    public static Pin getPinByName(String name) {
+        return PinProvider.getPinByName(name);
+    }
+
+    // *override* static method from subclass
+    // (overriding a static method is not supported in Java
+    //  so this method definition will hide the subclass static method)
+    public static Pin getPinByAddress(int address) {
+        return PinProvider.getPinByAddress(address);
+    }
+
+    // *override* static method from subclass
+    // (overriding a static method is not supported in Java
+    //  so this method definition will hide the subclass static method)
+    public static Pin[] allPins() { return PinProvider.allPins(); }
+}
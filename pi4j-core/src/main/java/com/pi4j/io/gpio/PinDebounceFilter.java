@@ -0,0 +1,56 @@
+package com.pi4j.io.gpio;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  PinDebounceFilter.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Debounce filter applied to the state change events of a digital input pin. The debounce
+ * interval configured for a pin state (see {@link GpioPinDigitalInput#setDebounce(int, PinState...)})
+ * is the filter interval used when the pin changes to that state.
+ */
+public enum PinDebounceFilter {
+
+    /**
+     * The first state change is delivered immediately, further state changes are suppressed for the
+     * debounce interval. If the pin state differs from the delivered state when the interval ends,
+     * a state change event for the current state is delivered.
+     */
+    DELAY,
+
+    /**
+     * The pin state is sampled every millisecond and integrated; a state change is delivered once the
+     * samples of the new state outweigh the samples of the old state by the debounce interval
+     * (in milliseconds).
+     */
+    INTEGRATING,
+
+    /**
+     * The pin state is sampled every millisecond over a window of the debounce interval (in milliseconds);
+     * a state change is delivered if the majority of the samples in the window differs from the current state.
+     */
+    MAJORITY
+}
@@ -69,6 +69,20 @@ public enum PinMode {
         return direction;
     }
 
+    /**
+     * @return 'true' if this mode is one of {@link #allDigital()} (without allocating a set)
+     */
+    public boolean isDigital() {
+        return this == DIGITAL_INPUT || this == DIGITAL_OUTPUT;
+    }
+
+    /**
+     * @return 'true' if this mode is one of {@link #allOutput()} (without allocating a set)
+     */
+    public boolean isOutput() {
+        return this == DIGITAL_OUTPUT || this == ANALOG_OUTPUT || this == PWM_OUTPUT;
+    }
+
     @Override
     public String toString() {
         return name.toUpperCase();
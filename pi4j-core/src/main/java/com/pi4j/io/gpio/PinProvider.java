@@ -31,6 +31,7 @@ package com.pi4j.io.gpio;
 import com.pi4j.io.gpio.impl.PinImpl;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Pi4J pin definitions
@@ -40,7 +41,19 @@ import java.util.*;
  */
 public abstract class PinProvider {
 
-    protected static final Map<String, Pin> pins = new HashMap<>();
+    protected static final Map<String, Pin> pins = new ConcurrentHashMap<>();
+
+    // pin indexes by (provider name, address) and by address (the first pin created for an address)
+    private static final Map<String, Map<Integer, Pin>> pinsByProvider = new ConcurrentHashMap<>();
+    private static final Map<Integer, Pin> pinsByAddress = new ConcurrentHashMap<>();
+
+    private static Pin register(Pin pin) {
+        pins.put(pin.getName(), pin);
+        pinsByProvider.computeIfAbsent(pin.getProvider(), provider -> new ConcurrentHashMap<>())
+                .put(pin.getAddress(), pin);
+        pinsByAddress.putIfAbsent(pin.getAddress(), pin);
+        return pin;
+    }
 
     protected static Pin createDigitalPin(String providerName, int address, String name) {
         return createDigitalPin(providerName, address, name, EnumSet.allOf(PinEdge.class));
@@ -76,16 +89,12 @@ public abstract class PinProvider {
     }
 
     protected static Pin createPin(String providerName, int address, String name, EnumSet<PinMode> modes) {
-        Pin pin = new PinImpl(providerName, address, name, modes);
-        pins.put(name, pin);
-        return pin;
+        return register(new PinImpl(providerName, address, name, modes));
     }
 
     protected static Pin createPin(String providerName, int address, String name, EnumSet<PinMode> modes,
                                    EnumSet<PinPullResistance> resistance, EnumSet<PinEdge> edges) {
-        Pin pin = new PinImpl(providerName, address, name, modes, resistance, edges);
-        pins.put(name, pin);
-        return pin;
+        return register(new PinImpl(providerName, address, name, modes, resistance, edges));
     }
 
     public static Pin getPinByName(String name) {
@@ -93,12 +102,18 @@ public abstract class PinProvider {
     }
 
     public static Pin getPinByAddress(int address) {
-        for(Pin pin : pins.values()){
-            if(pin.getAddress() == address){
-                return pin;
-            }
-        }
-        return null;
+        return pinsByAddress.get(address);
+    }
+
+    /**
+     * Get a pin instance by provider and address.
+     * @param providerName name of the GPIO provider of the pin
+     * @param address pin address
+     * @return the pin instance; null if no such pin exists
+     */
+    public static Pin getPinByAddress(String providerName, int address) {
+        Map<Integer, Pin> addresses = pinsByProvider.get(providerName);
+        return (addresses == null) ? null : addresses.get(address);
     }
 
     /**
@@ -9,6 +9,8 @@ import com.pi4j.wiringpi.GpioInterruptEvent;
 import com.pi4j.wiringpi.GpioInterruptListener;
 import com.pi4j.wiringpi.GpioUtil;
 
+import java.nio.ByteBuffer;
+
 /*
  * #%L
  * **********************************************************************
@@ -43,7 +45,7 @@ import com.pi4j.wiringpi.GpioUtil;
  *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
  */
 @SuppressWarnings("unused")
-public abstract class WiringPiGpioProviderBase extends GpioProviderBase implements GpioProvider, GpioInterruptListener {
+public abstract class WiringPiGpioProviderBase extends GpioProviderBase implements GpioProvider, GpioEdgeCounterProvider, GpioQuadratureEncoderProvider, GpioInterruptListener {
 
     // the pin cache should support the maximum number of pins supported by wiringPi plus some
     // additional overhead for virtual analog input pins used by providers
@@ -290,6 +292,66 @@ public abstract class WiringPiGpioProviderBase extends GpioProviderBase implemen
         }
     }
 
+    @Override
+    public void pinStateChange(int address, boolean state, long timestamp, long sequence) {
+        // same as above, without requiring an interrupt event object per edge
+        for (Pin pin : listeners.keySet()) {
+            if (pin.getAddress() == address) {
+                dispatchPinDigitalStateChangeEvent(pin, PinState.getState(state), timestamp, sequence);
+            }
+        }
+    }
+
+    @Override
+    public void enableEdgeCounter(Pin pin, PinEdge edge, ByteBuffer counters) {
+        // validate pin
+        if (!hasPin(pin)) {
+            throw new InvalidPinException(pin);
+        }
+
+        // only permit edge counting on pins set to DIGITAL_INPUT modes
+        if (pinModeCache[pin.getAddress()] != PinMode.DIGITAL_INPUT) {
+            throw new InvalidPinModeException(pin, "Invalid pin mode on pin [" + pin.getName() + "]; cannot count edges when pin mode is [" + pinModeCache[pin.getAddress()] + "]");
+        }
+
+        // the native interrupt reactor counts the edges without calling back per edge
+        int ret = com.pi4j.wiringpi.GpioInterrupt.enablePinEdgeCounter(pin.getAddress(), edge.getValue(), counters);
+        if (ret < 0) {
+            throw new RuntimeException("Unable to enable the edge counter on pin [" + pin.getName() + "]; error code: " + ret);
+        }
+    }
+
+    @Override
+    public void disableEdgeCounter(Pin pin) {
+        com.pi4j.wiringpi.GpioInterrupt.disablePinEdgeCounter(pin.getAddress());
+    }
+
+    @Override
+    public void enableQuadratureEncoder(Pin pinA, Pin pinB, ByteBuffer encoder) {
+        for (Pin pin : new Pin[] { pinA, pinB }) {
+            // validate pin
+            if (!hasPin(pin)) {
+                throw new InvalidPinException(pin);
+            }
+
+            // only permit encoder decoding on pins set to DIGITAL_INPUT modes
+            if (pinModeCache[pin.getAddress()] != PinMode.DIGITAL_INPUT) {
+                throw new InvalidPinModeException(pin, "Invalid pin mode on pin [" + pin.getName() + "]; cannot decode an encoder when pin mode is [" + pinModeCache[pin.getAddress()] + "]");
+            }
+        }
+
+        // the native interrupt reactor decodes both channels without calling back per edge
+        int ret = com.pi4j.wiringpi.GpioInterrupt.enablePinQuadratureEncoder(pinA.getAddress(), pinB.getAddress(), encoder);
+        if (ret < 0) {
+            throw new RuntimeException("Unable to enable the quadrature encoder on pins [" + pinA.getName() + ", " + pinB.getName() + "]; error code: " + ret);
+        }
+    }
+
+    @Override
+    public void disableQuadratureEncoder(Pin pinA, Pin pinB) {
+        com.pi4j.wiringpi.GpioInterrupt.disablePinQuadratureEncoder(pinA.getAddress());
+    }
+
     @Override
     public void addListener(Pin pin, PinListener listener) {
         super.addListener(pin, listener);
@@ -0,0 +1,92 @@
+package com.pi4j.io.gpio.event;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioEdgeCounterEvent.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioEdgeCounter;
+
+import java.util.EventObject;
+
+/**
+ * Periodic summary of a {@link GpioEdgeCounter}.
+ */
+public class GpioEdgeCounterEvent extends EventObject {
+
+    private static final long serialVersionUID = 2883612870415519032L;
+
+    private final long count;
+    private final long delta;
+    private final long interval;
+    private final double frequency;
+
+    /**
+     * @param counter edge counter
+     * @param count edges counted since the counter was created or reset
+     * @param delta edges counted since the previous summary
+     * @param interval time (nanoseconds) since the previous summary
+     * @param frequency average signal frequency (Hz) since the previous summary
+     */
+    public GpioEdgeCounterEvent(GpioEdgeCounter counter, long count, long delta, long interval, double frequency) {
+        super(counter);
+        this.count = count;
+        this.delta = delta;
+        this.interval = interval;
+        this.frequency = frequency;
+    }
+
+    public GpioEdgeCounter getCounter() {
+        return (GpioEdgeCounter) getSource();
+    }
+
+    /**
+     * @return edges counted since the counter was created or reset
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return edges counted since the previous summary
+     */
+    public long getDelta() {
+        return delta;
+    }
+
+    /**
+     * @return time (nanoseconds) since the previous summary
+     */
+    public long getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return average signal frequency (Hz) since the previous summary
+     */
+    public double getFrequency() {
+        return frequency;
+    }
+}
@@ -0,0 +1,72 @@
+package com.pi4j.io.gpio.event;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioQuadratureEncoderEvent.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioQuadratureEncoder;
+
+import java.util.EventObject;
+
+/**
+ * Position change of a {@link GpioQuadratureEncoder}.
+ */
+public class GpioQuadratureEncoderEvent extends EventObject {
+
+    private static final long serialVersionUID = -5106347280178251974L;
+
+    private final long position;
+    private final long delta;
+
+    /**
+     * @param encoder quadrature encoder
+     * @param position encoder position in quadrature steps
+     * @param delta steps since the previous position event
+     */
+    public GpioQuadratureEncoderEvent(GpioQuadratureEncoder encoder, long position, long delta) {
+        super(encoder);
+        this.position = position;
+        this.delta = delta;
+    }
+
+    public GpioQuadratureEncoder getEncoder() {
+        return (GpioQuadratureEncoder) getSource();
+    }
+
+    /**
+     * @return encoder position in quadrature steps
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * @return steps since the previous position event
+     */
+    public long getDelta() {
+        return delta;
+    }
+}
@@ -44,6 +44,8 @@ public class PinDigitalStateChangeEvent extends PinEvent {
     private static final long serialVersionUID = -7643355305429082626L;
     private final PinState state;
     private final PinEdge edge;
+    private final long timestamp;
+    private final long sequence;
 
     /**
      * Default event constructor
@@ -53,8 +55,23 @@ public class PinDigitalStateChangeEvent extends PinEvent {
      * @param state New GPIO pin state.
      */
     public PinDigitalStateChangeEvent(Object obj, Pin pin, PinState state) {
+        this(obj, pin, state, System.nanoTime(), 0);
+    }
+
+    /**
+     * Event constructor for sources that capture the time of the state change
+     *
+     * @param obj Ignore this parameter
+     * @param pin GPIO pin number (not header pin number; not wiringPi pin number)
+     * @param state New GPIO pin state.
+     * @param timestamp Monotonic timestamp of the state change in nanoseconds.
+     * @param sequence Sequence number of the state change; '0' when not provided by the source.
+     */
+    public PinDigitalStateChangeEvent(Object obj, Pin pin, PinState state, long timestamp, long sequence) {
         super(obj, pin, PinEventType.DIGITAL_STATE_CHANGE);
         this.state = state;
+        this.timestamp = timestamp;
+        this.sequence = sequence;
 
         // set pin edge caused by the state change
         this.edge = (state == PinState.HIGH) ? PinEdge.RISING : PinEdge.FALLING;
@@ -78,4 +95,25 @@ public class PinDigitalStateChangeEvent extends PinEvent {
     public PinEdge getEdge() {
         return this.edge;
     }
+
+    /**
+     * Get the time of the state change in nanoseconds.  Providers that capture the edge in the
+     * kernel report the kernel timestamp; otherwise this is the {@link System#nanoTime()} value
+     * at the time the event was raised.
+     *
+     * @return monotonic timestamp in nanoseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Get the sequence number of the state change as reported by the event source.  Gaps in the
+     * sequence indicate edges that were lost before they could be read.
+     *
+     * @return sequence number or '0' when not provided by the source
+     */
+    public long getSequenceNumber() {
+        return sequence;
+    }
 }
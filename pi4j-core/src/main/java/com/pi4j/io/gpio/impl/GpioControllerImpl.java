@@ -40,10 +40,15 @@ import com.pi4j.wiringpi.GpioInterrupt;
 
 public class GpioControllerImpl implements GpioController {
 
-    private final List<GpioPin> pins = Collections.synchronizedList(new ArrayList<GpioPin>());
+    private final GpioPinRegistry pins = new GpioPinRegistry();
     private final GpioProvider defaultProvider;
     private boolean isshutdown = false;
 
+    // edge counters and quadrature encoders created by this controller; closed when one of their pins is
+    // unprovisioned (guarded by this)
+    private final List<GpioEdgeCounterImpl> edgeCounters = new ArrayList<>();
+    private final List<GpioQuadratureEncoderImpl> encoders = new ArrayList<>();
+
     /**
      * Default Constructor
      */
@@ -69,28 +74,23 @@ public class GpioControllerImpl implements GpioController {
 
     @Override
     public Collection<GpioPin> getProvisionedPins() {
-        // make an unmodifiable copy of the pins collection
-        return Collections.unmodifiableList(pins);
+        // return an unmodifiable view of the pins registry
+        return pins.asList();
     }
 
     @Override
     public GpioPin getProvisionedPin(Pin pin){
-        for(GpioPin gpio_pin : pins){
-            if (Objects.equals(gpio_pin.getPin(), pin)) {
-                return gpio_pin;
-            }
-        }
-        return null;
+        return pins.get(pin);
+    }
+
+    @Override
+    public GpioPin getProvisionedPin(GpioProvider provider, Pin pin){
+        return pins.get(provider, pin);
     }
 
     @Override
     public GpioPin getProvisionedPin(String name){
-        for(GpioPin pin : pins){
-            if (Objects.equals(pin.getName(), name)) {
-                return pin;
-            }
-        }
-        return null;
+        return pins.get(name);
     }
 
     @Override
@@ -342,6 +342,123 @@ public class GpioControllerImpl implements GpioController {
         }
     }
 
+    @Override
+    public long getStates(GpioPinDigital... pin) {
+        if (pin.length > Long.SIZE) {
+            throw new IllegalArgumentException("Too many pins for a long state value: " + pin.length);
+        }
+        GpioProvider provider = getStatesProvider(pin);
+        if (provider != null) {
+            return provider.getStates(getPins(pin));
+        }
+        long states = 0;
+        for (int i = 0; i < pin.length; i++) {
+            if (pin[i].isHigh()) {
+                states |= (1L << i);
+            }
+        }
+        return states;
+    }
+
+    @Override
+    public void getStates(BitSet states, GpioPinDigital... pin) {
+        GpioProvider provider = getStatesProvider(pin);
+        if (provider != null) {
+            provider.getStates(states, getPins(pin));
+            return;
+        }
+        for (int i = 0; i < pin.length; i++) {
+            states.set(i, pin[i].isHigh());
+        }
+    }
+
+    /**
+     * Validate the pins and return their provider if all pins share the same provider.
+     */
+    private GpioProvider getStatesProvider(GpioPinDigital... pin) {
+        if (pin == null || pin.length == 0) {
+            throw new IllegalArgumentException("Missing pin argument.");
+        }
+        GpioProvider provider = pin[0].getProvider();
+        for (GpioPinDigital p : pin) {
+            // ensure the requested pin has been provisioned
+            if (!pins.contains(p)) {
+                throw new GpioPinNotProvisionedException(p.getPin());
+            }
+            if (p.getProvider() != provider) {
+                provider = null;
+            }
+        }
+        return provider;
+    }
+
+    private static Pin[] getPins(GpioPin... pin) {
+        Pin[] result = new Pin[pin.length];
+        for (int i = 0; i < pin.length; i++) {
+            result[i] = pin[i].getPin();
+        }
+        return result;
+    }
+
+    @Override
+    public GpioPinGroup createPinGroup(GpioPinDigitalOutput... pin) {
+        if (pin == null || pin.length == 0) {
+            throw new IllegalArgumentException("Missing pin argument.");
+        }
+        // ensure the requested pins have been provisioned
+        for (GpioPinDigitalOutput p : pin) {
+            if (!pins.contains(p)) {
+                throw new GpioPinNotProvisionedException(p.getPin());
+            }
+        }
+        return new GpioPinGroupImpl(pin);
+    }
+
+    @Override
+    public synchronized GpioEdgeCounter createEdgeCounter(GpioPinDigitalInput pin, PinEdge edge) {
+        // ensure the requested pin has been provisioned
+        if (!pins.contains(pin)) {
+            throw new GpioPinNotProvisionedException(pin.getPin());
+        }
+
+        // a pin can only have a single (open) edge counter
+        edgeCounters.removeIf(GpioEdgeCounterImpl::isClosed);
+        for (GpioEdgeCounterImpl counter : edgeCounters) {
+            if (counter.getPin() == pin) {
+                throw new IllegalStateException("Pin [" + pin.getName() + "] already has an edge counter.");
+            }
+        }
+        GpioEdgeCounterImpl counter = new GpioEdgeCounterImpl(pin, edge);
+        edgeCounters.add(counter);
+        return counter;
+    }
+
+    @Override
+    public synchronized GpioQuadratureEncoder createQuadratureEncoder(GpioPinDigitalInput pinA, GpioPinDigitalInput pinB) {
+        if (pinA == null || pinB == null) {
+            throw new IllegalArgumentException("Missing pin argument.");
+        }
+        // ensure the requested pins have been provisioned
+        for (GpioPinDigitalInput pin : new GpioPinDigitalInput[] { pinA, pinB }) {
+            if (!pins.contains(pin)) {
+                throw new GpioPinNotProvisionedException(pin.getPin());
+            }
+        }
+
+        // a pin can only be a channel of a single (open) encoder
+        encoders.removeIf(GpioQuadratureEncoderImpl::isClosed);
+        for (GpioQuadratureEncoderImpl encoder : encoders) {
+            for (GpioPinDigitalInput pin : new GpioPinDigitalInput[] { pinA, pinB }) {
+                if (encoder.getPinA() == pin || encoder.getPinB() == pin) {
+                    throw new IllegalStateException("Pin [" + pin.getName() + "] is already a channel of a quadrature encoder.");
+                }
+            }
+        }
+        GpioQuadratureEncoderImpl encoder = new GpioQuadratureEncoderImpl(pinA, pinB);
+        encoders.add(encoder);
+        return encoder;
+    }
+
     @Override
     public void setState(PinState state, GpioPinDigitalOutput... pin) {
         if (pin == null || pin.length == 0) {
@@ -549,10 +666,8 @@ public class GpioControllerImpl implements GpioController {
 
         synchronized(this) {
             // if an existing pin has been previously created, then throw an error
-            for (GpioPin p : pins) {
-                if (Objects.equals(p.getProvider(), provider) && Objects.equals(p.getPin(), pin)) {
-                    throw new GpioPinExistsException(pin);
-                }
+            if (pins.get(provider, pin) != null) {
+                throw new GpioPinExistsException(pin);
             }
 
             // create new GPIO pin instance
@@ -926,12 +1041,43 @@ public class GpioControllerImpl implements GpioController {
                     ((GpioPinInput) p).removeAllTriggers();
                 }
 
+                // cancel any pending pulse or blink and release the timer slot of the pin
+                if (p instanceof GpioPinDigitalOutput) {
+                    GpioScheduledExecutorImpl.cancel((GpioPinDigitalOutput) p);
+                }
+
+                // stop edge counting and encoder decoding on this pin
+                closeCounters(p);
+
                 // remove this pin instance from the managed collection
                 pins.remove(p);
             }
         }
     }
 
+    /**
+     * Close the edge counters and quadrature encoders of a pin (all if the pin is null).  Must be
+     * called while holding the controller lock.
+     */
+    private void closeCounters(GpioPin pin) {
+        Iterator<GpioEdgeCounterImpl> counters = edgeCounters.iterator();
+        while (counters.hasNext()) {
+            GpioEdgeCounterImpl counter = counters.next();
+            if (pin == null || counter.getPin() == pin) {
+                counter.close();
+                counters.remove();
+            }
+        }
+        Iterator<GpioQuadratureEncoderImpl> decoders = encoders.iterator();
+        while (decoders.hasNext()) {
+            GpioQuadratureEncoderImpl encoder = decoders.next();
+            if (pin == null || encoder.getPinA() == pin || encoder.getPinB() == pin) {
+                encoder.close();
+                decoders.remove();
+            }
+        }
+    }
+
     public void setShutdownOptions(GpioPinShutdown options, GpioPin... pin) {
         for (GpioPin p : pin) {
             if (!pins.contains(p)) {
@@ -1014,6 +1160,9 @@ public class GpioControllerImpl implements GpioController {
         if(isShutdown())
             return;
 
+        // stop all edge counting and encoder decoding before the providers shut down
+        closeCounters(null);
+
         // create a temporary set of providers to shutdown after completing all the pin instance shutdowns
         Set<GpioProvider> gpioProvidersToShutdown = new HashSet<>();
 
@@ -0,0 +1,269 @@
+package com.pi4j.io.gpio.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioEdgeCounterImpl.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioEdgeCounter;
+import com.pi4j.io.gpio.GpioEdgeCounterProvider;
+import com.pi4j.io.gpio.GpioFactory;
+import com.pi4j.io.gpio.GpioPinDigitalInput;
+import com.pi4j.io.gpio.GpioProvider;
+import com.pi4j.io.gpio.PinEdge;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.event.GpioEdgeCounterEvent;
+import com.pi4j.io.gpio.event.GpioEdgeCounterListener;
+import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
+import com.pi4j.io.gpio.event.PinEvent;
+import com.pi4j.io.gpio.event.PinEventType;
+import com.pi4j.io.gpio.event.PinListener;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.pi4j.io.gpio.GpioEdgeCounterProvider.*;
+
+/**
+ * Edge counter backed by a counter block (see {@link GpioEdgeCounterProvider}).  The block is
+ * written by the provider if it implements {@link GpioEdgeCounterProvider}, else by this counter
+ * from the pin state change events of the provider.
+ */
+public class GpioEdgeCounterImpl implements GpioEdgeCounter {
+
+    private static final VarHandle SLOTS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final GpioPinDigitalInput pin;
+    private final PinEdge edge;
+    private final ByteBuffer counters;
+    private final PinListener monitor;
+    private final List<GpioEdgeCounterListener> listeners = new CopyOnWriteArrayList<>();
+
+    // reset baseline and summary state
+    private volatile long baseCount = 0;
+    private long summaryCount = 0;
+    private long summaryTime = 0;
+    private ScheduledFuture<?> summaryTask = null;
+
+    // software counting state (guarded by the monitor)
+    private PinState lastState;
+
+    private volatile boolean closed = false;
+
+    public GpioEdgeCounterImpl(GpioPinDigitalInput pin, PinEdge edge) {
+        if (edge == null || edge == PinEdge.NONE) {
+            throw new IllegalArgumentException("Invalid edge argument: " + edge);
+        }
+        this.pin = pin;
+        this.edge = edge;
+        this.counters = ByteBuffer.allocateDirect(COUNTER_BLOCK_SIZE).order(ByteOrder.nativeOrder());
+
+        GpioProvider provider = pin.getProvider();
+        if (provider instanceof GpioEdgeCounterProvider) {
+            // the provider counts the edges where they are captured
+            ((GpioEdgeCounterProvider) provider).enableEdgeCounter(pin.getPin(), edge, counters);
+            this.monitor = null;
+        } else {
+            // count the edges from the pin state change events
+            this.lastState = provider.getState(pin.getPin());
+            this.monitor = this::handlePinEvent;
+            provider.addListener(pin.getPin(), monitor);
+        }
+    }
+
+    @Override
+    public GpioPinDigitalInput getPin() {
+        return pin;
+    }
+
+    @Override
+    public PinEdge getEdge() {
+        return edge;
+    }
+
+    @Override
+    public long getCount() {
+        return slot(COUNTER_COUNT) - baseCount;
+    }
+
+    @Override
+    public synchronized void reset() {
+        baseCount = slot(COUNTER_COUNT);
+        summaryCount = 0;
+        summaryTime = System.nanoTime();
+    }
+
+    @Override
+    public long getLastEdgeTime() {
+        return slot(COUNTER_LAST_EDGE);
+    }
+
+    @Override
+    public long getPeriod(TimeUnit unit) {
+        // read the last period and the time of the last edge as a consistent snapshot
+        long sequence, period, lastEdge;
+        do {
+            sequence = sequence();
+            period = slot(COUNTER_PERIOD);
+            lastEdge = slot(COUNTER_LAST_EDGE);
+        } while (slot(COUNTER_SEQUENCE) != sequence);
+        if (period <= 0) {
+            return 0;
+        }
+
+        // once the signal slows down or stops, the time since the last edge bounds the period
+        long elapsed = System.nanoTime() - lastEdge;
+        if (elapsed > period) {
+            period = elapsed;
+        }
+
+        // a signal period spans a rising and a falling edge
+        if (edge == PinEdge.BOTH) {
+            period *= 2;
+        }
+        return unit.convert(period, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public double getFrequency() {
+        long period = getPeriod(TimeUnit.NANOSECONDS);
+        return (period > 0) ? 1_000_000_000.0 / period : 0;
+    }
+
+    @Override
+    public synchronized void setSummaryInterval(long interval, TimeUnit unit) {
+        if (summaryTask != null) {
+            summaryTask.cancel(false);
+            summaryTask = null;
+        }
+        if (interval > 0 && !closed) {
+            summaryCount = getCount();
+            summaryTime = System.nanoTime();
+            summaryTask = GpioFactory.getExecutorServiceFactory().getScheduledExecutorService()
+                    .scheduleAtFixedRate(this::summarize, interval, interval, unit);
+        }
+    }
+
+    @Override
+    public void addListener(GpioEdgeCounterListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Missing listener argument.");
+        }
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(GpioEdgeCounterListener listener) {
+        listeners.remove(listener);
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        setSummaryInterval(0, TimeUnit.MILLISECONDS);
+        GpioProvider provider = pin.getProvider();
+        if (monitor != null) {
+            provider.removeListener(pin.getPin(), monitor);
+        } else {
+            ((GpioEdgeCounterProvider) provider).disableEdgeCounter(pin.getPin());
+        }
+    }
+
+    private void summarize() {
+        GpioEdgeCounterEvent event;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long count = getCount();
+            long delta = count - summaryCount;
+            long interval = now - summaryTime;
+            double frequency = (interval > 0) ?
+                    delta * 1_000_000_000.0 / interval / ((edge == PinEdge.BOTH) ? 2 : 1) : 0;
+            summaryCount = count;
+            summaryTime = now;
+            event = new GpioEdgeCounterEvent(this, count, delta, interval, frequency);
+        }
+        for (GpioEdgeCounterListener listener : listeners) {
+            try {
+                listener.handleGpioEdgeCounterEvent(event);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private long slot(int slot) {
+        return (long) SLOTS.getVolatile(counters, slot * Long.BYTES);
+    }
+
+    private long sequence() {
+        long sequence;
+        while (((sequence = slot(COUNTER_SEQUENCE)) & 1) != 0) {
+            Thread.onSpinWait();
+        }
+        return sequence;
+    }
+
+    private synchronized void handlePinEvent(PinEvent event) {
+        if (event.getEventType() != PinEventType.DIGITAL_STATE_CHANGE) {
+            return;
+        }
+        PinDigitalStateChangeEvent stateChange = (PinDigitalStateChangeEvent) event;
+        PinState state = stateChange.getState();
+        if (state == lastState) {
+            return;
+        }
+        lastState = state;
+        if (edge == PinEdge.RISING && state != PinState.HIGH || edge == PinEdge.FALLING && state != PinState.LOW) {
+            return;
+        }
+
+        // write the counter block with the same sequence lock protocol as native providers
+        long timestamp = stateChange.getTimestamp();
+        long sequence = slot(COUNTER_SEQUENCE);
+        SLOTS.setVolatile(counters, COUNTER_SEQUENCE * Long.BYTES, sequence + 1);
+        long count = slot(COUNTER_COUNT) + 1;
+        if (count == 1) {
+            SLOTS.setVolatile(counters, COUNTER_FIRST_EDGE * Long.BYTES, timestamp);
+        } else {
+            SLOTS.setVolatile(counters, COUNTER_PERIOD * Long.BYTES, timestamp - slot(COUNTER_LAST_EDGE));
+        }
+        SLOTS.setVolatile(counters, COUNTER_LAST_EDGE * Long.BYTES, timestamp);
+        SLOTS.setVolatile(counters, COUNTER_COUNT * Long.BYTES, count);
+        SLOTS.setVolatile(counters, COUNTER_SEQUENCE * Long.BYTES, sequence + 2);
+    }
+}
@@ -27,16 +27,22 @@ package com.pi4j.io.gpio.impl;
  * #L%
  */
 
+import com.pi4j.concurrent.HashedWheelTimer;
+import com.pi4j.concurrent.OrderedLaneExecutor;
 import com.pi4j.io.gpio.GpioFactory;
 import com.pi4j.io.gpio.GpioPinDigitalInput;
 import com.pi4j.io.gpio.GpioPinInput;
+import com.pi4j.io.gpio.PinMode;
 import com.pi4j.io.gpio.PinState;
 import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
 import com.pi4j.io.gpio.event.PinEvent;
 import com.pi4j.io.gpio.event.PinEventType;
 import com.pi4j.io.gpio.event.PinListener;
 import com.pi4j.io.gpio.tasks.impl.GpioEventDebounceTaskImpl;
+import com.pi4j.io.gpio.tasks.impl.GpioEventDebounceTimeoutImpl;
 import com.pi4j.io.gpio.tasks.impl.GpioEventDispatchTaskImpl;
+import com.pi4j.metrics.Counter;
+import com.pi4j.metrics.Metrics;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
@@ -48,16 +54,52 @@ public class GpioEventMonitorExecutorImpl implements PinListener {
     private final GpioPinInput pin;
     private static ExecutorService executor;
     private static ScheduledExecutorService scheduledExecutor;
-    private ScheduledFuture<?> debounceFuture = null;
+    private final OrderedLaneExecutor laneExecutor;
+    private final GpioEventDebounceTimeoutImpl debounceTimeout;
+    private volatile ScheduledFuture<?> debounceFuture = null;
+
+    // pin event metrics (only when metrics are enabled)
+    private final Counter receivedMetric;
+    private final Counter dispatchedMetric;
+    private final Counter debouncedMetric;
 
     public GpioEventMonitorExecutorImpl(GpioPinInput pin) {
         this.pin = pin;
         executor = GpioFactory.getExecutorServiceFactory().getGpioEventExecutorService();
         scheduledExecutor = GpioFactory.getExecutorServiceFactory().getScheduledExecutorService();
+        laneExecutor = GpioFactory.getExecutorServiceFactory().getGpioEventLaneExecutor();
+
+        // digital input pins are debounced on the GPIO timer (if the executor factory provides one);
+        // GpioPinImpl implements every pin interface, so the pin mode decides
+        HashedWheelTimer timer = (pin instanceof GpioPinDigitalInput && pin.isMode(PinMode.DIGITAL_INPUT)) ?
+                GpioFactory.getExecutorServiceFactory().getGpioTimer() : null;
+        debounceTimeout = (timer != null) ?
+                new GpioEventDebounceTimeoutImpl(timer, (GpioPinDigitalInput) pin, executor, laneExecutor) : null;
+
+        if (Metrics.ENABLED) {
+            String name = pin.getPin().getName();
+            receivedMetric = Metrics.counter("gpio.events.received", "pin", name);
+            dispatchedMetric = Metrics.counter("gpio.events.dispatched", "pin", name);
+            debouncedMetric = Metrics.counter("gpio.events.debounced", "pin", name);
+        } else {
+            receivedMetric = dispatchedMetric = debouncedMetric = null;
+        }
+    }
+
+    /**
+     * Stop debouncing; called when the pin is no longer monitored.
+     */
+    public void shutdown() {
+        if (debounceTimeout != null) {
+            debounceTimeout.stop();
+        }
     }
 
     @Override
     public void handlePinEvent(PinEvent event) {
+        if (Metrics.ENABLED) {
+            receivedMetric.increment();
+        }
 
         // for digital input pins, we need to enforce pin debounce event suppression
         if(pin instanceof GpioPinDigitalInput && event.getEventType() == PinEventType.DIGITAL_STATE_CHANGE){
@@ -66,6 +108,18 @@ public class GpioEventMonitorExecutorImpl implements PinListener {
             // the event, and determine the debounce interval for this pin state
             GpioPinDigitalInput dip = (GpioPinDigitalInput)pin;
             PinState state = ((PinDigitalStateChangeEvent) event).getState();
+
+            // the debounce stage decides whether this state change is delivered now or later
+            if (debounceTimeout != null) {
+                if (debounceTimeout.handleStateChange(state)) {
+                    dispatch(event);
+                } else if (Metrics.ENABLED) {
+                    debouncedMetric.increment();
+                }
+                return;
+            }
+
+            // without a GPIO timer, fall back to one debounce task per accepted state change
             int pinDebounceForState = dip.getDebounce(state);
 
             // if the pin has a debounce delay configured for this pin state,
@@ -80,11 +134,29 @@ public class GpioEventMonitorExecutorImpl implements PinListener {
                 } else {
                     // if an existing debounce future task exists and is still busy,
                     // then exit this method effectively suppressing the current pin event
+                    if (Metrics.ENABLED) {
+                        debouncedMetric.increment();
+                    }
                     return;
                 }
             }
         }
 
+        dispatch(event);
+    }
+
+    private void dispatch(PinEvent event) {
+        if (Metrics.ENABLED) {
+            dispatchedMetric.increment();
+        }
+
+        // if the executor factory provides ordered dispatch lanes, queue the pin event
+        // notification on the lane of this pin (preserves the event order per pin)
+        if (laneExecutor != null) {
+            laneExecutor.execute(pin, new GpioEventDispatchTaskImpl(pin, event));
+            return;
+        }
+
         // add a new pin event notification to the thread pool for *immediate* execution
         executor.execute(new GpioEventDispatchTaskImpl(pin, event));
     }
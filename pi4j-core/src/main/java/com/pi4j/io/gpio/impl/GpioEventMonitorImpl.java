@@ -58,7 +58,8 @@ public class GpioEventMonitorImpl implements PinListener {
         // matches the pin number being tracked my this class instance
         if (this.pin.getPin().equals(event.getPin())) {
             if (event.getEventType() == PinEventType.DIGITAL_STATE_CHANGE) {
-                PinState state = ((PinDigitalStateChangeEvent)event).getState();
+                PinDigitalStateChangeEvent stateChangeEvent = (PinDigitalStateChangeEvent)event;
+                PinState state = stateChangeEvent.getState();
 
                 // create a copy of the listeners collection
                 Collection<GpioPinListener> listeners  = new ArrayList<>(pin.getListeners());
@@ -66,7 +67,8 @@ public class GpioEventMonitorImpl implements PinListener {
                 // process event callbacks for digital listeners
                 for (GpioPinListener listener : listeners) {
                     if (listener != null && listener instanceof GpioPinListenerDigital) {
-                        ((GpioPinListenerDigital)listener).handleGpioPinDigitalStateChangeEvent(new GpioPinDigitalStateChangeEvent(event.getSource(), pin, state));
+                        ((GpioPinListenerDigital)listener).handleGpioPinDigitalStateChangeEvent(new GpioPinDigitalStateChangeEvent(event.getSource(), pin, state,
+                                stateChangeEvent.getTimestamp(), stateChangeEvent.getSequenceNumber()));
                     }
                 }
 
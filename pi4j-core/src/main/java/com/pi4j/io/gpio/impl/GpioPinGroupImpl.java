@@ -0,0 +1,190 @@
+package com.pi4j.io.gpio.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioPinGroupImpl.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioBankProvider;
+import com.pi4j.io.gpio.GpioPinDigitalOutput;
+import com.pi4j.io.gpio.GpioPinGroup;
+import com.pi4j.io.gpio.GpioProvider;
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.PinState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class GpioPinGroupImpl implements GpioPinGroup {
+
+    private final GpioPinDigitalOutput[] pins;
+    private final List<GpioPinDigitalOutput> pinList;
+    private final Pin[] providerPins;
+
+    // bank provider shared by all pins (null if pins are written one by one)
+    private final GpioBankProvider bankProvider;
+
+    // the distinct banks used by the group and the masks of all group pins per bank
+    private final int[] banks;
+    private final int[] bankMasks;
+
+    // index (into 'banks') and bit mask of every group pin
+    private final int[] pinBanks;
+    private final int[] pinMasks;
+
+    // reusable per write bank masks
+    private final int[] highMasks;
+
+    public GpioPinGroupImpl(GpioPinDigitalOutput... pin) {
+        if (pin == null || pin.length == 0) {
+            throw new IllegalArgumentException("Missing pin argument.");
+        }
+        if (pin.length > MAX_PINS) {
+            throw new IllegalArgumentException("Too many pins for a pin group: " + pin.length);
+        }
+        this.pins = pin.clone();
+        this.pinList = Collections.unmodifiableList(Arrays.asList(pins));
+        this.providerPins = new Pin[pins.length];
+        for (int i = 0; i < pins.length; i++) {
+            providerPins[i] = pins[i].getPin();
+        }
+
+        // all pins need to be handled by the same bank provider for banked writes
+        GpioProvider provider = pins[0].getProvider();
+        for (GpioPinDigitalOutput p : pins) {
+            if (p.getProvider() != provider) {
+                provider = null;
+                break;
+            }
+        }
+        this.bankProvider = (provider instanceof GpioBankProvider) ? (GpioBankProvider) provider : null;
+
+        // precompute the bank masks
+        List<Integer> bankList = new ArrayList<>();
+        pinBanks = new int[pins.length];
+        pinMasks = new int[pins.length];
+        if (bankProvider != null) {
+            for (int i = 0; i < pins.length; i++) {
+                int bank = bankProvider.getBank(pins[i].getPin());
+                if (!bankList.contains(bank)) {
+                    bankList.add(bank);
+                }
+                pinBanks[i] = bankList.indexOf(bank);
+                pinMasks[i] = 1 << bankProvider.getBankBit(pins[i].getPin());
+            }
+        }
+        banks = new int[bankList.size()];
+        bankMasks = new int[bankList.size()];
+        highMasks = new int[bankList.size()];
+        for (int i = 0; i < banks.length; i++) {
+            banks[i] = bankList.get(i);
+        }
+        for (int i = 0; i < pins.length && bankProvider != null; i++) {
+            bankMasks[pinBanks[i]] |= pinMasks[i];
+        }
+    }
+
+    @Override
+    public List<GpioPinDigitalOutput> getPins() {
+        return pinList;
+    }
+
+    @Override
+    public int size() {
+        return pins.length;
+    }
+
+    @Override
+    public boolean isBanked() {
+        return bankProvider != null;
+    }
+
+    @Override
+    public synchronized void write(long value) {
+        if (bankProvider == null) {
+            for (int i = 0; i < pins.length; i++) {
+                pins[i].setState(((value >>> i) & 1) != 0);
+            }
+            return;
+        }
+
+        // collect the high pins per bank, then write every bank once
+        Arrays.fill(highMasks, 0);
+        for (int i = 0; i < pins.length; i++) {
+            if (((value >>> i) & 1) != 0) {
+                highMasks[pinBanks[i]] |= pinMasks[i];
+            }
+        }
+        for (int b = 0; b < banks.length; b++) {
+            bankProvider.setBankState(banks[b], highMasks[b], bankMasks[b] & ~highMasks[b]);
+        }
+    }
+
+    @Override
+    public long read() {
+        if (bankProvider != null) {
+            return bankProvider.getStates(providerPins);
+        }
+        long value = 0;
+        for (int i = 0; i < pins.length; i++) {
+            if (pins[i].isHigh()) {
+                value |= (1L << i);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public void high() {
+        write(-1L);
+    }
+
+    @Override
+    public void low() {
+        write(0L);
+    }
+
+    @Override
+    public synchronized void toggle() {
+        write(~read());
+    }
+
+    @Override
+    public void setState(PinState state) {
+        write(state.isHigh() ? -1L : 0L);
+    }
+
+    @Override
+    public void setState(boolean state) {
+        write(state ? -1L : 0L);
+    }
+
+    @Override
+    public String toString() {
+        return "GpioPinGroup" + pinList;
+    }
+}
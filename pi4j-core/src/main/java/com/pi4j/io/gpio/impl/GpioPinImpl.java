@@ -29,12 +29,12 @@ package com.pi4j.io.gpio.impl;
 
 import com.pi4j.io.gpio.*;
 import com.pi4j.io.gpio.event.GpioPinListener;
-import com.pi4j.io.gpio.event.PinListener;
 import com.pi4j.io.gpio.trigger.GpioTrigger;
 
 import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
@@ -53,12 +53,16 @@ public class GpioPinImpl implements GpioPin,
     private Object tag = null;
     private final GpioProvider provider;
     private final Pin pin;
-    private PinListener monitor;
+    private GpioEventMonitorExecutorImpl monitor;
     private final GpioPinShutdownImpl shutdownOptions;
     private final Map<String, String> properties = new ConcurrentHashMap<>();
-    private final List<GpioPinListener> listeners = new ArrayList<>();
-    private final List<GpioTrigger> triggers = new ArrayList<>();
-    private final Map<PinState, Integer> debounce = new HashMap<>();
+    // copy-on-write so event dispatch can iterate without copying or locking
+    private final List<GpioPinListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<GpioTrigger> triggers = new CopyOnWriteArrayList<>();
+    private final Map<PinState, Integer> debounce = new ConcurrentHashMap<>();
+    // registry this pin has been provisioned into (re-indexes the pin name on rename)
+    volatile GpioPinRegistry registry = null;
+    private volatile PinDebounceFilter debounceFilter = PinDebounceFilter.DELAY;
     protected final int NO_DEBOUCE = 0;
 
     @SuppressWarnings("unused")
@@ -80,7 +84,16 @@ public class GpioPinImpl implements GpioPin,
 
     @Override
     public void setName(String name) {
-        this.name = name;
+        GpioPinRegistry pinRegistry = registry;
+        if (pinRegistry == null) {
+            this.name = name;
+            return;
+        }
+        synchronized (pinRegistry) {
+            String previous = getName();
+            this.name = name;
+            pinRegistry.rename(this, previous);
+        }
     }
 
     @Override
@@ -463,6 +476,25 @@ public class GpioPinImpl implements GpioPin,
         setDebounce(debounce, PinState.HIGH, PinState.LOW);
     }
 
+    @Override
+    public void setDebounce(int debounce, PinDebounceFilter filter) {
+        setDebounceFilter(filter);
+        setDebounce(debounce);
+    }
+
+    @Override
+    public PinDebounceFilter getDebounceFilter() {
+        return debounceFilter;
+    }
+
+    @Override
+    public void setDebounceFilter(PinDebounceFilter filter) {
+        if (filter == null) {
+            throw new IllegalArgumentException("Missing filter argument.");
+        }
+        this.debounceFilter = filter;
+    }
+
     @Override
     public void setValue(double value) {
         provider.setValue(pin, value);
@@ -504,6 +536,7 @@ public class GpioPinImpl implements GpioPin,
             if (monitor != null) {
                 // remove monitor and unregister for event callbacks
                 provider.removeListener(pin, monitor);
+                monitor.shutdown();
 
                 // destroy monitor instance
                 monitor = null;
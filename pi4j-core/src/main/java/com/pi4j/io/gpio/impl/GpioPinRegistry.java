@@ -0,0 +1,199 @@
+package com.pi4j.io.gpio.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioPinRegistry.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioPin;
+import com.pi4j.io.gpio.GpioProvider;
+import com.pi4j.io.gpio.Pin;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * <p>
+ * Registry of the pins provisioned by a {@link GpioControllerImpl}.  Pins are indexed by
+ * provider and address and by name, so membership tests and lookups are lock-free O(1)
+ * operations; iteration works on a stable snapshot in provisioning order.  Only
+ * {@link #add(GpioPin)} and {@link #remove(GpioPin)} modify the registry; renamed pins are
+ * re-indexed by name.
+ * </p>
+ */
+class GpioPinRegistry implements Iterable<GpioPin> {
+
+    // provisioned pins in provisioning order (copy-on-write: iterators see a stable snapshot)
+    private final List<GpioPin> pins = new CopyOnWriteArrayList<>();
+
+    // provisioned pin instances (GpioPin instances use identity equality)
+    private final Set<GpioPin> members = ConcurrentHashMap.newKeySet();
+
+    // provisioned pins by provider instance and pin address
+    private final Map<GpioProvider, Map<Integer, GpioPin>> pinsByProvider = new ConcurrentHashMap<>();
+
+    // first provisioned pin by pin address (any provider)
+    private final Map<Integer, GpioPin> pinsByAddress = new ConcurrentHashMap<>();
+
+    // provisioned pins by name (first provisioned pin wins)
+    private final Map<String, GpioPin> pinsByName = new ConcurrentHashMap<>();
+
+    public synchronized void add(GpioPin pin) {
+        pinsByProvider.computeIfAbsent(pin.getProvider(), provider -> new ConcurrentHashMap<>())
+                .put(pin.getPin().getAddress(), pin);
+        pinsByAddress.putIfAbsent(pin.getPin().getAddress(), pin);
+        if (pin.getName() != null) {
+            pinsByName.putIfAbsent(pin.getName(), pin);
+        }
+        members.add(pin);
+        pins.add(pin);
+        if (pin instanceof GpioPinImpl) {
+            ((GpioPinImpl) pin).registry = this;
+        }
+    }
+
+    public synchronized boolean remove(GpioPin pin) {
+        if (!members.remove(pin)) {
+            return false;
+        }
+        pins.remove(pin);
+        if (pin instanceof GpioPinImpl) {
+            ((GpioPinImpl) pin).registry = null;
+        }
+
+        Map<Integer, GpioPin> addresses = pinsByProvider.get(pin.getProvider());
+        if (addresses != null) {
+            addresses.remove(pin.getPin().getAddress(), pin);
+            if (addresses.isEmpty()) {
+                pinsByProvider.remove(pin.getProvider());
+            }
+        }
+
+        // re-index the address and name with a remaining pin (if any)
+        pinsByAddress.remove(pin.getPin().getAddress(), pin);
+        pinsByName.values().remove(pin);
+        for (GpioPin p : pins) {
+            pinsByAddress.putIfAbsent(p.getPin().getAddress(), p);
+            if (p.getName() != null) {
+                pinsByName.putIfAbsent(p.getName(), p);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Re-index a provisioned pin under its new name; called by the pin (holding the registry
+     * monitor) after it has been renamed.
+     */
+    synchronized void rename(GpioPin pin, String previousName) {
+        if (!members.contains(pin)) {
+            return;
+        }
+
+        // the next provisioned pin with the previous name takes over the previous name
+        if (previousName != null && pinsByName.remove(previousName, pin)) {
+            for (GpioPin p : pins) {
+                if (previousName.equals(p.getName())) {
+                    pinsByName.put(previousName, p);
+                    break;
+                }
+            }
+        }
+
+        // the renamed pin takes over the new name unless a pin provisioned before it has the name
+        String name = pin.getName();
+        if (name != null) {
+            GpioPin current = pinsByName.get(name);
+            if (current == null || pins.indexOf(pin) < pins.indexOf(current)) {
+                pinsByName.put(name, pin);
+            }
+        }
+    }
+
+    public boolean contains(GpioPin pin) {
+        return pin != null && members.contains(pin);
+    }
+
+    /**
+     * Get the provisioned pin of a provider by its pin.
+     *
+     * @return the provisioned pin; null if the pin has not been provisioned with this provider
+     */
+    public GpioPin get(GpioProvider provider, Pin pin) {
+        Map<Integer, GpioPin> addresses = pinsByProvider.get(provider);
+        if (addresses == null) {
+            return null;
+        }
+        GpioPin gpioPin = addresses.get(pin.getAddress());
+        return (gpioPin != null && Objects.equals(gpioPin.getPin(), pin)) ? gpioPin : null;
+    }
+
+    /**
+     * Get the provisioned pin for a pin of any provider.
+     *
+     * @return the provisioned pin; null if the pin has not been provisioned
+     */
+    public GpioPin get(Pin pin) {
+        GpioPin gpioPin = pinsByAddress.get(pin.getAddress());
+        if (gpioPin == null || Objects.equals(gpioPin.getPin(), pin)) {
+            return gpioPin;
+        }
+
+        // a different pin with the same address was provisioned first (another provider)
+        for (GpioPin p : pins) {
+            if (Objects.equals(p.getPin(), pin)) {
+                return p;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get a provisioned pin by name.
+     *
+     * @return the first provisioned pin with the name; null if no provisioned pin has the name
+     */
+    public GpioPin get(String name) {
+        return (name == null) ? null : pinsByName.get(name);
+    }
+
+    /**
+     * @return unmodifiable view of the provisioned pins (iterators see a stable snapshot)
+     */
+    public List<GpioPin> asList() {
+        return Collections.unmodifiableList(pins);
+    }
+
+    @Override
+    public Iterator<GpioPin> iterator() {
+        return pins.iterator();
+    }
+}
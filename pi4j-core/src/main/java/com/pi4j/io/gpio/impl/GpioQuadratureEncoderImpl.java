@@ -0,0 +1,250 @@
+package com.pi4j.io.gpio.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioQuadratureEncoderImpl.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioFactory;
+import com.pi4j.io.gpio.GpioPinDigitalInput;
+import com.pi4j.io.gpio.GpioProvider;
+import com.pi4j.io.gpio.GpioQuadratureEncoder;
+import com.pi4j.io.gpio.GpioQuadratureEncoderProvider;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.event.GpioQuadratureEncoderEvent;
+import com.pi4j.io.gpio.event.GpioQuadratureEncoderListener;
+import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
+import com.pi4j.io.gpio.event.PinEvent;
+import com.pi4j.io.gpio.event.PinEventType;
+import com.pi4j.io.gpio.event.PinListener;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.pi4j.io.gpio.GpioQuadratureEncoderProvider.*;
+
+/**
+ * Quadrature encoder backed by an encoder block (see {@link GpioQuadratureEncoderProvider}).  The
+ * block is written by the provider if both channels belong to a provider implementing
+ * {@link GpioQuadratureEncoderProvider}, else by this encoder from the pin state change events of the
+ * providers (in which case the decoding is only as reliable as the ordering of those events).
+ */
+public class GpioQuadratureEncoderImpl implements GpioQuadratureEncoder {
+
+    private static final VarHandle SLOTS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    /**
+     * Transition table indexed by (previous AB &lt;&lt; 2) | current AB (channel A is the high bit);
+     * {@link #INVALID} marks a change of both channels.  The same table is used by the native
+     * interrupt reactor.
+     */
+    static final int INVALID = 2;
+    static final int[] TRANSITIONS = {
+         0, -1,  1,  2,
+         1,  0,  2, -1,
+        -1,  2,  0,  1,
+         2,  1, -1,  0
+    };
+
+    private final GpioPinDigitalInput pinA;
+    private final GpioPinDigitalInput pinB;
+    private final ByteBuffer encoder;
+    private final PinListener monitor;
+    private final List<GpioQuadratureEncoderListener> listeners = new CopyOnWriteArrayList<>();
+
+    // position offset and event state
+    private volatile long basePosition = 0;
+    private long eventPosition = 0;
+    private ScheduledFuture<?> eventTask = null;
+
+    // software decoding state (guarded by the monitor)
+    private int lastAB;
+
+    private volatile boolean closed = false;
+
+    public GpioQuadratureEncoderImpl(GpioPinDigitalInput pinA, GpioPinDigitalInput pinB) {
+        if (pinA == null || pinB == null) {
+            throw new IllegalArgumentException("Missing pin argument.");
+        }
+        if (pinA == pinB) {
+            throw new IllegalArgumentException("Encoder channels A and B must use different pins.");
+        }
+        this.pinA = pinA;
+        this.pinB = pinB;
+        this.encoder = ByteBuffer.allocateDirect(ENCODER_BLOCK_SIZE).order(ByteOrder.nativeOrder());
+
+        GpioProvider provider = pinA.getProvider();
+        if (provider == pinB.getProvider() && provider instanceof GpioQuadratureEncoderProvider) {
+            // the provider decodes both channels where the edges are captured
+            ((GpioQuadratureEncoderProvider) provider).enableQuadratureEncoder(pinA.getPin(), pinB.getPin(), encoder);
+            this.monitor = null;
+        } else {
+            // decode the transitions from the pin state change events
+            this.lastAB = ab(pinA.getProvider().getState(pinA.getPin()), pinB.getProvider().getState(pinB.getPin()));
+            this.monitor = this::handlePinEvent;
+            pinA.getProvider().addListener(pinA.getPin(), monitor);
+            pinB.getProvider().addListener(pinB.getPin(), monitor);
+        }
+    }
+
+    @Override
+    public GpioPinDigitalInput getPinA() {
+        return pinA;
+    }
+
+    @Override
+    public GpioPinDigitalInput getPinB() {
+        return pinB;
+    }
+
+    @Override
+    public long getPosition() {
+        return slot(ENCODER_POSITION) - basePosition;
+    }
+
+    @Override
+    public synchronized void setPosition(long position) {
+        basePosition = slot(ENCODER_POSITION) - position;
+        eventPosition = position;
+    }
+
+    @Override
+    public void reset() {
+        setPosition(0);
+    }
+
+    @Override
+    public long getErrors() {
+        return slot(ENCODER_ERRORS);
+    }
+
+    @Override
+    public long getLastStepTime() {
+        return slot(ENCODER_LAST_EDGE);
+    }
+
+    @Override
+    public synchronized void setEventInterval(long interval, TimeUnit unit) {
+        if (eventTask != null) {
+            eventTask.cancel(false);
+            eventTask = null;
+        }
+        if (interval > 0 && !closed) {
+            eventPosition = getPosition();
+            eventTask = GpioFactory.getExecutorServiceFactory().getScheduledExecutorService()
+                    .scheduleAtFixedRate(this::publish, interval, interval, unit);
+        }
+    }
+
+    @Override
+    public void addListener(GpioQuadratureEncoderListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Missing listener argument.");
+        }
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(GpioQuadratureEncoderListener listener) {
+        listeners.remove(listener);
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        setEventInterval(0, TimeUnit.MILLISECONDS);
+        if (monitor != null) {
+            pinA.getProvider().removeListener(pinA.getPin(), monitor);
+            pinB.getProvider().removeListener(pinB.getPin(), monitor);
+        } else {
+            ((GpioQuadratureEncoderProvider) pinA.getProvider()).disableQuadratureEncoder(pinA.getPin(), pinB.getPin());
+        }
+    }
+
+    private void publish() {
+        GpioQuadratureEncoderEvent event;
+        synchronized (this) {
+            long position = getPosition();
+            if (position == eventPosition) {
+                return;
+            }
+            event = new GpioQuadratureEncoderEvent(this, position, position - eventPosition);
+            eventPosition = position;
+        }
+        for (GpioQuadratureEncoderListener listener : listeners) {
+            try {
+                listener.handleGpioQuadratureEncoderEvent(event);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private long slot(int slot) {
+        return (long) SLOTS.getVolatile(encoder, slot * Long.BYTES);
+    }
+
+    private static int ab(PinState a, PinState b) {
+        return ((a == PinState.HIGH) ? 2 : 0) | ((b == PinState.HIGH) ? 1 : 0);
+    }
+
+    private synchronized void handlePinEvent(PinEvent event) {
+        if (event.getEventType() != PinEventType.DIGITAL_STATE_CHANGE) {
+            return;
+        }
+        PinDigitalStateChangeEvent stateChange = (PinDigitalStateChangeEvent) event;
+
+        // sample the other channel as well, so a missed or reordered event shows up as an invalid transition
+        int ab = stateChange.getPin().equals(pinA.getPin()) ?
+                ab(stateChange.getState(), pinB.getProvider().getState(pinB.getPin())) :
+                ab(pinA.getProvider().getState(pinA.getPin()), stateChange.getState());
+        int step = TRANSITIONS[(lastAB << 2) | ab];
+        lastAB = ab;
+        if (step == 0) {
+            return;
+        }
+
+        // write the encoder block with the same protocol as native providers
+        if (step == INVALID) {
+            SLOTS.setVolatile(encoder, ENCODER_ERRORS * Long.BYTES, slot(ENCODER_ERRORS) + 1);
+            return;
+        }
+        SLOTS.setVolatile(encoder, ENCODER_LAST_EDGE * Long.BYTES, stateChange.getTimestamp());
+        SLOTS.setVolatile(encoder, ENCODER_POSITION * Long.BYTES, slot(ENCODER_POSITION) + step);
+    }
+}
@@ -28,167 +28,83 @@ package com.pi4j.io.gpio.impl;
  */
 
 
+import com.pi4j.concurrent.ExecutorServiceFactory;
 import com.pi4j.io.gpio.GpioFactory;
 import com.pi4j.io.gpio.GpioPinDigitalOutput;
 import com.pi4j.io.gpio.PinState;
-import com.pi4j.io.gpio.tasks.impl.GpioBlinkStopTaskImpl;
-import com.pi4j.io.gpio.tasks.impl.GpioBlinkTaskImpl;
-import com.pi4j.io.gpio.tasks.impl.GpioPulseTaskImpl;
-
-import java.util.ArrayList;
-import java.util.Map.Entry;
-import java.util.concurrent.*;
-
+import com.pi4j.io.gpio.tasks.impl.GpioOutputTimeoutImpl;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules the pulse and blink operations of digital output pins. Each pin owns a reusable timer
+ * slot ({@link GpioOutputTimeoutImpl}) on the GPIO timer of the executor service factory, or on its
+ * scheduled executor service if the factory does not provide a timer; a new pulse or blink replaces
+ * the pending operation of the pin. Pulse and blink deadlines on the GPIO timer are rounded up to the
+ * timer resolution (1 ms); use a blocking pulse for shorter pulses.
+ */
 public class GpioScheduledExecutorImpl {
 
-    private static final ConcurrentHashMap<GpioPinDigitalOutput, CopyOnWriteArrayList<ScheduledFuture<?>>> pinTaskQueue = new ConcurrentHashMap<>();
-    private static ScheduledExecutorService scheduledExecutorService;
+    private static final ConcurrentHashMap<GpioPinDigitalOutput, GpioOutputTimeoutImpl> pinTimers = new ConcurrentHashMap<>();
 
-    private synchronized static void init(GpioPinDigitalOutput pin) {
-        if (scheduledExecutorService == null) {
-            scheduledExecutorService = GpioFactory.getExecutorServiceFactory().getScheduledExecutorService();
-        }
-
-        // determine if any existing future tasks are already scheduled for this pin
-        if (pinTaskQueue.containsKey(pin)) {
-            // if a task is found, then cancel all pending tasks immediately and remove them
-            CopyOnWriteArrayList<ScheduledFuture<?>> tasks = pinTaskQueue.get(pin);
-            if (tasks != null && !tasks.isEmpty()) {
-                // iterate tasks and cancel any
-                for (int index = (tasks.size() - 1); index >= 0; index--) {
-                    ScheduledFuture<?> task = tasks.get(index);
-                    task.cancel(true);
+    private static GpioOutputTimeoutImpl getPinTimer(GpioPinDigitalOutput pin) {
+        GpioOutputTimeoutImpl pinTimer = pinTimers.get(pin);
+        if (pinTimer == null || pinTimer.isShutdown()) {
+            // create the timer slot of this pin (or replace it after the timer has been shut down)
+            pinTimer = pinTimers.compute(pin, (key, existing) -> {
+                if (existing != null && !existing.isShutdown()) {
+                    return existing;
                 }
-                // clear the tasks queue for this pin
-                tasks.clear();
-            }
-
-            // if no remaining future tasks are remaining, then remove this pin from the tasks queue
-            if (tasks != null && tasks.isEmpty()) {
-                pinTaskQueue.remove(pin);
-            }
+                // without a GPIO timer the slot schedules on the scheduled executor service
+                ExecutorServiceFactory factory = GpioFactory.getExecutorServiceFactory();
+                return new GpioOutputTimeoutImpl(factory.getGpioTimer(), key, factory.getScheduledExecutorService());
+            });
         }
+        return pinTimer;
     }
 
-    private synchronized static ScheduledFuture<?> createCleanupTask(long delay, TimeUnit timeUnit) {
-        // create future task to clean up completed tasks
-
-        @SuppressWarnings({"rawtypes", "unchecked"})
-        ScheduledFuture<?> cleanupFutureTask = scheduledExecutorService.schedule(new Callable() {
-            public Object call() throws Exception {
-                for (Entry<GpioPinDigitalOutput, CopyOnWriteArrayList<ScheduledFuture<?>>> item : pinTaskQueue.entrySet()) {
-                    CopyOnWriteArrayList<ScheduledFuture<?>> remainingTasks = item.getValue();
-                    ArrayList<ScheduledFuture<?>> purgeTasks = new ArrayList<>();
-
-                    // if there are pending tasks in queue, then lets look for any that can be removed
-                    if (remainingTasks != null && !remainingTasks.isEmpty()) {
-                        // build up a purge list of tasks that are canceled or already complete
-                        for (int index = (remainingTasks.size() - 1); index >= 0; index--) {
-                            ScheduledFuture<?> remainingTask = remainingTasks.get(index);
-                            if (remainingTask.isCancelled() || remainingTask.isDone()) {
-                                purgeTasks.add(remainingTask);
-                            }
-                        }
-                        // purge the completed and canceled tasks on the purge list now
-                        for(ScheduledFuture<?> task : purgeTasks){
-                            if(remainingTasks.contains(task)) remainingTasks.remove(task);
-                        }
-
-                        // if no remaining future tasks are remaining, then remove this pin from the tasks queue
-                        if (remainingTasks.isEmpty()) {
-                            pinTaskQueue.remove(item.getKey());
-                        }
-                    }
-                }
-                return null;
-            }
-        }, delay, timeUnit);
-
-        return cleanupFutureTask;
+    /**
+     * Cancel the pending pulse or blink of a pin and release its timer slot.
+     */
+    public static void cancel(GpioPinDigitalOutput pin) {
+        GpioOutputTimeoutImpl pinTimer = pinTimers.remove(pin);
+        if (pinTimer != null) {
+            pinTimer.stop();
+        }
     }
 
-
-    public synchronized static Future<?> pulse(GpioPinDigitalOutput pin, long duration, PinState pulseState, TimeUnit unit) {
+    public static Future<?> pulse(GpioPinDigitalOutput pin, long duration, PinState pulseState, TimeUnit unit) {
         return pulse(pin, duration, pulseState, null, unit);
     }
 
-    public synchronized static Future<?> pulse(GpioPinDigitalOutput pin, long duration, PinState pulseState, Callable<?> callback, TimeUnit timeUnit) {
-
-        // create future return object
-        ScheduledFuture<?> scheduledFuture = null;
+    public static Future<?> pulse(GpioPinDigitalOutput pin, long duration, PinState pulseState, Callable<?> callback, TimeUnit timeUnit) {
+        GpioOutputTimeoutImpl pinTimer = getPinTimer(pin);
 
-        // perform the initial startup and cleanup for this pin
-        init(pin);
-
-        // we only pulse for requests with a valid duration in milliseconds
+        // we only pulse for requests with a valid duration
         if (duration > 0) {
-            // set the active state
-            pin.setState(pulseState);
-
-            // create future job to return the pin to the low state
-            scheduledFuture = scheduledExecutorService
-                .schedule(new GpioPulseTaskImpl(pin, PinState.getInverseState(pulseState), callback), duration, timeUnit);
-
-            // get pending tasks for the current pin
-            CopyOnWriteArrayList<ScheduledFuture<?>> tasks;
-            if (!pinTaskQueue.containsKey(pin)) {
-                pinTaskQueue.put(pin, new CopyOnWriteArrayList<>());
-            }
-            tasks = pinTaskQueue.get(pin);
-
-            // add the new scheduled task to the tasks collection
-            tasks.add(scheduledFuture);
-
-            // create future task to clean up completed tasks
-            createCleanupTask(duration + 500, timeUnit);
+            // set the active state and return the pin to the inactive state after the duration
+            return pinTimer.pulse(duration, pulseState, callback, timeUnit);
         }
 
-        // return future task
-        return scheduledFuture;
+        // cancel any pending operation of this pin; no future task without a duration
+        pinTimer.stop();
+        return null;
     }
 
-    public synchronized static Future<?> blink(GpioPinDigitalOutput pin, long delay, long duration, PinState blinkState, TimeUnit timeUnit) {
-
-        // perform the initial startup and cleanup for this pin
-        init(pin);
+    public static Future<?> blink(GpioPinDigitalOutput pin, long delay, long duration, PinState blinkState, TimeUnit timeUnit) {
+        GpioOutputTimeoutImpl pinTimer = getPinTimer(pin);
 
-        // we only blink for requests with a valid delay in milliseconds
+        // we only blink for requests with a valid delay
         if (delay > 0) {
-            // make sure pin starts in active state
-            pin.setState(blinkState);
-
-            // create future job to toggle the pin state
-            ScheduledFuture<?> scheduledFutureBlinkTask = scheduledExecutorService
-                .scheduleAtFixedRate(new GpioBlinkTaskImpl(pin), delay, delay, timeUnit);
-
-            // get pending tasks for the current pin
-            CopyOnWriteArrayList<ScheduledFuture<?>> tasks;
-            if (!pinTaskQueue.containsKey(pin)) {
-                pinTaskQueue.put(pin, new CopyOnWriteArrayList<>());
-            }
-            tasks = pinTaskQueue.get(pin);
-
-            // add the new scheduled task to the tasks collection
-            tasks.add(scheduledFutureBlinkTask);
-
-            // if a duration was defined, then schedule a future task to kill the blinker task
-            if (duration > 0) {
-                // create future job to stop blinking
-                ScheduledFuture<?> scheduledFutureBlinkStopTask = scheduledExecutorService
-                    .schedule(new GpioBlinkStopTaskImpl(pin,PinState.getInverseState(blinkState), scheduledFutureBlinkTask), duration, timeUnit);
-
-                // add the new scheduled stop task to the tasks collection
-                tasks.add(scheduledFutureBlinkStopTask);
-
-                // create future task to clean up completed tasks
-                createCleanupTask(duration + 500, timeUnit);
-            }
-
-            // return future task
-            return scheduledFutureBlinkTask;
+            // make sure pin starts in active state and toggle it every delay
+            return pinTimer.blink(delay, duration, blinkState, timeUnit);
         }
 
-        // no future task when a delay time has not been specified
+        // a delay of 0 stops the blinking; no future task when a delay time has not been specified
+        pinTimer.stop();
         return null;
     }
 }
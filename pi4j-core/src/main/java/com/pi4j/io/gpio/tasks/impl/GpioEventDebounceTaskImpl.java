@@ -28,6 +28,7 @@ package com.pi4j.io.gpio.tasks.impl;
  */
 
 
+import com.pi4j.concurrent.OrderedLaneExecutor;
 import com.pi4j.io.gpio.GpioFactory;
 import com.pi4j.io.gpio.GpioPinDigitalInput;
 import com.pi4j.io.gpio.PinState;
@@ -40,9 +41,11 @@ public class GpioEventDebounceTaskImpl implements Runnable {
     private final GpioPinDigitalInput pin;
     private final PinState originalPinState;
     private static ExecutorService executor;
+    private final OrderedLaneExecutor laneExecutor;
 
     public GpioEventDebounceTaskImpl(GpioPinDigitalInput pin, PinState state) {
         executor = GpioFactory.getExecutorServiceFactory().getGpioEventExecutorService();
+        laneExecutor = GpioFactory.getExecutorServiceFactory().getGpioEventLaneExecutor();
         this.originalPinState = state;
         this.pin = pin;
     }
@@ -53,9 +56,16 @@ public class GpioEventDebounceTaskImpl implements Runnable {
         // then we need to raise a new pin event to notify the user that the pin
         // state has changed during the debounce delay period
         if(!pin.isState(originalPinState)){
-            // add a new pin event notification to the thread pool for *immediate* execution
-            executor.execute(new GpioEventDispatchTaskImpl(pin,
-                    new PinDigitalStateChangeEvent(this, pin.getPin(), pin.getState())));
+            GpioEventDispatchTaskImpl task = new GpioEventDispatchTaskImpl(pin,
+                    new PinDigitalStateChangeEvent(this, pin.getPin(), pin.getState()));
+
+            // use the ordered lane of this pin if available,
+            // else add the pin event notification to the thread pool for *immediate* execution
+            if (laneExecutor != null) {
+                laneExecutor.execute(pin, task);
+            } else {
+                executor.execute(task);
+            }
         }
     }
 }
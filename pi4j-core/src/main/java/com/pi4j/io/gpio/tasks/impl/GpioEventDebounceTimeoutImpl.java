@@ -0,0 +1,242 @@
+package com.pi4j.io.gpio.tasks.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioEventDebounceTimeoutImpl.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.concurrent.HashedWheelTimer;
+import com.pi4j.concurrent.OrderedLaneExecutor;
+import com.pi4j.io.gpio.GpioPinDigitalInput;
+import com.pi4j.io.gpio.PinDebounceFilter;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Debounce stage of a digital input pin. A single instance exists per monitored pin and is re-armed
+ * on the shared {@link HashedWheelTimer} for each debounce interval or filter sample, so debouncing
+ * does not allocate a scheduled task per pin event. The filter is selected by
+ * {@link GpioPinDigitalInput#getDebounceFilter()} when a debounce cycle starts.
+ * </p>
+ *
+ * <p>
+ * The sampling filters ({@link PinDebounceFilter#INTEGRATING}, {@link PinDebounceFilter#MAJORITY}) sample
+ * the last pin state reported by the pin state change events once per timer tick and only run while the
+ * reported state differs from the debounced state.
+ * </p>
+ *
+ * <p>
+ * The timeout runs on the shared timer thread, so it never reads the hardware and never blocks:
+ * the state is taken from the last pin state change event and debounced events are dispatched
+ * outside of the lock, coalescing on a full ordered lane.
+ * </p>
+ */
+public class GpioEventDebounceTimeoutImpl extends HashedWheelTimer.Timeout {
+
+    private final GpioPinDigitalInput pin;
+    private final ExecutorService executor;
+    private final OrderedLaneExecutor laneExecutor;
+
+    // debounce state (guarded by this)
+    private PinDebounceFilter filter = null;
+    private PinState reportedState = null;
+    private PinState debouncedState = null;
+    private int samples = 0;
+    private int votes = 0;
+
+    public GpioEventDebounceTimeoutImpl(HashedWheelTimer timer, GpioPinDigitalInput pin,
+                                        ExecutorService executor, OrderedLaneExecutor laneExecutor) {
+        super(timer);
+        this.pin = pin;
+        this.executor = executor;
+        this.laneExecutor = laneExecutor;
+        this.debouncedState = pin.getState();
+    }
+
+    /**
+     * Pass a pin state change through the debounce stage.
+     *
+     * @param state the pin state reported by the pin state change event
+     * @return true if the pin state change event should be dispatched immediately; false if it is
+     *         suppressed (the debounce stage dispatches its own event once the state is stable)
+     */
+    public synchronized boolean handleStateChange(PinState state) {
+        reportedState = state;
+        if (debouncedState == null) {
+            // the pin was in the opposite state before its first reported state change
+            debouncedState = PinState.getInverseState(state);
+        }
+
+        // an active debounce cycle owns the state changes until it completes
+        if (filter != null) {
+            return false;
+        }
+
+        // a state without a debounce interval passes through unfiltered
+        int debounce = pin.getDebounce(state);
+        if (debounce <= 0) {
+            debouncedState = state;
+            return true;
+        }
+
+        filter = pin.getDebounceFilter();
+        switch (filter) {
+            case INTEGRATING:
+            case MAJORITY:
+                if (state == debouncedState) {
+                    filter = null;
+                    return false;
+                }
+                samples = votes = 0;
+                arm(1);
+                return false;
+            case DELAY:
+            default:
+                // deliver this state change and suppress the state changes during the debounce interval
+                debouncedState = state;
+                arm(debounce);
+                return true;
+        }
+    }
+
+    /**
+     * Stop the current debounce cycle without delivering a pending state change.
+     */
+    public synchronized void stop() {
+        cancel();
+        filter = null;
+    }
+
+    @Override
+    protected void expire() {
+        PinState state = step();
+        if (state != null) {
+            dispatch(state);
+        }
+    }
+
+    /**
+     * Advance the current debounce cycle by one timer expiration.
+     *
+     * @return the newly debounced state to dispatch; null if the debounced state is unchanged
+     */
+    private synchronized PinState step() {
+        if (filter == null) {
+            return null;
+        }
+        PinState settled = null;
+        switch (filter) {
+            case INTEGRATING:
+                // integrate towards the reported state; decay back towards the debounced state
+                if (reportedState != debouncedState) {
+                    samples++;
+                } else if (samples > 0) {
+                    samples--;
+                }
+                if (samples >= Math.max(pin.getDebounce(PinState.getInverseState(debouncedState)), 1)) {
+                    settled = settle(PinState.getInverseState(debouncedState));
+                    samples = 0;
+                }
+                if (reportedState != debouncedState || samples > 0) {
+                    sample();
+                } else {
+                    filter = null;
+                }
+                break;
+            case MAJORITY:
+                // sample a window of the debounce interval of the candidate state
+                samples++;
+                if (reportedState != debouncedState) {
+                    votes++;
+                }
+                if (samples >= Math.max(pin.getDebounce(PinState.getInverseState(debouncedState)), 1)) {
+                    if (votes * 2 > samples) {
+                        settled = settle(PinState.getInverseState(debouncedState));
+                    }
+                    samples = votes = 0;
+                    if (reportedState == debouncedState) {
+                        filter = null;
+                        break;
+                    }
+                }
+                sample();
+                break;
+            case DELAY:
+            default:
+                // if the last reported pin state is not the same as the delivered pin state, then raise a new pin
+                // event to notify the user that the pin state has changed during the debounce interval
+                filter = null;
+                PinState state = reportedState;
+                if (state != null && state != debouncedState) {
+                    settled = settle(state);
+                    int debounce = pin.getDebounce(state);
+                    if (debounce > 0) {
+                        filter = PinDebounceFilter.DELAY;
+                        arm(debounce);
+                    }
+                }
+                break;
+        }
+        return settled;
+    }
+
+    private boolean arm(int milliseconds) {
+        if (!schedule(milliseconds, TimeUnit.MILLISECONDS)) {
+            // the timer has been shut down; stop debouncing
+            filter = null;
+            return false;
+        }
+        return true;
+    }
+
+    private void sample() {
+        // sample again on the next timer tick
+        if (!scheduleTicks(1)) {
+            filter = null;
+        }
+    }
+
+    private PinState settle(PinState state) {
+        debouncedState = state;
+        return state;
+    }
+
+    private void dispatch(PinState state) {
+        GpioEventDispatchTaskImpl task = new GpioEventDispatchTaskImpl(pin,
+                new PinDigitalStateChangeEvent(this, pin.getPin(), state));
+
+        // use the ordered lane of this pin if available (coalescing instead of blocking the timer thread
+        // on a full lane), else add the pin event notification to the thread pool for *immediate* execution
+        if (laneExecutor != null) {
+            laneExecutor.execute(pin, task, OrderedLaneExecutor.BackpressurePolicy.COALESCE);
+        } else {
+            executor.execute(task);
+        }
+    }
+}
@@ -32,12 +32,16 @@ import com.pi4j.io.gpio.GpioPinInput;
 import com.pi4j.io.gpio.PinState;
 import com.pi4j.io.gpio.event.*;
 import com.pi4j.io.gpio.trigger.GpioTrigger;
+import com.pi4j.metrics.LatencyHistogram;
+import com.pi4j.metrics.Metrics;
 
-import java.util.ArrayList;
 import java.util.Collection;
 
 public class GpioEventDispatchTaskImpl implements Runnable {
 
+    // time from the capture of a state change (native edge timestamp) to its delivery to the listeners
+    private static final LatencyHistogram latency = Metrics.ENABLED ? Metrics.histogram("gpio.event.latency") : null;
+
     private final GpioPinInput pin;
     private final PinEvent event;
 
@@ -52,22 +56,31 @@ public class GpioEventDispatchTaskImpl implements Runnable {
         // matches the pin number being tracked my this class instance
         if (this.pin.getPin().equals(event.getPin())) {
             if (event.getEventType() == PinEventType.DIGITAL_STATE_CHANGE) {
-                PinState state = ((PinDigitalStateChangeEvent) event).getState();
+                PinDigitalStateChangeEvent stateChangeEvent = (PinDigitalStateChangeEvent) event;
+                PinState state = stateChangeEvent.getState();
+                if (Metrics.ENABLED) {
+                    latency.recordSince(stateChangeEvent.getTimestamp());
+                }
 
-                // create a copy of the listeners collection
-                Collection<GpioPinListener> listeners  = new ArrayList<>(pin.getListeners());
+                // the pin listener collection is copy-on-write, so it can be iterated directly
+                Collection<GpioPinListener> listeners = pin.getListeners();
 
                 // process event callbacks for digital listeners
+                // (a single immutable event instance is shared by all listeners)
+                GpioPinDigitalStateChangeEvent digitalEvent = null;
                 for (GpioPinListener listener : listeners) {
                     if(listener != null && listener instanceof GpioPinListenerDigital) {
-                        ((GpioPinListenerDigital) listener)
-                            .handleGpioPinDigitalStateChangeEvent(new GpioPinDigitalStateChangeEvent(
-                                    event.getSource(), pin, state));
+                        if (digitalEvent == null) {
+                            digitalEvent = new GpioPinDigitalStateChangeEvent(
+                                    event.getSource(), pin, state, stateChangeEvent.getTimestamp(),
+                                    stateChangeEvent.getSequenceNumber());
+                        }
+                        ((GpioPinListenerDigital) listener).handleGpioPinDigitalStateChangeEvent(digitalEvent);
                     }
                 }
 
-                // create a copy of the triggers collection
-                Collection<GpioTrigger> triggers  = new ArrayList<>(pin.getTriggers());
+                // the pin trigger collection is copy-on-write as well
+                Collection<GpioTrigger> triggers = pin.getTriggers();
 
                 // process triggers
                 for (GpioTrigger trigger : triggers) {
@@ -78,15 +91,16 @@ public class GpioEventDispatchTaskImpl implements Runnable {
             } else if (event.getEventType() == PinEventType.ANALOG_VALUE_CHANGE) {
                 double value = ((PinAnalogValueChangeEvent) event).getValue();
 
-                // create a copy of the listeners collection
-                Collection<GpioPinListener> listeners  = new ArrayList<>(pin.getListeners());
+                Collection<GpioPinListener> listeners = pin.getListeners();
 
                 // process event callbacks for analog listeners
+                GpioPinAnalogValueChangeEvent analogEvent = null;
                 for (GpioPinListener listener : listeners) {
                     if (listener != null && listener instanceof GpioPinListenerAnalog) {
-                        ((GpioPinListenerAnalog) listener)
-                            .handleGpioPinAnalogValueChangeEvent(new GpioPinAnalogValueChangeEvent(
-                                    event.getSource(), pin, value));
+                        if (analogEvent == null) {
+                            analogEvent = new GpioPinAnalogValueChangeEvent(event.getSource(), pin, value);
+                        }
+                        ((GpioPinListenerAnalog) listener).handleGpioPinAnalogValueChangeEvent(analogEvent);
                     }
                 }
             }
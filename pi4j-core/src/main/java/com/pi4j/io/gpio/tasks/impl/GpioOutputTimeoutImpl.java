@@ -0,0 +1,375 @@
+package com.pi4j.io.gpio.tasks.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioOutputTimeoutImpl.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.concurrent.HashedWheelTimer;
+import com.pi4j.io.gpio.GpioPinDigitalOutput;
+import com.pi4j.io.gpio.PinState;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * <p>
+ * Timer slot of a digital output pin. A single instance exists per pin and drives the pending pulse
+ * or blink of the pin on the shared {@link HashedWheelTimer}; starting a new pulse or blink re-arms
+ * the slot and cancels the pending operation in O(1), and pins never contend on a common lock.
+ * Without a timer the slot schedules its deadlines on the callback executor instead.
+ * </p>
+ *
+ * <p>
+ * The timer thread only does the bookkeeping of the slot: the pin state changes and pulse callbacks
+ * are handed off to the callback executor, so a slow pin provider never delays the other timeouts
+ * of the timer. Pending state changes of a pin are coalesced; only the latest state is written.
+ * </p>
+ */
+public class GpioOutputTimeoutImpl {
+
+    private final GpioPinDigitalOutput pin;
+    private final ScheduledExecutorService callbackExecutor;
+    private final HashedWheelTimer.Timeout timeout;
+
+    // serializes the pin writes of this slot (always acquired before the slot monitor)
+    private final Object writeLock = new Object();
+
+    // pending operation (guarded by this)
+    private Operation operation = null;
+    private PinState endState;
+    private PinState blinkLevel;
+    private Callable<?> callback;
+    private long period;
+    private long nextToggle;
+    private long stopTime;
+    private ScheduledFuture<?> scheduled = null;
+    private long generation = 0;
+
+    // pending pin write handed off to the callback executor (guarded by this)
+    private PinState pendingState = null;
+    private Runnable pendingCompletion = null;
+    private boolean writeScheduled = false;
+
+    /**
+     * @param timer timer driving the deadlines of the slot, or null to schedule them on the callback executor
+     */
+    public GpioOutputTimeoutImpl(HashedWheelTimer timer, GpioPinDigitalOutput pin, ScheduledExecutorService callbackExecutor) {
+        this.pin = pin;
+        this.callbackExecutor = callbackExecutor;
+        this.timeout = (timer == null) ? null : new HashedWheelTimer.Timeout(timer) {
+            @Override
+            protected void expire() {
+                GpioOutputTimeoutImpl.this.expire(0);
+            }
+        };
+    }
+
+    /**
+     * @return true if the timer (or executor) scheduling the slot has been shut down
+     */
+    public boolean isShutdown() {
+        return (timeout != null) ? timeout.getTimer().isShutdown() : callbackExecutor.isShutdown();
+    }
+
+    /**
+     * Set the pulse state and return the pin to the inverse state once the duration has elapsed.
+     *
+     * @return future completed when the pulse has ended (and the callback has been invoked)
+     */
+    public Future<?> pulse(long duration, PinState pulseState, Callable<?> callback, TimeUnit timeUnit) {
+        Operation pulse = new Operation(false);
+        Runnable superseded;
+        synchronized (writeLock) {
+            synchronized (this) {
+                superseded = replace();
+                this.endState = PinState.getInverseState(pulseState);
+                this.callback = callback;
+                start(pulse, timeUnit.toNanos(duration));
+            }
+            // the end of the pulse is written by the callback executor, which waits for the write lock
+            pin.setState(pulseState);
+        }
+        dispatch(superseded);
+        return pulse;
+    }
+
+    /**
+     * Set the blink state and toggle the pin every delay; if a duration is given the pin is set to the
+     * inverse blink state once the duration has elapsed.
+     *
+     * @return future of the blinking; cancelled when the blinking stops
+     */
+    public Future<?> blink(long delay, long duration, PinState blinkState, TimeUnit timeUnit) {
+        Operation blink = new Operation(true);
+        Runnable superseded;
+        synchronized (writeLock) {
+            synchronized (this) {
+                superseded = replace();
+                long now = System.nanoTime();
+                this.endState = PinState.getInverseState(blinkState);
+                this.blinkLevel = blinkState;
+                this.callback = null;
+                this.period = timeUnit.toNanos(delay);
+                this.nextToggle = now + period;
+                this.stopTime = (duration > 0) ? now + timeUnit.toNanos(duration) : 0;
+                start(blink, nextDelay(now));
+            }
+            pin.setState(blinkState);
+        }
+        dispatch(superseded);
+        return blink;
+    }
+
+    /**
+     * Cancel the pending pulse or blink; the pin keeps its current state.
+     */
+    public synchronized void stop() {
+        if (operation != null) {
+            disarm();
+            operation.finish(true);
+            operation = null;
+            // drop a pending blink toggle
+            pendingState = null;
+        }
+    }
+
+    // invoked once the deadline armed with the given generation has passed (any generation on the timer)
+    private void expire(long armed) {
+        synchronized (this) {
+            // ignore stale expirations (the slot has been re-armed or stopped meanwhile)
+            if (operation == null || ((timeout != null) ? timeout.isArmed() : armed != generation)) {
+                return;
+            }
+            if (operation.blink) {
+                long now = System.nanoTime();
+                if (stopTime == 0 || now - stopTime < 0) {
+                    if (now - nextToggle >= 0) {
+                        blinkLevel = PinState.getInverseState(blinkLevel);
+                        pendingState = blinkLevel;
+                        nextToggle += period;
+                        if (now - nextToggle >= 0) {
+                            // fell behind by more than a period; do not toggle in bursts
+                            nextToggle = now + period;
+                        }
+                    }
+                    arm(nextDelay(now));
+                } else {
+                    // the blink duration has elapsed; the blink future is cancelled like a stopped blink task
+                    Operation completed = operation;
+                    pendingState = endState;
+                    pendingCompletion = () -> completed.finish(true);
+                    operation = null;
+                }
+            } else {
+                // end the pulse; the callback is invoked once the end state has been written
+                Operation completed = operation;
+                Callable<?> completedCallback = callback;
+                pendingState = endState;
+                pendingCompletion = () -> {
+                    try {
+                        if (completedCallback != null) {
+                            completedCallback.call();
+                        }
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    } finally {
+                        completed.finish(false);
+                    }
+                };
+                operation = null;
+                callback = null;
+            }
+            if (pendingState == null || writeScheduled) {
+                // nothing to write, or the scheduled write picks up the latest state
+                return;
+            }
+            writeScheduled = true;
+        }
+        dispatch(this::flush);
+    }
+
+    // write the pending state of the pin and run the pending completion (on the callback executor)
+    private void flush() {
+        PinState state;
+        Runnable completion;
+        synchronized (writeLock) {
+            synchronized (this) {
+                state = pendingState;
+                completion = pendingCompletion;
+                pendingState = null;
+                pendingCompletion = null;
+                writeScheduled = false;
+            }
+            // the slot monitor is not held while writing, so the timer thread never waits on the pin
+            if (state != null) {
+                pin.setState(state);
+            }
+        }
+        if (completion != null) {
+            completion.run();
+        }
+    }
+
+    // must be called while holding the write lock and the slot monitor; a pending write is superseded
+    // by the initial state of the new operation, its completion is returned to be dispatched
+    private Runnable replace() {
+        stop();
+        Runnable superseded = pendingCompletion;
+        pendingState = null;
+        pendingCompletion = null;
+        return superseded;
+    }
+
+    private void dispatch(Runnable task) {
+        if (task == null) {
+            return;
+        }
+        try {
+            callbackExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // the callback executor has been shut down; run the task on the calling thread
+            task.run();
+        }
+    }
+
+    // must be called while holding the slot monitor
+    private void start(Operation next, long delay) {
+        operation = next;
+        if (!arm(delay)) {
+            // the timer has been shut down
+            operation.finish(true);
+            operation = null;
+        }
+    }
+
+    // must be called while holding the slot monitor
+    private boolean arm(long delay) {
+        long armed = ++generation;
+        if (timeout != null) {
+            return timeout.schedule(delay, TimeUnit.NANOSECONDS);
+        }
+        try {
+            scheduled = callbackExecutor.schedule(() -> expire(armed), delay, TimeUnit.NANOSECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    // must be called while holding the slot monitor
+    private void disarm() {
+        generation++;
+        if (timeout != null) {
+            timeout.cancel();
+        } else if (scheduled != null) {
+            scheduled.cancel(false);
+            scheduled = null;
+        }
+    }
+
+    private long nextDelay(long now) {
+        long next = (stopTime != 0 && stopTime - nextToggle < 0) ? stopTime : nextToggle;
+        return Math.max(next - now, 0);
+    }
+
+    private synchronized boolean cancel(Operation cancelled) {
+        if (operation != cancelled) {
+            return false;
+        }
+        stop();
+        return true;
+    }
+
+    /**
+     * Future of a single pulse or blink operation.
+     */
+    private final class Operation implements Future<Object> {
+
+        private final boolean blink;
+        private boolean done = false;
+        private boolean cancelled = false;
+
+        private Operation(boolean blink) {
+            this.blink = blink;
+        }
+
+        private synchronized void finish(boolean cancel) {
+            if (!done) {
+                done = true;
+                cancelled = cancel;
+                notifyAll();
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return GpioOutputTimeoutImpl.this.cancel(this);
+        }
+
+        @Override
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public synchronized boolean isDone() {
+            return done;
+        }
+
+        @Override
+        public synchronized Object get() throws InterruptedException {
+            while (!done) {
+                wait();
+            }
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            return null;
+        }
+
+        @Override
+        public synchronized Object get(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (!done) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new TimeoutException();
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            return null;
+        }
+    }
+}
@@ -69,6 +69,20 @@ public interface I2CBus {
      */
     int getBusNumber();
 
+    /**
+     * Runs all messages of the transaction as one combined transfer (repeated starts between the
+     * messages, a single stop at the end) with one bus lock acquisition and one system call.
+     * Buses without combined transfers run the messages one at a time
+     * (see {@link I2CTransaction#transfer(I2CBus)}).
+     *
+     * @param transaction the messages to transfer; read messages fill their buffers
+     *
+     * @throws IOException thrown in case the transfer fails (e.g. a device does not acknowledge)
+     */
+    default void execute(I2CTransaction transaction) throws IOException {
+        transaction.transfer(this);
+    }
+
     /**
      * Closes this bus. This usually means closing underlying file.
      *
@@ -183,4 +183,30 @@ public interface I2CDevice {
      */
     int read(byte[] writeBuffer, int writeOffset, int writeSize, byte[] readBuffer, int readOffset, int readSize) throws IOException;
 
+    /**
+     * Creates a new transaction for batched transfers with this device.
+     *
+     * @see I2CTransaction
+     * @see #execute(I2CTransaction)
+     *
+     * @return an empty transaction
+     */
+    default I2CTransaction transaction() {
+        return new I2CTransaction();
+    }
+
+    /**
+     * Runs all messages of the transaction as one combined transfer on the bus of this device.
+     *
+     * @see I2CBus#execute(I2CTransaction)
+     *
+     * @param transaction the messages to transfer; read messages fill their buffers
+     *
+     * @throws IOException thrown in case the transfer fails
+     * @throws UnsupportedOperationException thrown if the device does not provide access to its bus
+     */
+    default void execute(I2CTransaction transaction) throws IOException {
+        throw new UnsupportedOperationException("I2C transactions are not supported by this device.");
+    }
+
 }
@@ -0,0 +1,279 @@
+package com.pi4j.io.i2c;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  I2CTransaction.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+import com.pi4j.io.file.LinuxFile;
+
+/**
+ * <p>
+ * A batch of i2c read and write messages that is submitted to the bus with a single
+ * <code>I2C_RDWR</code> ioctl (see {@link I2CBus#execute(I2CTransaction)}).  The messages are
+ * separated by repeated starts (no stop condition until the end of the transaction), the bus
+ * is locked only once and the complete batch costs one system call.  Messages may address
+ * different devices on the same bus.
+ * </p>
+ *
+ * <p>
+ * Example: read 6 registers from two sensors in one system call
+ * <pre>
+ * {@code
+ *    I2CTransaction transaction = new I2CTransaction()
+ *        .readRegister(0x68, 0x3B, accel, 0, 6)
+ *        .readRegister(0x1E, 0x03, mag, 0, 6);
+ *    bus.execute(transaction); // accel and mag are filled
+ * }
+ * </pre>
+ * </p>
+ *
+ * <p>
+ * The native message structures are kept in a reusable direct buffer, so a transaction that
+ * is built once (or cleared and rebuilt with the same sizes) can be executed repeatedly without
+ * allocation.  Instances are not thread-safe.
+ * </p>
+ */
+public class I2CTransaction {
+
+    /** maximum number of messages of one transaction (I2C_RDWR_IOCTL_MAX_MSGS) */
+    public static final int MAX_MESSAGES = 42;
+
+    // pointer size; determined the same way as LinuxFile.wordSize
+    private static final int WORD_SIZE = "64".equals(System.getProperty("sun.arch.data.model")) ? 8 : 4;
+
+    // struct i2c_msg { __u16 addr; __u16 flags; __u16 len; __u8 *buf; }
+    static final int MESSAGE_SIZE = 8 + WORD_SIZE;
+    static final int MESSAGE_BUFFER_OFFSET = 8;
+
+    // struct i2c_rdwr_ioctl_data { struct i2c_msg *msgs; __u32 nmsgs; }
+    static final int IOCTL_DATA_SIZE = 2 * WORD_SIZE;
+
+    private final int[] addresses = new int[MAX_MESSAGES];
+    private final int[] flags = new int[MAX_MESSAGES];
+    private final int[] registers = new int[MAX_MESSAGES];
+    private final byte[][] buffers = new byte[MAX_MESSAGES][];
+    private final int[] bufferOffsets = new int[MAX_MESSAGES];
+    private final int[] sizes = new int[MAX_MESSAGES];
+    private int count = 0;
+
+    private ByteBuffer data = null;
+    private IntBuffer offsets = null;
+
+    /**
+     * Queue a write of bytes to a device.
+     */
+    public I2CTransaction write(int address, byte[] buffer, int offset, int size) {
+        return add(address, 0, -1, buffer, offset, size);
+    }
+
+    /**
+     * Queue a read of bytes from a device into the given buffer.
+     */
+    public I2CTransaction read(int address, byte[] buffer, int offset, int size) {
+        if (size <= 0)
+            throw new IllegalArgumentException("Invalid read size: " + size);
+        return add(address, I2CConstants.I2C_M_RD, -1, buffer, offset, size);
+    }
+
+    /**
+     * Queue a write of bytes to a device register (the register address is sent first).
+     */
+    public I2CTransaction writeRegister(int address, int register, byte[] buffer, int offset, int size) {
+        return add(address, 0, register & 0xFF, buffer, offset, size);
+    }
+
+    /**
+     * Queue a read of bytes from a device register: the register address is written
+     * and the data is read after a repeated start.
+     */
+    public I2CTransaction readRegister(int address, int register, byte[] buffer, int offset, int size) {
+        if (count + 2 > MAX_MESSAGES)
+            throw new IllegalStateException("I2C transaction is limited to " + MAX_MESSAGES + " messages.");
+        add(address, 0, register & 0xFF, null, 0, 0);
+        return read(address, buffer, offset, size);
+    }
+
+    /**
+     * @return the number of queued messages
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Remove all messages (the native buffers are kept for reuse).
+     */
+    public I2CTransaction clear() {
+        for (int index = 0; index < count; index++) {
+            buffers[index] = null;
+        }
+        count = 0;
+        return this;
+    }
+
+    private I2CTransaction add(int address, int flag, int register, byte[] buffer, int offset, int size) {
+        if (address < 0 || address > 127)
+            throw new IllegalArgumentException("I2C device address is out of bounds; valid range=(0-127); ADDRESS=" + address);
+        if (size < 0 || (size > 0 && (buffer == null || offset < 0 || offset + size > buffer.length)))
+            throw new IndexOutOfBoundsException("Invalid buffer range for i2c message.");
+        if (count == MAX_MESSAGES)
+            throw new IllegalStateException("I2C transaction is limited to " + MAX_MESSAGES + " messages.");
+        addresses[count] = address;
+        flags[count] = flag;
+        registers[count] = register;
+        buffers[count] = buffer;
+        bufferOffsets[count] = offset;
+        sizes[count] = size;
+        count++;
+        return this;
+    }
+
+    private static int messageLength(int register, int size) {
+        return size + ((register >= 0) ? 1 : 0);
+    }
+
+    /**
+     * Build the native <code>i2c_rdwr_ioctl_data</code> structure.
+     * Layout: message array, ioctl data (head), message payloads.
+     */
+    void encode() {
+        if (count == 0)
+            throw new IllegalStateException("I2C transaction has no messages.");
+
+        int headOffset = count * MESSAGE_SIZE;
+        int payloadOffset = headOffset + IOCTL_DATA_SIZE;
+        int length = payloadOffset;
+        for (int index = 0; index < count; index++) {
+            length += messageLength(registers[index], sizes[index]);
+        }
+
+        // (re)allocate the reusable native buffers if needed; keep one spare byte so that
+        // every payload offset is inside the buffer, even for empty messages
+        if (data == null || data.capacity() < length + 1) {
+            data = ByteBuffer.allocateDirect(Math.max(length + 1, 256)).order(ByteOrder.nativeOrder());
+        }
+        if (offsets == null || offsets.capacity() < (count + 1) * 2) {
+            offsets = ByteBuffer.allocateDirect(MAX_MESSAGES * 2 * 4 + 8).order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+        data.clear();
+        offsets.clear();
+
+        for (int index = 0; index < count; index++) {
+            int message = index * MESSAGE_SIZE;
+            int messageLength = messageLength(registers[index], sizes[index]);
+            data.putShort(message, (short) addresses[index]);
+            data.putShort(message + 2, (short) flags[index]);
+            data.putShort(message + 4, (short) messageLength);
+            data.putShort(message + 6, (short) 0);
+
+            // message payload (reads are filled by the kernel)
+            int position = payloadOffset;
+            if (registers[index] >= 0) {
+                data.put(position++, (byte) registers[index]);
+            }
+            if ((flags[index] & I2CConstants.I2C_M_RD) == 0 && sizes[index] > 0) {
+                data.position(position);
+                data.put(buffers[index], bufferOffsets[index], sizes[index]);
+            }
+
+            // i2c_msg.buf -> payload
+            offsets.put(message + MESSAGE_BUFFER_OFFSET).put(payloadOffset);
+            payloadOffset += messageLength;
+        }
+
+        // i2c_rdwr_ioctl_data { msgs -> message array, nmsgs }
+        data.putInt(headOffset + WORD_SIZE, count);
+        offsets.put(headOffset).put(0);
+
+        data.limit(length + 1);
+        data.position(headOffset);
+        offsets.flip();
+    }
+
+    /**
+     * Copy the data of the read messages into their buffers.
+     */
+    void decode() {
+        int payloadOffset = count * MESSAGE_SIZE + IOCTL_DATA_SIZE;
+        for (int index = 0; index < count; index++) {
+            if ((flags[index] & I2CConstants.I2C_M_RD) != 0) {
+                data.position(payloadOffset);
+                data.get(buffers[index], bufferOffsets[index], sizes[index]);
+            }
+            payloadOffset += messageLength(registers[index], sizes[index]);
+        }
+    }
+
+    ByteBuffer getData() {
+        return data;
+    }
+
+    IntBuffer getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * Run this transaction with a single <code>I2C_RDWR</code> ioctl on an open i2c bus file.
+     * Used by the i2c bus implementation; the caller must hold the bus lock.
+     *
+     * @param file i2c bus file
+     * @throws IOException thrown if the transfer fails (e.g. a device does not acknowledge)
+     */
+    public void transfer(LinuxFile file) throws IOException {
+        encode();
+        file.ioctl(I2CConstants.I2C_RDWR, data, offsets);
+        decode();
+    }
+
+    /**
+     * Run the messages of this transaction one at a time with the plain read and write methods of
+     * the devices, for buses that do not support combined transfers.  Each message ends with a
+     * stop condition (no repeated starts), so a register read is a register address write
+     * followed by a separate read.
+     *
+     * @param bus i2c bus providing the devices addressed by the messages
+     * @throws IOException thrown if a transfer fails
+     */
+    public void transfer(I2CBus bus) throws IOException {
+        for (int index = 0; index < count; index++) {
+            I2CDevice device = bus.getDevice(addresses[index]);
+            if ((flags[index] & I2CConstants.I2C_M_RD) != 0) {
+                device.read(buffers[index], bufferOffsets[index], sizes[index]);
+            } else if (registers[index] >= 0 && sizes[index] > 0) {
+                device.write(registers[index], buffers[index], bufferOffsets[index], sizes[index]);
+            } else if (registers[index] >= 0) {
+                device.write((byte) registers[index]);
+            } else if (sizes[index] > 0) {
+                device.write(buffers[index], bufferOffsets[index], sizes[index]);
+            }
+        }
+    }
+}
@@ -41,6 +41,9 @@ import com.pi4j.io.i2c.I2CBus;
 import com.pi4j.io.i2c.I2CConstants;
 import com.pi4j.io.i2c.I2CDevice;
 import com.pi4j.io.i2c.I2CFactory;
+import com.pi4j.io.i2c.I2CTransaction;
+import com.pi4j.metrics.LatencyHistogram;
+import com.pi4j.metrics.Metrics;
 
 /**
  * This is implementation of i2c bus. This class keeps underlying linux file descriptor of particular bus. As all reads and writes from/to i2c bus are blocked I/Os current implementation uses only one file per bus for all devices. Device
@@ -73,6 +76,13 @@ public class I2CBusImpl implements I2CBus {
 
     private final ReentrantLock accessLock = new ReentrantLock(true);
 
+    /** Reusable buffer for register writes (guarded by the access lock) */
+    private byte[] registerWriteBuffer = new byte[33];
+
+    /** Time spent waiting for the access lock and holding it (only when metrics are enabled) */
+    private final LatencyHistogram lockWaitMetric;
+    private final LatencyHistogram transferMetric;
+
     /**
      * Constructor of i2c bus implementation.
      *
@@ -84,6 +94,14 @@ public class I2CBusImpl implements I2CBus {
         this.filename = fileName;
         this.busNumber = busNumber;
 
+        if (Metrics.ENABLED) {
+            this.lockWaitMetric = Metrics.histogram("i2c.lock.wait", "bus", Integer.toString(busNumber));
+            this.transferMetric = Metrics.histogram("i2c.transfer", "bus", Integer.toString(busNumber));
+        } else {
+            this.lockWaitMetric = null;
+            this.transferMetric = null;
+        }
+
         if (lockAquireTimeout < 0) {
             this.lockAquireTimeout = I2CFactory.DEFAULT_LOCKAQUIRE_TIMEOUT;
         } else {
@@ -192,13 +210,16 @@ public class I2CBusImpl implements I2CBus {
 
     public void writeBytes(final I2CDevice device, final int localAddress, final int size, final int offset, final byte[] buffer) throws IOException {
         runBusLockedDeviceAction(device, () -> {
-            byte[] buf = new byte[size + 1];
+            if (registerWriteBuffer.length < size + 1) {
+                registerWriteBuffer = new byte[size + 1];
+            }
+            byte[] buf = registerWriteBuffer;
 
             buf[0] = (byte)localAddress;
 
             System.arraycopy(buffer, offset, buf, 1, size);
 
-            file.write(buf);
+            file.write(buf, 0, size + 1);
 
             return null;
         });
@@ -229,6 +250,26 @@ public class I2CBusImpl implements I2CBus {
         });
     }
 
+    /**
+     * Runs the messages of the transaction with a single I2C_RDWR ioctl. The devices are addressed
+     * by the messages, so no slave selection is needed.
+     *
+     * @param transaction the messages to transfer
+     * @throws IOException thrown in case the transfer fails
+     */
+    @Override
+    public void execute(final I2CTransaction transaction) throws IOException {
+        if (transaction == null) {
+            throw new NullPointerException("Parameter 'transaction' is mandatory!");
+        }
+
+        runBusLockedAction(null, () -> {
+            transaction.transfer(file);
+
+            return null;
+        });
+    }
+
     /**
      * Selects a device on the bus for an action, and locks parallel access around file descriptor operations.
      * Multiple bus instances may be used in parallel, but a single bus instance must limit parallel access.
@@ -251,15 +292,34 @@ public class I2CBusImpl implements I2CBus {
 
         testForProperOperationConditions(device);
 
+        return runBusLockedAction(device, action);
+    }
+
+    /**
+     * Locks parallel access around file descriptor operations and selects the device (if any).
+     */
+    private <T> T runBusLockedAction(final I2CDevice device, final Callable<T> action) throws IOException {
         try {
+            final long lockStart = Metrics.ENABLED ? System.nanoTime() : 0L;
             if (accessLock.tryLock(lockAquireTimeout, lockAquireTimeoutUnit)) {
+                final long transferStart = Metrics.ENABLED ? System.nanoTime() : 0L;
+                if (Metrics.ENABLED) {
+                    lockWaitMetric.record(transferStart - lockStart);
+                }
                 try {
-                    testForProperOperationConditions(device);
+                    if (!isOpen()) {
+                        throw new IOException(toString() + " has already been closed! A new bus has to be acquired.");
+                    }
 
-                    selectBusSlave(device);
+                    if (device != null) {
+                        selectBusSlave(device);
+                    }
 
                     return action.call();
                 } finally {
+                    if (Metrics.ENABLED) {
+                        transferMetric.recordSince(transferStart);
+                    }
                     accessLock.unlock();
                 }
             }
@@ -293,8 +353,15 @@ public class I2CBusImpl implements I2CBus {
         }
     }
 
+    /**
+     * @return 'true' if the bus file is open
+     */
+    protected boolean isOpen() {
+        return file != null;
+    }
+
     protected void testForProperOperationConditions(final I2CDevice device) throws IOException {
-        if (file == null) {
+        if (!isOpen()) {
             throw new IOException(toString() + " has already been closed! A new bus has to be acquired.");
         }
 
@@ -32,6 +32,7 @@ import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 
 import com.pi4j.io.i2c.I2CDevice;
+import com.pi4j.io.i2c.I2CTransaction;
 
 /**
  * Implementation of i2c device. This class only holds reference to i2c bus (so it can use its handle) and device address.
@@ -226,6 +227,11 @@ public class I2CDeviceImpl implements I2CDevice {
         return getBus().readBytes(this, address, size, offset, data);
     }
 
+    @Override
+    public void execute(I2CTransaction transaction) throws IOException {
+        getBus().execute(transaction);
+    }
+
     /**
      * @see com.pi4j.io.file.LinuxFile#ioctl(long, int)
      */
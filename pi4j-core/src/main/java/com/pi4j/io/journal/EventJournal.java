@@ -0,0 +1,374 @@
+package com.pi4j.io.journal;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  EventJournal.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.event.PinAnalogValueChangeEvent;
+import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
+import com.pi4j.io.gpio.event.PinEvent;
+import com.pi4j.io.gpio.event.PinListener;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * Binary journal of GPIO edges, analog values and serial payloads, e.g. to capture input bursts in
+ * the field and replay them on a dev box with an {@link EventJournalReplayer}.
+ * </p>
+ *
+ * <p>
+ * Events are appended as fixed-size records to memory-mapped segment files in a directory.  Appending
+ * a record claims its slot with a single atomic add and writes it with plain stores into the mapped
+ * segment, so recording does not allocate or make a system call per event (a new segment is mapped
+ * when the current one is full).  Any number of threads may append concurrently.  When a maximum
+ * number of segments is set, the oldest segment is deleted when a new one is started.
+ * </p>
+ *
+ * <p>
+ * The journal is a {@link PinListener}, so GPIO events are recorded by adding it as a listener to
+ * the provider pins (<code>provider.addListener(pin, journal)</code>); serial data is recorded with
+ * {@link com.pi4j.io.serial.impl.SerialImpl#setEventJournal(EventJournal)}.
+ * </p>
+ *
+ * <p>
+ * Segment layout (little endian):
+ * <pre>
+ *   offset  0 : segment header (64 bytes: magic, version, record size, segment index,
+ *               wall clock time in milliseconds, System.nanoTime() when the segment was started)
+ *   offset 64 : records (32 bytes each)
+ *
+ *   record offset  0 : int  header (source in bits 0-7, payload length in bits 8-15, flags in
+ *                            bits 16-23); written last, 0 marks the end of the records
+ *   record offset  4 : int  id (pin address or serial port file descriptor)
+ *   record offset  8 : long timestamp (nanoseconds, monotonic)
+ *   record offset 16 : value (16 bytes: pin state value, analog value or serial payload)
+ * </pre>
+ * Serial payloads longer than 16 bytes are split into consecutive records of the same id; all
+ * but the last record have the {@link #CONTINUED} flag set.
+ * </p>
+ *
+ * @see EventJournalReader
+ * @see EventJournalReplayer
+ */
+public class EventJournal implements PinListener, Closeable {
+
+    /** record sources */
+    public enum Source {
+        DIGITAL, ANALOG, SERIAL;
+
+        private static final Source[] values = values();
+
+        int getCode() {
+            return ordinal() + 1;
+        }
+
+        static Source getSource(int code) {
+            return (code >= 1 && code <= values.length) ? values[code - 1] : null;
+        }
+    }
+
+    public static final int RECORD_SIZE = 32;
+    public static final int PAYLOAD_SIZE = 16;
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /** record flag: the serial payload continues in the next record of the same id */
+    public static final int CONTINUED = 1 << 16;
+
+    static final int HEADER_SIZE = 64;
+    static final int MAGIC = 0x4C4A3450; // "P4JL"
+    static final int VERSION = 1;
+    static final String SEGMENT_PREFIX = "journal-";
+    static final String SEGMENT_SUFFIX = ".p4j";
+
+    static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final class Segment {
+        final Path path;
+        final MappedByteBuffer buffer;
+        final AtomicInteger position = new AtomicInteger(HEADER_SIZE);
+
+        Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+
+    // the segment records are appended to; null once the journal is closed
+    private volatile Segment segment;
+
+    // segment files (oldest first) and the index of the next segment (guarded by this)
+    private final Deque<Path> segments = new ArrayDeque<>();
+    private int nextSegment = 0;
+
+    /**
+     * Create a journal in the given directory with the default segment size and no segment limit.
+     *
+     * @param directory journal directory (created if it does not exist)
+     */
+    public EventJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, 0);
+    }
+
+    /**
+     * Create a journal in the given directory.  Records are appended after the segments already
+     * in the directory (if any).
+     *
+     * @param directory journal directory (created if it does not exist)
+     * @param segmentSize segment file size in bytes (rounded down to a whole number of records)
+     * @param maxSegments maximum number of segment files to keep; 0 to keep all segments
+     */
+    public EventJournal(Path directory, int segmentSize, int maxSegments) throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("Missing directory argument.");
+        }
+        if (segmentSize < HEADER_SIZE + RECORD_SIZE) {
+            throw new IllegalArgumentException("Invalid segment size: " + segmentSize);
+        }
+        if (maxSegments < 0) {
+            throw new IllegalArgumentException("Invalid maximum number of segments: " + maxSegments);
+        }
+        this.directory = directory;
+        this.segmentSize = HEADER_SIZE + (segmentSize - HEADER_SIZE) / RECORD_SIZE * RECORD_SIZE;
+        this.maxSegments = maxSegments;
+
+        Files.createDirectories(directory);
+        for (Path path : EventJournalReader.segments(directory)) {
+            segments.add(path);
+            nextSegment = EventJournalReader.segmentIndex(path) + 1;
+        }
+        synchronized (this) {
+            segment = newSegment();
+        }
+    }
+
+    /**
+     * @return the journal directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Append a digital state change.
+     *
+     * @param pin pin address
+     * @param state new pin state
+     * @param timestamp time of the state change in nanoseconds (monotonic)
+     */
+    public void digital(int pin, PinState state, long timestamp) {
+        append(Source.DIGITAL.getCode(), pin, timestamp, state.getValue(), 0);
+    }
+
+    /**
+     * Append an analog value change.
+     *
+     * @param pin pin address
+     * @param value new analog value
+     * @param timestamp time of the value change in nanoseconds (monotonic)
+     */
+    public void analog(int pin, double value, long timestamp) {
+        append(Source.ANALOG.getCode(), pin, timestamp, Double.doubleToRawLongBits(value), 0);
+    }
+
+    /**
+     * Append data received on a serial port (timestamped now).
+     *
+     * @param fd serial port file descriptor
+     */
+    public void serial(int fd, byte[] data, int offset, int length) {
+        long timestamp = System.nanoTime();
+        do {
+            int chunk = Math.min(length, PAYLOAD_SIZE);
+            long low = pack(data, offset, Math.min(chunk, 8));
+            long high = (chunk > 8) ? pack(data, offset + 8, chunk - 8) : 0;
+            offset += chunk;
+            length -= chunk;
+            append(Source.SERIAL.getCode() | (chunk << 8) | ((length > 0) ? CONTINUED : 0), fd, timestamp, low, high);
+        } while (length > 0);
+    }
+
+    /**
+     * Append data received on a serial port (timestamped now); the buffer position is not changed.
+     *
+     * @param fd serial port file descriptor
+     * @param data received data (position to limit)
+     */
+    public void serial(int fd, ByteBuffer data) {
+        serial(fd, data, data.position(), data.remaining());
+    }
+
+    /**
+     * Append data received on a serial port (timestamped now), read with absolute gets; the buffer
+     * position and limit are not used or changed.
+     *
+     * @param fd serial port file descriptor
+     * @param data buffer holding the received data
+     * @param offset index of the first received byte in the buffer
+     * @param length number of received bytes
+     */
+    public void serial(int fd, ByteBuffer data, int offset, int length) {
+        long timestamp = System.nanoTime();
+        do {
+            int chunk = Math.min(length, PAYLOAD_SIZE);
+            long low = pack(data, offset, Math.min(chunk, 8));
+            long high = (chunk > 8) ? pack(data, offset + 8, chunk - 8) : 0;
+            offset += chunk;
+            length -= chunk;
+            append(Source.SERIAL.getCode() | (chunk << 8) | ((length > 0) ? CONTINUED : 0), fd, timestamp, low, high);
+        } while (length > 0);
+    }
+
+    /**
+     * Record digital state changes and analog value changes of the provider pins this journal
+     * has been added to as a listener.
+     */
+    @Override
+    public void handlePinEvent(PinEvent event) {
+        if (event instanceof PinDigitalStateChangeEvent) {
+            PinDigitalStateChangeEvent stateChange = (PinDigitalStateChangeEvent) event;
+            digital(event.getPin().getAddress(), stateChange.getState(), stateChange.getTimestamp());
+        } else if (event instanceof PinAnalogValueChangeEvent) {
+            analog(event.getPin().getAddress(), ((PinAnalogValueChangeEvent) event).getValue(), System.nanoTime());
+        }
+    }
+
+    // pack up to 8 payload bytes into a long (little endian)
+    private static long pack(byte[] data, int offset, int count) {
+        long value = 0;
+        for (int i = 0; i < count; i++) {
+            value |= (data[offset + i] & 0xFFL) << (i * 8);
+        }
+        return value;
+    }
+
+    private static long pack(ByteBuffer data, int offset, int count) {
+        long value = 0;
+        for (int i = 0; i < count; i++) {
+            value |= (data.get(offset + i) & 0xFFL) << (i * 8);
+        }
+        return value;
+    }
+
+    private void append(int header, int id, long timestamp, long low, long high) {
+        while (true) {
+            Segment s = segment;
+            if (s == null) {
+                return; // closed
+            }
+            int offset = s.position.getAndAdd(RECORD_SIZE);
+            if (offset >= HEADER_SIZE && offset <= segmentSize - RECORD_SIZE) {
+                ByteBuffer buffer = s.buffer;
+                buffer.putInt(offset + 4, id);
+                buffer.putLong(offset + 8, timestamp);
+                buffer.putLong(offset + 16, low);
+                buffer.putLong(offset + 24, high);
+                INT.setRelease(buffer, offset, header);
+                return;
+            }
+            roll(s);
+        }
+    }
+
+    private synchronized void roll(Segment full) {
+        // another thread may have rolled (or closed) the journal already
+        if (segment != full) {
+            return;
+        }
+        try {
+            segment = newSegment();
+        } catch (IOException e) {
+            // stop recording rather than failing the event source
+            e.printStackTrace();
+            segment = null;
+        }
+    }
+
+    private Segment newSegment() throws IOException {
+        int index = nextSegment++;
+        Path path = directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, RECORD_SIZE);
+        buffer.putInt(12, index);
+        buffer.putLong(16, System.currentTimeMillis());
+        buffer.putLong(24, System.nanoTime());
+
+        // keep at most the maximum number of segments
+        segments.add(path);
+        while (maxSegments > 0 && segments.size() > maxSegments) {
+            Files.deleteIfExists(segments.removeFirst());
+        }
+        return new Segment(path, buffer);
+    }
+
+    /**
+     * Write the current segment to the storage device.
+     */
+    public void flush() {
+        Segment s = segment;
+        if (s != null) {
+            s.buffer.force();
+        }
+    }
+
+    /**
+     * Stop recording and write the current segment to the storage device.  Records appended
+     * after the journal has been closed are discarded.
+     */
+    @Override
+    public synchronized void close() {
+        Segment s = segment;
+        segment = null;
+        if (s != null) {
+            s.buffer.force();
+        }
+    }
+}
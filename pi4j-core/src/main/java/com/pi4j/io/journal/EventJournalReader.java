@@ -0,0 +1,220 @@
+package com.pi4j.io.journal;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  EventJournalReader.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.PinState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.pi4j.io.journal.EventJournal.*;
+
+/**
+ * <p>
+ * Sequential reader of the records of an {@link EventJournal}, oldest segment first.  The reader
+ * maps the segment files and reads the records in place: {@link #next()} moves to the next record
+ * and the getters return the fields of the current record, so reading does not allocate per record.
+ * </p>
+ *
+ * <p>
+ * The reader sees the records appended up to the time it reaches them; it is meant to read a
+ * closed journal (or one that is no longer appended to).
+ * </p>
+ */
+public class EventJournalReader implements Closeable {
+
+    private final List<Path> segments;
+    private int nextSegment = 0;
+
+    // current segment and record
+    private ByteBuffer buffer = null;
+    private int position = 0;
+    private int header;
+    private int id;
+    private long timestamp;
+    private long low;
+    private long high;
+
+    /**
+     * @param directory journal directory
+     */
+    public EventJournalReader(Path directory) throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("Missing directory argument.");
+        }
+        this.segments = segments(directory);
+    }
+
+    /**
+     * Move to the next record.
+     *
+     * @return false if there are no more records
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            if (buffer != null && position <= buffer.limit() - RECORD_SIZE) {
+                int h = (int) INT.getAcquire(buffer, position);
+                if (h != 0) {
+                    header = h;
+                    id = buffer.getInt(position + 4);
+                    timestamp = buffer.getLong(position + 8);
+                    low = buffer.getLong(position + 16);
+                    high = buffer.getLong(position + 24);
+                    position += RECORD_SIZE;
+                    return true;
+                }
+            }
+            buffer = null;
+            if (nextSegment >= segments.size()) {
+                return false;
+            }
+            buffer = map(segments.get(nextSegment++));
+            position = HEADER_SIZE;
+        }
+    }
+
+    /**
+     * @return record source; null for records of an unknown source
+     */
+    public Source getSource() {
+        return Source.getSource(header & 0xFF);
+    }
+
+    /**
+     * @return pin address or serial port file descriptor
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return time of the event in nanoseconds (monotonic)
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return pin state of a DIGITAL record
+     */
+    public PinState getState() {
+        return PinState.getState((int) low);
+    }
+
+    /**
+     * @return analog value of an ANALOG record
+     */
+    public double getAnalogValue() {
+        return Double.longBitsToDouble(low);
+    }
+
+    /**
+     * @return payload length of a SERIAL record (up to {@link EventJournal#PAYLOAD_SIZE} bytes)
+     */
+    public int getPayloadLength() {
+        return (header >>> 8) & 0xFF;
+    }
+
+    /**
+     * @return true if the serial payload continues in the next SERIAL record of the same id
+     */
+    public boolean isContinued() {
+        return (header & CONTINUED) != 0;
+    }
+
+    /**
+     * Copy the payload of a SERIAL record.
+     *
+     * @param destination destination array (at least {@link #getPayloadLength()} bytes from offset)
+     * @return payload length
+     */
+    public int getPayload(byte[] destination, int offset) {
+        int length = getPayloadLength();
+        for (int i = 0; i < length; i++) {
+            destination[offset + i] = (byte) (((i < 8) ? low : high) >>> ((i & 7) * 8));
+        }
+        return length;
+    }
+
+    @Override
+    public void close() {
+        buffer = null;
+        nextSegment = segments.size();
+    }
+
+    private static ByteBuffer map(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || buffer.getInt(8) != RECORD_SIZE) {
+            throw new IOException("Invalid event journal segment: " + path);
+        }
+        return buffer;
+    }
+
+    /**
+     * @return the segment files of a journal directory, oldest first
+     */
+    static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                if (segmentIndex(path) >= 0) {
+                    segments.add(path);
+                }
+            }
+        }
+        segments.sort(Comparator.comparingInt(EventJournalReader::segmentIndex));
+        return segments;
+    }
+
+    /**
+     * @return the index of a segment file; -1 if the file name is not a segment file name
+     */
+    static int segmentIndex(Path path) {
+        String name = path.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+}
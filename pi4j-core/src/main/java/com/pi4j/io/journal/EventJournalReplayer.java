@@ -0,0 +1,196 @@
+package com.pi4j.io.journal;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  EventJournalReplayer.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.RaspiPin;
+import com.pi4j.io.gpio.SimulatedGpioProvider;
+import com.pi4j.io.serial.SimulatedSerial;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * Replays the records of an {@link EventJournal} without hardware: digital state changes and
+ * analog value changes are raised through {@link SimulatedGpioProvider#setState} and
+ * {@link SimulatedGpioProvider#setAnalogValue}, serial payloads are passed to
+ * {@link SimulatedSerial#receive(byte[])}.  Records are replayed at the recorded pace, at a
+ * multiple of it (e.g. to test listener throughput at 10x the field event rate) or as fast as
+ * possible.
+ * </p>
+ *
+ * <p>
+ * Records are matched by pin address and serial port file descriptor; records without a pin or
+ * serial port to replay into are skipped.
+ * </p>
+ */
+public class EventJournalReplayer {
+
+    /** replay speed: replay the records without waiting */
+    public static final double AS_FAST_AS_POSSIBLE = 0;
+
+    // remaining delays below this are spun rather than parked (parking is not precise enough)
+    private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final SimulatedGpioProvider provider;
+    private final Map<Integer, Pin> pins = new HashMap<>();
+    private final Map<Integer, SimulatedSerial> serials = new HashMap<>();
+    private SimulatedSerial defaultSerial = null;
+
+    /**
+     * @param provider simulated provider to raise the pin events with
+     * @param pins pins to replay (matched by address); all Raspberry Pi pins if none are given
+     */
+    public EventJournalReplayer(SimulatedGpioProvider provider, Pin... pins) {
+        if (provider == null) {
+            throw new IllegalArgumentException("Missing provider argument.");
+        }
+        this.provider = provider;
+        for (Pin pin : (pins.length > 0) ? pins : RaspiPin.allPins()) {
+            this.pins.put(pin.getAddress(), pin);
+        }
+    }
+
+    /**
+     * Replay the serial data recorded for a file descriptor into a simulated serial port.
+     *
+     * @param fd recorded serial port file descriptor
+     * @param serial open simulated serial port
+     */
+    public void setSerial(int fd, SimulatedSerial serial) {
+        serials.put(fd, serial);
+    }
+
+    /**
+     * Replay the serial data of all recorded serial ports (without a serial port set for its
+     * file descriptor) into a simulated serial port.
+     *
+     * @param serial open simulated serial port
+     */
+    public void setSerial(SimulatedSerial serial) {
+        defaultSerial = serial;
+    }
+
+    /**
+     * Replay a journal.
+     *
+     * @param directory journal directory
+     * @param speed replay speed (1 for the recorded pace, 10 for ten times the recorded pace);
+     *              {@link #AS_FAST_AS_POSSIBLE} to replay without waiting
+     * @return the number of replayed events (a serial payload split into several records counts once)
+     */
+    public long replay(Path directory, double speed) throws IOException, InterruptedException {
+        try (EventJournalReader reader = new EventJournalReader(directory)) {
+            return replay(reader, speed);
+        }
+    }
+
+    /**
+     * Replay the remaining records of a journal reader.
+     *
+     * @see #replay(Path, double)
+     */
+    public long replay(EventJournalReader reader, double speed) throws IOException, InterruptedException {
+        if (speed < 0) {
+            throw new IllegalArgumentException("Invalid replay speed: " + speed);
+        }
+        Map<Integer, ByteArrayOutputStream> payloads = new HashMap<>();
+        byte[] chunk = new byte[EventJournal.PAYLOAD_SIZE];
+        boolean started = false;
+        long first = 0;
+        long start = 0;
+        long count = 0;
+
+        while (reader.next()) {
+            if (!started) {
+                started = true;
+                first = reader.getTimestamp();
+                start = System.nanoTime();
+            } else if (speed > 0) {
+                await(start + (long) ((reader.getTimestamp() - first) / speed));
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+
+            EventJournal.Source source = reader.getSource();
+            if (source == EventJournal.Source.SERIAL) {
+                SimulatedSerial serial = serials.getOrDefault(reader.getId(), defaultSerial);
+                if (serial == null) {
+                    continue;
+                }
+                int length = reader.getPayload(chunk, 0);
+                if (reader.isContinued()) {
+                    payloads.computeIfAbsent(reader.getId(), id -> new ByteArrayOutputStream()).write(chunk, 0, length);
+                    continue;
+                }
+                ByteArrayOutputStream payload = payloads.get(reader.getId());
+                if (payload != null && payload.size() > 0) {
+                    payload.write(chunk, 0, length);
+                    serial.receive(payload.toByteArray());
+                    payload.reset();
+                } else {
+                    serial.receive(Arrays.copyOf(chunk, length));
+                }
+                count++;
+                continue;
+            }
+
+            Pin pin = pins.get(reader.getId());
+            if (pin == null) {
+                continue;
+            }
+            if (source == EventJournal.Source.DIGITAL) {
+                provider.setState(pin, reader.getState());
+                count++;
+            } else if (source == EventJournal.Source.ANALOG) {
+                provider.setAnalogValue(pin, reader.getAnalogValue());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void await(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
@@ -27,6 +27,9 @@ package com.pi4j.io.serial;
  * #L%
  */
 
+import com.pi4j.io.serial.frame.SerialFrameDecoder;
+import com.pi4j.io.serial.impl.SerialByteBuffer;
+
 public class SerialConfig {
 
     private String device = Serial.DEFAULT_COM_PORT;
@@ -35,6 +38,12 @@ public class SerialConfig {
     private Parity parity = Parity.NONE;
     private StopBits stopBits = StopBits._1;
     private FlowControl flowControl = FlowControl.NONE;
+    private int receiveMinimumLength = 0;
+    private int receiveInterByteTimeout = 0;
+    private int directReceiveBufferSize = 0;
+    private int receiveBufferLimit = 0;
+    private SerialByteBuffer.OverflowPolicy receiveBufferOverflowPolicy = SerialByteBuffer.OverflowPolicy.DROP_OLDEST;
+    private SerialFrameDecoder frameDecoder = null;
 
     public SerialConfig(){}
 
@@ -100,6 +109,80 @@ public class SerialConfig {
      */
     public SerialConfig flowControl(FlowControl flowControl) { this.flowControl = flowControl; return this; }
 
+    /**
+     * The minimum number of received bytes collected before a data receive event is raised. (like termios VMIN)
+     * The default of 0 raises an event for any received data.
+     */
+    public int receiveMinimumLength() { return receiveMinimumLength; }
+
+    /**
+     * The minimum number of received bytes collected before a data receive event is raised. (like termios VMIN)
+     * The default of 0 raises an event for any received data.
+     */
+    public SerialConfig receiveMinimumLength(int receiveMinimumLength) { this.receiveMinimumLength = receiveMinimumLength; return this; }
+
+    /**
+     * The line idle time in microseconds that completes a received frame. (like termios VTIME)
+     * The default of 0 raises a data receive event as soon as data is available; use e.g. 3.5
+     * character times for Modbus RTU framing.
+     */
+    public int receiveInterByteTimeout() { return receiveInterByteTimeout; }
+
+    /**
+     * The line idle time in microseconds that completes a received frame. (like termios VTIME)
+     * The default of 0 raises a data receive event as soon as data is available; use e.g. 3.5
+     * character times for Modbus RTU framing.
+     */
+    public SerialConfig receiveInterByteTimeout(int receiveInterByteTimeout) { this.receiveInterByteTimeout = receiveInterByteTimeout; return this; }
+
+    /**
+     * The capacity in bytes of a direct (off-heap) receive ring that the native code reads received
+     * data into without any copying. (rounded up to a power of two)
+     * The default of 0 uses the heap receive buffer.
+     */
+    public int directReceiveBufferSize() { return directReceiveBufferSize; }
+
+    /**
+     * The capacity in bytes of a direct (off-heap) receive ring that the native code reads received
+     * data into without any copying. (rounded up to a power of two)
+     * The default of 0 uses the heap receive buffer.
+     */
+    public SerialConfig directReceiveBufferSize(int directReceiveBufferSize) { this.directReceiveBufferSize = directReceiveBufferSize; return this; }
+
+    /**
+     * The maximum capacity in bytes of the (heap) receive buffer.
+     * The default of 0 lets the receive buffer grow until the received data is consumed.
+     */
+    public int receiveBufferLimit() { return receiveBufferLimit; }
+
+    /**
+     * The maximum capacity in bytes of the (heap) receive buffer.
+     * The default of 0 lets the receive buffer grow until the received data is consumed.
+     */
+    public SerialConfig receiveBufferLimit(int receiveBufferLimit) { this.receiveBufferLimit = receiveBufferLimit; return this; }
+
+    /**
+     * What happens to received data when the receive buffer limit is reached. (default: DROP_OLDEST)
+     */
+    public SerialByteBuffer.OverflowPolicy receiveBufferOverflowPolicy() { return receiveBufferOverflowPolicy; }
+
+    /**
+     * What happens to received data when the receive buffer limit is reached. (default: DROP_OLDEST)
+     */
+    public SerialConfig receiveBufferOverflowPolicy(SerialByteBuffer.OverflowPolicy receiveBufferOverflowPolicy) { this.receiveBufferOverflowPolicy = receiveBufferOverflowPolicy; return this; }
+
+    /**
+     * The decoder that splits received data into protocol frames; data events are then raised once per frame.
+     * (see com.pi4j.io.serial.frame)  The default of null raises data events for any received data.
+     */
+    public SerialFrameDecoder frameDecoder() { return frameDecoder; }
+
+    /**
+     * The decoder that splits received data into protocol frames; data events are then raised once per frame.
+     * (see com.pi4j.io.serial.frame)  The default of null raises data events for any received data.
+     */
+    public SerialConfig frameDecoder(SerialFrameDecoder frameDecoder) { this.frameDecoder = frameDecoder; return this; }
+
     @Override
     public String toString(){
         // /dev/ttyAMA0 (38400, 8N1) [FC=NONE]
@@ -64,6 +64,7 @@ public class SerialDataEvent extends EventObject {
     private static final long serialVersionUID = 1L;
     private final Serial serial;
     private byte[] cachedData = null;
+    private ByteBuffer cachedBuffer = null;
 
     /**
      * Default event constructor.
@@ -81,6 +82,15 @@ public class SerialDataEvent extends EventObject {
         this.cachedData = data;
     }
 
+    /**
+     * Event constructor for a data payload that is a (read-only) view of the receive buffer.
+     * The view is only valid while the event is being dispatched; use getBytes() to keep a copy.
+     */
+    public SerialDataEvent(Serial serial, ByteBuffer data) {
+        this(serial);
+        this.cachedBuffer = data;
+    }
+
     /**
      * Get the serial interface instance
      *
@@ -109,6 +119,9 @@ public class SerialDataEvent extends EventObject {
         if(cachedData != null){
             return cachedData.length;
         }
+        if(cachedBuffer != null){
+            return cachedBuffer.remaining();
+        }
         return getReader().available();
     }
 
@@ -119,6 +132,10 @@ public class SerialDataEvent extends EventObject {
      * @throws IOException
      */
     public byte[] getBytes() throws IOException {
+        if(cachedData == null && cachedBuffer != null){
+            cachedData = new byte[cachedBuffer.remaining()];
+            cachedBuffer.duplicate().get(cachedData);
+        }
         if(cachedData == null){
             if(getReader().available() > 0) {
                 cachedData = getReader().read();
@@ -137,6 +154,9 @@ public class SerialDataEvent extends EventObject {
      * @throws IOException
      */
     public ByteBuffer getByteBuffer() throws IOException {
+        if(cachedBuffer != null){
+            return cachedBuffer.duplicate();
+        }
         return ByteBuffer.wrap(getBytes());
     }
 
@@ -0,0 +1,199 @@
+package com.pi4j.io.serial;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SimulatedSerial.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.serial.impl.SerialImpl;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * A serial port without a serial device, to aid in development and testing on a standard PC dev
+ * environment.  Data passed to {@link #receive(byte[])} is handled exactly like data received from
+ * a serial device: it is framed by the frame decoder (if any), buffered in the receive buffer
+ * and passed to the data event listeners on the listener notification thread.  Transmitted data
+ * is discarded and the control lines are not supported (they always read 'false').
+ * </p>
+ *
+ * <p>
+ * Without the native library, open the port with {@link #open(String, int)}; the serial
+ * configuration enums (and so SerialConfig) require the native serial library.
+ * </p>
+ *
+ * @see com.pi4j.io.journal.EventJournalReplayer
+ */
+public class SimulatedSerial extends SerialImpl {
+
+    // simulated file descriptors (for logging only; they do not refer to an open file)
+    private static final AtomicInteger fileDescriptors = new AtomicInteger(10000);
+
+    private String device = null;
+
+    @Override
+    public void open(String device, int baud, int dataBits, int parity, int stopBits, int flowControl)
+            throws IOException {
+        this.device = device;
+        fileDescriptor = fileDescriptors.getAndIncrement();
+    }
+
+    @Override
+    public void open(String device, int baud) throws IOException {
+        // the line settings are not used; the constants of the native serial class are not
+        // referenced so the simulated serial port works without the native library
+        open(device, baud, 8, 0, 1, 0);
+    }
+
+    @Override
+    public void open(SerialConfig serialConfig) throws IOException {
+        setFrameDecoder(serialConfig.frameDecoder());
+        receiveBuffer.setCapacityLimit(serialConfig.receiveBufferLimit(),
+                serialConfig.receiveBufferOverflowPolicy());
+        open(serialConfig.device(), serialConfig.baud().getValue());
+    }
+
+    /**
+     * @return the device name the serial port was opened with
+     */
+    public String getDevice() {
+        return device;
+    }
+
+    /**
+     * Simulate data received from the serial device.
+     *
+     * @param data received data
+     * @throws IllegalStateException thrown if the serial port is not already open.
+     */
+    @Override
+    public void receive(byte[] data) throws IllegalStateException {
+        validateOpen("receive");
+
+        if (data.length > 0) {
+            super.receive(data);
+        }
+    }
+
+    @Override
+    public void close() throws IllegalStateException, IOException {
+        validateOpen("close");
+        fileDescriptor = -1;
+    }
+
+    @Override
+    public void setDirectReceiveBuffer(int capacity) throws IllegalStateException, IOException {
+        throw new IOException("Direct receive buffers are not supported by a simulated serial port.");
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IllegalStateException, IOException {
+        validateOpen("write");
+    }
+
+    @Override
+    public void flush() throws IllegalStateException, IOException {
+        validateOpen("flush");
+    }
+
+    @Override
+    public void discardInput() throws IllegalStateException, IOException {
+        validateOpen("discardInput");
+        receiveBuffer.clear();
+    }
+
+    @Override
+    public void discardOutput() throws IllegalStateException, IOException {
+        validateOpen("discardOutput");
+    }
+
+    @Override
+    public void discardAll() throws IllegalStateException, IOException {
+        discardInput();
+    }
+
+    @Override
+    public void sendBreak(int duration) throws IllegalStateException, IOException {
+        validateOpen("sendBreak");
+    }
+
+    @Override
+    public void setBreak(boolean enabled) throws IllegalStateException, IOException {
+        validateOpen("setBreak");
+    }
+
+    @Override
+    public void setRTS(boolean enabled) throws IllegalStateException, IOException {
+        validateOpen("setRTS");
+    }
+
+    @Override
+    public void setDTR(boolean enabled) throws IllegalStateException, IOException {
+        validateOpen("setDTR");
+    }
+
+    @Override
+    public boolean getRTS() throws IllegalStateException, IOException {
+        validateOpen("getRTS");
+        return false;
+    }
+
+    @Override
+    public boolean getDTR() throws IllegalStateException, IOException {
+        validateOpen("getDTR");
+        return false;
+    }
+
+    @Override
+    public boolean getCTS() throws IllegalStateException, IOException {
+        validateOpen("getCTS");
+        return false;
+    }
+
+    @Override
+    public boolean getDSR() throws IllegalStateException, IOException {
+        validateOpen("getDSR");
+        return false;
+    }
+
+    @Override
+    public boolean getRI() throws IllegalStateException, IOException {
+        validateOpen("getRI");
+        return false;
+    }
+
+    @Override
+    public boolean getCD() throws IllegalStateException, IOException {
+        validateOpen("getCD");
+        return false;
+    }
+
+    private void validateOpen(String operation) throws IllegalStateException {
+        if (isClosed())
+            throw new IllegalStateException("Serial connection is not open; cannot '" + operation + "()'.");
+    }
+}
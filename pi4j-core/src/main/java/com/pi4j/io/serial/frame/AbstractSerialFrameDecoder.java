@@ -0,0 +1,67 @@
+package com.pi4j.io.serial.frame;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  AbstractSerialFrameDecoder.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.nio.ByteBuffer;
+
+public abstract class AbstractSerialFrameDecoder implements SerialFrameDecoder {
+
+    protected final int maxFrameLength;
+
+    protected AbstractSerialFrameDecoder(int maxFrameLength) {
+        if (maxFrameLength <= 0)
+            throw new IllegalArgumentException("Invalid maximum frame length: " + maxFrameLength);
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    @Override
+    public int getMaxFrameLength() {
+        return maxFrameLength;
+    }
+
+    /**
+     * Get a view of a region of the input (absolute index) without changing the input.
+     */
+    protected static ByteBuffer slice(ByteBuffer input, int index, int length) {
+        ByteBuffer view = input.duplicate();
+        view.limit(index + length).position(index);
+        return view.slice();
+    }
+
+    /**
+     * Find the first occurrence of a byte value (absolute index) or -1.
+     */
+    protected static int indexOf(ByteBuffer input, int from, byte value) {
+        for (int index = from; index < input.limit(); index++) {
+            if (input.get(index) == value) {
+                return index;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,85 @@
+package com.pi4j.io.serial.frame;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  CobsFrameDecoder.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.nio.ByteBuffer;
+
+/**
+ * Frame decoder for COBS (Consistent Overhead Byte Stuffing) encoded frames that are
+ * terminated by a zero byte.  Frames are decoded into a reusable scratch buffer;
+ * malformed frames are discarded.
+ */
+public class CobsFrameDecoder extends AbstractSerialFrameDecoder {
+
+    private final byte[] scratch;
+
+    public CobsFrameDecoder(int maxFrameLength) {
+        super(maxFrameLength);
+        this.scratch = new byte[maxFrameLength];
+    }
+
+    @Override
+    public ByteBuffer decode(ByteBuffer input) {
+        int start = input.position();
+        int end = indexOf(input, start, (byte) 0);
+
+        if (end < 0) {
+            // discard data that can not be a valid frame
+            if (input.remaining() > maxFrameLength + maxFrameLength / 254 + 1) {
+                input.position(input.limit());
+            }
+            return null;
+        }
+
+        // consume the frame including its delimiter; skip empty or malformed frames
+        input.position(end + 1);
+        int length = decode(input, start, end);
+        return (length > 0) ? ByteBuffer.wrap(scratch, 0, length).slice() : null;
+    }
+
+    private int decode(ByteBuffer input, int index, int end) {
+        int length = 0;
+        while (index < end) {
+            int code = input.get(index++) & 0xff;
+            for (int count = 1; count < code; count++) {
+                if (index >= end || length == maxFrameLength) {
+                    return -1;
+                }
+                scratch[length++] = input.get(index++);
+            }
+            // a block shorter than 254 data bytes stands for a zero (except at the end)
+            if (code < 0xff && index < end) {
+                if (length == maxFrameLength) {
+                    return -1;
+                }
+                scratch[length++] = 0;
+            }
+        }
+        return length;
+    }
+}
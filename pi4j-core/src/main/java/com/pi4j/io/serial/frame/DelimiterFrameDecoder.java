@@ -0,0 +1,99 @@
+package com.pi4j.io.serial.frame;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  DelimiterFrameDecoder.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.nio.ByteBuffer;
+
+/**
+ * Frame decoder for frames terminated by a delimiter sequence (e.g. CR/LF terminated
+ * text lines such as NMEA sentences).  Data exceeding the maximum frame length without
+ * a delimiter is discarded up to and including the next delimiter.
+ */
+public class DelimiterFrameDecoder extends AbstractSerialFrameDecoder {
+
+    public static final byte[] LF = { '\n' };
+    public static final byte[] CRLF = { '\r', '\n' };
+
+    private final byte[] delimiter;
+    private final boolean stripDelimiter;
+    private boolean discarding = false;
+
+    public DelimiterFrameDecoder(byte[] delimiter, int maxFrameLength) {
+        this(delimiter, maxFrameLength, true);
+    }
+
+    public DelimiterFrameDecoder(byte[] delimiter, int maxFrameLength, boolean stripDelimiter) {
+        super(maxFrameLength);
+        if (delimiter == null || delimiter.length == 0)
+            throw new IllegalArgumentException("A frame delimiter is required.");
+        this.delimiter = delimiter.clone();
+        this.stripDelimiter = stripDelimiter;
+    }
+
+    @Override
+    public ByteBuffer decode(ByteBuffer input) {
+        int start = input.position();
+        int end = find(input, start);
+
+        if (end < 0) {
+            // no delimiter within the maximum frame length; discard the data but keep
+            // a possible partial delimiter at the end
+            int length = input.remaining();
+            if (length > maxFrameLength + delimiter.length) {
+                input.position(input.limit() - (delimiter.length - 1));
+                discarding = true;
+            }
+            return null;
+        }
+
+        if (discarding) {
+            // end of an oversized frame
+            input.position(end + delimiter.length);
+            discarding = false;
+            return null;
+        }
+
+        ByteBuffer frame = slice(input, start, (end - start) + (stripDelimiter ? 0 : delimiter.length));
+        input.position(end + delimiter.length);
+        return frame;
+    }
+
+    private int find(ByteBuffer input, int from) {
+        int last = Math.min(input.limit() - delimiter.length, from + maxFrameLength);
+        for (int index = from; index <= last; index++) {
+            int matched = 0;
+            while (matched < delimiter.length && input.get(index + matched) == delimiter[matched]) {
+                matched++;
+            }
+            if (matched == delimiter.length) {
+                return index;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,50 @@
+package com.pi4j.io.serial.frame;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  FixedLengthFrameDecoder.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.nio.ByteBuffer;
+
+/**
+ * Frame decoder for frames of a fixed number of bytes.
+ */
+public class FixedLengthFrameDecoder extends AbstractSerialFrameDecoder {
+
+    public FixedLengthFrameDecoder(int frameLength) {
+        super(frameLength);
+    }
+
+    @Override
+    public ByteBuffer decode(ByteBuffer input) {
+        if (input.remaining() < maxFrameLength) {
+            return null;
+        }
+        ByteBuffer frame = slice(input, input.position(), maxFrameLength);
+        input.position(input.position() + maxFrameLength);
+        return frame;
+    }
+}
@@ -0,0 +1,111 @@
+package com.pi4j.io.serial.frame;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  LengthFieldFrameDecoder.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * <p>
+ * Frame decoder for frames that carry their length in a header field.
+ * </p>
+ *
+ * <p>
+ * The total frame length is <code>lengthFieldOffset + lengthFieldLength + value + lengthAdjustment</code>;
+ * use the adjustment if the length value also counts the header (negative) or does not count a
+ * trailer such as a checksum (positive).  The first <code>bytesToStrip</code> bytes of each frame
+ * (e.g. the header) are not included in the payload.  Frames with an invalid length are skipped
+ * one byte at a time to re-synchronize.
+ * </p>
+ */
+public class LengthFieldFrameDecoder extends AbstractSerialFrameDecoder {
+
+    private final int lengthFieldOffset;
+    private final int lengthFieldLength;
+    private final ByteOrder byteOrder;
+    private final int lengthAdjustment;
+    private final int bytesToStrip;
+
+    public LengthFieldFrameDecoder(int lengthFieldOffset, int lengthFieldLength, int maxFrameLength) {
+        this(lengthFieldOffset, lengthFieldLength, ByteOrder.BIG_ENDIAN, 0, 0, maxFrameLength);
+    }
+
+    public LengthFieldFrameDecoder(int lengthFieldOffset, int lengthFieldLength, ByteOrder byteOrder,
+                                   int lengthAdjustment, int bytesToStrip, int maxFrameLength) {
+        super(maxFrameLength);
+        if (lengthFieldLength != 1 && lengthFieldLength != 2 && lengthFieldLength != 4)
+            throw new IllegalArgumentException("Length field must be 1, 2 or 4 bytes: " + lengthFieldLength);
+        if (lengthFieldOffset < 0 || bytesToStrip < 0)
+            throw new IllegalArgumentException("Invalid length field offset or bytes to strip.");
+        this.lengthFieldOffset = lengthFieldOffset;
+        this.lengthFieldLength = lengthFieldLength;
+        this.byteOrder = byteOrder;
+        this.lengthAdjustment = lengthAdjustment;
+        this.bytesToStrip = bytesToStrip;
+    }
+
+    @Override
+    public ByteBuffer decode(ByteBuffer input) {
+        int start = input.position();
+        int headerLength = lengthFieldOffset + lengthFieldLength;
+        if (input.remaining() < headerLength) {
+            return null;
+        }
+
+        long frameLength = headerLength + lengthValue(input, start + lengthFieldOffset) + lengthAdjustment;
+        if (frameLength < Math.max(headerLength, bytesToStrip) || frameLength > maxFrameLength) {
+            // invalid length; skip a byte and try to re-synchronize
+            input.position(start + 1);
+            return null;
+        }
+        if (input.remaining() < frameLength) {
+            return null;
+        }
+
+        ByteBuffer frame = slice(input, start + bytesToStrip, (int) frameLength - bytesToStrip);
+        input.position(start + (int) frameLength);
+        return frame;
+    }
+
+    private long lengthValue(ByteBuffer input, int index) {
+        ByteOrder order = input.order();
+        try {
+            input.order(byteOrder);
+            switch (lengthFieldLength) {
+                case 1:
+                    return input.get(index) & 0xffL;
+                case 2:
+                    return input.getShort(index) & 0xffffL;
+                default:
+                    return input.getInt(index) & 0xffffffffL;
+            }
+        } finally {
+            input.order(order);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.pi4j.io.serial.frame;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SerialFrameAssembler.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * This class implements the framing stage between received serial data and the data event
+ * listeners.  Received data is handed to a {@link SerialFrameDecoder} and every complete frame
+ * is emitted as a read-only {@link ByteBuffer} view.
+ * </p>
+ *
+ * <p>
+ * Frames are decoded in place in the received data; only the bytes of a frame that is still
+ * incomplete at the end of the received data are copied into a (preallocated) pending buffer
+ * so that the frame can be completed with the next received data.  Emitted frame views are
+ * only valid during the frame handler callback.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe; received data must be passed in order from a single thread.
+ * </p>
+ */
+public class SerialFrameAssembler {
+
+    /**
+     * Callback for complete frames.
+     */
+    public interface FrameHandler {
+        void onFrame(ByteBuffer frame);
+    }
+
+    private final SerialFrameDecoder decoder;
+    private final ByteBuffer pending;
+    private long discardedCount = 0;
+
+    public SerialFrameAssembler(SerialFrameDecoder decoder) {
+        // the pending buffer must hold at least one frame (COBS/SLIP encoding adds some overhead)
+        this(decoder, decoder.getMaxFrameLength() * 2 + 2);
+    }
+
+    public SerialFrameAssembler(SerialFrameDecoder decoder, int pendingCapacity) {
+        this.decoder = decoder;
+        this.pending = ByteBuffer.allocate(pendingCapacity);
+        this.pending.flip(); // no pending data
+    }
+
+    public SerialFrameDecoder getDecoder() {
+        return decoder;
+    }
+
+    /**
+     * @return the number of received bytes discarded because a partial frame exceeded the pending buffer
+     */
+    public long getDiscardedCount() {
+        return discardedCount;
+    }
+
+    /**
+     * @return the number of received bytes of an incomplete frame held for the next received data
+     */
+    public int getPendingLength() {
+        return pending.remaining();
+    }
+
+    /**
+     * Discard any incomplete frame data.
+     */
+    public void reset() {
+        pending.clear().flip();
+    }
+
+    /**
+     * Decode the received data and emit each complete frame.  The data is consumed completely.
+     *
+     * @param data received data (position to limit)
+     * @param handler frame callback
+     */
+    public void receive(ByteBuffer data, FrameHandler handler) {
+        while (data.hasRemaining()) {
+            if (!pending.hasRemaining()) {
+                // no incomplete frame; decode directly in the received data
+                decodeFrames(data, handler);
+                if (data.hasRemaining()) {
+                    append(data);
+                }
+                return;
+            }
+
+            // complete the pending frame with (part of) the received data
+            append(data);
+            decodeFrames(pending, handler);
+
+            if (!pending.hasRemaining()) {
+                continue;
+            }
+            if (pending.limit() == pending.capacity() && pending.position() == 0) {
+                // the pending buffer is full without a complete frame
+                discardedCount += pending.remaining();
+                reset();
+            }
+        }
+    }
+
+    private void decodeFrames(ByteBuffer input, FrameHandler handler) {
+        while (input.hasRemaining()) {
+            int position = input.position();
+            ByteBuffer frame = decoder.decode(input);
+            if (frame != null) {
+                handler.onFrame(frame.asReadOnlyBuffer());
+            } else if (input.position() == position) {
+                return; // incomplete frame
+            }
+        }
+    }
+
+    // copy as much of the data as fits behind the pending bytes
+    private void append(ByteBuffer data) {
+        pending.compact();
+        int length = Math.min(pending.remaining(), data.remaining());
+        ByteBuffer source = data.duplicate();
+        source.limit(source.position() + length);
+        pending.put(source);
+        data.position(data.position() + length);
+        pending.flip();
+    }
+}
@@ -0,0 +1,65 @@
+package com.pi4j.io.serial.frame;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SerialFrameDecoder.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * A serial frame decoder extracts complete protocol frames from received serial data.
+ * Decoders scan the received bytes in place; see {@link SerialFrameAssembler} for the stage
+ * that feeds received data to a decoder and emits one event per frame.
+ * </p>
+ *
+ * @see com.pi4j.io.serial.impl.SerialImpl#setFrameDecoder(SerialFrameDecoder)
+ */
+public interface SerialFrameDecoder {
+
+    /**
+     * <p>
+     * Decode the next frame from the bytes between the position and the limit of the input.
+     * </p>
+     *
+     * <p>
+     * If a complete frame is available, the input position is advanced past the frame and a
+     * buffer holding the frame payload is returned.  The payload is a view of the input (or of
+     * a decoder owned scratch buffer for encoded frames) and is only valid until the next call.
+     * If no complete frame is available, <code>null</code> is returned; the input position is
+     * then left unchanged, unless invalid data was skipped.
+     * </p>
+     *
+     * @param input received data
+     * @return frame payload or null
+     */
+    ByteBuffer decode(ByteBuffer input);
+
+    /**
+     * @return the maximum frame length (in received bytes) accepted by this decoder
+     */
+    int getMaxFrameLength();
+}
@@ -0,0 +1,93 @@
+package com.pi4j.io.serial.frame;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SlipFrameDecoder.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.nio.ByteBuffer;
+
+/**
+ * Frame decoder for SLIP (RFC 1055) frames.  Frames are decoded into a reusable
+ * scratch buffer; empty and malformed frames are discarded.
+ */
+public class SlipFrameDecoder extends AbstractSerialFrameDecoder {
+
+    public static final byte END = (byte) 0xC0;
+    public static final byte ESC = (byte) 0xDB;
+    public static final byte ESC_END = (byte) 0xDC;
+    public static final byte ESC_ESC = (byte) 0xDD;
+
+    private final byte[] scratch;
+
+    public SlipFrameDecoder(int maxFrameLength) {
+        super(maxFrameLength);
+        this.scratch = new byte[maxFrameLength];
+    }
+
+    @Override
+    public ByteBuffer decode(ByteBuffer input) {
+        int start = input.position();
+        int end = indexOf(input, start, END);
+
+        if (end < 0) {
+            // discard data that can not be a valid frame
+            if (input.remaining() > maxFrameLength * 2) {
+                input.position(input.limit());
+            }
+            return null;
+        }
+
+        // consume the frame including its END byte; skip empty or malformed frames
+        input.position(end + 1);
+        int length = decode(input, start, end);
+        return (length > 0) ? ByteBuffer.wrap(scratch, 0, length).slice() : null;
+    }
+
+    private int decode(ByteBuffer input, int index, int end) {
+        int length = 0;
+        while (index < end) {
+            if (length == maxFrameLength) {
+                return -1;
+            }
+            byte value = input.get(index++);
+            if (value == ESC) {
+                if (index >= end) {
+                    return -1;
+                }
+                value = input.get(index++);
+                if (value == ESC_END) {
+                    value = END;
+                } else if (value == ESC_ESC) {
+                    value = ESC;
+                } else {
+                    return -1;
+                }
+            }
+            scratch[length++] = value;
+        }
+        return length;
+    }
+}
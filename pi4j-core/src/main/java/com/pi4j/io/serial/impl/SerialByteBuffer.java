@@ -30,10 +30,17 @@ package com.pi4j.io.serial.impl;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.BufferOverflowException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * This class implements a dynamic expanding byte buffer to
- * accommodate new data received from the serial port
+ * This class implements a circular byte buffer to accommodate new data
+ * received from the serial port.  By default the buffer expands dynamically;
+ * optionally a hard capacity limit with an overflow policy can be set.
+ *
+ * Readers blocked on the input stream are woken as soon as data is written;
+ * timed reads are supported via {@link SerialByteBufferInputStream#read(byte[], int, int, long)}.
  *
  * Adapted from sources at:
  * http://ostermiller.org/utils/src/CircularByteBuffer.java.html
@@ -42,13 +49,28 @@ import java.nio.BufferOverflowException;
  */
 public class SerialByteBuffer {
 
+    /**
+     * Behavior when data is written to a buffer that has reached its capacity limit.
+     */
+    public enum OverflowPolicy {
+        /** discard the oldest unread bytes to make room for the new data */
+        DROP_OLDEST,
+        /** discard the new data and throw a {@link BufferOverflowException} */
+        REJECT
+    }
+
     public static int DEFAULT_BUFFER_SCALE_FACTOR = 2;
     public static int DEFAULT_INITIAL_BUFFER_SIZE = 4096;
 
-    private InputStream stream = new SerialByteBufferInputStream();
-    private volatile int writeIndex = 0;
-    private volatile int readIndex = 0;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition dataAvailable = lock.newCondition();
+    private final SerialByteBufferInputStream stream = new SerialByteBufferInputStream();
+    private int readIndex = 0;
+    private int count = 0;
     private byte[] buffer;
+    private int maximumCapacity = 0;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+    private long overflowCount = 0;
 
     public SerialByteBuffer(){
         // initialize buffer with default capacity
@@ -60,174 +82,230 @@ public class SerialByteBuffer {
         buffer = new byte[initialCapacity];
     }
 
-    public synchronized void clear(){
-        // reset read and write index pointers
-        readIndex = writeIndex = 0;
+    public SerialByteBuffer(int initialCapacity, int maximumCapacity, OverflowPolicy overflowPolicy){
+        // initialize buffer with user provided capacity and limit
+        this(Math.min(initialCapacity, maximumCapacity));
+        setCapacityLimit(maximumCapacity, overflowPolicy);
     }
 
-    public InputStream getInputStream(){
-        // return the input stream
-        return stream;
+    /**
+     * Limit the buffer capacity; data written beyond the limit is handled according to
+     * the overflow policy.  A maximum capacity of '0' (default) lets the buffer grow unbounded.
+     */
+    public void setCapacityLimit(int maximumCapacity, OverflowPolicy overflowPolicy){
+        if (maximumCapacity < 0 || overflowPolicy == null)
+            throw new IllegalArgumentException("Invalid buffer capacity limit.");
+        lock.lock();
+        try {
+            this.maximumCapacity = maximumCapacity;
+            this.overflowPolicy = overflowPolicy;
+            // shrink the buffer (dropping the oldest data) if it exceeds the new limit
+            if (maximumCapacity > 0 && buffer.length > maximumCapacity) {
+                discard(Math.max(count - maximumCapacity, 0));
+                resize(maximumCapacity);
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized int capacity(){
-        // return the buffer's total capacity
-        return buffer.length;
+    public int getMaximumCapacity(){
+        return maximumCapacity;
     }
 
-    public synchronized int remaining(){
-        // return the number of (unused) bytes still available in the current buffer's capacity
-        if (writeIndex < readIndex)
-            return (readIndex - writeIndex - 1);
-        return ((buffer.length - 1) - (writeIndex - readIndex));
+    public OverflowPolicy getOverflowPolicy(){
+        return overflowPolicy;
     }
 
-    public synchronized int available(){
-        // return the number of bytes that are ready to be read
-        if (readIndex <= writeIndex)
-            return (writeIndex - readIndex);
-        return (buffer.length - (readIndex - writeIndex));
+    /**
+     * @return the total number of bytes discarded because of buffer overflows
+     */
+    public long getOverflowCount(){
+        lock.lock();
+        try {
+            return overflowCount;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    private synchronized void resize(int length) {
-        int min_capacity = buffer.length + length;
-        int new_capacity = buffer.length * DEFAULT_BUFFER_SCALE_FACTOR;
-
-        // double the capacity until the buffer is large enough to accommodate the new demand
-        while (new_capacity < min_capacity) {
-            new_capacity *= DEFAULT_BUFFER_SCALE_FACTOR;
+    public void clear(){
+        // reset read index and data length
+        lock.lock();
+        try {
+            readIndex = count = 0;
+        } finally {
+            lock.unlock();
         }
+    }
 
-        // create a new buffer that can hold the newly determined
-        // capacity and copy the bytes from the old buffer into the new buffer
-        byte[] new_buffer = new byte[new_capacity];
-
-        // 0123456789012345678901234567890123
-        //              R
-        //              W
-        // -------------|--------------------
-
-        // if the write index equals the read index, then there is no data in the old buffer that
-        // is un-read and there is no need to copy any data from the old buffer to the new resized
-        // buffer ... we can simply reset both the read index and write index to the zero position
-        // in the new buffer
-        if (writeIndex == readIndex) {
-            readIndex = 0;  // reset READ pointer
-            writeIndex = 0; // reset WRITE pointer
+    public SerialByteBufferInputStream getInputStream(){
+        // return the input stream
+        return stream;
+    }
+
+    public int capacity(){
+        // return the buffer's total capacity
+        lock.lock();
+        try {
+            return buffer.length;
+        } finally {
+            lock.unlock();
         }
+    }
 
-        // 0123456789012345678901234567890123
-        //        R     W
-        // -------|XXXXX|--------------------
-
-        // if the write index is greater than the read index, then the write data has not wrapped
-        // back to the beginning of the circular buffer ... we can simply copy the remaining un-read
-        // data in the original buffer to the new buffer and reset the read buffer to the zero index
-        // and adjust the write buffer to the new position in the new buffer
-        else if (writeIndex > readIndex) {
-            // copy single payload (non-wrapping) from original buffer
-            System.arraycopy(buffer, readIndex, new_buffer, 0, writeIndex-readIndex);
-            readIndex = 0;                     // reset READ pointer
-            writeIndex = writeIndex-readIndex; // adjust WRITE pointer
+    public int remaining(){
+        // return the number of (unused) bytes still available in the current buffer's capacity
+        lock.lock();
+        try {
+            return buffer.length - count;
+        } finally {
+            lock.unlock();
         }
+    }
 
-        // 0123456789012345678901234567890123
-        //        W                     R
-        // XXXXXXX|---------------------|XXXX
-
-        // it is possible that the write index can be a lower value than the read index; this happens
-        // when a write operation on the circular buffer has wrapped the end of the buffer and started
-        // writing bytes at the beginning free space ... in this case we need to copy both the un-read
-        // data from the read index to the end of the buffer and data at the beginning of the buffer
-        // up to the write index
-        else {
-            // copy two payloads (wrapping) from original circular buffer
-            int dataLength = buffer.length - readIndex;
-            System.arraycopy(buffer, readIndex, new_buffer, 0, dataLength); // copy end buffer data to new buffer
-            System.arraycopy(buffer, 0, new_buffer, dataLength, writeIndex); // copy start buffer data to new buffer
-            readIndex = 0;                      // reset READ pointer
-            writeIndex = dataLength+writeIndex; // adjust WRITE pointer
+    public int available(){
+        // return the number of bytes that are ready to be read
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
         }
+    }
 
-//        System.out.println(" - READ INDEX   - " + readIndex);
-//        System.out.println(" - WRITE INDEX  - " + writeIndex);
-//        System.out.println(" - NEW LENGTH   - " + length);
-//        System.out.println(" - MIN CAPACITY - " + min_capacity);
-//        System.out.println(" - NEW CAPACITY - " + new_capacity);
-//        System.out.println(" - OLD BUFFER   - " + new String(buffer));
-//        System.out.println(" - NEW BUFFER   - " + new String(new_buffer));
+    // (lock must be held)
+    private void resize(int capacity) {
+        // create a new buffer that can hold the new capacity and copy the
+        // un-read bytes (which may wrap the end of the old buffer) to its start
+        byte[] new_buffer = new byte[capacity];
+        int firstLen = Math.min(count, buffer.length - readIndex);
+        System.arraycopy(buffer, readIndex, new_buffer, 0, firstLen);
+        System.arraycopy(buffer, 0, new_buffer, firstLen, count - firstLen);
+        readIndex = 0;
 
         // update buffer object reference
         // old buffer should get garbage collected
         buffer = new_buffer;
     }
 
+    // (lock must be held)
+    private void discard(int length) {
+        readIndex = (readIndex + length) % buffer.length;
+        count -= length;
+    }
+
     public void write(byte[] data) throws IOException, BufferOverflowException {
         write(data, 0, data.length);
     }
 
-    public void write(byte[] data, int offset, int length) throws IOException {
-        while (length > 0) {
-            int remaining_space = remaining();
-            if(remaining_space < length) {
-                resize(length);
-            }
-            int realLen = Math.min(length, remaining_space);
-            int firstLen = Math.min(realLen, buffer.length - writeIndex);
-            int secondLen = Math.min(realLen - firstLen, buffer.length - readIndex - 1);
-            int written = firstLen + secondLen;
-            if (firstLen > 0) {
-                System.arraycopy(data, offset, buffer, writeIndex, firstLen);
-            }
-            if (secondLen > 0) {
-                System.arraycopy(data, offset + firstLen, buffer, 0, secondLen);
-                writeIndex = secondLen;
-            } else {
-                writeIndex += written;
+    public void write(byte[] data, int offset, int length) throws IOException, BufferOverflowException {
+        if (length <= 0)
+            return;
+
+        lock.lock();
+        try {
+            int required = count + length;
+
+            // apply the overflow policy if the capacity limit would be exceeded
+            if (maximumCapacity > 0 && required > maximumCapacity) {
+                if (overflowPolicy == OverflowPolicy.REJECT) {
+                    overflowCount += length;
+                    throw new BufferOverflowException();
+                }
+                int excess = required - maximumCapacity;
+                overflowCount += excess;
+                if (excess >= count) {
+                    // even the new data does not fit completely; keep its newest bytes only
+                    offset += excess - count;
+                    length -= excess - count;
+                    readIndex = count = 0;
+                } else {
+                    discard(excess);
+                }
+                required = maximumCapacity;
             }
-            if (writeIndex == buffer.length) {
-                writeIndex = 0;
+
+            // grow the buffer until it is large enough to accommodate the new demand
+            if (required > buffer.length) {
+                int new_capacity = buffer.length * DEFAULT_BUFFER_SCALE_FACTOR;
+                while (new_capacity < required) {
+                    new_capacity *= DEFAULT_BUFFER_SCALE_FACTOR;
+                }
+                if (maximumCapacity > 0) {
+                    new_capacity = Math.min(new_capacity, maximumCapacity);
+                }
+                resize(new_capacity);
             }
-            offset += written;
-            length -= written;
+
+            // copy the data behind the un-read bytes (wrapping at the end of the buffer)
+            int writeIndex = (readIndex + count) % buffer.length;
+            int firstLen = Math.min(length, buffer.length - writeIndex);
+            System.arraycopy(data, offset, buffer, writeIndex, firstLen);
+            System.arraycopy(data, offset + firstLen, buffer, 0, length - firstLen);
+            count += length;
+
+            // wake up any blocked readers
+            dataAvailable.signalAll();
+        } finally {
+            lock.unlock();
         }
-        if (length > 0) {
-            try {
-                Thread.sleep(100);
-            } catch (Exception x) {
-                throw new IOException("Waiting for available space in buffer interrupted.");
+    }
+
+    // wait until data is available (lock must be held); returns false on timeout
+    private boolean awaitData(long timeoutNanos, boolean timed) throws IOException {
+        try {
+            while (count == 0) {
+                if (!timed) {
+                    dataAvailable.await();
+                } else if (timeoutNanos <= 0) {
+                    return false;
+                } else {
+                    timeoutNanos = dataAvailable.awaitNanos(timeoutNanos);
+                }
             }
+            return true;
+        } catch (InterruptedException x) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Blocking read operation interrupted.");
         }
     }
 
-    protected class SerialByteBufferInputStream extends InputStream {
+    private int read(byte[] data, int off, int len, long timeoutNanos, boolean timed) throws IOException {
+        if (len == 0)
+            return 0;
+        lock.lock();
+        try {
+            if (!awaitData(timeoutNanos, timed))
+                return 0;
+            int length = Math.min(len, count);
+            int firstLen = Math.min(length, buffer.length - readIndex);
+            System.arraycopy(buffer, readIndex, data, off, firstLen);
+            System.arraycopy(buffer, 0, data, off + firstLen, length - firstLen);
+            discard(length);
+            return length;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public class SerialByteBufferInputStream extends InputStream {
 
         @Override
         public int available() throws IOException {
-            synchronized (SerialByteBuffer.this){
-                return (SerialByteBuffer.this.available());
-            }
+            return SerialByteBuffer.this.available();
         }
 
         @Override
         public int read() throws IOException {
-            while (true){
-                synchronized (SerialByteBuffer.this){
-                    int available = SerialByteBuffer.this.available();
-                    if (available > 0){
-                        int result = buffer[readIndex] & 0xff; // we only care about fist 8 bits
-                        readIndex++; // increment read index position
-                        // if the read index reaches the maximum buffer capacity, then rollover to zero index
-                        if (readIndex == buffer.length)
-                            readIndex = 0;
-                        return result;
-                    }
-                }
-                try {
-                    Thread.sleep(100);
-                } catch(Exception x){
-                    throw new IOException("Blocking read operation interrupted.");
-                }
+            lock.lock();
+            try {
+                awaitData(0, false);
+                int result = buffer[readIndex] & 0xff; // we only care about fist 8 bits
+                discard(1);
+                return result;
+            } finally {
+                lock.unlock();
             }
         }
 
@@ -238,60 +316,32 @@ public class SerialByteBuffer {
 
         @Override
         public int read(byte[] data, int off, int len) throws IOException {
-            while (true){
-                synchronized (SerialByteBuffer.this){
-                    int available = SerialByteBuffer.this.available();
-                    if (available > 0){
-                        int length = Math.min(len, available);
-                        int firstLen = Math.min(length, buffer.length - readIndex);
-                        int secondLen = length - firstLen;
-                        System.arraycopy(buffer, readIndex, data, off, firstLen);
-                        if (secondLen > 0){
-                            System.arraycopy(buffer, 0, data, off+firstLen,  secondLen);
-                            readIndex = secondLen;
-                        } else {
-                            readIndex += length;
-                        }
-                        if (readIndex == buffer.length) {
-                            readIndex = 0;
-                        }
-
-                        return length;
-                    }
-                }
-                try {
-                    Thread.sleep(100);
-                } catch(Exception x){
-                    throw new IOException("Blocking read operation interrupted.");
-                }
-            }
+            // block until at least one byte is available
+            return SerialByteBuffer.this.read(data, off, len, 0, false);
+        }
+
+        /**
+         * Read up to 'len' bytes, waiting at most 'timeout' milliseconds for data to arrive.
+         *
+         * @return the number of bytes read; '0' if the timeout elapsed without any data
+         * @throws IOException if the waiting thread is interrupted
+         */
+        public int read(byte[] data, int off, int len, long timeout) throws IOException {
+            return SerialByteBuffer.this.read(data, off, len, TimeUnit.MILLISECONDS.toNanos(timeout), true);
         }
 
         @Override
         public long skip(long n) throws IOException, IllegalArgumentException {
-            while (true){
-                synchronized (SerialByteBuffer.this){
-                    int available = SerialByteBuffer.this.available();
-                    if (available > 0){
-                        int length = Math.min((int)n, available);
-                        int firstLen = Math.min(length, buffer.length - readIndex);
-                        int secondLen = length - firstLen;
-                        if (secondLen > 0){
-                            readIndex = secondLen;
-                        } else {
-                            readIndex += length;
-                        }
-                        if (readIndex == buffer.length) {
-                            readIndex = 0;
-                        }
-                        return length;
-                    }
-                }
-                try {
-                    Thread.sleep(100);
-                } catch(Exception x){
-                    throw new IOException("Blocking read operation interrupted.");
-                }
+            if (n <= 0)
+                return 0;
+            lock.lock();
+            try {
+                awaitData(0, false);
+                int length = (int) Math.min(n, count);
+                discard(length);
+                return length;
+            } finally {
+                lock.unlock();
             }
         }
     }
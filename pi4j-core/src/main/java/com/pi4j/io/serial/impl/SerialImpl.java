@@ -28,15 +28,23 @@ package com.pi4j.io.serial.impl;
  */
 
 
+import com.pi4j.io.journal.EventJournal;
 import com.pi4j.io.serial.*;
+import com.pi4j.io.serial.frame.SerialFrameAssembler;
+import com.pi4j.io.serial.frame.SerialFrameDecoder;
 import com.pi4j.io.serial.tasks.SerialDataEventDispatchTaskImpl;
 import com.pi4j.jni.SerialInterrupt;
 import com.pi4j.jni.SerialInterruptEvent;
 import com.pi4j.jni.SerialInterruptListener;
+import com.pi4j.jni.SerialReceiveRing;
+import com.pi4j.metrics.Counter;
+import com.pi4j.metrics.Metrics;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
@@ -72,6 +80,14 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
     protected final ExecutorService executor;
     protected final SerialByteBuffer receiveBuffer;
     protected boolean bufferingDataReceived = true;
+    protected volatile SerialReceiveRing receiveRing = null;
+
+    // bytes received and sent on the open port (only when metrics are enabled)
+    protected Counter bytesReceivedMetric = null;
+    protected Counter bytesSentMetric = null;
+    protected volatile SerialFrameAssembler frameAssembler = null;
+    protected volatile EventJournal journal = null;
+    private final InputStream directReceiveStream = new DirectReceiveInputStream();
 
     /**
      * default constructor
@@ -104,8 +120,10 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
                 }
             }
 
-            // remove serial port listener
-            SerialInterrupt.removeListener(fileDescriptor);
+            // remove serial port listener (if the port could not be closed)
+            if(isOpen()) {
+                SerialInterrupt.removeListener(fileDescriptor);
+            }
 
             // perform shutdown of any monitoring threads
             SerialFactory.shutdown();
@@ -147,12 +165,20 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
 
         // open serial port
         fileDescriptor = com.pi4j.jni.Serial.open(device, baud, dataBits, parity, stopBits, flowControl);
+        receiveRing = null;
+        if (Metrics.ENABLED) {
+            bytesReceivedMetric = Metrics.counter("serial.bytes.received", "port", device);
+            bytesSentMetric = Metrics.counter("serial.bytes.sent", "port", device);
+        }
 
         // read in initial buffered data (if any) into the receive buffer
         int available = com.pi4j.jni.Serial.available(fileDescriptor);
 
         if(available > 0) {
             byte[] initial_data = com.pi4j.jni.Serial.read(fileDescriptor, available);
+            if (Metrics.ENABLED) {
+                bytesReceivedMetric.add(initial_data.length);
+            }
             if (initial_data.length > 0) {
                 try {
                     // write data to the receive buffer
@@ -161,6 +187,9 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
                 catch (IOException e) {
                     e.printStackTrace();
                 }
+                catch (BufferOverflowException e) {
+                    // receive buffer limit reached; the data is discarded
+                }
             }
         }
 
@@ -171,45 +200,24 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
 
                 // ignore any event triggers that are missing data
                 if(event.getLength() <= 0) return;
+                if (Metrics.ENABLED) {
+                    bytesReceivedMetric.add(event.getLength());
+                }
 
-                try {
-                    SerialDataEvent sde = null;
-
-                    if(isBufferingDataReceived()) {
-                        // stuff event data payload into the receive buffer
-                        receiveBuffer.write(event.getData());
-
-                        //System.out.println("BUFFER SIZE : " + receiveBuffer.capacity());
-                        //System.out.println("BUFFER LEFT : " + receiveBuffer.remaining());
-                        //System.out.println("BUFFER AVAIL: " + receiveBuffer.available());
-
-                        // create the serial data event; since we are buffering data
-                        // it will be located in the receive buffer
-                        sde = new SerialDataEvent(SerialImpl.this);
-                    }
-                    else{
-                        // create the serial data event; since we are NOT buffering data
-                        // we will pass the specific data payload directly into the event
-                        sde = new SerialDataEvent(SerialImpl.this, event.getData());
-                    }
-
-                    // add a new serial data event notification to the thread pool for *immediate* execution
-                    // we notify the event listeners on a separate thread to prevent blocking the native monitoring thread
-                    if(!listeners.isEmpty() && isOpen()) {
-                        // don't add event if executor has been shutdown or terminated
-                        if(!executor.isTerminated() && !executor.isShutdown()) {
-                            try {
-                                executor.execute(new SerialDataEventDispatchTaskImpl(sde, listeners));
-                            }
-                            catch(java.util.concurrent.RejectedExecutionException e){
-                                // do nothing, we are most likely in a shutdown
-                            }
-                        }
-                    }
+                // record the received data in the event journal (if any)
+                EventJournal eventJournal = journal;
+                if(eventJournal != null) {
+                    eventJournal.serial(fileDescriptor, event.getData(), 0, event.getLength());
                 }
-                catch (IOException e) {
-                    e.printStackTrace();
+                receive(event.getData());
+            }
+
+            @Override
+            public void onDataAvailable(int fd, int length, long end) {
+                if (Metrics.ENABLED && receiveRing != null) {
+                    bytesReceivedMetric.add(length);
                 }
+                receiveDirect(length, end);
             }
         });
 
@@ -219,6 +227,218 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
         }
     }
 
+    /**
+     * Handle data the native code received into the direct receive ring (the <code>length</code>
+     * bytes preceding the ring index <code>end</code>): decode frames in place, keep the data in the
+     * ring for buffered reads or pass a view of it to the data event listeners (on the listener
+     * notification thread).  Must be called on the producer's receive notification.
+     *
+     * @param length number of bytes received
+     * @param end ring write index following the received bytes
+     */
+    protected void receiveDirect(int length, long end) {
+        SerialReceiveRing ring = receiveRing;
+        if(ring == null) return;
+
+        // wake up readers blocked on the input stream
+        ring.signal();
+
+        // record the received data in the event journal (if any); the bytes are journaled from the
+        // reported ring range, since unconsumed data may precede them and buffered readers may
+        // already have consumed them (the producer does not overwrite them before we return)
+        EventJournal eventJournal = journal;
+        if(eventJournal != null && length > 0 && length <= ring.capacity()) {
+            ByteBuffer data = ring.data();
+            int offset = (int) ((end - length) & (ring.capacity() - 1));
+            int first = Math.min(length, ring.capacity() - offset);
+            eventJournal.serial(fileDescriptor, data, offset, first);
+            if(first < length) {
+                // the received data wraps around the end of the ring
+                eventJournal.serial(fileDescriptor, data, 0, length - first);
+            }
+        }
+
+        // with a frame decoder, the frames are decoded in place in the ring
+        SerialFrameAssembler assembler = frameAssembler;
+        if(assembler != null) {
+            if(!dispatchDataEvent(null, () -> {
+                dispatchFrames(assembler, ring.peek(length));
+                ring.release(length);
+            })) {
+                ring.release(length);
+            }
+            return;
+        }
+
+        // when buffering, the received data simply stays in the direct receive ring
+        if(isBufferingDataReceived()) {
+            dispatchDataEvent(new SerialDataEvent(SerialImpl.this), null);
+            return;
+        }
+
+        // else listeners get a read-only view of the received frame in the ring; the
+        // ring space is released once the listeners have been notified
+        if(!dispatchDataEvent(null, () -> {
+            new SerialDataEventDispatchTaskImpl(
+                    new SerialDataEvent(SerialImpl.this, ring.peek(length)), listeners).run();
+            ring.release(length);
+        })) {
+            ring.release(length);
+        }
+    }
+
+    /**
+     * Handle data received from the serial device: decode frames, buffer the data or
+     * pass it to the data event listeners (on the listener notification thread).
+     *
+     * @param data received data
+     */
+    protected void receive(byte[] data) {
+        // with a frame decoder, listeners are notified once per complete frame
+        SerialFrameAssembler assembler = frameAssembler;
+        if(assembler != null) {
+            dispatchDataEvent(null, () -> dispatchFrames(assembler, ByteBuffer.wrap(data)));
+            return;
+        }
+
+        try {
+            SerialDataEvent sde = null;
+
+            if(isBufferingDataReceived()) {
+                // stuff event data payload into the receive buffer
+                receiveBuffer.write(data);
+
+                //System.out.println("BUFFER SIZE : " + receiveBuffer.capacity());
+                //System.out.println("BUFFER LEFT : " + receiveBuffer.remaining());
+                //System.out.println("BUFFER AVAIL: " + receiveBuffer.available());
+
+                // create the serial data event; since we are buffering data
+                // it will be located in the receive buffer
+                sde = new SerialDataEvent(this);
+            }
+            else{
+                // create the serial data event; since we are NOT buffering data
+                // we will pass the specific data payload directly into the event
+                sde = new SerialDataEvent(this, data);
+            }
+
+            // notify the event listeners
+            dispatchDataEvent(sde, null);
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+        catch (BufferOverflowException e) {
+            // receive buffer limit reached; the data is discarded (see SerialByteBuffer.getOverflowCount())
+        }
+    }
+
+    /**
+     * Decode received data and notify the listeners of each complete frame
+     * (on the listener notification thread).
+     */
+    private void dispatchFrames(SerialFrameAssembler assembler, ByteBuffer data) {
+        assembler.receive(data, frame ->
+                new SerialDataEventDispatchTaskImpl(new SerialDataEvent(this, frame), listeners).run());
+    }
+
+    /**
+     * <p>
+     * Set a frame decoder for the received data.  Once set, data event listeners are notified once
+     * per complete protocol frame (e.g. a delimited text line or a length-prefixed packet) with a
+     * read-only view of the frame payload as the event data, instead of once per received chunk
+     * of data.  Decoded data is not added to the receive buffer.  The frame views are only valid
+     * during the listener callback; use SerialDataEvent.getBytes() to keep a copy.
+     * </p>
+     *
+     * @see com.pi4j.io.serial.frame.DelimiterFrameDecoder
+     * @see com.pi4j.io.serial.frame.LengthFieldFrameDecoder
+     * @see com.pi4j.io.serial.frame.FixedLengthFrameDecoder
+     * @see com.pi4j.io.serial.frame.CobsFrameDecoder
+     * @see com.pi4j.io.serial.frame.SlipFrameDecoder
+     *
+     * @param decoder frame decoder or null to notify listeners of any received data
+     */
+    public void setFrameDecoder(SerialFrameDecoder decoder) {
+        frameAssembler = (decoder != null) ? new SerialFrameAssembler(decoder) : null;
+    }
+
+    /**
+     * @return the frame decoder for the received data or null
+     */
+    public SerialFrameDecoder getFrameDecoder() {
+        SerialFrameAssembler assembler = frameAssembler;
+        return (assembler != null) ? assembler.getDecoder() : null;
+    }
+
+    /**
+     * Record all data received on this serial port in an event journal (as SERIAL records
+     * with the file descriptor as id), e.g. to replay it later with an EventJournalReplayer.
+     *
+     * @param journal event journal or null to stop recording
+     */
+    public void setEventJournal(EventJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * @return the event journal recording the received data or null
+     */
+    public EventJournal getEventJournal() {
+        return journal;
+    }
+
+    /**
+     * Queue a data event (or dispatch task) on the listener notification thread.
+     *
+     * @return 'false' if no listeners are notified
+     */
+    private boolean dispatchDataEvent(SerialDataEvent event, Runnable task) {
+        // add a new serial data event notification to the thread pool for *immediate* execution
+        // we notify the event listeners on a separate thread to prevent blocking the native monitoring thread
+        if(!listeners.isEmpty() && isOpen()) {
+            // don't add event if executor has been shutdown or terminated
+            if(!executor.isTerminated() && !executor.isShutdown()) {
+                try {
+                    executor.execute((task != null) ? task : new SerialDataEventDispatchTaskImpl(event, listeners));
+                    return true;
+                }
+                catch(java.util.concurrent.RejectedExecutionException e){
+                    // do nothing, we are most likely in a shutdown
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * <p>
+     * Switch data reception to a direct (off-heap) receive ring of the given capacity.  The native
+     * monitoring thread then reads received data straight into the ring and the read methods,
+     * input stream and data events access it without copying.  Unlike the default heap receive
+     * buffer the ring does not grow; when it is full, received data waits in the kernel receive
+     * queue until the ring is read.
+     * </p>
+     *
+     * @see SerialConfig#directReceiveBufferSize(int)
+     *
+     * @param capacity receive ring capacity in bytes (rounded up to a power of two)
+     * @throws IllegalStateException thrown if the serial port is not already open.
+     * @throws IOException thrown if the native monitor does not accept the ring.
+     */
+    public void setDirectReceiveBuffer(int capacity) throws IllegalStateException, IOException {
+        // validate state
+        if (isClosed())
+            throw new IllegalStateException("Serial connection is not open; cannot 'setDirectReceiveBuffer()'.");
+
+        SerialReceiveRing ring = new SerialReceiveRing(capacity);
+        receiveRing = ring;
+        if (SerialInterrupt.setReceiveBuffer(fileDescriptor, ring.buffer()) < 0) {
+            receiveRing = null;
+            throw new IOException("Unable to register direct receive buffer for serial port.");
+        }
+    }
+
     /**
      * <p>
      * This opens and initializes the serial port/device and sets the communication parameters.
@@ -315,6 +535,13 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
      */
     @Override
     public void open(SerialConfig serialConfig) throws IOException{
+        // decode received data into frames (if configured)
+        setFrameDecoder(serialConfig.frameDecoder());
+
+        // limit the receive buffer capacity (if configured)
+        receiveBuffer.setCapacityLimit(serialConfig.receiveBufferLimit(),
+                serialConfig.receiveBufferOverflowPolicy());
+
         // open the serial port with config settings
         open(serialConfig.device(),
              serialConfig.baud().getValue(),
@@ -322,6 +549,31 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
              serialConfig.parity().getIndex(),
              serialConfig.stopBits().getValue(),
              serialConfig.flowControl().getIndex());
+
+        try {
+            // configure receive framing for the native data receive monitor
+            if (serialConfig.receiveMinimumLength() > 0 || serialConfig.receiveInterByteTimeout() > 0) {
+                int ret = SerialInterrupt.setReceiveTiming(fileDescriptor,
+                        serialConfig.receiveMinimumLength(),
+                        serialConfig.receiveInterByteTimeout());
+                if (ret < 0) {
+                    throw new IOException("Unable to configure receive timing for serial port.");
+                }
+            }
+
+            // read received data directly into an off-heap ring
+            if (serialConfig.directReceiveBufferSize() > 0) {
+                setDirectReceiveBuffer(serialConfig.directReceiveBufferSize());
+            }
+        } catch (IOException | RuntimeException e) {
+            // do not leave a half configured port open
+            try {
+                close();
+            } catch (IOException | RuntimeException closeException) {
+                e.addSuppressed(closeException);
+            }
+            throw e;
+        }
     }
 
     /**
@@ -360,6 +612,11 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
         if (isClosed())
     	    throw new IllegalStateException("Serial connection is not open; cannot 'close()'.");
 
+        // stop native writes into the direct receive ring (if any)
+        if (receiveRing != null) {
+            SerialInterrupt.setReceiveBuffer(fileDescriptor, null);
+        }
+
         // remove serial port listener
         SerialInterrupt.removeListener(fileDescriptor);
 
@@ -661,7 +918,7 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
 
         // get the number of available bytes in the serial port's receive buffer
         //return com.pi4j.jni.Serial.available(fileDescriptor);
-        return receiveBuffer.getInputStream().available();
+        return getInputStream().available();
     }
 
     /**
@@ -679,7 +936,7 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
 
         // read serial data from receive buffer
         byte[] buffer = new byte[available()];
-        receiveBuffer.getInputStream().read(buffer);
+        getInputStream().read(buffer);
         return buffer;
     }
 
@@ -702,7 +959,7 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
 
         // read serial data from receive buffer
         byte[] buffer = new byte[length];
-        receiveBuffer.getInputStream().read(buffer, 0 , length);
+        getInputStream().read(buffer, 0 , length);
         return buffer;
     }
 
@@ -732,6 +989,9 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
 
         // write serial data to transmit buffer
         com.pi4j.jni.Serial.write(fileDescriptor, data, offset, length);
+        if (Metrics.ENABLED) {
+            bytesSentMetric.add(length);
+        }
     }
 
 
@@ -785,12 +1045,14 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
     }
 
     /**
-     * This method returns the input data stream for the serial port's receive buffer
+     * This method returns the input data stream for the serial port's receive buffer.
+     * Blocked reads return as soon as data is received; unless a direct receive buffer is used
+     * the stream is a SerialByteBuffer.SerialByteBufferInputStream which also offers timed reads.
      * @return InputStream input stream
      */
     @Override
     public InputStream getInputStream() {
-        return receiveBuffer.getInputStream();
+        return (receiveRing != null) ? directReceiveStream : receiveBuffer.getInputStream();
     }
 
     /**
@@ -860,6 +1122,41 @@ public class SerialImpl extends AbstractSerialDataReaderWriter implements Serial
         }
     }
 
+    /**
+     * Reads any data buffered before the direct receive ring was registered, then from the ring.
+     */
+    private class DirectReceiveInputStream extends InputStream {
+
+        private InputStream source() throws IOException {
+            SerialReceiveRing ring = receiveRing;
+            if (ring == null || receiveBuffer.available() > 0) {
+                return receiveBuffer.getInputStream();
+            }
+            return ring.getInputStream();
+        }
+
+        @Override
+        public int available() throws IOException {
+            SerialReceiveRing ring = receiveRing;
+            return receiveBuffer.available() + ((ring != null) ? ring.available() : 0);
+        }
+
+        @Override
+        public int read() throws IOException {
+            return source().read();
+        }
+
+        @Override
+        public int read(byte b[], int offset, int length) throws IOException {
+            return source().read(b, offset, length);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            return source().skip(n);
+        }
+    }
+
     @SuppressWarnings("unused")
 	private class SerialInputStream extends InputStream {
 
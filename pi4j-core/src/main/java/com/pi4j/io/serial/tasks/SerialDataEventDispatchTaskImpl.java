@@ -31,7 +31,6 @@ package com.pi4j.io.serial.tasks;
 import com.pi4j.io.serial.SerialDataEvent;
 import com.pi4j.io.serial.SerialDataEventListener;
 
-import java.util.ArrayList;
 import java.util.Collection;
 
 public class SerialDataEventDispatchTaskImpl implements Runnable {
@@ -47,11 +46,9 @@ public class SerialDataEventDispatchTaskImpl implements Runnable {
     @Override
     public void run() {
 
-        // create a copy of the listeners collection
-        Collection<SerialDataEventListener> listenersCopy  = new ArrayList<>(listeners);
-
         // process event callbacks for serial data listeners
-        for (SerialDataEventListener listener : listenersCopy) {
+        // (the listeners collection is a copy-on-write list; iterating it needs no copy)
+        for (SerialDataEventListener listener : listeners) {
             if (listener != null) {
                 listener.dataReceived(event);
             }
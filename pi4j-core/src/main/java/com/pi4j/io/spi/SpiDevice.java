@@ -64,7 +64,8 @@ public interface SpiDevice {
      * Attempts to read/write data through this SPI device
      *
      * @param data
-     *            bytes to write to the SPI device
+     *            bytes to write to the SPI device (from position to limit; the position is not changed);
+     *            direct buffers are transferred without an intermediate copy
      * @return resulting bytes read from the SPI device after the write operation
      */
     public ByteBuffer write(ByteBuffer data) throws IOException;
@@ -136,4 +137,16 @@ public interface SpiDevice {
      */
     public short[] write(short ... data) throws IOException;
 
+    /**
+     * Runs all transfers of the message with a single system call; the transfers read and write
+     * the direct buffers of the message in place (no copies).
+     *
+     * @param message
+     *            SPI transfers to run
+     * @throws UnsupportedOperationException if the device does not support message transfers
+     */
+    public default void execute(SpiMessage message) throws IOException {
+        throw new UnsupportedOperationException("SPI messages are not supported by this device.");
+    }
+
 }
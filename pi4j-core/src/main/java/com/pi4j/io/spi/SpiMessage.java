@@ -0,0 +1,286 @@
+package com.pi4j.io.spi;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SpiMessage.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import com.pi4j.io.file.LinuxFile;
+
+/**
+ * <p>
+ * A batch of SPI transfers that is submitted to the device with a single
+ * <code>SPI_IOC_MESSAGE</code> ioctl (see {@link SpiDevice#execute(SpiMessage)}).  The transfers
+ * read and write direct {@link ByteBuffer}s in place (no copies between Java and the driver) and
+ * each transfer may set its own clock speed, a delay after the transfer and whether the chip
+ * select is released after it.  Chip select stays asserted between the transfers of a message
+ * unless a transfer requests a chip select change.
+ * </p>
+ *
+ * <p>
+ * Example: read 8 ADC channels (3 byte command and response each) in one system call
+ * <pre>
+ * {@code
+ *    SpiMessage message = new SpiMessage();
+ *    for (int channel = 0; channel < 8; channel++) {
+ *        message.transfer(commands[channel], responses[channel], 3, 0, 0, true);
+ *    }
+ *    device.execute(message); // the responses are filled
+ * }
+ * </pre>
+ * </p>
+ *
+ * <p>
+ * The transfers use the buffer contents from the buffer position; the buffer positions are not
+ * changed.  The spidev driver limits the total length of a message to its <code>bufsiz</code>
+ * module parameter (4096 bytes unless configured otherwise, e.g. <code>spidev.bufsiz=153600</code>
+ * on the kernel command line for a 320x240 16-bit framebuffer).  The native transfer structures
+ * are kept in a reusable direct buffer, so a message that is built once (or cleared and rebuilt)
+ * can be executed repeatedly without allocation.  Instances are not thread-safe.
+ * </p>
+ */
+public class SpiMessage {
+
+    /** maximum number of transfers of one message (the ioctl size field has 14 bits) */
+    public static final int MAX_TRANSFERS = ((1 << 14) - 1) / 32;
+
+    // struct spi_ioc_transfer { __u64 tx_buf; __u64 rx_buf; __u32 len; __u32 speed_hz;
+    //   __u16 delay_usecs; __u8 bits_per_word; __u8 cs_change; __u8 tx_nbits; __u8 rx_nbits;
+    //   __u8 word_delay_usecs; __u8 pad; }
+    static final int TRANSFER_SIZE = 32;
+    static final int TX_BUF_OFFSET = 0;
+    static final int RX_BUF_OFFSET = 8;
+    static final int LEN_OFFSET = 16;
+    static final int SPEED_HZ_OFFSET = 20;
+    static final int DELAY_USECS_OFFSET = 24;
+    static final int CS_CHANGE_OFFSET = 27;
+
+    private static final int SPI_IOC_MAGIC = 'k';
+    private static final int IOC_WRITE = 1;
+
+    private ByteBuffer data = null;
+    private IntBuffer pointers = null;
+    private ByteBuffer[] buffers = new ByteBuffer[8];
+    private int count = 0;
+    private int bufferCount = 0;
+    private int pointerCount = 0;
+    private long length = 0;
+
+    /**
+     * Queue a full duplex transfer of <code>tx.remaining()</code> bytes; the received bytes are
+     * stored in <code>rx</code> (which may be the same buffer as <code>tx</code>).
+     */
+    public SpiMessage transfer(ByteBuffer tx, ByteBuffer rx) {
+        return transfer(tx, rx, tx.remaining(), 0, 0, false);
+    }
+
+    /**
+     * Queue a write of <code>tx.remaining()</code> bytes (the received bytes are discarded).
+     */
+    public SpiMessage write(ByteBuffer tx) {
+        return transfer(tx, null, tx.remaining(), 0, 0, false);
+    }
+
+    /**
+     * Queue a read of <code>rx.remaining()</code> bytes (zeros are transmitted).
+     */
+    public SpiMessage read(ByteBuffer rx) {
+        return transfer(null, rx, rx.remaining(), 0, 0, false);
+    }
+
+    /**
+     * Queue a transfer.
+     *
+     * @param tx data to transmit (direct buffer); null to transmit zeros
+     * @param rx buffer for the received data (direct buffer); null to discard the received data
+     * @param length number of bytes to transfer
+     * @param speedHz clock speed of this transfer; 0 for the device speed
+     * @param delayUsecs delay after this transfer (microseconds, before chip select changes)
+     * @param csChange true to deassert chip select after this transfer (before the next transfer of
+     *                 the message); for the last transfer, true keeps chip select asserted
+     */
+    public SpiMessage transfer(ByteBuffer tx, ByteBuffer rx, int length, int speedHz, int delayUsecs, boolean csChange) {
+        if (tx == null && rx == null)
+            throw new IllegalArgumentException("Missing tx or rx buffer argument.");
+        if (length <= 0 || (tx != null && tx.remaining() < length) || (rx != null && rx.remaining() < length))
+            throw new IndexOutOfBoundsException("Invalid buffer range for SPI transfer: " + length);
+        if ((tx != null && !tx.isDirect()) || (rx != null && !rx.isDirect()))
+            throw new IllegalArgumentException("SPI message buffers must be direct buffers.");
+        if (rx != null && rx.isReadOnly())
+            throw new IllegalArgumentException("SPI message rx buffer is read-only.");
+        if (speedHz < 0)
+            throw new IllegalArgumentException("Invalid SPI transfer speed: " + speedHz);
+        if (delayUsecs < 0 || delayUsecs > 0xFFFF)
+            throw new IllegalArgumentException("Invalid SPI transfer delay: " + delayUsecs);
+        if (count == MAX_TRANSFERS)
+            throw new IllegalStateException("SPI message is limited to " + MAX_TRANSFERS + " transfers.");
+
+        // (re)allocate the reusable native buffers if needed
+        if (data == null || data.capacity() < (count + 1) * TRANSFER_SIZE) {
+            int capacity = Math.min(Math.max(16, (count + 1) * 2), MAX_TRANSFERS);
+            ByteBuffer grown = ByteBuffer.allocateDirect(capacity * TRANSFER_SIZE).order(ByteOrder.nativeOrder());
+            IntBuffer grownPointers = ByteBuffer.allocateDirect(capacity * 2 * 3 * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+            if (data != null) {
+                data.clear();
+                grown.put(data).clear();
+                grownPointers.put(pointers.duplicate().clear()).clear();
+            }
+            data = grown;
+            pointers = grownPointers;
+        }
+        if (buffers.length < bufferCount + 2) {
+            buffers = Arrays.copyOf(buffers, buffers.length * 2);
+        }
+
+        int transfer = count * TRANSFER_SIZE;
+        for (int i = 0; i < TRANSFER_SIZE; i += 8) {
+            data.putLong(transfer + i, 0);
+        }
+        if (tx != null) {
+            pointer(transfer + TX_BUF_OFFSET, tx);
+        }
+        if (rx != null) {
+            pointer(transfer + RX_BUF_OFFSET, rx);
+        }
+        data.putInt(transfer + LEN_OFFSET, length);
+        data.putInt(transfer + SPEED_HZ_OFFSET, speedHz);
+        data.putShort(transfer + DELAY_USECS_OFFSET, (short) delayUsecs);
+        data.put(transfer + CS_CHANGE_OFFSET, (byte) (csChange ? 1 : 0));
+
+        this.length += length;
+        count++;
+        return this;
+    }
+
+    private void pointer(int offset, ByteBuffer buffer) {
+        // (struct offset, buffer index, buffer offset); resolved to an address by the native ioctl
+        int index = bufferCount++;
+        buffers[index] = buffer;
+        int entry = pointerCount++ * 3;
+        pointers.put(entry, offset).put(entry + 1, index).put(entry + 2, buffer.position());
+    }
+
+    /**
+     * @return the number of queued transfers
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return the total number of bytes of the queued transfers
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Remove all transfers (the native buffers are kept for reuse).
+     */
+    public SpiMessage clear() {
+        Arrays.fill(buffers, 0, bufferCount, null);
+        count = 0;
+        bufferCount = 0;
+        pointerCount = 0;
+        length = 0;
+        return this;
+    }
+
+    /**
+     * @return the <code>SPI_IOC_MESSAGE(n)</code> ioctl command
+     */
+    static long command(int transfers) {
+        return command(0, transfers * TRANSFER_SIZE);
+    }
+
+    /**
+     * @return the spidev write ioctl command <code>_IOW(SPI_IOC_MAGIC, number, size)</code>
+     */
+    static long command(int number, int size) {
+        return ((long) IOC_WRITE << 30) | ((long) size << 16) | (SPI_IOC_MAGIC << 8) | number;
+    }
+
+    ByteBuffer getData() {
+        return data;
+    }
+
+    IntBuffer getPointers() {
+        IntBuffer view = pointers.duplicate();
+        view.position(0).limit(pointerCount * 3);
+        return view;
+    }
+
+    ByteBuffer[] getBuffers() {
+        return buffers;
+    }
+
+    /**
+     * Run the transfers of this message with a single <code>SPI_IOC_MESSAGE</code> ioctl on an
+     * open spidev device file.
+     *
+     * @param file spidev device file
+     * @throws IOException thrown if the transfer fails (e.g. the message exceeds the spidev buffer size)
+     */
+    public void execute(LinuxFile file) throws IOException {
+        validate();
+        data.clear();
+        pointers.position(0).limit(pointerCount * 3);
+        try {
+            file.ioctl(command(count), data, buffers, pointers);
+        } finally {
+            pointers.clear();
+        }
+    }
+
+    /**
+     * Run the transfers of this message with a single <code>SPI_IOC_MESSAGE</code> ioctl on an
+     * open spidev file descriptor.  Used by the SPI device implementation with the file descriptor
+     * of the SPI channel; the caller must hold the channel lock.
+     *
+     * @param fd spidev POSIX file descriptor
+     * @throws IOException thrown if the transfer fails (e.g. the message exceeds the spidev buffer size)
+     */
+    public void execute(int fd) throws IOException {
+        validate();
+        data.clear();
+        pointers.position(0).limit(pointerCount * 3);
+        try {
+            LinuxFile.ioctl(fd, command(count), data, buffers, pointers);
+        } finally {
+            pointers.clear();
+        }
+    }
+
+    private void validate() {
+        if (count == 0)
+            throw new IllegalStateException("SPI message has no transfers.");
+    }
+}
@@ -0,0 +1,266 @@
+package com.pi4j.io.spi;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SpiSampleRing.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * Sample ring of primitive ints shared with the native stream thread of a {@link SpiSampleStream}.
+ * The stream thread decodes a block of samples per <code>SPI_IOC_MESSAGE</code> ioctl and
+ * publishes its write index with release semantics once per block; the consumer reads the
+ * samples in order, by sequence number, without a callback or an allocation per sample.
+ * </p>
+ *
+ * <p>
+ * Shared memory layout (native byte order):
+ * <pre>
+ *   offset   0 : long write index  (total samples produced, written by native code)
+ *   offset   8 : long blocks       (completed transfer blocks)
+ *   offset  16 : long errors       (failed transfer blocks)
+ *   offset  24 : int  last errno   (of the last failed transfer block)
+ *   offset  28 : int  running      (1 while the stream thread runs)
+ *   offset  64 : sample data       (power of two capacity of ints)
+ * </pre>
+ * </p>
+ *
+ * <p>
+ * The ring never blocks the stream thread.  A consumer that falls more than a ring behind loses
+ * the oldest samples: its sequence skips ahead to the next complete scan and the skipped samples
+ * are counted as overruns.  Sample <code>n</code> belongs to conversion <code>n % scanLength</code>
+ * of the scan.  The consumer side is not thread-safe (single consumer).
+ * </p>
+ */
+public class SpiSampleRing {
+
+    static final int WRITE_INDEX_OFFSET = 0;
+    static final int BLOCKS_OFFSET = 8;
+    static final int ERRORS_OFFSET = 16;
+    static final int ERRNO_OFFSET = 24;
+    static final int RUNNING_OFFSET = 28;
+    static final int DATA_OFFSET = 64;
+
+    private static final int ALIGNMENT = 64;
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final int mask;
+    private final int scanLength;
+    private final int blockLength;
+
+    // consumer state
+    private long sequence = 0;
+    private long overruns = 0;
+
+    /**
+     * Create a new sample ring.
+     *
+     * @param capacity minimum number of samples (rounded up to a power of two of at least four blocks)
+     * @param scanLength samples per scan
+     * @param blockLength samples produced per transfer block (a multiple of the scan length)
+     */
+    public SpiSampleRing(int capacity, int scanLength, int blockLength) {
+        if (scanLength <= 0 || blockLength <= 0 || blockLength % scanLength != 0) {
+            throw new IllegalArgumentException("Invalid sample ring block length: " + blockLength);
+        }
+        capacity = Math.max(capacity, 4 * blockLength);
+        if (capacity <= 0 || capacity > (1 << 26)) {
+            throw new IllegalArgumentException("Invalid sample ring capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.scanLength = scanLength;
+        this.blockLength = blockLength;
+
+        // allocate a cache line aligned region holding exactly the header and the samples
+        int alignedSize = (size * Integer.BYTES + ALIGNMENT - 1) & -ALIGNMENT;
+        ByteBuffer region = ByteBuffer.allocateDirect(DATA_OFFSET + alignedSize + ALIGNMENT).alignedSlice(ALIGNMENT);
+        region.limit(DATA_OFFSET + size * Integer.BYTES);
+        this.buffer = region.slice().order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * @return the shared direct buffer to register with the native code
+     */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * @return the sample capacity of the ring
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of samples per scan
+     */
+    public int scanLength() {
+        return scanLength;
+    }
+
+    /**
+     * @return the number of samples produced per transfer block
+     */
+    public int blockLength() {
+        return blockLength;
+    }
+
+    /**
+     * @return the total number of samples produced
+     */
+    public long count() {
+        return (long) LONG.getAcquire(buffer, WRITE_INDEX_OFFSET);
+    }
+
+    /**
+     * @return the number of completed transfer blocks
+     */
+    public long blocks() {
+        return (long) LONG.getAcquire(buffer, BLOCKS_OFFSET);
+    }
+
+    /**
+     * @return the number of failed transfer blocks
+     */
+    public long errors() {
+        return (long) LONG.getAcquire(buffer, ERRORS_OFFSET);
+    }
+
+    /**
+     * @return the errno of the last failed transfer block; 0 if none failed
+     */
+    public int lastError() {
+        return (int) INT.getOpaque(buffer, ERRNO_OFFSET);
+    }
+
+    /**
+     * @return true while the stream thread runs (false once it stopped, e.g. after transfer errors)
+     */
+    public boolean isRunning() {
+        return (int) INT.getAcquire(buffer, RUNNING_OFFSET) != 0;
+    }
+
+    /**
+     * @return the sequence number of the next sample to read
+     */
+    public long sequence() {
+        return sequence;
+    }
+
+    /**
+     * @return the number of samples lost because the consumer fell behind
+     */
+    public long overruns() {
+        return overruns;
+    }
+
+    /**
+     * @return the number of samples that can be read without waiting
+     */
+    public int available() {
+        long write = count();
+        long oldest = write + blockLength - capacity;
+        return (int) (write - Math.max(sequence, oldest));
+    }
+
+    /**
+     * Copy up to <code>length</code> samples, starting at {@link #sequence()}, into the given array.
+     *
+     * @return the number of samples copied (0 if no sample is available)
+     */
+    public int read(int[] destination, int offset, int length) {
+        while (true) {
+            long write = count();
+            if (sequence < write + blockLength - capacity) {
+                skip(write + blockLength - capacity);
+            }
+            int count = (int) Math.min(length, write - sequence);
+            for (int i = 0; i < count; i++) {
+                destination[offset + i] = (int) INT.getOpaque(buffer, DATA_OFFSET + (int) ((sequence + i) & mask) * Integer.BYTES);
+            }
+            // retry if the copied samples were (being) overwritten while they were read
+            VarHandle.acquireFence();
+            if (sequence >= count() + blockLength - capacity) {
+                sequence += count;
+                return count;
+            }
+        }
+    }
+
+    /**
+     * Wait until at least <code>samples</code> samples are available (or the stream stopped).
+     *
+     * @return true if the samples are available; false on timeout or when the stream stopped
+     */
+    public boolean await(int samples, long timeout, TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (available() < samples) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (!isRunning() || System.nanoTime() - deadline >= 0) {
+                return available() >= samples;
+            }
+            // samples are published once per block; poll at a fraction of the usual block period
+            LockSupport.parkNanos(20_000);
+        }
+        return true;
+    }
+
+    private void skip(long oldest) {
+        // continue at the next complete scan
+        long next = ((oldest + scanLength - 1) / scanLength) * scanLength;
+        overruns += next - sequence;
+        sequence = next;
+    }
+
+    /**
+     * Package-private producer side; used where the ring is filled from java (tests).
+     */
+    void write(int[] block) {
+        long write = (long) LONG.getOpaque(buffer, WRITE_INDEX_OFFSET);
+        for (int i = 0; i < block.length; i++) {
+            INT.setOpaque(buffer, DATA_OFFSET + (int) ((write + i) & mask) * Integer.BYTES, block[i]);
+        }
+        LONG.setRelease(buffer, WRITE_INDEX_OFFSET, write + block.length);
+        LONG.setRelease(buffer, BLOCKS_OFFSET, (long) LONG.getOpaque(buffer, BLOCKS_OFFSET) + 1);
+    }
+}
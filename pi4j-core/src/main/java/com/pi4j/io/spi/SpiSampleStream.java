@@ -0,0 +1,344 @@
+package com.pi4j.io.spi;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SpiSampleStream.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.pi4j.io.file.LinuxFile;
+import com.pi4j.jni.SpiStream;
+
+/**
+ * <p>
+ * Continuous acquisition from a SPI ADC.  A scan is a list of conversions (one chip select frame
+ * each, e.g. one per ADC channel); the stream repeats a block of scans as one precompiled
+ * <code>SPI_IOC_MESSAGE</code> transfer list on a dedicated native thread, decodes the sample
+ * field of every conversion and appends the samples to a {@link SpiSampleRing}.  There is one
+ * system call per block and no allocation, lock or JNI call per sample.
+ * </p>
+ *
+ * <p>
+ * Example: stream all 8 channels of a MCP3008 at 3.6 MHz
+ * <pre>
+ * {@code
+ *    SpiSampleStream stream = new SpiSampleStream(SpiChannel.CS0, 3600000, SpiMode.MODE_0);
+ *    for (int channel = 0; channel < 8; channel++) {
+ *        stream.mcp3008(channel);
+ *    }
+ *    SpiSampleRing ring = stream.start(65536);
+ *    int[] samples = new int[4096];
+ *    while (ring.await(samples.length, 1, TimeUnit.SECONDS)) {
+ *        long sequence = ring.sequence();           // sample n is channel n % 8
+ *        int count = ring.read(samples, 0, samples.length);
+ *        ...
+ *    }
+ * }
+ * </pre>
+ * </p>
+ *
+ * <p>
+ * The block size trades latency for system call overhead; by default a block holds as many scans
+ * as fit into one message (at most {@link SpiMessage#MAX_TRANSFERS} transfers and the spidev
+ * <code>bufsiz</code> bytes).  The stream thread can run at a real-time (SCHED_FIFO) priority,
+ * which requires the corresponding permission.
+ * </p>
+ */
+public class SpiSampleStream implements Closeable {
+
+    /** default SCHED_FIFO priority of the stream thread */
+    public static final int DEFAULT_PRIORITY = 0;
+
+    private static final String BUFSIZ_PARAMETER = "/sys/module/spidev/parameters/bufsiz";
+    private static final int DEFAULT_BUFSIZ = 4096;
+
+    // spidev configuration ioctls (linux/spi/spidev.h)
+    private static final long SPI_IOC_WR_MODE = SpiMessage.command(1, 1);
+    private static final long SPI_IOC_WR_BITS_PER_WORD = SpiMessage.command(3, 1);
+    private static final long SPI_IOC_WR_MAX_SPEED_HZ = SpiMessage.command(4, 4);
+
+    // conversion of a scan: command bytes and the decoded sample field
+    private static class Conversion {
+        final byte[] command;
+        final int offset, bytes, shift, bits;
+        final boolean signed;
+
+        Conversion(byte[] command, int offset, int bytes, int shift, int bits, boolean signed) {
+            this.command = command;
+            this.offset = offset;
+            this.bytes = bytes;
+            this.shift = shift;
+            this.bits = bits;
+            this.signed = signed;
+        }
+    }
+
+    protected final SpiChannel channel;
+    protected final int speed;
+    protected final SpiMode mode;
+    private final List<Conversion> conversions = new ArrayList<>();
+
+    // precompiled block (kept referenced while the native stream runs)
+    private SpiMessage message = null;
+    private ByteBuffer tx = null;
+    private ByteBuffer rx = null;
+    private IntBuffer fields = null;
+    private SpiSampleRing ring = null;
+    private LinuxFile file = null;
+    private int stream = -1;
+
+    /**
+     * Create a SPI sample stream.
+     *
+     * @param channel spi channel to use
+     * @param speed spi speed/rate (in Hertz) for channel to communicate at
+     * @param mode spi mode
+     */
+    public SpiSampleStream(SpiChannel channel, int speed, SpiMode mode) {
+        if (channel == null)
+            throw new IllegalArgumentException("Missing channel argument.");
+        if (mode == null)
+            throw new IllegalArgumentException("Missing mode argument.");
+        this.channel = channel;
+        this.speed = speed;
+        this.mode = mode;
+    }
+
+    /**
+     * Add a conversion to the scan.
+     *
+     * @param command bytes to transfer for the conversion (one chip select frame)
+     * @param offset offset of the first (most significant) byte of the sample field in the received bytes
+     * @param bytes number of big endian bytes of the sample field (1 - 4)
+     * @param shift right shift of the sample field
+     * @param bits number of bits of the sample (1 - 32)
+     * @param signed true to sign extend the sample (two's complement)
+     */
+    public synchronized SpiSampleStream conversion(byte[] command, int offset, int bytes, int shift, int bits, boolean signed) {
+        if (command == null || command.length == 0)
+            throw new IllegalArgumentException("Missing command argument.");
+        if (bytes < 1 || bytes > 4 || offset < 0 || offset + bytes > command.length)
+            throw new IllegalArgumentException("Invalid sample field: " + offset + "+" + bytes);
+        if (shift < 0 || bits < 1 || bits > 32 || shift + bits > bytes * 8)
+            throw new IllegalArgumentException("Invalid sample bits: " + shift + "+" + bits);
+        if (message != null)
+            throw new IllegalStateException("SPI sample stream is already started.");
+        conversions.add(new Conversion(command.clone(), offset, bytes, shift, bits, signed));
+        return this;
+    }
+
+    /**
+     * Add a single-ended conversion of a MCP3004/MCP3008 channel (10 bits) to the scan.
+     */
+    public SpiSampleStream mcp3008(int adcChannel) {
+        if (adcChannel < 0 || adcChannel > 7)
+            throw new IllegalArgumentException("Invalid MCP3008 channel: " + adcChannel);
+        return conversion(new byte[] {0x01, (byte) (0x80 | (adcChannel << 4)), 0x00}, 1, 2, 0, 10, false);
+    }
+
+    /**
+     * @return the number of conversions (samples) per scan
+     */
+    public synchronized int scanLength() {
+        return conversions.size();
+    }
+
+    /**
+     * Start streaming with the largest block that fits into one message.
+     *
+     * @param capacity minimum sample ring capacity
+     * @return the sample ring receiving the samples
+     */
+    public SpiSampleRing start(int capacity) throws IOException {
+        return start(capacity, 0, DEFAULT_PRIORITY);
+    }
+
+    /**
+     * Start streaming.
+     *
+     * @param capacity minimum sample ring capacity
+     * @param scansPerBlock scans per transfer block (system call); 0 for the largest block that fits
+     * @param priority SCHED_FIFO priority of the stream thread (1 - 99); 0 for the default scheduling
+     * @return the sample ring receiving the samples
+     * @throws IOException if the SPI channel is not available or the stream cannot be started
+     */
+    public synchronized SpiSampleRing start(int capacity, int scansPerBlock, int priority) throws IOException {
+        if (message != null)
+            throw new IllegalStateException("SPI sample stream is already started.");
+        if (priority < 0 || priority > 99)
+            throw new IllegalArgumentException("Invalid stream thread priority: " + priority);
+
+        final File devfs = new File("/dev/spidev0." + channel.getChannel());
+        if (!devfs.exists() || !devfs.canRead() || !devfs.canWrite()) {
+            throw new IOException("SPI port setup failed, no SPI available.");
+        }
+
+        prepare(capacity, scansPerBlock, bufsiz());
+        try {
+            // the stream owns its device file; the channel mode and speed are set on it (as
+            // wiringPiSPISetupMode does) so no other descriptor is opened
+            file = new LinuxFile(devfs.getPath(), "rw");
+            configure(file);
+            IntBuffer pointers = message.getPointers();
+            stream = SpiStream.start(file.getFD(), message.getData(), message.size(),
+                    message.getBuffers(), pointers, pointers.remaining() / 3,
+                    rx, fields, ring.blockLength(), ring.buffer(), priority);
+            if (stream < 0) {
+                throw new IOException("Failed to start SPI stream on channel: " + channel.getChannel() + " (errno " + -stream + ")");
+            }
+        } catch (IOException | RuntimeException e) {
+            release();
+            throw e;
+        }
+        return ring;
+    }
+
+    /**
+     * Set the mode, word size and maximum speed of the SPI device file.
+     */
+    private void configure(LinuxFile file) throws IOException {
+        ByteBuffer value = ByteBuffer.allocateDirect(Integer.BYTES).order(ByteOrder.nativeOrder());
+        IntBuffer noPointers = ByteBuffer.allocateDirect(0).order(ByteOrder.nativeOrder()).asIntBuffer();
+        value.put(0, (byte) mode.getMode());
+        file.ioctl(SPI_IOC_WR_MODE, value, noPointers);
+        value.put(0, (byte) 8);
+        file.ioctl(SPI_IOC_WR_BITS_PER_WORD, value, noPointers);
+        value.putInt(0, speed);
+        file.ioctl(SPI_IOC_WR_MAX_SPEED_HZ, value, noPointers);
+    }
+
+    /**
+     * Precompile the transfer block and the sample fields and create the sample ring.
+     */
+    void prepare(int capacity, int scansPerBlock, int bufsiz) {
+        if (conversions.isEmpty())
+            throw new IllegalStateException("SPI sample stream has no conversions.");
+        int scanBytes = 0;
+        for (Conversion conversion : conversions) {
+            scanBytes += conversion.command.length;
+        }
+        int maximum = Math.min(SpiMessage.MAX_TRANSFERS / conversions.size(), bufsiz / scanBytes);
+        if (maximum < 1)
+            throw new IllegalArgumentException("SPI sample stream scan exceeds a single message.");
+        if (scansPerBlock < 0 || scansPerBlock > maximum)
+            throw new IllegalArgumentException("Invalid scans per block: " + scansPerBlock + " (maximum " + maximum + ")");
+        if (scansPerBlock == 0) {
+            scansPerBlock = maximum;
+        }
+
+        int blockLength = scansPerBlock * conversions.size();
+        tx = ByteBuffer.allocateDirect(scansPerBlock * scanBytes);
+        rx = ByteBuffer.allocateDirect(scansPerBlock * scanBytes);
+        fields = ByteBuffer.allocateDirect(blockLength * 4 * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        message = new SpiMessage();
+
+        // every conversion is its own chip select frame; chip select is released after the block
+        int position = 0;
+        for (int scan = 0; scan < scansPerBlock; scan++) {
+            for (Conversion conversion : conversions) {
+                int length = conversion.command.length;
+                tx.put(conversion.command);
+                boolean last = (position + length == tx.capacity());
+                message.transfer(tx.duplicate().position(position), rx.duplicate().position(position),
+                        length, speed, 0, !last);
+                fields.put(position + conversion.offset)
+                      .put(conversion.bytes)
+                      .put(conversion.shift)
+                      .put(conversion.bits | (conversion.signed ? 0x100 : 0));
+                position += length;
+            }
+        }
+        fields.flip();
+        ring = new SpiSampleRing(capacity, conversions.size(), blockLength);
+    }
+
+    /**
+     * @return the sample ring of the running stream; null if the stream has not been started
+     */
+    public synchronized SpiSampleRing ring() {
+        return ring;
+    }
+
+    /**
+     * @return true while the native stream thread runs
+     */
+    public synchronized boolean isRunning() {
+        return stream >= 0 && ring.isRunning();
+    }
+
+    /**
+     * Stop streaming (after the current block).  The sample ring remains readable.
+     */
+    public synchronized void stop() throws IOException {
+        release();
+    }
+
+    @Override
+    public void close() throws IOException {
+        stop();
+    }
+
+    private void release() throws IOException {
+        if (stream >= 0) {
+            SpiStream.stop(stream);
+            stream = -1;
+        }
+        message = null;
+        if (file != null) {
+            file.close();
+            file = null;
+        }
+    }
+
+    private static int bufsiz() {
+        try {
+            return Integer.parseInt(new String(Files.readAllBytes(new File(BUFSIZ_PARAMETER).toPath())).trim());
+        } catch (IOException | NumberFormatException e) {
+            return DEFAULT_BUFSIZ;
+        }
+    }
+
+    // package-private access for tests
+    SpiMessage getMessage() {
+        return message;
+    }
+
+    ByteBuffer getTransmitBuffer() {
+        return tx;
+    }
+
+    IntBuffer getFields() {
+        return fields;
+    }
+}
@@ -30,7 +30,11 @@ package com.pi4j.io.spi.impl;
 
 import com.pi4j.io.spi.SpiChannel;
 import com.pi4j.io.spi.SpiDevice;
+import com.pi4j.io.spi.SpiMessage;
 import com.pi4j.io.spi.SpiMode;
+import com.pi4j.metrics.Counter;
+import com.pi4j.metrics.LatencyHistogram;
+import com.pi4j.metrics.Metrics;
 import com.pi4j.wiringpi.Spi;
 
 import java.io.File;
@@ -45,6 +49,15 @@ public class SpiDeviceImpl implements SpiDevice {
     protected final SpiChannel channel;
     protected final SpiMode mode;
 
+    // transfer time and byte count for this channel (only when metrics are enabled)
+    protected LatencyHistogram transferMetric = null;
+    protected Counter bytesMetric = null;
+
+    // spidev file descriptor opened by the channel setup (used for message transfers) and the
+    // reusable message for direct buffer writes (guarded by the channel lock)
+    protected int fd = -1;
+    private final SpiMessage bufferMessage = new SpiMessage();
+
     /**
      * Creates the SPI Device at the given spi and input channel
      *
@@ -61,13 +74,29 @@ public class SpiDeviceImpl implements SpiDevice {
         this.channel = channel;
         this.mode = mode;
 
+        setup(speed);
+
+        if (Metrics.ENABLED) {
+            String tag = Integer.toString(channel.getChannel());
+            transferMetric = Metrics.histogram("spi.transfer", "channel", tag);
+            bytesMetric = Metrics.counter("spi.bytes", "channel", tag);
+        }
+    }
+
+    /**
+     * Set up the SPI channel (called by the constructor).
+     *
+     * @param speed spi speed/rate (in Hertz) for channel to communicate at
+     * @throws IOException if the SPI channel is not available
+     */
+    protected void setup(int speed) throws IOException {
         final File devfs = new File("/dev/spidev0." + channel.getChannel());
         if (!devfs.exists() || !devfs.canRead() || !devfs.canWrite()) {
             throw new IOException("SPI port setup failed, no SPI available.");
         }
 
         try {
-            int fd = Spi.wiringPiSPISetupMode(channel.getChannel(), speed, mode.getMode());
+            fd = Spi.wiringPiSPISetupMode(channel.getChannel(), speed, mode.getMode());
             if (fd <= -1) {
                 throw new IOException("SPI port setup failed, wiringPiSPISetupMode returned " + fd);
             }
@@ -76,6 +105,52 @@ public class SpiDeviceImpl implements SpiDevice {
         }
     }
 
+    /**
+     * Transfer a buffer over the SPI channel; the received bytes replace the buffer contents.
+     *
+     * @param buffer data to write, replaced by the data read
+     * @return the native transfer result (negative on failure)
+     */
+    protected int transfer(byte[] buffer) {
+        if (Metrics.ENABLED) {
+            final long start = System.nanoTime();
+            int result = Spi.wiringPiSPIDataRW(channel.getChannel(), buffer);
+            transferMetric.recordSince(start);
+            bytesMetric.add(buffer.length);
+            return result;
+        }
+        return Spi.wiringPiSPIDataRW(channel.getChannel(), buffer);
+    }
+
+    /**
+     * Transfer a buffer of 8-bit values (one per short) over the SPI channel.
+     *
+     * @param buffer data to write, replaced by the data read
+     * @return the native transfer result (negative on failure)
+     */
+    protected int transfer(short[] buffer) {
+        if (Metrics.ENABLED) {
+            final long start = System.nanoTime();
+            int result = Spi.wiringPiSPIDataRW(channel.getChannel(), buffer);
+            transferMetric.recordSince(start);
+            bytesMetric.add(buffer.length);
+            return result;
+        }
+        return Spi.wiringPiSPIDataRW(channel.getChannel(), buffer);
+    }
+
+    /**
+     * Run the transfers of a message with a single <code>SPI_IOC_MESSAGE</code> ioctl (the caller
+     * holds the channel lock) on the spidev file descriptor of the channel, so the clock speed and
+     * mode set up by {@link #setup(int)} apply to the transfers that do not set their own speed.
+     *
+     * @param message SPI transfers to run
+     * @throws IOException if the transfer fails
+     */
+    protected void transfer(SpiMessage message) throws IOException {
+        message.execute(fd);
+    }
+
     /**
      * Creates the SPI Device at the given spi and input channel
      *
@@ -127,7 +202,40 @@ public class SpiDeviceImpl implements SpiDevice {
 
     @Override
     public ByteBuffer write(ByteBuffer data) throws IOException {
-        return ByteBuffer.wrap(write(data.array()));
+        if (data.hasArray()) {
+            return ByteBuffer.wrap(write(data.array(), data.arrayOffset() + data.position(), data.remaining()));
+        }
+        if (!data.isDirect()) {
+            // read-only heap buffer
+            byte[] buffer = new byte[data.remaining()];
+            data.duplicate().get(buffer);
+            return ByteBuffer.wrap(write(buffer));
+        }
+
+        // direct buffers are transferred in place; the data read is stored in a new direct buffer
+        ByteBuffer result = ByteBuffer.allocateDirect(data.remaining());
+        synchronized (channel) {
+            try {
+                execute(bufferMessage.transfer(data, result));
+            } finally {
+                bufferMessage.clear();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void execute(SpiMessage message) throws IOException {
+        synchronized (channel) {
+            if (Metrics.ENABLED) {
+                final long start = System.nanoTime();
+                transfer(message);
+                transferMetric.recordSince(start);
+                bytesMetric.add(message.length());
+                return;
+            }
+            transfer(message);
+        }
     }
 
     @Override
@@ -190,7 +298,7 @@ public class SpiDeviceImpl implements SpiDevice {
 
         synchronized (channel) {
                 // write the bytes from the temporary buffer to the SPI channel
-                if (Spi.wiringPiSPIDataRW(channel.getChannel(), buffer) < 0) {
+                if (transfer(buffer) < 0) {
                     throw new IOException("Failed to write data to SPI channel: " + channel.getChannel());
                 }
             }
@@ -215,7 +323,7 @@ public class SpiDeviceImpl implements SpiDevice {
 
         synchronized (channel) {
             // write the bytes from the temporary buffer to the SPI channel
-            if (Spi.wiringPiSPIDataRW(channel.getChannel(), buffer) <= 0) {
+            if (transfer(buffer) <= 0) {
                 throw new IOException("Failed to write data to SPI channel: " + channel.getChannel());
             }
 
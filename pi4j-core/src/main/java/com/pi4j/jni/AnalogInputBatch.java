@@ -0,0 +1,108 @@
+package com.pi4j.jni;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  AnalogInputBatch.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * <p>
+ * The analog input value changes detected by the native analog sampler in one sampling tick.  The
+ * batch is a view of a direct buffer owned by the native sampler; it is reused for every tick and
+ * is only valid during the {@link AnalogInputListener#pinValuesChange(AnalogInputBatch)} callback.
+ * </p>
+ *
+ * <p>
+ * Shared memory layout (native byte order), one 16 byte record per changed channel:
+ * <pre>
+ *   offset 0 : int    GPIO pin number
+ *   offset 8 : double new analog input value
+ * </pre>
+ * </p>
+ */
+public class AnalogInputBatch {
+
+    static final int RECORD_SIZE = 16;
+    static final int PIN_OFFSET = 0;
+    static final int VALUE_OFFSET = 8;
+
+    private ByteBuffer buffer;
+    private int size;
+    private long timestamp;
+
+    AnalogInputBatch() {
+    }
+
+    /**
+     * Point this batch at the records of the current sampling tick.
+     */
+    void wrap(ByteBuffer buffer, int size, long timestamp) {
+        if (this.buffer != buffer) {
+            this.buffer = buffer.order(ByteOrder.nativeOrder());
+        }
+        this.size = size;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * @return number of changed channels in this batch
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return time the channels were sampled, in {@link System#nanoTime()} units
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @param index record index (0 to {@link #size()} - 1)
+     * @return GPIO pin number of the changed channel
+     */
+    public int getPin(int index) {
+        return buffer.getInt(record(index) + PIN_OFFSET);
+    }
+
+    /**
+     * @param index record index (0 to {@link #size()} - 1)
+     * @return new analog input value of the changed channel
+     */
+    public double getValue(int index) {
+        return buffer.getDouble(record(index) + VALUE_OFFSET);
+    }
+
+    private int record(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Invalid analog input batch index: " + index);
+        }
+        return index * RECORD_SIZE;
+    }
+}
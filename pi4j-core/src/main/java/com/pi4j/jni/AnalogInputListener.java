@@ -37,4 +37,19 @@ package com.pi4j.jni;
  */
 public interface AnalogInputListener extends java.util.EventListener {
     void pinValueChange(AnalogInputEvent event);
+
+    /**
+     * <p>
+     * Receives all analog input value changes detected in one sampling tick.  The default
+     * implementation raises an {@link AnalogInputEvent} per change; listeners handling many
+     * channels can override this method to process the batch without allocating events.
+     * </p>
+     *
+     * @param batch changed channels; only valid during this call
+     */
+    default void pinValuesChange(AnalogInputBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            pinValueChange(new AnalogInputEvent(this, batch.getPin(i), batch.getValue(i)));
+        }
+    }
 }
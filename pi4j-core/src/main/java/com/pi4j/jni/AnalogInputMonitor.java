@@ -28,7 +28,9 @@ package com.pi4j.jni;
  */
 
 
-import java.util.Vector;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import com.pi4j.util.NativeLibraryLoader;
 
@@ -40,13 +42,20 @@ import com.pi4j.util.NativeLibraryLoader;
  * value changes.
  * </p>
  *
+ * <p>
+ * All monitored pins are sampled by a single native sampler thread.  Every sampling tick reads all
+ * channels that are due, filters the changes against their change thresholds in native code and
+ * delivers the remaining changes to the listeners as one {@link AnalogInputBatch}.
+ * </p>
+ *
  * @see <a href="https://pi4j.com/">https://pi4j.com/</a>
  * @author Robert Savage (<a
  *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
  */
 public class AnalogInputMonitor {
 
-    private static Vector<AnalogInputListener> listeners = new Vector<>();
+    private static final List<AnalogInputListener> listeners = new CopyOnWriteArrayList<>();
+    private static final AnalogInputBatch batch = new AnalogInputBatch();
     private Object lock;
 
     // private constructor
@@ -61,59 +70,74 @@ public class AnalogInputMonitor {
 
     /**
      * <p>
-     * This method is used to instruct the native code to setup a monitoring thread to monitor
-     * analog input values for changes on the selected GPIO pin.
+     * This method is used to instruct the native sampler to monitor analog input values for
+     * changes on the selected GPIO pin.
      * </p>
      *
      * @param pin GPIO pin number
-     * @param pollingRate the polling rate in milliseconds for the input monitoring thread to
+     * @param pollingRate the polling rate in milliseconds for the native sampler to
      *                    read analog input values from the hardware
      * @param changeThreshold the amount of change (delta) in the analog input value required before a new
      *                        analog input change event is dispatched.
      * @return A return value of a negative number represents an error. A return value of '0'
      *         represents success and that the GPIO pin is already being monitored. A return value
-     *         of '1' represents success and that a new monitoring thread was created to handle the
-     *         requested GPIO pin number.
+     *         of '1' represents success and that the requested GPIO pin number was added to the
+     *         native sampler.
      */
     public static native int enablePinValueChangeCallback(int pin, int pollingRate, double changeThreshold);
 
     /**
      * <p>
-     * This method is used to instruct the native code to stop the monitoring thread monitoring
-     * analog input values on the selected GPIO pin.
+     * This method is used to instruct the native sampler to sample the analog input value of the
+     * selected GPIO pin at a fixed interval.  Every sample is written into the optional sample
+     * ring; a change is only delivered to the listeners once the value has moved more than the
+     * change threshold (deadband) away from the last delivered value.
+     * </p>
+     *
+     * @param pin GPIO pin number
+     * @param samplingInterval the sampling interval in microseconds
+     * @param changeThreshold the amount of change (delta) in the analog input value required before a new
+     *                        analog input change event is dispatched.
+     * @param samples direct buffer of an {@link AnalogSampleRing} receiving every sample, or null;
+     *                it must remain referenced until the pin is no longer monitored
+     * @return A return value of a negative number represents an error. A return value of '0'
+     *         represents success and that the GPIO pin is already being monitored. A return value
+     *         of '1' represents success and that the requested GPIO pin number was added to the
+     *         native sampler.
+     */
+    public static native int enablePinValueSampler(int pin, int samplingInterval, double changeThreshold, ByteBuffer samples);
+
+    /**
+     * <p>
+     * This method is used to instruct the native sampler to stop monitoring analog input values
+     * on the selected GPIO pin.
      * </p>
      *
      * @param pin GPIO pin number
 
      * @return A return value of a negative number represents an error. A return value of '0'
      *         represents success and that no existing monitor was previously running. A return
-     *         value of '1' represents success and that an existing monitoring thread was stopped
-     *         for the requested GPIO pin number.
+     *         value of '1' represents success and that the requested GPIO pin number was removed
+     *         from the native sampler.
      */
     public static native int disablePinValueChangeCallback(int pin);
 
     /**
      * <p>
-     * This method is provided as the callback handler for the Pi4J native library to invoke when a
-     * GPIO analog input calue change is detected. This method should not be called from any Java
-     * consumers. (Thus it is marked as a private method.)
+     * This method is provided as the callback handler for the Pi4J native library to invoke once
+     * per sampling tick in which GPIO analog input value changes were detected. This method should
+     * not be called from any Java consumers. (Thus it is marked as a private method.) It is only
+     * ever invoked from the native sampler thread, which owns the batch buffer.
      * </p>
      *
-     * @param pin GPIO pin number
-     * @param value New GPIO analog input value
+     * @param changes direct buffer holding the change records (see {@link AnalogInputBatch})
+     * @param count number of change records
+     * @param timestamp Time the channels were sampled, in {@link System#nanoTime()} units.
      */
-    @SuppressWarnings("unchecked")
-    private static void pinValueChangeCallback(int pin, double value) {
-
-        Vector<AnalogInputListener> listenersClone;
-        listenersClone = (Vector<AnalogInputListener>) listeners.clone();
-
-        for (int i = 0; i < listenersClone.size(); i++) {
-            AnalogInputListener listener = listenersClone.elementAt(i);
-            if(listener != null) {
-                AnalogInputEvent event = new AnalogInputEvent(listener, pin, value);
-                listener.pinValueChange(event);
-            }
+    private static void pinValuesChangeCallback(ByteBuffer changes, int count, long timestamp) {
+        batch.wrap(changes, count, timestamp);
+        for (AnalogInputListener listener : listeners) {
+            listener.pinValuesChange(batch);
         }
     }
 
@@ -130,7 +154,7 @@ public class AnalogInputMonitor {
      */
     public static synchronized void addListener(AnalogInputListener listener) {
         if (!listeners.contains(listener)) {
-            listeners.addElement(listener);
+            listeners.add(listener);
         }
     }
 
@@ -146,9 +170,7 @@ public class AnalogInputMonitor {
      * @param listener A class instance that implements the AnalogInputListener interface.
      */
     public static synchronized void removeListener(AnalogInputListener listener) {
-        if (listeners.contains(listener)) {
-            listeners.removeElement(listener);
-        }
+        listeners.remove(listener);
     }
 
 
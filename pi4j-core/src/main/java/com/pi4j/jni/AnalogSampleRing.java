@@ -0,0 +1,172 @@
+package com.pi4j.jni;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  AnalogSampleRing.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * <p>
+ * Single producer sample ring of primitive doubles backed by a direct {@link ByteBuffer} that is
+ * shared with the native analog sampler (see {@link AnalogInputMonitor#enablePinValueSampler}).
+ * The sampler writes every sample of a channel into the ring and publishes its write index with
+ * release semantics, so the sample history of a channel can be read without a callback or an
+ * allocation per sample.
+ * </p>
+ *
+ * <p>
+ * Shared memory layout (native byte order):
+ * <pre>
+ *   offset   0 : long write index (total samples produced, written by native code)
+ *   offset  64 : sample data     (power of two capacity of doubles)
+ * </pre>
+ * </p>
+ *
+ * <p>
+ * The ring never blocks the sampler: once it is full the oldest samples are overwritten.  The
+ * slot the sampler writes next may be in the process of being overwritten, so readers see at
+ * most the last <code>capacity - 1</code> samples.
+ * </p>
+ */
+public class AnalogSampleRing {
+
+    static final int WRITE_INDEX_OFFSET = 0;
+    static final int DATA_OFFSET = 64;
+
+    private static final int ALIGNMENT = 64;
+    private static final VarHandle INDEX = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle SAMPLE = MethodHandles.byteBufferViewVarHandle(double[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final int mask;
+
+    /**
+     * Create a new sample ring.
+     *
+     * @param capacity minimum number of samples (rounded up to a power of two of at least 2)
+     */
+    public AnalogSampleRing(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 26)) {
+            throw new IllegalArgumentException("Invalid sample ring capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        size = Math.max(size, 2);
+        this.capacity = size;
+        this.mask = size - 1;
+
+        // allocate a cache line aligned region holding exactly the write index and the samples
+        int alignedSize = (size * Double.BYTES + ALIGNMENT - 1) & -ALIGNMENT;
+        ByteBuffer region = ByteBuffer.allocateDirect(DATA_OFFSET + alignedSize + ALIGNMENT).alignedSlice(ALIGNMENT);
+        region.limit(DATA_OFFSET + size * Double.BYTES);
+        this.buffer = region.slice().order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * @return the shared direct buffer to register with the native code
+     */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * @return the sample capacity of the ring
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the total number of samples produced since the ring was registered
+     */
+    public long count() {
+        return writeIndex();
+    }
+
+    /**
+     * @return the most recent sample; NaN if no sample has been produced
+     */
+    public double latest() {
+        while (true) {
+            long write = writeIndex();
+            if (write == 0) {
+                return Double.NaN;
+            }
+            double sample = sample(write - 1);
+            // retry if the sample was (being) overwritten while it was read
+            VarHandle.acquireFence();
+            if (writeIndex() - (write - 1) < capacity) {
+                return sample;
+            }
+        }
+    }
+
+    /**
+     * Copy up to <code>length</code> (at most <code>capacity - 1</code>) of the most recent samples,
+     * oldest first, into the given array.
+     *
+     * @return the number of samples copied
+     */
+    public int read(double[] destination, int offset, int length) {
+        while (true) {
+            long write = writeIndex();
+            int count = (int) Math.min(Math.min(length, capacity - 1), write);
+            long first = write - count;
+            for (int i = 0; i < count; i++) {
+                destination[offset + i] = sample(first + i);
+            }
+            // retry if the oldest copied sample was (being) overwritten while the samples were read
+            VarHandle.acquireFence();
+            if (writeIndex() - first < capacity) {
+                return count;
+            }
+        }
+    }
+
+    private long writeIndex() {
+        return (long) INDEX.getAcquire(buffer, WRITE_INDEX_OFFSET);
+    }
+
+    private double sample(long index) {
+        return (double) SAMPLE.getOpaque(buffer, DATA_OFFSET + (int) (index & mask) * Double.BYTES);
+    }
+
+    /**
+     * Package-private producer side; used where the ring is filled from java (tests).
+     */
+    void write(double sample) {
+        long write = (long) INDEX.getOpaque(buffer, WRITE_INDEX_OFFSET);
+        SAMPLE.setOpaque(buffer, DATA_OFFSET + (int) (write & mask) * Double.BYTES, sample);
+        INDEX.setRelease(buffer, WRITE_INDEX_OFFSET, write + 1);
+    }
+}
@@ -0,0 +1,188 @@
+package com.pi4j.jni;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioChip.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.nio.ByteBuffer;
+
+import com.pi4j.util.NativeLibraryLoader;
+
+/**
+ * <p>
+ * This class provides static methods to access GPIO lines through the Linux GPIO character
+ * device (<code>/dev/gpiochipN</code>) using the v2 line request uAPI.  Unlike the sysfs
+ * interface, edge events read from a line request carry the kernel timestamp and sequence
+ * numbers of the edge.
+ * </p>
+ *
+ * <p>
+ * All methods return a negative POSIX error number on failure.
+ * </p>
+ *
+ * @see <a href="https://www.kernel.org/doc/html/latest/userspace-api/gpio/chardev.html">GPIO Character Device Userspace API</a>
+ */
+public class GpioChip {
+
+    public static final String DEFAULT_DEVICE = "/dev/gpiochip0";
+
+    // line flags (see GPIO_V2_LINE_FLAG_* in linux/gpio.h)
+    public static final long LINE_FLAG_ACTIVE_LOW           = 1L << 1;
+    public static final long LINE_FLAG_INPUT                = 1L << 2;
+    public static final long LINE_FLAG_OUTPUT               = 1L << 3;
+    public static final long LINE_FLAG_EDGE_RISING          = 1L << 4;
+    public static final long LINE_FLAG_EDGE_FALLING         = 1L << 5;
+    public static final long LINE_FLAG_OPEN_DRAIN           = 1L << 6;
+    public static final long LINE_FLAG_OPEN_SOURCE          = 1L << 7;
+    public static final long LINE_FLAG_BIAS_PULL_UP         = 1L << 8;
+    public static final long LINE_FLAG_BIAS_PULL_DOWN       = 1L << 9;
+    public static final long LINE_FLAG_BIAS_DISABLED        = 1L << 10;
+    public static final long LINE_FLAG_EVENT_CLOCK_REALTIME = 1L << 11;
+
+    // edge event identifiers (see GPIO_V2_LINE_EVENT_* in linux/gpio.h)
+    public static final int EVENT_RISING_EDGE  = 1;
+    public static final int EVENT_FALLING_EDGE = 2;
+
+    // size and field offsets of a 'struct gpio_v2_line_event' record
+    public static final int EVENT_SIZE              = 48;
+    public static final int EVENT_TIMESTAMP_OFFSET  = 0;
+    public static final int EVENT_ID_OFFSET         = 8;
+    public static final int EVENT_LINE_OFFSET       = 12;
+    public static final int EVENT_SEQNO_OFFSET      = 16;
+    public static final int EVENT_LINE_SEQNO_OFFSET = 20;
+
+    // private constructor
+    private GpioChip() {
+        // forbid object construction
+    }
+
+    static {
+        // Load the platform library
+        NativeLibraryLoader.load("libpi4j.so", "pi4j");
+    }
+
+    /**
+     * Open a GPIO character device.
+     *
+     * @param device the GPIO chip device path (i.e. '/dev/gpiochip0')
+     * @return the chip file descriptor
+     */
+    public static native int open(String device);
+
+    /**
+     * Close a chip, line request or event set file descriptor.
+     *
+     * @param fd the file descriptor to close
+     * @return '0' on success
+     */
+    public static native int close(int fd);
+
+    /**
+     * Request a single GPIO line from a chip.
+     *
+     * @param chipFd the chip file descriptor
+     * @param offset the line offset on the chip
+     * @param flags the combination of <code>LINE_FLAG_*</code> values
+     * @param debounceMicros debounce period in microseconds; '0' to disable
+     * @param initialValue initial output value; a negative value leaves the output untouched
+     * @param consumer label shown as the line consumer
+     * @return the line request file descriptor
+     */
+    public static native int requestLine(int chipFd, int offset, long flags, int debounceMicros,
+                                         int initialValue, String consumer);
+
+    /**
+     * Reconfigure a requested GPIO line.
+     *
+     * @param lineFd the line request file descriptor
+     * @param flags the combination of <code>LINE_FLAG_*</code> values
+     * @param debounceMicros debounce period in microseconds; '0' to disable
+     * @param initialValue initial output value; a negative value leaves the output untouched
+     * @return '0' on success
+     */
+    public static native int setLineConfig(int lineFd, long flags, int debounceMicros, int initialValue);
+
+    /**
+     * Read the current value of a requested GPIO line.
+     *
+     * @param lineFd the line request file descriptor
+     * @return '0' or '1' on success
+     */
+    public static native int getValue(int lineFd);
+
+    /**
+     * Set the output value of a requested GPIO line.
+     *
+     * @param lineFd the line request file descriptor
+     * @param value '0' or '1'
+     * @return '0' on success
+     */
+    public static native int setValue(int lineFd, int value);
+
+    /**
+     * Create an event set used to wait on several line requests at once.
+     *
+     * @return the event set file descriptor
+     */
+    public static native int createEventSet();
+
+    /**
+     * Add a line request to an event set.
+     *
+     * @param setFd the event set file descriptor
+     * @param lineFd the line request file descriptor
+     * @return '0' on success
+     */
+    public static native int addEventSource(int setFd, int lineFd);
+
+    /**
+     * Remove a line request from an event set.
+     *
+     * @param setFd the event set file descriptor
+     * @param lineFd the line request file descriptor
+     * @return '0' on success
+     */
+    public static native int removeEventSource(int setFd, int lineFd);
+
+    /**
+     * <p>
+     * Wait for edge events on any line request in the event set and copy the pending event
+     * records into the buffer.  Each ready line is drained with a single read of as many
+     * records as fit, so bursts are delivered in batches.
+     * </p>
+     *
+     * <p>
+     * The buffer must be a direct buffer; records are <code>EVENT_SIZE</code> bytes in native
+     * byte order and are written from the start of the buffer.
+     * </p>
+     *
+     * @param setFd the event set file descriptor
+     * @param buffer direct buffer receiving the event records
+     * @param timeout wait timeout in milliseconds
+     * @return the number of event records copied into the buffer ('0' on timeout)
+     */
+    public static native int readEvents(int setFd, ByteBuffer buffer, int timeout);
+}
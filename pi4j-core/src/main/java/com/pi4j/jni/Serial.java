@@ -33,12 +33,20 @@ import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.pi4j.util.NativeLibraryLoader;
 
 /**
  *  THIS IS CURRENTLY A NO-IMPL STUB.
  *  THIS IS WHERE A NEW SERIAL LIBRARY IMPLEMENTATION IS PLANNED.
+ *
+ *  <p>
+ *  The methods of this class are safe to use from multiple threads. Reads and writes are
+ *  guarded per file descriptor (one guard for the receive side and one for the transmit side),
+ *  so independent ports and the two directions of one port can be used concurrently.
+ *  </p>
  */
 public class Serial {
 
@@ -99,6 +107,27 @@ public class Serial {
         NativeLibraryLoader.load("libpi4j.so", "pi4j");
     }
 
+    // per file descriptor guards; reads and writes on one port are serialized separately,
+    // and operations on different ports never contend with each other
+    private static final Map<Integer, FileDescriptorGuard> guards = new ConcurrentHashMap<>();
+
+    private static final class FileDescriptorGuard {
+        private final Object read = new Object();
+        private final Object write = new Object();
+    }
+
+    private static FileDescriptorGuard guard(int fd) {
+        return guards.computeIfAbsent(fd, key -> new FileDescriptorGuard());
+    }
+
+    private static Object readGuard(int fd) {
+        return guard(fd).read;
+    }
+
+    private static Object writeGuard(int fd) {
+        return guard(fd).write;
+    }
+
     /**
      * <p>
      * This opens and initializes the serial port/device and sets the communication parameters.
@@ -129,8 +158,8 @@ public class Serial {
      * @return The return value is the file descriptor or a negative value for any error.
      *          An IOException will be thrown for all error conditions.
      */
-    public synchronized static native int open(String device, int baud, int dataBits, int parity, int stopBits,
-                                               int flowControl) throws IOException;
+    public static native int open(String device, int baud, int dataBits, int parity, int stopBits,
+                                  int flowControl) throws IOException;
 
     /**
      * <p>
@@ -164,7 +193,7 @@ public class Serial {
      * @return The return value is the file descriptor or a negative value for any error.
      *          An IOException will be thrown for all error conditions.
      */
-    public synchronized static int open(String device, int baud, int dataBits, int parity, int stopBits)
+    public static int open(String device, int baud, int dataBits, int parity, int stopBits)
                                                throws IOException {
         return open(device, baud, dataBits, parity, stopBits, FLOW_CONTROL_NONE);
     }
@@ -199,7 +228,7 @@ public class Serial {
      * @return The return value is the file descriptor or a negative value for any error.
      *          An IOException will be thrown for all error conditions.
      */
-    public synchronized static int open(String device, int baud, int dataBits, int parity) throws IOException {
+    public static int open(String device, int baud, int dataBits, int parity) throws IOException {
         return open(device, baud, dataBits, parity, STOP_BITS_1, FLOW_CONTROL_NONE);
     }
 
@@ -235,7 +264,7 @@ public class Serial {
      * @return The return value is the file descriptor or a negative value for any error.
      *          An IOException will be thrown for all error conditions.
      */
-    public synchronized static int open(String device, int baud, int dataBits) throws IOException {
+    public static int open(String device, int baud, int dataBits) throws IOException {
         return open(device, baud, dataBits, PARITY_NONE, STOP_BITS_1, FLOW_CONTROL_NONE);
     }
 
@@ -271,7 +300,7 @@ public class Serial {
      * @return The return value is the file descriptor or a negative value for any error.
      *          An IOException will be thrown for all error conditions.
      */
-    public synchronized static int open(String device, int baud) throws IOException {
+    public static int open(String device, int baud) throws IOException {
         return open(device, baud, DATA_BITS_8, PARITY_NONE, STOP_BITS_1, FLOW_CONTROL_NONE);
     }
 
@@ -280,10 +309,28 @@ public class Serial {
      * Closes the serial port/device identified by the file descriptor.
      * </p>
      *
+     * <p>
+     * Any read or write in progress on the same port completes before the port is closed.
+     * </p>
+     *
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static native void close(int fd) throws IOException;
+    public static void close(int fd) throws IOException {
+        FileDescriptorGuard guard = guard(fd);
+        synchronized (guard.read) {
+            synchronized (guard.write) {
+                try {
+                    nativeClose(fd);
+                } finally {
+                    // the descriptor number may be reused by the next open
+                    guards.remove(fd, guard);
+                }
+            }
+        }
+    }
+
+    private static native void nativeClose(int fd) throws IOException;
 
     /**
      * <p>
@@ -293,7 +340,7 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static native void discardInput(int fd) throws IOException;
+    public static native void discardInput(int fd) throws IOException;
 
     /**
      * <p>
@@ -303,7 +350,7 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static native void discardOutput(int fd) throws IOException;
+    public static native void discardOutput(int fd) throws IOException;
 
     /**
      * <p>
@@ -313,7 +360,7 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static native void discardAll(int fd) throws IOException;
+    public static native void discardAll(int fd) throws IOException;
 
     /**
      * <p>
@@ -323,7 +370,7 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static native void flush(int fd) throws IOException;
+    public static native void flush(int fd) throws IOException;
 
     /**
      * <p>
@@ -335,7 +382,7 @@ public class Serial {
      * @param duration
      *          The length of time (milliseconds) to send the BREAK signal
      */
-    public synchronized static native void sendBreak(int fd, int duration) throws IOException;
+    public static native void sendBreak(int fd, int duration) throws IOException;
 
     /**
      * <p>
@@ -345,7 +392,7 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static void sendBreak(int fd) throws IOException {
+    public static void sendBreak(int fd) throws IOException {
         sendBreak(fd, 0);
     }
 
@@ -361,7 +408,7 @@ public class Serial {
      * @param enabled
      *          The enable or disable state to control the BREAK signal
      */
-    public synchronized static native void setBreak(int fd, boolean enabled) throws IOException;
+    public static native void setBreak(int fd, boolean enabled) throws IOException;
 
     /**
      * <p>
@@ -374,7 +421,7 @@ public class Serial {
      * @param enabled
      *          The enable or disable state to control the RTS pin state.
      */
-    public synchronized static native void setRTS(int fd, boolean enabled) throws IOException;
+    public static native void setRTS(int fd, boolean enabled) throws IOException;
 
     /**
      * <p>
@@ -387,7 +434,7 @@ public class Serial {
      * @param enabled
      *          The enable or disable state to control the RTS pin state.
      */
-    public synchronized static native void setDTR(int fd, boolean enabled) throws IOException;
+    public static native void setDTR(int fd, boolean enabled) throws IOException;
 
     /**
      * <p>
@@ -397,7 +444,7 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static native boolean getRTS(int fd) throws IOException;
+    public static native boolean getRTS(int fd) throws IOException;
 
     /**
      * <p>
@@ -407,7 +454,7 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static native boolean getDTR(int fd) throws IOException;
+    public static native boolean getDTR(int fd) throws IOException;
 
     /**
      * <p>
@@ -417,7 +464,7 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static native boolean getCTS(int fd) throws IOException;
+    public static native boolean getCTS(int fd) throws IOException;
 
     /**
      * <p>
@@ -427,7 +474,7 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static native boolean getDSR(int fd) throws IOException;
+    public static native boolean getDSR(int fd) throws IOException;
 
     /**
      * <p>
@@ -437,7 +484,7 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static native boolean getRI(int fd) throws IOException;
+    public static native boolean getRI(int fd) throws IOException;
 
     /**
      * <p>
@@ -447,7 +494,7 @@ public class Serial {
      * @param fd
      *          The file descriptor of the serial port/device.
      */
-    public synchronized static native boolean getCD(int fd) throws IOException;
+    public static native boolean getCD(int fd) throws IOException;
 
     // ----------------------------------------
     // READ OPERATIONS
@@ -462,7 +509,7 @@ public class Serial {
      *
      * @return Returns the number of characters available for reading, or -1 for any error
      */
-    public synchronized static native int available(int fd);
+    public static native int available(int fd);
 
 
     /**
@@ -473,7 +520,13 @@ public class Serial {
      *
      * @return Returns a byte array with the data read from the serial port.
      */
-    public synchronized static native byte[] read(int fd) throws IOException;
+    public static byte[] read(int fd) throws IOException {
+        synchronized (readGuard(fd)) {
+            return nativeRead(fd);
+        }
+    }
+
+    private static native byte[] nativeRead(int fd) throws IOException;
 
     /**
      * <p>Reads a length of bytes from the port/serial device.</p>
@@ -486,7 +539,13 @@ public class Serial {
      *
      * @return Returns a byte array with the data read from the serial port.
      */
-    public synchronized static native byte[] read(int fd, int length) throws IOException;
+    public static byte[] read(int fd, int length) throws IOException {
+        synchronized (readGuard(fd)) {
+            return nativeRead(fd, length);
+        }
+    }
+
+    private static native byte[] nativeRead(int fd, int length) throws IOException;
 
     /**
      * <p>Reads all available bytes from the serial device into a provided ByteBuffer.</p>
@@ -496,9 +555,11 @@ public class Serial {
      * @param buffer
      *          The ByteBuffer object to write to.
      */
-    public synchronized static void read(int fd, ByteBuffer buffer) throws IOException{
-        byte[] data = read(fd);
-        buffer.put(data);
+    public static void read(int fd, ByteBuffer buffer) throws IOException{
+        synchronized (readGuard(fd)) {
+            byte[] data = read(fd);
+            buffer.put(data);
+        }
     }
 
     /**
@@ -513,8 +574,10 @@ public class Serial {
      *          The ByteBuffer object to write to.
      *
      */
-    public synchronized static void read(int fd, int length, ByteBuffer buffer) throws IOException{
-        buffer.put(read(fd, length));
+    public static void read(int fd, int length, ByteBuffer buffer) throws IOException{
+        synchronized (readGuard(fd)) {
+            buffer.put(read(fd, length));
+        }
     }
 
     /**
@@ -525,8 +588,10 @@ public class Serial {
      * @param stream
      *          The OutputStream object to write to.
      */
-    public synchronized static void read(int fd, OutputStream stream) throws IOException{
-        stream.write(read(fd));
+    public static void read(int fd, OutputStream stream) throws IOException{
+        synchronized (readGuard(fd)) {
+            stream.write(read(fd));
+        }
     }
 
     /**
@@ -541,8 +606,10 @@ public class Serial {
      *          The OutputStream object to write to.
      *
      */
-    public synchronized static void read(int fd, int length, OutputStream stream) throws IOException{
-        stream.write(read(fd, length));
+    public static void read(int fd, int length, OutputStream stream) throws IOException{
+        synchronized (readGuard(fd)) {
+            stream.write(read(fd, length));
+        }
     }
 
     /**
@@ -554,8 +621,10 @@ public class Serial {
      *          The collection of CharSequence objects to append to.
      *
      */
-    public synchronized static void read(int fd, Collection<ByteBuffer> collection) throws IOException{
-        collection.add(ByteBuffer.wrap(read(fd)));
+    public static void read(int fd, Collection<ByteBuffer> collection) throws IOException{
+        synchronized (readGuard(fd)) {
+            collection.add(ByteBuffer.wrap(read(fd)));
+        }
     }
 
     /**
@@ -570,8 +639,10 @@ public class Serial {
      *          The collection of CharSequence objects to append to.
      *
      */
-    public synchronized static void read(int fd, int length, Collection<ByteBuffer> collection) throws IOException{
-        collection.add(ByteBuffer.wrap(read(fd)));
+    public static void read(int fd, int length, Collection<ByteBuffer> collection) throws IOException{
+        synchronized (readGuard(fd)) {
+            collection.add(ByteBuffer.wrap(read(fd)));
+        }
     }
 
     /**
@@ -584,8 +655,10 @@ public class Serial {
      *
      * @return Returns a character set with the data read from the serial port.
      */
-    public synchronized static CharBuffer read(int fd, Charset charset) throws IOException{
-        return charset.decode(ByteBuffer.wrap(read(fd)));
+    public static CharBuffer read(int fd, Charset charset) throws IOException{
+        synchronized (readGuard(fd)) {
+            return charset.decode(ByteBuffer.wrap(read(fd)));
+        }
     }
 
     /**
@@ -601,8 +674,10 @@ public class Serial {
      *
      * @return Returns a character set with the data read from the serial port.
      */
-    public synchronized static CharBuffer read(int fd, int length, Charset charset) throws IOException{
-        return charset.decode(ByteBuffer.wrap(read(fd, length)));
+    public static CharBuffer read(int fd, int length, Charset charset) throws IOException{
+        synchronized (readGuard(fd)) {
+            return charset.decode(ByteBuffer.wrap(read(fd, length)));
+        }
     }
 
     /**
@@ -616,8 +691,10 @@ public class Serial {
      *          The Writer object to write to.
      *
      */
-    public synchronized static void read(int fd, Charset charset, Writer writer) throws IOException{
-        writer.write(read(fd, charset).toString());
+    public static void read(int fd, Charset charset, Writer writer) throws IOException{
+        synchronized (readGuard(fd)) {
+            writer.write(read(fd, charset).toString());
+        }
     }
 
     /**
@@ -634,8 +711,10 @@ public class Serial {
      *          The Writer object to write to.
      *
      */
-    public synchronized static void read(int fd, int length, Charset charset, Writer writer) throws IOException{
-        writer.write(read(fd, length, charset).toString());
+    public static void read(int fd, int length, Charset charset, Writer writer) throws IOException{
+        synchronized (readGuard(fd)) {
+            writer.write(read(fd, length, charset).toString());
+        }
     }
 
 
@@ -654,7 +733,7 @@ public class Serial {
      * @param length
      *            The number of bytes from the byte array to transmit to the serial port.
      */
-    private synchronized static native void write(int fd, byte[] data, long length) throws IOException;
+    private static native void write(int fd, byte[] data, long length) throws IOException;
 
     /**
      * <p>Sends an array of bytes to the serial port/device identified by the given file descriptor.</p>
@@ -668,14 +747,15 @@ public class Serial {
      * @param length
      *            The number of bytes from the byte array to transmit to the serial port.
      */
-    public synchronized static void write(int fd, byte[] data, int offset, int length) throws IOException {
-
-        // we make a copy of the data argument because we don't want to modify the original source data
-        byte[] buffer = new byte[length];
-        System.arraycopy(data, offset, buffer, 0, length);
-
-        // write the buffer contents to the serial port via JNI native method
-        write(fd, buffer, length);
+    public static void write(int fd, byte[] data, int offset, int length) throws IOException {
+        synchronized (writeGuard(fd)) {
+            // we make a copy of the data argument because we don't want to modify the original source data
+            byte[] buffer = new byte[length];
+            System.arraycopy(data, offset, buffer, 0, length);
+
+            // write the buffer contents to the serial port via JNI native method
+            write(fd, buffer, length);
+        }
     }
 
     /**
@@ -686,10 +766,11 @@ public class Serial {
      * @param data
      *            One or more bytes (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void write(int fd, byte ... data) throws IOException {
-
-        // write the data contents to the serial port via JNI native method
-        write(fd, data, data.length);
+    public static void write(int fd, byte ... data) throws IOException {
+        synchronized (writeGuard(fd)) {
+            // write the data contents to the serial port via JNI native method
+            write(fd, data, data.length);
+        }
     }
 
     /**
@@ -700,10 +781,12 @@ public class Serial {
      * @param data
      *            One or more byte arrays of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void write(int fd, byte[] ... data) throws IOException {
-        for(byte[] single : data) {
-            // write the data contents to the serial port via JNI native method
-            write(fd, single, single.length);
+    public static void write(int fd, byte[] ... data) throws IOException {
+        synchronized (writeGuard(fd)) {
+            for(byte[] single : data) {
+                // write the data contents to the serial port via JNI native method
+                write(fd, single, single.length);
+            }
         }
     }
 
@@ -717,17 +800,18 @@ public class Serial {
      * @param data
      *            A ByteBuffer of data to be transmitted.
      */
-    public synchronized static void write(int fd, ByteBuffer ... data) throws IOException{
-
-        // write each byte buffer to the serial port
-        for(ByteBuffer single : data) {
-
-            // read the byte buffer from the current position up to the limit
-            byte[] payload = new byte[single.remaining()];
-            single.get(payload);
-
-            // write the data contents to the serial port via JNI native method
-            write(fd, payload, payload.length);
+    public static void write(int fd, ByteBuffer ... data) throws IOException{
+        synchronized (writeGuard(fd)) {
+            // write each byte buffer to the serial port
+            for(ByteBuffer single : data) {
+
+                // read the byte buffer from the current position up to the limit
+                byte[] payload = new byte[single.remaining()];
+                single.get(payload);
+
+                // write the data contents to the serial port via JNI native method
+                write(fd, payload, payload.length);
+            }
         }
     }
 
@@ -739,23 +823,24 @@ public class Serial {
      * @param input
      *          An InputStream of data to be transmitted
      */
-    public synchronized static void write(int fd, InputStream input) throws IOException {
-
-        // ensure bytes are available
-        if(input.available() <= 0){
-            throw new IOException("No available bytes in input stream to write to serial port.");
+    public static void write(int fd, InputStream input) throws IOException {
+        synchronized (writeGuard(fd)) {
+            // ensure bytes are available
+            if(input.available() <= 0){
+                throw new IOException("No available bytes in input stream to write to serial port.");
+            }
+
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            int length;
+            byte[] data = new byte[1024];
+            while ((length = input.read(data, 0, data.length)) != -1) {
+                buffer.write(data, 0, length);
+            }
+            buffer.flush();
+
+            // write bytes to serial port
+            write(fd, buffer.toByteArray(), buffer.size());
         }
-
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-        int length;
-        byte[] data = new byte[1024];
-        while ((length = input.read(data, 0, data.length)) != -1) {
-            buffer.write(data, 0, length);
-        }
-        buffer.flush();
-
-        // write bytes to serial port
-        write(fd, buffer.toByteArray(), buffer.size());
     }
 
     /**
@@ -772,10 +857,11 @@ public class Serial {
      * @param length
      *           The number of characters from the char array to transmit to the serial port.
      */
-    public synchronized static void write(int fd, Charset charset, char[] data, int offset, int length) throws IOException {
-
-        // write the buffer contents to the serial port via JNI native method
-        write(fd, charset, CharBuffer.wrap(data, offset, length));
+    public static void write(int fd, Charset charset, char[] data, int offset, int length) throws IOException {
+        synchronized (writeGuard(fd)) {
+            // write the buffer contents to the serial port via JNI native method
+            write(fd, charset, CharBuffer.wrap(data, offset, length));
+        }
     }
 
     /**
@@ -788,10 +874,11 @@ public class Serial {
      * @param data
      *           One or more characters (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void write(int fd, Charset charset, char ... data) throws IOException {
-
-        // write the buffer contents to the serial port via JNI native method
-        write(fd, charset, CharBuffer.wrap(data));
+    public static void write(int fd, Charset charset, char ... data) throws IOException {
+        synchronized (writeGuard(fd)) {
+            // write the buffer contents to the serial port via JNI native method
+            write(fd, charset, CharBuffer.wrap(data));
+        }
     }
 
     /**
@@ -802,10 +889,11 @@ public class Serial {
      * @param data
      *           One or more ASCII characters (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void write(int fd, char ... data) throws IOException {
-
-        // write the buffer contents to the serial port via JNI native method
-        write(fd, StandardCharsets.US_ASCII, CharBuffer.wrap(data));
+    public static void write(int fd, char ... data) throws IOException {
+        synchronized (writeGuard(fd)) {
+            // write the buffer contents to the serial port via JNI native method
+            write(fd, StandardCharsets.US_ASCII, CharBuffer.wrap(data));
+        }
     }
 
     /**
@@ -818,9 +906,11 @@ public class Serial {
      * @param data
      *           One or more CharBuffers (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void write(int fd, Charset charset, CharBuffer ... data) throws IllegalStateException, IOException {
-        for(CharBuffer single : data) {
-            write(fd, charset.encode(single));
+    public static void write(int fd, Charset charset, CharBuffer ... data) throws IllegalStateException, IOException {
+        synchronized (writeGuard(fd)) {
+            for(CharBuffer single : data) {
+                write(fd, charset.encode(single));
+            }
         }
     }
 
@@ -832,8 +922,10 @@ public class Serial {
      * @param data
      *           One or more ASCII CharBuffers (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void write(int fd, CharBuffer ... data) throws IllegalStateException, IOException {
-        write(fd, StandardCharsets.US_ASCII, data);
+    public static void write(int fd, CharBuffer ... data) throws IllegalStateException, IOException {
+        synchronized (writeGuard(fd)) {
+            write(fd, StandardCharsets.US_ASCII, data);
+        }
     }
 
     /**
@@ -846,9 +938,11 @@ public class Serial {
      * @param data
      *           One or more string objects (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void write(int fd, Charset charset, CharSequence ... data) throws IllegalStateException, IOException {
-        for(CharSequence single : data) {
-            write(fd, charset.encode(CharBuffer.wrap(single)));
+    public static void write(int fd, Charset charset, CharSequence ... data) throws IllegalStateException, IOException {
+        synchronized (writeGuard(fd)) {
+            for(CharSequence single : data) {
+                write(fd, charset.encode(CharBuffer.wrap(single)));
+            }
         }
     }
 
@@ -860,8 +954,10 @@ public class Serial {
      * @param data
      *           One or more ASCII string objects (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void write(int fd, CharSequence ... data) throws IllegalStateException, IOException {
-        write(fd, StandardCharsets.US_ASCII, data);
+    public static void write(int fd, CharSequence ... data) throws IllegalStateException, IOException {
+        synchronized (writeGuard(fd)) {
+            write(fd, StandardCharsets.US_ASCII, data);
+        }
     }
 
 
@@ -875,9 +971,11 @@ public class Serial {
      * @param data
      *           A collection of string objects (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void write(int fd, Charset charset, Collection<? extends CharSequence> data) throws IllegalStateException, IOException {
-        for(CharSequence single : data) {
-            write(fd, charset.encode(CharBuffer.wrap(single)));
+    public static void write(int fd, Charset charset, Collection<? extends CharSequence> data) throws IllegalStateException, IOException {
+        synchronized (writeGuard(fd)) {
+            for(CharSequence single : data) {
+                write(fd, charset.encode(CharBuffer.wrap(single)));
+            }
         }
     }
 
@@ -889,8 +987,10 @@ public class Serial {
      * @param data
      *           A collection of string objects (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void write(int fd, Collection<? extends CharSequence> data) throws IllegalStateException, IOException {
-        write(fd, StandardCharsets.US_ASCII, data);
+    public static void write(int fd, Collection<? extends CharSequence> data) throws IllegalStateException, IOException {
+        synchronized (writeGuard(fd)) {
+            write(fd, StandardCharsets.US_ASCII, data);
+        }
     }
 
 
@@ -904,9 +1004,11 @@ public class Serial {
      * @param data
      *           One or more string objects (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void writeln(int fd, Charset charset, CharSequence ... data) throws IllegalStateException, IOException {
-        for(CharSequence single : data) {
-            write(fd, charset.encode(CharBuffer.wrap(single + "\r\n")));
+    public static void writeln(int fd, Charset charset, CharSequence ... data) throws IllegalStateException, IOException {
+        synchronized (writeGuard(fd)) {
+            for(CharSequence single : data) {
+                write(fd, charset.encode(CharBuffer.wrap(single + "\r\n")));
+            }
         }
     }
 
@@ -918,8 +1020,10 @@ public class Serial {
      * @param data
      *           One or more ASCII string objects (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void writeln(int fd, CharSequence ... data) throws IllegalStateException, IOException {
-        writeln(fd, StandardCharsets.US_ASCII, data);
+    public static void writeln(int fd, CharSequence ... data) throws IllegalStateException, IOException {
+        synchronized (writeGuard(fd)) {
+            writeln(fd, StandardCharsets.US_ASCII, data);
+        }
     }
 
     /**
@@ -932,9 +1036,11 @@ public class Serial {
      * @param data
      *           A collection of string objects (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void writeln(int fd, Charset charset, Collection<? extends CharSequence> data) throws IllegalStateException, IOException {
-        for(CharSequence single : data) {
-            write(fd, charset.encode(CharBuffer.wrap(single + "\r\n")));
+    public static void writeln(int fd, Charset charset, Collection<? extends CharSequence> data) throws IllegalStateException, IOException {
+        synchronized (writeGuard(fd)) {
+            for(CharSequence single : data) {
+                write(fd, charset.encode(CharBuffer.wrap(single + "\r\n")));
+            }
         }
     }
 
@@ -946,8 +1052,10 @@ public class Serial {
      * @param data
      *           A collection of ASCII string objects (or an array) of data to be transmitted. (variable-length-argument)
      */
-    public synchronized static void writeln(int fd, Collection<? extends CharSequence> data) throws IllegalStateException, IOException {
-        writeln(fd, StandardCharsets.US_ASCII, data);
+    public static void writeln(int fd, Collection<? extends CharSequence> data) throws IllegalStateException, IOException {
+        synchronized (writeGuard(fd)) {
+            writeln(fd, StandardCharsets.US_ASCII, data);
+        }
     }
 
 }
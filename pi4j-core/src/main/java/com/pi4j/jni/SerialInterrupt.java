@@ -28,6 +28,7 @@ package com.pi4j.jni;
  */
 
 
+import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -87,6 +88,52 @@ public class SerialInterrupt {
      */
     public static native int disableSerialDataReceiveCallback(int fileDescriptor);
 
+    /**
+     * <p>
+     * This method is used to configure how the native monitoring thread frames received data
+     * before raising a data receive callback. By default received data is delivered as soon as
+     * it is available. The semantics follow the termios VMIN/VTIME settings, but with a
+     * microsecond resolution for the inter-byte timeout.
+     * </p>
+     *
+     * <p>
+     * <b>The serial port must already be monitored (see {@link #addListener}).</b>
+     * </p>
+     *
+     * @param fileDescriptor the serial file descriptor/handle
+     * @param minimumLength the minimum number of bytes to collect before raising a callback
+     *                      (0 to deliver any received data)
+     * @param interByteTimeout the line idle time in microseconds that completes a frame
+     *                         (0 to not wait for further data)
+     * @return A return value of a negative number represents an error (the serial port is not
+     *         being monitored). A return value of '1' represents success.
+     */
+    public static native int setReceiveTiming(int fileDescriptor, int minimumLength, int interByteTimeout);
+
+    /**
+     * <p>
+     * This method is used to register a direct receive ring with the native monitoring thread.
+     * Once registered, received data is read by the native code straight into the ring buffer
+     * and only the number of bytes received is delivered to the listener (see
+     * {@link SerialInterruptListener#onDataAvailable(int, int, long)}); no byte array is allocated
+     * or copied per data receive event.  Passing <code>null</code> removes the ring and returns
+     * to the byte array callbacks.
+     * </p>
+     *
+     * <p>
+     * <b>The serial port must already be monitored (see {@link #addListener}).</b>
+     * </p>
+     *
+     * @see com.pi4j.jni.SerialReceiveRing
+     *
+     * @param fileDescriptor the serial file descriptor/handle
+     * @param ring the direct ring buffer (see {@link SerialReceiveRing#buffer()}) or null
+     * @return A return value of a negative number represents an error (the serial port is not
+     *         being monitored or the buffer is not a valid ring). A return value of '1'
+     *         represents success.
+     */
+    public static native int setReceiveBuffer(int fileDescriptor, ByteBuffer ring);
+
     /**
      * <p>
      * This method is provided as the callback handler for the Pi4J native library to invoke when a
@@ -111,6 +158,26 @@ public class SerialInterrupt {
         //System.out.println("SERIAL PORT [" + fileDescriptor + "] DATA LENGTH = " + data.length + " / " + new String(data));
     }
 
+    /**
+     * <p>
+     * This method is provided as the callback handler for the Pi4J native library to invoke when
+     * data has been received into a registered direct receive ring. This method should not be
+     * called from any Java consumers. (Thus is is marked as a private method.)
+     * </p>
+     *
+     * @param fileDescriptor the serial file descriptor/handle
+     * @param length number of bytes added to the receive ring on this event
+     * @param end ring write index following the added bytes
+     */
+    private static void onDataAvailableCallback(int fileDescriptor, int length, long end) {
+
+        // notify event listener
+        SerialInterruptListener listener = listeners.get(fileDescriptor);
+        if(listener != null) {
+            listener.onDataAvailable(fileDescriptor, length, end);
+        }
+    }
+
     /**
      * <p>
      * Java consumer code can all this method to register itself as a listener for pin state
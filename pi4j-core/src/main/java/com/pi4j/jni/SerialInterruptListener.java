@@ -37,4 +37,17 @@ package com.pi4j.jni;
  */
 public interface SerialInterruptListener extends java.util.EventListener {
     void onDataReceive(SerialInterruptEvent event);
+
+    /**
+     * Invoked instead of {@link #onDataReceive} when a direct receive ring is registered for
+     * the serial port (see {@link SerialInterrupt#setReceiveBuffer}); the received data has
+     * already been written into the ring.
+     *
+     * @param fileDescriptor the serial file descriptor/handle
+     * @param length number of bytes added to the receive ring
+     * @param end ring write index following the added bytes
+     */
+    default void onDataAvailable(int fileDescriptor, int length, long end) {
+        // ignored unless a direct receive ring is used
+    }
 }
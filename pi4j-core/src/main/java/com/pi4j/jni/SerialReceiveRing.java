@@ -0,0 +1,312 @@
+package com.pi4j.jni;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SerialReceiveRing.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * <p>
+ * Single producer / single consumer byte ring backed by a direct {@link ByteBuffer} that is
+ * shared with the native serial monitoring thread (see {@link SerialInterrupt#setReceiveBuffer}).
+ * The native code reads received data straight into the ring and publishes its write index
+ * with release semantics; Java consumers read the data in place and publish their read index
+ * the same way, so no byte array is allocated or copied between the serial device and the
+ * consumer.
+ * </p>
+ *
+ * <p>
+ * Shared memory layout (native byte order):
+ * <pre>
+ *   offset   0 : long write index (total bytes produced, written by native code)
+ *   offset  64 : long read index  (total bytes consumed, written by java)
+ *   offset 128 : ring data        (power of two capacity)
+ * </pre>
+ * The indices live on separate cache lines so producer and consumer do not contend.
+ * </p>
+ *
+ * <p>
+ * When the ring is full the native monitoring thread stops reading until space is released;
+ * further received data then waits in the kernel receive queue.
+ * </p>
+ */
+public class SerialReceiveRing {
+
+    static final int WRITE_INDEX_OFFSET = 0;
+    static final int READ_INDEX_OFFSET = 64;
+    static final int DATA_OFFSET = 128;
+
+    private static final int ALIGNMENT = 64;
+    private static final VarHandle INDEX = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer buffer;
+    private final ByteBuffer data;
+    private final ByteBuffer reader;
+    private final ByteBuffer dataView;
+    private final int capacity;
+    private final int mask;
+    private final InputStream stream = new RingInputStream();
+
+    /**
+     * Create a new receive ring.
+     *
+     * @param capacity minimum data capacity in bytes (rounded up to a power of two)
+     */
+    public SerialReceiveRing(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid receive ring capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+
+        // allocate a cache line aligned region holding exactly the indices and the data
+        int alignedSize = (size + ALIGNMENT - 1) & -ALIGNMENT;
+        ByteBuffer region = ByteBuffer.allocateDirect(DATA_OFFSET + alignedSize + ALIGNMENT).alignedSlice(ALIGNMENT);
+        region.limit(DATA_OFFSET + size);
+        this.buffer = region.slice();
+        this.buffer.position(DATA_OFFSET);
+        this.data = this.buffer.slice();
+        this.buffer.position(0);
+        this.reader = data.duplicate();
+        this.dataView = data.asReadOnlyBuffer();
+    }
+
+    /**
+     * @return the shared direct buffer to register with the native code
+     */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * @return the data capacity of the ring in bytes
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of bytes ready to be read
+     */
+    public int available() {
+        return (int) (writeIndex() - readIndex());
+    }
+
+    /**
+     * Copy up to <code>length</code> received bytes into the given array (non-blocking).
+     *
+     * @return the number of bytes copied
+     */
+    public synchronized int read(byte[] destination, int offset, int length) {
+        int count = Math.min(length, available());
+        if (count <= 0) {
+            return 0;
+        }
+        long read = readIndex();
+        int position = (int) (read & mask);
+        int first = Math.min(count, capacity - position);
+        reader.limit(position + first).position(position);
+        reader.get(destination, offset, first);
+        if (first < count) {
+            reader.limit(count - first).position(0);
+            reader.get(destination, offset + first, count - first);
+        }
+        INDEX.setRelease(buffer, READ_INDEX_OFFSET, read + count);
+        return count;
+    }
+
+    /**
+     * <p>
+     * Get a read-only view of the next <code>length</code> received bytes without consuming them.
+     * The view shares the ring memory unless the data wraps around the end of the ring, in which
+     * case a copy is returned.  A shared view is only valid until the bytes are released.
+     * </p>
+     *
+     * @param length number of bytes to view (must not exceed {@link #available()})
+     * @return read-only buffer positioned at the first byte
+     */
+    public synchronized ByteBuffer peek(int length) {
+        if (length < 0 || length > available()) {
+            throw new IllegalArgumentException("Invalid receive ring view length: " + length);
+        }
+        return view(readIndex(), length);
+    }
+
+    /**
+     * <p>
+     * Get the shared read-only view of the ring data.  The byte at ring index <code>i</code> is
+     * at position <code>i &amp; (capacity() - 1)</code>; use absolute gets only.  Bytes remain
+     * valid after they have been consumed until the producer overwrites them, so the bytes of a
+     * receive notification can be accessed on the producer's notification even if a reader has
+     * already consumed them.
+     * </p>
+     *
+     * @return read-only buffer spanning the ring data
+     */
+    public ByteBuffer data() {
+        return dataView;
+    }
+
+    private ByteBuffer view(long start, int length) {
+        int position = (int) (start & mask);
+        ByteBuffer view;
+        if (position + length <= capacity) {
+            view = data.duplicate();
+            view.limit(position + length).position(position);
+            view = view.slice();
+        } else {
+            int first = capacity - position;
+            view = ByteBuffer.allocate(length);
+            ByteBuffer source = data.duplicate();
+            source.limit(capacity).position(position);
+            view.put(source);
+            source.limit(length - first).position(0);
+            view.put(source);
+            view.flip();
+        }
+        return view.asReadOnlyBuffer();
+    }
+
+    /**
+     * Consume (discard) the next <code>length</code> received bytes, making room for the producer.
+     */
+    public synchronized void release(int length) {
+        if (length < 0 || length > available()) {
+            throw new IllegalArgumentException("Invalid receive ring release length: " + length);
+        }
+        INDEX.setRelease(buffer, READ_INDEX_OFFSET, readIndex() + length);
+    }
+
+    /**
+     * Wake up the readers blocked on the input stream; called for each receive notification of
+     * the producer (after the write index has been published).
+     */
+    public synchronized void signal() {
+        notifyAll();
+    }
+
+    /**
+     * Discard all received bytes.
+     */
+    public synchronized void clear() {
+        INDEX.setRelease(buffer, READ_INDEX_OFFSET, writeIndex());
+    }
+
+    /**
+     * @return a blocking input stream reading from this ring
+     */
+    public InputStream getInputStream() {
+        return stream;
+    }
+
+    private long writeIndex() {
+        return (long) INDEX.getAcquire(buffer, WRITE_INDEX_OFFSET);
+    }
+
+    private long readIndex() {
+        return (long) INDEX.getOpaque(buffer, READ_INDEX_OFFSET);
+    }
+
+    /**
+     * Package-private producer side; used where the ring is filled from java (tests).
+     */
+    synchronized int write(byte[] source, int offset, int length) {
+        long write = (long) INDEX.getOpaque(buffer, WRITE_INDEX_OFFSET);
+        int count = Math.min(length, capacity - (int) (write - readIndex()));
+        for (int i = 0; i < count; i++) {
+            data.put((int) ((write + i) & mask), source[offset + i]);
+        }
+        INDEX.setRelease(buffer, WRITE_INDEX_OFFSET, write + count);
+        notifyAll();
+        return count;
+    }
+
+    private synchronized void awaitData() throws IOException {
+        while (available() <= 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Blocking read operation interrupted.");
+            }
+        }
+    }
+
+    protected class RingInputStream extends InputStream {
+
+        @Override
+        public int available() throws IOException {
+            return SerialReceiveRing.this.available();
+        }
+
+        @Override
+        public int read() throws IOException {
+            while (true) {
+                awaitData();
+                synchronized (SerialReceiveRing.this) {
+                    if (SerialReceiveRing.this.available() > 0) {
+                        long read = readIndex();
+                        int result = data.get((int) (read & mask)) & 0xff;
+                        INDEX.setRelease(buffer, READ_INDEX_OFFSET, read + 1);
+                        return result;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public int read(byte[] destination, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            int count;
+            do {
+                awaitData();
+                count = SerialReceiveRing.this.read(destination, offset, length);
+            } while (count == 0);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            int count = (int) Math.min(n, SerialReceiveRing.this.available());
+            if (count > 0) {
+                release(count);
+            }
+            return Math.max(count, 0);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.pi4j.jni;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SpiStream.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.FileDescriptor;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import com.pi4j.util.NativeLibraryLoader;
+
+/**
+ * <p>
+ * This class provides static methods to run SPI streaming acquisitions in native code.  A stream
+ * thread issues a precompiled <code>SPI_IOC_MESSAGE</code> transfer list back to back, decodes the
+ * sample fields of every completed block and appends them to a shared sample ring.  Use
+ * {@link com.pi4j.io.spi.SpiSampleStream} rather than calling these methods directly.
+ * </p>
+ *
+ * @see com.pi4j.io.spi.SpiSampleStream
+ * @see com.pi4j.io.spi.SpiSampleRing
+ */
+public class SpiStream {
+
+    // private constructor
+    private SpiStream()  {
+        // forbid object construction
+    }
+
+    static {
+        // Load the platform library
+        NativeLibraryLoader.load("libpi4j.so", "pi4j");
+    }
+
+    /**
+     * <p>
+     * Start a stream thread.  The transfer list is copied and its buffer pointers are resolved
+     * once; the rx block, the sample ring and all buffers referenced by the transfer list must
+     * remain referenced until the stream is stopped.
+     * </p>
+     *
+     * @param fd open spidev device file
+     * @param transfers spi_ioc_transfer array (direct buffer)
+     * @param transferCount number of transfers
+     * @param buffers direct buffers referenced by the transfer pointers
+     * @param pointers triples of (pointer offset in transfers, index in buffers, byte offset in that buffer)
+     * @param pointerCount number of pointer triples
+     * @param rx receive block (direct buffer) the sample fields are decoded from
+     * @param fields (rx offset, bytes, shift, bits | signed &lt;&lt; 8) of every sample of a block
+     * @param fieldCount number of samples per block
+     * @param ring direct buffer of a {@link com.pi4j.io.spi.SpiSampleRing}
+     * @param priority SCHED_FIFO priority of the stream thread; 0 for the default scheduling
+     * @return the stream id; a negative errno value on failure
+     */
+    public static native int start(FileDescriptor fd, ByteBuffer transfers, int transferCount,
+                                   ByteBuffer[] buffers, IntBuffer pointers, int pointerCount,
+                                   ByteBuffer rx, IntBuffer fields, int fieldCount,
+                                   ByteBuffer ring, int priority);
+
+    /**
+     * <p>
+     * Stop a stream thread (after its current block) and release the stream.
+     * </p>
+     *
+     * @param stream stream id
+     * @return '1' if the stream was stopped, '0' if no such stream is running; negative on error
+     */
+    public static native int stop(int stream);
+}
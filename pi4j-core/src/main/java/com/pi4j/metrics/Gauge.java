@@ -0,0 +1,55 @@
+package com.pi4j.metrics;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  Gauge.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Instantaneous value (for example an executor queue depth) that is only computed when the gauge
+ * is read, so it costs nothing on the measured path.
+ */
+public class Gauge extends Metric implements GaugeMXBean {
+
+    private final LongSupplier value;
+
+    Gauge(String name, Map<String, String> tags, LongSupplier value) {
+        super(name, tags);
+        this.value = value;
+    }
+
+    @Override
+    public long getValue() {
+        return value.getAsLong();
+    }
+
+    @Override
+    public void reset() {
+        // a gauge has no state of its own
+    }
+}
@@ -0,0 +1,175 @@
+package com.pi4j.metrics;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  LatencyHistogram.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * Latency histogram with fixed power of two buckets: bucket 0 counts zero (or negative) latencies
+ * and bucket <code>i</code> counts latencies of <code>2^(i-1)</code> to <code>2^i - 1</code>
+ * nanoseconds; the last bucket also counts all longer latencies.  Recording a latency is a bit scan
+ * and a striped counter increment, so it costs a few nanoseconds and never allocates.
+ * </p>
+ *
+ * <p>
+ * Percentiles are reported as the upper bound of the bucket holding the percentile (at most a
+ * factor of two above the exact value), capped at the maximum recorded latency.
+ * </p>
+ */
+public class LatencyHistogram extends Metric implements LatencyHistogramMXBean {
+
+    /** number of buckets; the last bucket starts at 2^38 ns (about 275 seconds) */
+    public static final int BUCKETS = 40;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    LatencyHistogram(String name, Map<String, String> tags) {
+        super(name, tags);
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record a latency.
+     *
+     * @param nanos latency in nanoseconds
+     */
+    public void record(long nanos) {
+        buckets[bucket(nanos)].increment();
+        if (nanos > 0) {
+            total.add(nanos);
+            long current;
+            while (nanos > (current = max.get()) && !max.compareAndSet(current, nanos)) {
+                // retry; another thread raised the maximum concurrently
+            }
+        }
+    }
+
+    /**
+     * Record the latency since the given start time.
+     *
+     * @param startNanos start time in {@link System#nanoTime()} units
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    static int bucket(long nanos) {
+        if (nanos <= 0) {
+            return 0;
+        }
+        return Math.min(Long.SIZE - Long.numberOfLeadingZeros(nanos), BUCKETS - 1);
+    }
+
+    static long upperBound(int bucket) {
+        return (bucket >= BUCKETS - 1) ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    @Override
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    @Override
+    public double getMean() {
+        long count = getCount();
+        return (count > 0) ? (double) total.sum() / count : 0;
+    }
+
+    @Override
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile percentile (0 to 100)
+     * @return upper bound (nanoseconds) of the bucket holding the percentile; 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = getBuckets();
+        long count = 0;
+        for (long bucket : counts) {
+            count += bucket;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank) {
+                return Math.min(upperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    @Override
+    public long get50thPercentile() {
+        return getPercentile(50);
+    }
+
+    @Override
+    public long get99thPercentile() {
+        return getPercentile(99);
+    }
+
+    @Override
+    public long get999thPercentile() {
+        return getPercentile(99.9);
+    }
+
+    @Override
+    public long[] getBuckets() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        total.reset();
+        max.set(0);
+    }
+}
@@ -0,0 +1,96 @@
+package com.pi4j.metrics;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  Metric.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Base class of the named and tagged metrics kept by {@link Metrics}.
+ */
+public abstract class Metric {
+
+    private final String name;
+    private final Map<String, String> tags;
+    private final String id;
+
+    protected Metric(String name, Map<String, String> tags) {
+        this.name = name;
+        this.tags = Collections.unmodifiableMap(new LinkedHashMap<>(tags));
+        this.id = id(name, tags);
+    }
+
+    /**
+     * @return metric name, for example <code>serial.bytes.received</code>
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return tags identifying the measured pin, port or bus (in registration order)
+     */
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    /**
+     * @return unique id of the metric: the name followed by the tags, for example
+     *         <code>serial.bytes.received{port=/dev/ttyAMA0}</code>
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Reset the metric to its initial state (gauges are not affected).
+     */
+    public abstract void reset();
+
+    static String id(String name, Map<String, String> tags) {
+        if (tags.isEmpty()) {
+            return name;
+        }
+        StringBuilder id = new StringBuilder(name).append('{');
+        boolean first = true;
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            if (!first) {
+                id.append(',');
+            }
+            id.append(tag.getKey()).append('=').append(tag.getValue());
+            first = false;
+        }
+        return id.append('}').toString();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + id + "]";
+    }
+}
@@ -0,0 +1,246 @@
+package com.pi4j.metrics;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  Metrics.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>
+ * Registry of the built-in Pi4J instrumentation: event counters, latency histograms and gauges
+ * for the GPIO event pipeline, the executors, serial ports and the I2C and SPI buses.
+ * </p>
+ *
+ * <p>
+ * The instrumentation is disabled unless the {@code pi4j.metrics} system property is set to
+ * {@code true}.  Instrumented code guards every update with the constant {@link #ENABLED}, so the
+ * JIT compiler removes the instrumentation entirely when it is disabled; when it is enabled an
+ * update costs a striped counter increment.  Metrics are looked up once (when the pin, port or bus
+ * is set up), never on the measured path.
+ * </p>
+ *
+ * <p>
+ * Metrics are identified by a name and optional tags (for example <code>pin</code>,
+ * <code>port</code> or <code>bus</code>).  They can be pulled with {@link #getMetrics()} or
+ * {@link #snapshot()} and are registered as MXBeans with the platform MBean server under the
+ * <code>com.pi4j</code> domain.
+ * </p>
+ */
+public final class Metrics {
+
+    /** true if the instrumentation is enabled (system property {@code pi4j.metrics}) */
+    public static final boolean ENABLED = Boolean.getBoolean("pi4j.metrics");
+
+    /** JMX domain of the metric MXBeans */
+    public static final String DOMAIN = "com.pi4j";
+
+    private static final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+
+    // private constructor
+    private Metrics() {
+        // forbid object construction
+    }
+
+    /**
+     * Get (or create) a counter.
+     *
+     * @param name metric name
+     * @param tags tag names and values (<code>"port", "/dev/ttyAMA0"</code>)
+     * @return the counter registered under the name and tags
+     */
+    public static Counter counter(String name, String... tags) {
+        return register(Counter.class, name, tags, t -> new Counter(name, t));
+    }
+
+    /**
+     * Get (or create) a latency histogram.
+     *
+     * @param name metric name
+     * @param tags tag names and values
+     * @return the histogram registered under the name and tags
+     */
+    public static LatencyHistogram histogram(String name, String... tags) {
+        return register(LatencyHistogram.class, name, tags, t -> new LatencyHistogram(name, t));
+    }
+
+    /**
+     * Get (or create) a gauge.  If a gauge is already registered under the name and tags, the
+     * existing gauge is kept.
+     *
+     * @param name metric name
+     * @param value supplier of the gauge value; only invoked when the gauge is read
+     * @param tags tag names and values
+     * @return the gauge registered under the name and tags
+     */
+    public static Gauge gauge(String name, LongSupplier value, String... tags) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing value argument.");
+        }
+        return register(Gauge.class, name, tags, t -> new Gauge(name, t, value));
+    }
+
+    /**
+     * @return all registered metrics
+     */
+    public static Collection<Metric> getMetrics() {
+        return Collections.unmodifiableCollection(metrics.values());
+    }
+
+    /**
+     * @param name metric name
+     * @param tags tag names and values
+     * @return the metric registered under the name and tags; null if none
+     */
+    public static Metric getMetric(String name, String... tags) {
+        return metrics.get(Metric.id(name, tags(tags)));
+    }
+
+    /**
+     * Get the current values of all metrics, sorted by id.  Counters and gauges report their value
+     * under their id; histograms report <code>.count</code>, <code>.mean</code>, <code>.p50</code>,
+     * <code>.p99</code> and <code>.max</code> (nanoseconds) values.
+     *
+     * @return metric values by id
+     */
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        for (Metric metric : metrics.values()) {
+            if (metric instanceof Counter) {
+                snapshot.put(metric.getId(), ((Counter) metric).getCount());
+            } else if (metric instanceof Gauge) {
+                snapshot.put(metric.getId(), ((Gauge) metric).getValue());
+            } else if (metric instanceof LatencyHistogram) {
+                LatencyHistogram histogram = (LatencyHistogram) metric;
+                snapshot.put(metric.getId() + ".count", histogram.getCount());
+                snapshot.put(metric.getId() + ".mean", Math.round(histogram.getMean()));
+                snapshot.put(metric.getId() + ".p50", histogram.get50thPercentile());
+                snapshot.put(metric.getId() + ".p99", histogram.get99thPercentile());
+                snapshot.put(metric.getId() + ".max", histogram.getMax());
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Reset all counters and histograms.
+     */
+    public static void reset() {
+        for (Metric metric : metrics.values()) {
+            metric.reset();
+        }
+    }
+
+    /**
+     * Remove a metric from the registry and from the platform MBean server.
+     *
+     * @param metric registered metric
+     */
+    public static void remove(Metric metric) {
+        if (metric != null && metrics.remove(metric.getId(), metric)) {
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName objectName = objectName(metric);
+                if (server.isRegistered(objectName)) {
+                    server.unregisterMBean(objectName);
+                }
+            } catch (JMException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * @return JMX object name of the metric MXBean
+     */
+    public static ObjectName objectName(Metric metric) throws JMException {
+        StringBuilder name = new StringBuilder(DOMAIN)
+                .append(":type=").append(metric.getClass().getSimpleName())
+                .append(",name=").append(ObjectName.quote(metric.getName()));
+        for (Map.Entry<String, String> tag : metric.getTags().entrySet()) {
+            name.append(',').append(tag.getKey()).append('=').append(ObjectName.quote(tag.getValue()));
+        }
+        return new ObjectName(name.toString());
+    }
+
+    private static <T extends Metric> T register(Class<T> type, String name, String[] tags,
+                                                 Function<Map<String, String>, T> factory) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Missing name argument.");
+        }
+        Map<String, String> tagMap = tags(tags);
+        String id = Metric.id(name, tagMap);
+        Metric metric = metrics.get(id);
+        if (metric == null) {
+            metric = metrics.computeIfAbsent(id, key -> {
+                T created = factory.apply(tagMap);
+                registerMBean(created);
+                return created;
+            });
+        }
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException("Metric [" + id + "] is already registered as " + metric.getClass().getSimpleName());
+        }
+        return type.cast(metric);
+    }
+
+    private static Map<String, String> tags(String[] tags) {
+        if (tags == null || tags.length == 0) {
+            return Collections.emptyMap();
+        }
+        if (tags.length % 2 != 0) {
+            throw new IllegalArgumentException("Invalid metric tags; expected tag name and value pairs.");
+        }
+        Map<String, String> tagMap = new LinkedHashMap<>();
+        for (int i = 0; i < tags.length; i += 2) {
+            tagMap.put(tags[i], String.valueOf(tags[i + 1]));
+        }
+        return tagMap;
+    }
+
+    private static void registerMBean(Metric metric) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = objectName(metric);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(metric, objectName);
+            }
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+}
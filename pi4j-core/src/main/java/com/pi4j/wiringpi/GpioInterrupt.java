@@ -27,14 +27,14 @@ package com.pi4j.wiringpi;
  * #L%
  */
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.nio.ByteBuffer;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
 
+import com.pi4j.concurrent.PinEventRingBuffer;
 import com.pi4j.io.gpio.GpioFactory;
+import com.pi4j.metrics.Counter;
+import com.pi4j.metrics.Metrics;
 import com.pi4j.util.NativeLibraryLoader;
 
 /**
@@ -56,17 +56,33 @@ import com.pi4j.util.NativeLibraryLoader;
  * </blockquote>
  * </p>
  *
+ * <p>
+ * Pin state changes are published by the native reactor thread into a preallocated
+ * {@link PinEventRingBuffer} and dispatched to the registered listeners in batches by a single
+ * event thread, so the event path does not allocate per edge. The buffer capacity can be
+ * configured with the {@code pi4j.gpio.interrupt.buffer} system property (default 4096 events).
+ * </p>
+ *
  * @see <a href="https://pi4j.com/">https://pi4j.com/</a>
  * @author Robert Savage (<a
  *         href="http://www.savagehomeautomation.com">http://www.savagehomeautomation.com</a>)
  */
 public class GpioInterrupt {
 
+    private static final int DEFAULT_BUFFER_SIZE = 4096;
+    private static final int MAX_DISPATCH_BATCH = 256;
+    private static final GpioInterruptListener[] NO_LISTENERS = new GpioInterruptListener[0];
+
     private static final Object mutex;
-    private static final LinkedBlockingQueue<GpioEvent> events;
-	private static final List<GpioInterruptListener> listeners;
+    private static final PinEventRingBuffer events;
+	private static volatile GpioInterruptListener[] listeners;
 
-	private static boolean run;
+	// edges received per pin (only when metrics are enabled)
+	private static final Counter[] edgeMetrics = Metrics.ENABLED ? new Counter[256] : null;
+
+	private static volatile boolean run;
+	// incremented for each event task; a task stops as soon as it is no longer the current one
+	private static volatile long generation;
 	private static ExecutorService eventExecutor;
 	private static Future<?> eventTask;
 
@@ -77,8 +93,8 @@ public class GpioInterrupt {
 
     static {
 		mutex = new Object();
-		events = new LinkedBlockingQueue<>();
-		listeners = Collections.synchronizedList(new ArrayList<>());
+		events = new PinEventRingBuffer(Integer.getInteger("pi4j.gpio.interrupt.buffer", DEFAULT_BUFFER_SIZE));
+		listeners = NO_LISTENERS;
 
         // Load the platform library
         NativeLibraryLoader.load("libpi4j.so", "pi4j");
@@ -86,8 +102,9 @@ public class GpioInterrupt {
 
     /**
      * <p>
-     * This method is used to instruct the native code to setup a monitoring thread to monitor
-     * interrupts that represent changes to the selected GPIO pin.
+     * This method is used to instruct the native code to register the selected GPIO pin with the
+     * native interrupt reactor. A single native thread waits on the value files of all monitored
+     * pins and dispatches the changes of every pin.
      * </p>
      *
      * <p>
@@ -97,40 +114,126 @@ public class GpioInterrupt {
      * @param pin GPIO pin number (not header pin number; not wiringPi pin number)
      * @return A return value of a negative number represents an error. A return value of '0'
      *         represents success and that the GPIO pin is already being monitored. A return value
-     *         of '1' represents success and that a new monitoring thread was created to handle the
-     *         requested GPIO pin number.
+     *         of '1' represents success and that the requested GPIO pin number was added to the
+     *         native interrupt reactor.
      */
     public static native int enablePinStateChangeCallback(int pin);
 
     /**
      * <p>
-     * This method is used to instruct the native code to stop the monitoring thread monitoring
-     * interrupts on the selected GPIO pin.
+     * This method is used to instruct the native code to remove the selected GPIO pin from the
+     * native interrupt reactor.
      * </p>
      *
      * @param pin GPIO pin number (not header pin number; not wiringPi pin number)
 
      * @return A return value of a negative number represents an error. A return value of '0'
      *         represents success and that no existing monitor was previously running. A return
-     *         value of '1' represents success and that an existing monitoring thread was stopped
-     *         for the requested GPIO pin number.
+     *         value of '1' represents success and that the requested GPIO pin number was removed
+     *         from the native interrupt reactor.
      */
     public static native int disablePinStateChangeCallback(int pin);
 
+    /**
+     * <p>
+     * This method is used to instruct the native interrupt reactor to count the edges of the
+     * selected GPIO pin into a counter block. Counted edges do not cross into Java; the counter
+     * block is updated under a sequence lock (see {@link com.pi4j.io.gpio.GpioEdgeCounterProvider}
+     * for the block layout). Callbacks enabled with {@link #enablePinStateChangeCallback(int)}
+     * are not affected.
+     * </p>
+     *
+     * <p>
+     * <b>The GPIO pin must first be exported before it can be monitored.</b>
+     * </p>
+     *
+     * @param pin GPIO pin number (not header pin number; not wiringPi pin number)
+     * @param edge edges to count ({@link GpioUtil#EDGE_BOTH}, {@link GpioUtil#EDGE_RISING} or
+     *             {@link GpioUtil#EDGE_FALLING})
+     * @param counters direct byte buffer holding the counter block; it must remain referenced
+     *                 until the counter is disabled
+     * @return A return value of a negative number represents an error. A return value of '1'
+     *         represents success.
+     */
+    public static native int enablePinEdgeCounter(int pin, int edge, ByteBuffer counters);
+
+    /**
+     * <p>
+     * This method is used to instruct the native interrupt reactor to stop counting the edges of
+     * the selected GPIO pin.
+     * </p>
+     *
+     * @param pin GPIO pin number (not header pin number; not wiringPi pin number)
+     * @return A return value of a negative number represents an error. A return value of '0'
+     *         represents success and that the pin was not counting edges. A return value of '1'
+     *         represents success and that the edge counter was stopped.
+     */
+    public static native int disablePinEdgeCounter(int pin);
+
+    /**
+     * <p>
+     * This method is used to instruct the native interrupt reactor to decode a quadrature encoder
+     * connected to two GPIO pins.  An edge on either channel samples both channels and decodes the
+     * transition with a state table in the reactor thread, so the transitions of both channels are
+     * processed in order and no callback is raised per edge.  The position is written into the
+     * encoder block (see {@link com.pi4j.io.gpio.GpioQuadratureEncoderProvider} for the block
+     * layout). Callbacks enabled with {@link #enablePinStateChangeCallback(int)} are not affected.
+     * </p>
+     *
+     * <p>
+     * <b>Both GPIO pins must first be exported before they can be monitored.</b>
+     * </p>
+     *
+     * @param pinA GPIO pin number of channel A (not header pin number; not wiringPi pin number)
+     * @param pinB GPIO pin number of channel B (not header pin number; not wiringPi pin number)
+     * @param encoder direct byte buffer holding the encoder block; it must remain referenced
+     *                until the encoder is disabled
+     * @return A return value of a negative number represents an error. A return value of '1'
+     *         represents success.
+     */
+    public static native int enablePinQuadratureEncoder(int pinA, int pinB, ByteBuffer encoder);
+
+    /**
+     * <p>
+     * This method is used to instruct the native interrupt reactor to stop decoding the quadrature
+     * encoder connected to the selected GPIO pin (either channel).
+     * </p>
+     *
+     * @param pin GPIO pin number of either channel (not header pin number; not wiringPi pin number)
+     * @return A return value of a negative number represents an error. A return value of '0'
+     *         represents success and that the pin was not decoding an encoder. A return value of
+     *         '1' represents success and that the encoder was stopped.
+     */
+    public static native int disablePinQuadratureEncoder(int pin);
+
     /**
      * <p>
      * This method is provided as the callback handler for the Pi4J native library to invoke when a
      * GPIO interrupt is detected. This method should not be called from any Java consumers. (Thus
-     * is is marked as a private method.)
+     * is is marked as a private method.) It is only ever invoked from the native reactor thread,
+     * which is the single producer of the event ring buffer.
      * </p>
      *
      * @param pin GPIO pin number (not header pin number; not wiringPi pin number)
      * @param state New GPIO pin state.
+     * @param timestamp Time the change was detected, in {@link System#nanoTime()} units.
      */
-    private static void pinStateChangeCallback(int pin, boolean state) {
-		synchronized (mutex) {
-			events.add(new GpioEvent(pin, state));
+    private static void pinStateChangeCallback(int pin, boolean state, long timestamp) {
+		if (Metrics.ENABLED) {
+			edgeMetric(pin).increment();
 		}
+		events.publish(pin, state, timestamp);
+    }
+
+    private static Counter edgeMetric(int pin) {
+        Counter counter = (pin >= 0 && pin < edgeMetrics.length) ? edgeMetrics[pin] : null;
+        if (counter == null) {
+            counter = Metrics.counter("gpio.interrupt.edges", "pin", Integer.toString(pin));
+            if (pin >= 0 && pin < edgeMetrics.length) {
+                edgeMetrics[pin] = counter;
+            }
+        }
+        return counter;
     }
 
     /**
@@ -146,8 +249,11 @@ public class GpioInterrupt {
      */
     public static void addListener(GpioInterruptListener listener) {
     	synchronized (mutex) {
-			if (!listeners.contains(listener)) {
-				listeners.add(listener);
+			if (indexOf(listener) < 0) {
+				GpioInterruptListener[] updated = new GpioInterruptListener[listeners.length + 1];
+				System.arraycopy(listeners, 0, updated, 0, listeners.length);
+				updated[listeners.length] = listener;
+				listeners = updated;
 
 				if (!run)
 					enableEventExecutor();
@@ -168,9 +274,15 @@ public class GpioInterrupt {
      */
     public static void removeListener(GpioInterruptListener listener) {
 		synchronized (mutex) {
-			listeners.remove(listener);
+			int index = indexOf(listener);
+			if (index >= 0) {
+				GpioInterruptListener[] updated = new GpioInterruptListener[listeners.length - 1];
+				System.arraycopy(listeners, 0, updated, 0, index);
+				System.arraycopy(listeners, index + 1, updated, index, updated.length - index);
+				listeners = updated;
+			}
 
-			if (run && listeners.isEmpty())
+			if (run && listeners.length == 0)
 				disableEventExecutor();
 		}
     }
@@ -187,16 +299,29 @@ public class GpioInterrupt {
      */
     public static boolean hasListener(GpioInterruptListener listener) {
 		synchronized (mutex) {
-			return listeners.contains(listener);
+			return indexOf(listener) >= 0;
 		}
     }
 
+	private static int indexOf(GpioInterruptListener listener) {
+		GpioInterruptListener[] current = listeners;
+		for (int index = 0; index < current.length; index++) {
+			if (current[index].equals(listener))
+				return index;
+		}
+		return -1;
+	}
+
 	private static synchronized void enableEventExecutor() {
 		if (!run) {
 			run = true;
 			if (eventExecutor == null)
 				eventExecutor = GpioFactory.getExecutorServiceFactory().getEventExecutorService();
-			eventTask = eventExecutor.submit(GpioInterrupt::handleEvents);
+
+			// the cursor only sees events published after it was opened
+			PinEventRingBuffer.Cursor cursor = events.openCursor();
+			long current = ++generation;
+			eventTask = eventExecutor.submit(() -> handleEvents(cursor, current));
 		}
 	}
 
@@ -212,28 +337,43 @@ public class GpioInterrupt {
 		disableEventExecutor();
 	}
 
-	private static void handleEvents() {
-		while (run) {
+	private static void handleEvents(PinEventRingBuffer.Cursor cursor, long current) {
+		try {
+			while (run && generation == current) {
+				// drain all pending events in one pass
+				cursor.take(GpioInterrupt::dispatchEvent, MAX_DISPATCH_BATCH);
+			}
+		} catch (InterruptedException e) {
+			// cancelled (or the executor is shutting down); preserve the interrupt status
+			Thread.currentThread().interrupt();
+		} finally {
+			// release the producer from waiting on this consumer
+			cursor.close();
+
+			// allow a later listener registration to start a new event task
+			synchronized (mutex) {
+				if (generation == current)
+					run = false;
+			}
+		}
+	}
+
+	private static void dispatchEvent(int pin, boolean state, long timestamp, long sequence) {
+		for (GpioInterruptListener listener : listeners) {
 			try {
-				GpioEvent event = events.take();
-
-				List<GpioInterruptListener> listenersClone;
-				synchronized (mutex) {
-					listenersClone = new ArrayList<>(listeners);
-				}
-
-				for (GpioInterruptListener listener : listenersClone) {
-					GpioInterruptEvent interruptEvent = new GpioInterruptEvent(listener, event.pin, event.state);
-					listener.pinStateChange(interruptEvent);
-				}
-			} catch (InterruptedException e) {
-				if (!run) {
-					return;
-				}
+				listener.pinStateChange(pin, state, timestamp, sequence);
+			} catch (RuntimeException e) {
+				// a failing listener must not stall the event thread (and thereby the native reactor)
+				e.printStackTrace();
 			}
 		}
 	}
 
+    /**
+     * @deprecated pin state changes are no longer queued as event objects; they are published into
+     *             a {@link PinEventRingBuffer} (see {@link GpioInterruptListener#pinStateChange(int, boolean, long, long)}).
+     */
+    @Deprecated
     public static class GpioEvent {
         private final int pin;
         private final boolean state;
@@ -49,4 +49,18 @@ package com.pi4j.wiringpi;
  */
 public interface GpioInterruptListener extends java.util.EventListener {
     void pinStateChange(GpioInterruptEvent event);
+
+    /**
+     * Primitive form of the state change callback used by the interrupt event thread. The default
+     * implementation wraps the arguments in a {@link GpioInterruptEvent}; listeners on the hot path
+     * can override it to avoid allocating an event object per edge.
+     *
+     * @param pin GPIO pin number (not header pin number; not wiringPi pin number)
+     * @param state New GPIO pin state.
+     * @param timestamp Time the change was detected, in {@link System#nanoTime()} units.
+     * @param sequence Sequence number of this event in the interrupt event stream.
+     */
+    default void pinStateChange(int pin, boolean state, long timestamp, long sequence) {
+        pinStateChange(new GpioInterruptEvent(this, pin, state));
+    }
 }
@@ -0,0 +1,161 @@
+package com.pi4j.concurrent;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  HashedWheelTimerTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class HashedWheelTimerTests {
+
+    private static class LatchTimeout extends HashedWheelTimer.Timeout {
+        final CountDownLatch expired;
+        final AtomicLong expiredAt = new AtomicLong();
+
+        LatchTimeout(HashedWheelTimer timer, int count) {
+            super(timer);
+            this.expired = new CountDownLatch(count);
+        }
+
+        @Override
+        protected void expire() {
+            expiredAt.set(System.nanoTime());
+            expired.countDown();
+        }
+    }
+
+    @Test
+    public void testTimeoutExpires() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer(Executors.defaultThreadFactory());
+        try {
+            LatchTimeout timeout = new LatchTimeout(timer, 1);
+            long start = System.nanoTime();
+            assertTrue(timeout.schedule(20, TimeUnit.MILLISECONDS));
+            assertTrue(timeout.isArmed());
+            assertTrue(timeout.expired.await(5, TimeUnit.SECONDS));
+
+            // a timeout never expires before its deadline
+            assertTrue(timeout.expiredAt.get() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+            assertFalse(timeout.isArmed());
+            assertEquals(0, timer.size());
+        } finally {
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer(Executors.defaultThreadFactory());
+        try {
+            LatchTimeout timeout = new LatchTimeout(timer, 1);
+            timeout.schedule(20, TimeUnit.MILLISECONDS);
+            assertTrue(timeout.cancel());
+            assertFalse(timeout.cancel());
+            assertFalse(timeout.isArmed());
+            assertFalse(timeout.expired.await(100, TimeUnit.MILLISECONDS));
+        } finally {
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    public void testReschedule() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer(Executors.defaultThreadFactory());
+        try {
+            LatchTimeout timeout = new LatchTimeout(timer, 1);
+            long start = System.nanoTime();
+            timeout.schedule(10, TimeUnit.MILLISECONDS);
+
+            // re-arming replaces the deadline
+            timeout.schedule(100, TimeUnit.MILLISECONDS);
+            assertEquals(1, timer.size());
+            assertTrue(timeout.expired.await(5, TimeUnit.SECONDS));
+            assertTrue(timeout.expiredAt.get() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        } finally {
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    public void testPeriodicTimeouts() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer(Executors.defaultThreadFactory());
+        try {
+            // many timeouts re-arming themselves every tick, including deadlines beyond one wheel rotation
+            final int timeouts = 500;
+            final int rounds = 20;
+            CountDownLatch done = new CountDownLatch(timeouts + 1);
+            AtomicInteger expirations = new AtomicInteger();
+            for (int i = 0; i < timeouts; i++) {
+                new HashedWheelTimer.Timeout(timer) {
+                    int count = 0;
+                    {
+                        schedule(1, TimeUnit.MILLISECONDS);
+                    }
+
+                    @Override
+                    protected void expire() {
+                        expirations.incrementAndGet();
+                        if (++count < rounds) {
+                            schedule(1, TimeUnit.MILLISECONDS);
+                        } else {
+                            done.countDown();
+                        }
+                    }
+                };
+            }
+            LatchTimeout distant = new LatchTimeout(timer, 1);
+            distant.schedule(timer.getWheelSize() + 50, TimeUnit.MILLISECONDS);
+            assertTrue(distant.expired.await(10, TimeUnit.SECONDS));
+            done.countDown();
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(timeouts * rounds, expirations.get());
+            assertEquals(0, timer.size());
+        } finally {
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    public void testShutdown() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer(Executors.defaultThreadFactory());
+        LatchTimeout timeout = new LatchTimeout(timer, 1);
+        timeout.schedule(20, TimeUnit.MILLISECONDS);
+        timer.shutdown();
+        assertTrue(timer.isShutdown());
+        assertFalse(timeout.isArmed());
+        assertFalse(timeout.schedule(1, TimeUnit.MILLISECONDS));
+        assertFalse(timeout.expired.await(100, TimeUnit.MILLISECONDS));
+    }
+}
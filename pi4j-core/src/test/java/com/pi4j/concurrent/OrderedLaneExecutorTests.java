@@ -0,0 +1,185 @@
+package com.pi4j.concurrent;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  OrderedLaneExecutorTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class OrderedLaneExecutorTests {
+
+    @Test
+    public void testOrderPreservedPerKey() throws Exception {
+        OrderedLaneExecutor executor = new OrderedLaneExecutor(4, 64,
+                OrderedLaneExecutor.BackpressurePolicy.BLOCK, Executors.defaultThreadFactory());
+        try {
+            final int keys = 8;
+            final int events = 1000;
+            List<List<Integer>> received = new ArrayList<>();
+            for (int key = 0; key < keys; key++) {
+                received.add(Collections.synchronizedList(new ArrayList<>()));
+            }
+            CountDownLatch done = new CountDownLatch(keys * events);
+            for (int i = 0; i < events; i++) {
+                for (int key = 0; key < keys; key++) {
+                    final int k = key, value = i;
+                    executor.execute(k, () -> {
+                        received.get(k).add(value);
+                        done.countDown();
+                    });
+                }
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            for (int key = 0; key < keys; key++) {
+                List<Integer> values = received.get(key);
+                assertEquals(events, values.size());
+                for (int i = 0; i < events; i++) {
+                    assertEquals(Integer.valueOf(i), values.get(i));
+                }
+            }
+            assertEquals(0, executor.getDroppedCount());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testDropOldest() throws Exception {
+        assertEquals("[blocker, 2, 3]", runOverflow(OrderedLaneExecutor.BackpressurePolicy.DROP_OLDEST, "a", "a", "a"));
+    }
+
+    @Test
+    public void testCoalesceKeepsLatestOfKey() throws Exception {
+        // the lane holds [1:a, 2:b]; task 3 (key a) replaces task 1
+        assertEquals("[blocker, 3, 2]", runOverflow(OrderedLaneExecutor.BackpressurePolicy.COALESCE, "a", "b", "a"));
+    }
+
+    @Test
+    public void testCoalesceFallsBackToDropOldest() throws Exception {
+        assertEquals("[blocker, 2, 3]", runOverflow(OrderedLaneExecutor.BackpressurePolicy.COALESCE, "a", "b", "c"));
+    }
+
+    @Test
+    public void testBlockWaitsForRoom() throws Exception {
+        assertEquals("[blocker, 1, 2, 3]", runOverflow(OrderedLaneExecutor.BackpressurePolicy.BLOCK, "a", "a", "a"));
+    }
+
+    @Test
+    public void testPolicyOverrideDoesNotBlock() throws Exception {
+        OrderedLaneExecutor executor = new OrderedLaneExecutor(1, 1,
+                OrderedLaneExecutor.BackpressurePolicy.BLOCK, Executors.defaultThreadFactory());
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            List<String> executed = Collections.synchronizedList(new ArrayList<>());
+            executor.execute("blocker", () -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // the lane is full after the first task; the coalescing submissions return immediately
+            executor.execute("a", () -> executed.add("1"));
+            executor.execute("a", () -> executed.add("2"), OrderedLaneExecutor.BackpressurePolicy.COALESCE);
+            executor.execute("a", () -> executed.add("3"), OrderedLaneExecutor.BackpressurePolicy.COALESCE);
+            assertEquals(2, executor.getDroppedCount());
+
+            release.countDown();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (executed.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals("[3]", executed.toString());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Stalls the single lane (capacity 2) with a blocking task, then submits three tasks
+     * with the given keys and returns the execution order.
+     */
+    private static String runOverflow(OrderedLaneExecutor.BackpressurePolicy policy, String... keys) throws Exception {
+        OrderedLaneExecutor executor = new OrderedLaneExecutor(1, 2, policy, Executors.defaultThreadFactory());
+        try {
+            List<String> executed = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            executor.execute("blocker", () -> {
+                executed.add("blocker");
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < keys.length; i++) {
+                    final String name = String.valueOf(i + 1);
+                    executor.execute(keys[i], () -> executed.add(name));
+                }
+            });
+            producer.start();
+            if (policy == OrderedLaneExecutor.BackpressurePolicy.BLOCK) {
+                // the third submission must wait for the lane to drain
+                producer.join(200);
+                assertTrue(producer.isAlive());
+            } else {
+                producer.join(5000);
+            }
+            release.countDown();
+            producer.join(5000);
+
+            // wait for the queued tasks that survived the overflow
+            int expected = keys.length + 1 - (int) executor.getDroppedCount();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (executed.size() < expected && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            return executed.toString();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
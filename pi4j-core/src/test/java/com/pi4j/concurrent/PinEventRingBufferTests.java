@@ -0,0 +1,140 @@
+package com.pi4j.concurrent;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  PinEventRingBufferTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class PinEventRingBufferTests {
+
+    @Test
+    public void testCapacityRoundedToPowerOfTwo() {
+        assertEquals(1, new PinEventRingBuffer(1).getCapacity());
+        assertEquals(8, new PinEventRingBuffer(5).getCapacity());
+        assertEquals(4096, new PinEventRingBuffer(4096).getCapacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new PinEventRingBuffer(0);
+    }
+
+    @Test
+    public void testPollDeliversEventsInOrder() {
+        PinEventRingBuffer buffer = new PinEventRingBuffer(16);
+        PinEventRingBuffer.Cursor cursor = buffer.openCursor();
+
+        buffer.publish(4, true, 100L);
+        buffer.publish(5, false, 200L);
+        buffer.publish(6, true, 300L);
+        assertEquals(3, cursor.available());
+
+        StringBuilder received = new StringBuilder();
+        int count = cursor.poll((pin, state, timestamp, sequence) ->
+                received.append(pin).append(state ? 'H' : 'L').append(timestamp).append('#').append(sequence).append(' '), 2);
+        assertEquals(2, count);
+        assertEquals("4H100#0 5L200#1 ", received.toString());
+
+        count = cursor.poll((pin, state, timestamp, sequence) ->
+                received.append(pin).append(state ? 'H' : 'L').append(timestamp).append('#').append(sequence).append(' '), 10);
+        assertEquals(1, count);
+        assertEquals("4H100#0 5L200#1 6H300#2 ", received.toString());
+        assertEquals(0, cursor.available());
+    }
+
+    @Test
+    public void testCursorOnlySeesEventsAfterOpen() {
+        PinEventRingBuffer buffer = new PinEventRingBuffer(4);
+        buffer.publish(1, true, 0L);
+        PinEventRingBuffer.Cursor cursor = buffer.openCursor();
+        assertEquals(0, cursor.available());
+        buffer.publish(2, true, 0L);
+        assertEquals(1, cursor.available());
+    }
+
+    @Test
+    public void testProducerDoesNotWaitWithoutCursors() {
+        PinEventRingBuffer buffer = new PinEventRingBuffer(4);
+        for (int i = 0; i < 100; i++) {
+            buffer.publish(i, true, i);
+        }
+        assertEquals(99, buffer.getPublishedSequence());
+    }
+
+    @Test(timeout = 10000)
+    public void testProducerWaitsForSlowConsumer() throws Exception {
+        final int total = 100000;
+        PinEventRingBuffer buffer = new PinEventRingBuffer(64);
+        PinEventRingBuffer.Cursor first = buffer.openCursor();
+        PinEventRingBuffer.Cursor second = buffer.openCursor();
+
+        AtomicLong firstSum = new AtomicLong();
+        AtomicLong secondSum = new AtomicLong();
+        Thread firstConsumer = consumer(first, firstSum, total);
+        Thread secondConsumer = consumer(second, secondSum, total);
+        firstConsumer.start();
+        secondConsumer.start();
+
+        long expected = 0;
+        for (int i = 0; i < total; i++) {
+            buffer.publish(i, (i & 1) == 0, i);
+            expected += i;
+        }
+
+        firstConsumer.join();
+        secondConsumer.join();
+
+        // both consumers see every event, nothing is overwritten before it was consumed
+        assertEquals(expected, firstSum.get());
+        assertEquals(expected, secondSum.get());
+    }
+
+    private static Thread consumer(PinEventRingBuffer.Cursor cursor, AtomicLong sum, int total) {
+        return new Thread(() -> {
+            long[] next = {0};
+            try {
+                while (next[0] < total) {
+                    cursor.take((pin, state, timestamp, sequence) -> {
+                        if (pin != next[0] || timestamp != next[0] || sequence != next[0]) {
+                            throw new IllegalStateException("Out of order event " + pin + " expected " + next[0]);
+                        }
+                        next[0]++;
+                        sum.addAndGet(pin);
+                    }, 32);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+}
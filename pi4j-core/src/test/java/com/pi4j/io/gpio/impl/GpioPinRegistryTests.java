@@ -0,0 +1,163 @@
+package com.pi4j.io.gpio.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioPinRegistryTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioPin;
+import com.pi4j.io.gpio.GpioProvider;
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.test.MockGpioProvider;
+import com.pi4j.io.gpio.test.MockPin;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Iterator;
+
+import static org.junit.Assert.*;
+
+public class GpioPinRegistryTests {
+
+    private GpioPinRegistry registry;
+    private GpioProvider provider;
+    private GpioProvider otherProvider;
+
+    @Before
+    public void setup() {
+        registry = new GpioPinRegistry();
+        provider = new MockGpioProvider();
+        otherProvider = new MockGpioProvider();
+    }
+
+    private GpioPin pin(GpioProvider provider, Pin pin, String name) {
+        GpioPin gpioPin = new GpioPinImpl(null, provider, pin);
+        gpioPin.setName(name);
+        return gpioPin;
+    }
+
+    @Test
+    public void testLookupByProviderAndPin() {
+        GpioPin a = pin(provider, MockPin.DIGITAL_INPUT_PIN, "A");
+        GpioPin b = pin(otherProvider, MockPin.DIGITAL_INPUT_PIN, "B");
+        registry.add(a);
+        registry.add(b);
+
+        assertSame(a, registry.get(provider, MockPin.DIGITAL_INPUT_PIN));
+        assertSame(b, registry.get(otherProvider, MockPin.DIGITAL_INPUT_PIN));
+        assertSame(a, registry.get(MockPin.DIGITAL_INPUT_PIN));
+        assertNull(registry.get(provider, MockPin.DIGITAL_OUTPUT_PIN));
+        assertNull(registry.get(MockPin.DIGITAL_OUTPUT_PIN));
+        assertTrue(registry.contains(a));
+        assertTrue(registry.contains(b));
+    }
+
+    @Test
+    public void testLookupByName() {
+        GpioPin a = pin(provider, MockPin.DIGITAL_INPUT_PIN, "A");
+        GpioPin b = pin(provider, MockPin.DIGITAL_OUTPUT_PIN, "A");
+        registry.add(a);
+        registry.add(b);
+
+        // the first provisioned pin wins
+        assertSame(a, registry.get("A"));
+        assertNull(registry.get("B"));
+        assertNull(registry.get((String) null));
+
+        // a renamed pin is still found by its new name
+        b.setName("B");
+        assertSame(b, registry.get("B"));
+
+        registry.remove(a);
+        assertNull(registry.get("A"));
+    }
+
+    @Test
+    public void testRenameReindexesName() {
+        GpioPin a = pin(provider, MockPin.DIGITAL_INPUT_PIN, "A");
+        GpioPin b = pin(provider, MockPin.DIGITAL_OUTPUT_PIN, "A");
+        GpioPin c = pin(provider, MockPin.PWM_OUTPUT_PIN, "C");
+        registry.add(a);
+        registry.add(b);
+        registry.add(c);
+
+        // the next pin with the previous name takes it over
+        a.setName("X");
+        assertSame(a, registry.get("X"));
+        assertSame(b, registry.get("A"));
+
+        // a pin provisioned earlier wins a name over a later pin
+        a.setName("C");
+        assertSame(a, registry.get("C"));
+        assertNull(registry.get("X"));
+        c.setName("A");
+        assertSame(b, registry.get("A"));
+
+        // a removed pin is no longer re-indexed
+        registry.remove(a);
+        a.setName("Y");
+        assertNull(registry.get("Y"));
+        assertNull(registry.get("C"));
+    }
+
+    @Test
+    public void testRemove() {
+        GpioPin a = pin(provider, MockPin.DIGITAL_INPUT_PIN, "A");
+        GpioPin b = pin(provider, MockPin.DIGITAL_OUTPUT_PIN, "B");
+        registry.add(a);
+        registry.add(b);
+
+        assertTrue(registry.remove(a));
+        assertFalse(registry.remove(a));
+        assertFalse(registry.contains(a));
+        assertNull(registry.get(provider, MockPin.DIGITAL_INPUT_PIN));
+        assertNull(registry.get("A"));
+        assertSame(b, registry.get("B"));
+        assertEquals(1, registry.asList().size());
+    }
+
+    @Test
+    public void testSnapshotIteration() {
+        GpioPin a = pin(provider, MockPin.DIGITAL_INPUT_PIN, "A");
+        GpioPin b = pin(provider, MockPin.DIGITAL_OUTPUT_PIN, "B");
+        registry.add(a);
+        registry.add(b);
+
+        // modifying the registry while iterating does not affect the iteration
+        Iterator<GpioPin> iterator = registry.iterator();
+        registry.remove(a);
+        assertSame(a, iterator.next());
+        assertSame(b, iterator.next());
+        assertFalse(iterator.hasNext());
+
+        assertEquals(1, registry.asList().size());
+        assertSame(b, registry.asList().get(0));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testListIsUnmodifiable() {
+        registry.asList().add(pin(provider, MockPin.DIGITAL_INPUT_PIN, "A"));
+    }
+}
@@ -0,0 +1,126 @@
+package com.pi4j.io.gpio.test;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioChipGpioProviderIntegrationTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.pi4j.IntegrationTests;
+import com.pi4j.io.gpio.GpioChipGpioProvider;
+import com.pi4j.io.gpio.GpioChipPin;
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.PinMode;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
+import com.pi4j.io.gpio.event.PinEvent;
+
+/**
+ * Runs the GPIO character device provider against the 'gpio-mockup' kernel module; no hardware
+ * is required.  Load the module before running the integration tests:
+ *
+ * <pre>
+ *     modprobe gpio-mockup gpio_mockup_ranges=-1,8
+ * </pre>
+ *
+ * The chip device and the debugfs line control directory can be overridden with the
+ * 'pi4j.test.gpiochip' and 'pi4j.test.gpiomockup' system properties.
+ */
+@Category(IntegrationTests.class)
+public class GpioChipGpioProviderIntegrationTest {
+
+    private static final String DEVICE = System.getProperty("pi4j.test.gpiochip", "/dev/gpiochip0");
+    private static final String MOCKUP = System.getProperty("pi4j.test.gpiomockup", "/sys/kernel/debug/gpio-mockup/gpiochip0");
+
+    private GpioChipGpioProvider provider;
+    private final BlockingQueue<PinEvent> events = new LinkedBlockingQueue<>();
+
+    @Before
+    public void setup() {
+        Assume.assumeTrue(new File(DEVICE).exists() && new File(MOCKUP).isDirectory());
+        provider = new GpioChipGpioProvider(DEVICE);
+    }
+
+    @After
+    public void cleanup() {
+        if (provider != null) {
+            provider.shutdown();
+        }
+    }
+
+    private void pull(int line, int value) throws IOException {
+        try (FileWriter writer = new FileWriter(MOCKUP + "/" + line)) {
+            writer.write(Integer.toString(value));
+        }
+    }
+
+    @Test
+    public void testInputEdgeEvents() throws Exception {
+        Pin pin = GpioChipPin.getLine(0);
+        pull(0, 0);
+        provider.export(pin, PinMode.DIGITAL_INPUT);
+        provider.addListener(pin, events::add);
+
+        long before = System.nanoTime();
+        pull(0, 1);
+        PinDigitalStateChangeEvent rising = (PinDigitalStateChangeEvent) events.poll(1, TimeUnit.SECONDS);
+        pull(0, 0);
+        PinDigitalStateChangeEvent falling = (PinDigitalStateChangeEvent) events.poll(1, TimeUnit.SECONDS);
+
+        // verify both edges carry kernel timestamps and consecutive sequence numbers
+        assertNotNull(rising);
+        assertNotNull(falling);
+        assertEquals(PinState.HIGH, rising.getState());
+        assertEquals(PinState.LOW, falling.getState());
+        assertTrue(rising.getTimestamp() >= before);
+        assertTrue(falling.getTimestamp() >= rising.getTimestamp());
+        assertEquals(rising.getSequenceNumber() + 1, falling.getSequenceNumber());
+    }
+
+    @Test
+    public void testInputState() throws Exception {
+        Pin pin = GpioChipPin.getLine(1);
+        provider.export(pin, PinMode.DIGITAL_INPUT);
+
+        pull(1, 1);
+        assertEquals(PinState.HIGH, provider.getState(pin));
+        pull(1, 0);
+        assertEquals(PinState.LOW, provider.getState(pin));
+    }
+}
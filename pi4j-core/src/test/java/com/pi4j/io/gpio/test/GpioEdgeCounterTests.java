@@ -0,0 +1,226 @@
+package com.pi4j.io.gpio.test;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioEdgeCounterTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.pi4j.io.gpio.GpioController;
+import com.pi4j.io.gpio.GpioEdgeCounter;
+import com.pi4j.io.gpio.GpioEdgeCounterProvider;
+import com.pi4j.io.gpio.GpioPinDigitalInput;
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.PinEdge;
+import com.pi4j.io.gpio.PinMode;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.event.GpioEdgeCounterEvent;
+import com.pi4j.io.gpio.exception.GpioPinNotProvisionedException;
+import com.pi4j.io.gpio.impl.GpioControllerImpl;
+import com.pi4j.io.gpio.impl.GpioEdgeCounterImpl;
+import com.pi4j.io.gpio.impl.GpioPinImpl;
+
+public class GpioEdgeCounterTests {
+
+    private MockGpioProvider provider;
+    private GpioController gpio;
+    private GpioPinDigitalInput pin;
+    private GpioEdgeCounter counter;
+
+    @Before
+    public void setup() {
+        provider = new MockGpioProvider();
+        gpio = new GpioControllerImpl(provider);
+        pin = gpio.provisionDigitalInputPin(MockPin.DIGITAL_INPUT_PIN);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW);
+    }
+
+    @After
+    public void teardown() {
+        if (counter != null) {
+            counter.close();
+        }
+    }
+
+    private void pulse(long risingTime, long fallingTime) {
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH, risingTime, 0);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW, fallingTime, 0);
+    }
+
+    @Test(expected = GpioPinNotProvisionedException.class)
+    public void testUnprovisionedPin() {
+        new GpioControllerImpl(provider).createEdgeCounter(pin, PinEdge.RISING);
+    }
+
+    @Test
+    public void testCountEdges() {
+        counter = gpio.createEdgeCounter(pin, PinEdge.RISING);
+        assertEquals(0, counter.getCount());
+        assertEquals(0, counter.getPeriod(TimeUnit.NANOSECONDS));
+        assertEquals(0.0, counter.getFrequency(), 0.0);
+
+        // 10 pulses with a period of 1 ms (repeated states are not counted)
+        long now = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            long time = now + i * 1_000_000L;
+            pulse(time, time + 250_000L);
+            provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW);
+        }
+        assertEquals(10, counter.getCount());
+        assertEquals(now + 9 * 1_000_000L, counter.getLastEdgeTime());
+        assertEquals(1_000_000L, counter.getPeriod(TimeUnit.NANOSECONDS));
+        assertEquals(1000.0, counter.getFrequency(), 0.001);
+
+        counter.reset();
+        assertEquals(0, counter.getCount());
+        pulse(now + 10_000_000L, now + 10_250_000L);
+        assertEquals(1, counter.getCount());
+    }
+
+    @Test
+    public void testCountBothEdges() {
+        counter = gpio.createEdgeCounter(pin, PinEdge.BOTH);
+        long now = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            long time = now + i * 1_000_000L;
+            pulse(time, time + 500_000L);
+        }
+        assertEquals(20, counter.getCount());
+
+        // a signal period spans both edges
+        assertEquals(1_000_000L, counter.getPeriod(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void testStoppedSignal() throws InterruptedException {
+        counter = gpio.createEdgeCounter(pin, PinEdge.RISING);
+        long now = System.nanoTime();
+        pulse(now - 2_000_000L, now - 1_500_000L);
+        pulse(now - 1_000_000L, now - 500_000L);
+        Thread.sleep(20);
+
+        // the time since the last edge bounds the period of a stopped signal
+        assertTrue(counter.getPeriod(TimeUnit.MILLISECONDS) >= 20);
+        assertTrue(counter.getFrequency() < 50);
+    }
+
+    @Test
+    public void testClose() {
+        counter = gpio.createEdgeCounter(pin, PinEdge.FALLING);
+        pulse(1, 2);
+        assertEquals(1, counter.getCount());
+        counter.close();
+        pulse(3, 4);
+        assertEquals(1, counter.getCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSecondCounterRejected() {
+        counter = gpio.createEdgeCounter(pin, PinEdge.RISING);
+        gpio.createEdgeCounter(pin, PinEdge.FALLING);
+    }
+
+    @Test
+    public void testCounterAfterClose() {
+        gpio.createEdgeCounter(pin, PinEdge.RISING).close();
+        counter = gpio.createEdgeCounter(pin, PinEdge.FALLING);
+        pulse(1, 2);
+        assertEquals(1, counter.getCount());
+    }
+
+    @Test
+    public void testUnprovisionClosesCounter() {
+        counter = gpio.createEdgeCounter(pin, PinEdge.RISING);
+        gpio.unprovisionPin(pin);
+        pulse(1, 2);
+        assertEquals(0, counter.getCount());
+    }
+
+    @Test
+    public void testSummaryEvents() throws InterruptedException {
+        counter = gpio.createEdgeCounter(pin, PinEdge.RISING);
+        CountDownLatch summaries = new CountDownLatch(2);
+        AtomicReference<GpioEdgeCounterEvent> last = new AtomicReference<>();
+        counter.addListener(event -> {
+            last.set(event);
+            summaries.countDown();
+        });
+        for (int i = 0; i < 5; i++) {
+            pulse(i * 2, i * 2 + 1);
+        }
+        counter.setSummaryInterval(20, TimeUnit.MILLISECONDS);
+        assertTrue(summaries.await(5, TimeUnit.SECONDS));
+        counter.setSummaryInterval(0, TimeUnit.MILLISECONDS);
+
+        GpioEdgeCounterEvent event = last.get();
+        assertSame(counter, event.getCounter());
+        assertEquals(5, event.getCount());
+        assertEquals(0, event.getDelta());
+        assertTrue(event.getInterval() > 0);
+    }
+
+    @Test
+    public void testProviderCounter() {
+        // providers implementing GpioEdgeCounterProvider count the edges themselves
+        CountingProvider countingProvider = new CountingProvider();
+        Pin countingPin = MockPin.DIGITAL_INPUT_PIN;
+        countingProvider.export(countingPin, PinMode.DIGITAL_INPUT);
+        GpioPinDigitalInput input = new GpioPinImpl(null, countingProvider, countingPin);
+
+        counter = new GpioEdgeCounterImpl(input, PinEdge.RISING);
+        assertEquals(PinEdge.RISING, countingProvider.edge);
+        countingProvider.counters.putLong(GpioEdgeCounterProvider.COUNTER_COUNT * Long.BYTES, 42);
+        assertEquals(42, counter.getCount());
+
+        counter.close();
+        assertNull(countingProvider.counters);
+    }
+
+    private static class CountingProvider extends MockGpioProvider implements GpioEdgeCounterProvider {
+        private ByteBuffer counters;
+        private PinEdge edge;
+
+        @Override
+        public void enableEdgeCounter(Pin pin, PinEdge edge, ByteBuffer counters) {
+            this.edge = edge;
+            this.counters = counters;
+        }
+
+        @Override
+        public void disableEdgeCounter(Pin pin) {
+            this.counters = null;
+        }
+    }
+}
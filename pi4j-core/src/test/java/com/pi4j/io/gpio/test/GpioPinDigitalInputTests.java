@@ -36,6 +36,7 @@ import org.junit.Test;
 import com.pi4j.io.gpio.GpioController;
 import com.pi4j.io.gpio.GpioPin;
 import com.pi4j.io.gpio.GpioPinDigitalInput;
+import com.pi4j.io.gpio.PinDebounceFilter;
 import com.pi4j.io.gpio.PinDirection;
 import com.pi4j.io.gpio.PinMode;
 import com.pi4j.io.gpio.PinPullResistance;
@@ -53,7 +54,8 @@ public class GpioPinDigitalInputTests {
     private static MockGpioProvider provider;
     private static GpioController gpio;
     private static GpioPinDigitalInput pin;
-    private static PinState pinMonitoredState;
+    private static volatile PinState pinMonitoredState;
+    private static GpioPinDigitalStateChangeEvent pinMonitoredEvent;
 
     @Before
     public void setup() {
@@ -71,6 +73,7 @@ public class GpioPinDigitalInputTests {
                 // set pin state
                 if (event.getPin() == pin) {
                     pinMonitoredState = event.getState();
+                    pinMonitoredEvent = event;
                 }
             }
         });
@@ -246,6 +249,94 @@ public class GpioPinDigitalInputTests {
         assertEquals(PinState.HIGH, pinMonitoredState);
     }
 
+    @Test
+    public void testPinEventTimestamp() throws InterruptedException {
+        // explicit mock set on the mock provider
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW);
+
+        // wait 1/100 second before continuing test
+        Thread.sleep(10);
+
+        // reset pin monitoring variable
+        pinMonitoredEvent = null;
+
+        // explicit mock set on the mock provider with a source timestamp and sequence
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH, 123456789L, 42);
+
+        // wait 1/100 second before continuing test
+        Thread.sleep(10);
+
+        // verify the source timestamp and sequence reach the pin listener
+        assertNotNull(pinMonitoredEvent);
+        assertEquals(PinState.HIGH, pinMonitoredEvent.getState());
+        assertEquals(123456789L, pinMonitoredEvent.getTimestamp());
+        assertEquals(42, pinMonitoredEvent.getSequenceNumber());
+    }
+
+    @Test
+    public void testPinDebounceDelay() throws InterruptedException {
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW);
+        Thread.sleep(10);
+        pin.setDebounce(100, PinDebounceFilter.DELAY);
+        pinMonitoredState = null;
+
+        // the first state change is delivered immediately
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH);
+        Thread.sleep(10);
+        assertEquals(PinState.HIGH, pinMonitoredState);
+
+        // state changes during the debounce interval are suppressed
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW);
+        Thread.sleep(10);
+        assertEquals(PinState.HIGH, pinMonitoredState);
+
+        // the changed state is delivered once the debounce interval ends
+        assertTrue(awaitMonitoredState(PinState.LOW, 1000));
+    }
+
+    @Test
+    public void testPinDebounceIntegrating() throws InterruptedException {
+        testPinDebounceFilter(PinDebounceFilter.INTEGRATING);
+    }
+
+    @Test
+    public void testPinDebounceMajority() throws InterruptedException {
+        testPinDebounceFilter(PinDebounceFilter.MAJORITY);
+    }
+
+    private void testPinDebounceFilter(PinDebounceFilter filter) throws InterruptedException {
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW);
+        Thread.sleep(10);
+        pin.setDebounce(50, filter);
+        assertEquals(filter, pin.getDebounceFilter());
+        pinMonitoredState = null;
+
+        // short glitches are filtered out
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH);
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.LOW);
+        Thread.sleep(150);
+        assertNull(pinMonitoredState);
+
+        // a stable state change is delivered after the debounce interval
+        provider.setMockState(MockPin.DIGITAL_INPUT_PIN, PinState.HIGH);
+        Thread.sleep(10);
+        assertNull(pinMonitoredState);
+        assertTrue(awaitMonitoredState(PinState.HIGH, 1000));
+    }
+
+    private static boolean awaitMonitoredState(PinState state, long timeout) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        while (pinMonitoredState != state) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
     @Test
     public void testPinUnprovision() {
         // make sure that pin is provisioned before we start
@@ -29,6 +29,12 @@ package com.pi4j.io.gpio.test;
 import static org.junit.Assert.*;
 
 import java.util.Collection;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -43,6 +49,7 @@ import com.pi4j.io.gpio.RaspiPin;
 import com.pi4j.io.gpio.exception.GpioPinExistsException;
 import com.pi4j.io.gpio.exception.InvalidPinException;
 import com.pi4j.io.gpio.exception.UnsupportedPinModeException;
+import com.pi4j.io.gpio.tasks.impl.GpioOutputTimeoutImpl;
 
 public class GpioPinDigitalOutputTests {
 
@@ -279,6 +286,98 @@ public class GpioPinDigitalOutputTests {
         assertTrue(pin.isLow());
     }
 
+    @Test
+    public void testPinPulseFuture() throws Exception {
+        pin.low();
+        AtomicBoolean called = new AtomicBoolean(false);
+
+        // the pulse future completes once the pulse has ended and the callback has been invoked;
+        // the callback runs after the end state has been written
+        Future<?> future = pin.pulse(50, PinState.HIGH, () -> {
+            called.set(pin.isLow());
+            return null;
+        });
+        assertTrue(pin.isHigh());
+        assertFalse(future.isDone());
+        assertNull(future.get(5, TimeUnit.SECONDS));
+        assertTrue(future.isDone());
+        assertFalse(future.isCancelled());
+        assertTrue(called.get());
+        assertTrue(pin.isLow());
+    }
+
+    @Test
+    public void testPinPulseReplaced() throws Exception {
+        pin.low();
+
+        // a new pulse cancels the pending pulse of the pin
+        Future<?> first = pin.pulse(50, PinState.HIGH);
+        Future<?> second = pin.pulse(200, PinState.HIGH);
+        assertTrue(first.isCancelled());
+        Thread.sleep(100);
+        assertTrue(pin.isHigh());
+        second.get(5, TimeUnit.SECONDS);
+        assertTrue(pin.isLow());
+    }
+
+    @Test
+    public void testPinPulseCancel() throws Exception {
+        pin.low();
+
+        // a cancelled pulse leaves the pin in the pulse state
+        Future<?> future = pin.pulse(50, PinState.HIGH);
+        assertTrue(future.cancel(false));
+        assertFalse(future.cancel(false));
+        assertTrue(future.isCancelled());
+        Thread.sleep(100);
+        assertTrue(pin.isHigh());
+    }
+
+    @Test
+    public void testPinBlinkStop() throws Exception {
+        pin.low();
+
+        // the blink future is cancelled when the blink duration has elapsed
+        Future<?> future = pin.blink(20, 100, PinState.HIGH);
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("blink future not cancelled");
+        } catch (CancellationException e) {
+            // expected
+        }
+        assertTrue(pin.isLow());
+
+        // a blink delay of 0 stops the blinking
+        future = pin.blink(20, PinState.HIGH);
+        Thread.sleep(50);
+        assertNull(pin.blink(0));
+        assertTrue(future.isCancelled());
+    }
+
+    @Test
+    public void testPinPulseWithoutTimer() throws Exception {
+        pin.low();
+
+        // without a GPIO timer the slot schedules its deadlines on the executor
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            GpioOutputTimeoutImpl slot = new GpioOutputTimeoutImpl(null, pin, executor);
+            Future<?> future = slot.pulse(50, PinState.HIGH, null, TimeUnit.MILLISECONDS);
+            assertTrue(pin.isHigh());
+            assertNull(future.get(5, TimeUnit.SECONDS));
+            assertTrue(pin.isLow());
+
+            // a stopped blink is not toggled anymore
+            future = slot.blink(20, 0, PinState.HIGH, TimeUnit.MILLISECONDS);
+            slot.stop();
+            assertTrue(future.isCancelled());
+            Thread.sleep(50);
+            assertTrue(pin.isHigh());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void testPinUnexport() {
         // unexport pin
@@ -0,0 +1,118 @@
+package com.pi4j.io.gpio.test;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioPinGroupTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioController;
+import com.pi4j.io.gpio.GpioPinDigitalOutput;
+import com.pi4j.io.gpio.GpioPinGroup;
+import com.pi4j.io.gpio.MemoryMappedGpioProvider;
+import com.pi4j.io.gpio.MemoryMappedPin;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.impl.GpioControllerImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GpioPinGroupTests {
+
+    private File registerFile;
+    private RecordingProvider provider;
+    private GpioController controller;
+
+    /** records the bank writes instead of relying on the (file backed) level register */
+    private static class RecordingProvider extends MemoryMappedGpioProvider {
+        final List<int[]> writes = new ArrayList<>();
+
+        RecordingProvider(String file) {
+            super(file);
+        }
+
+        @Override
+        public void setBankState(int bank, int highMask, int lowMask) {
+            writes.add(new int[] { bank, highMask, lowMask });
+            super.setBankState(bank, highMask, lowMask);
+        }
+    }
+
+    @Before
+    public void setup() throws Exception {
+        registerFile = File.createTempFile("gpiomem", ".bin");
+        try (RandomAccessFile raf = new RandomAccessFile(registerFile, "rw")) {
+            raf.setLength(MemoryMappedGpioProvider.REGISTER_BLOCK_SIZE);
+        }
+        provider = new RecordingProvider(registerFile.getAbsolutePath());
+        controller = new GpioControllerImpl(provider);
+    }
+
+    @After
+    public void teardown() {
+        provider.shutdown();
+        registerFile.delete();
+    }
+
+    private GpioPinDigitalOutput output(int gpio) {
+        return controller.provisionDigitalOutputPin(provider, MemoryMappedPin.getGpio(gpio));
+    }
+
+    @Test
+    public void testWriteUsesOneWritePerBank() {
+        GpioPinGroup group = controller.createPinGroup(output(4), output(17), output(27), output(40));
+        assertTrue(group.isBanked());
+        assertEquals(4, group.size());
+
+        group.write(0b0101);
+        assertEquals(2, provider.writes.size());
+        assertArrayEquals(new int[] { 0, 1 << 4 | 1 << 27, 1 << 17 }, provider.writes.get(0));
+        assertArrayEquals(new int[] { 1, 0, 1 << 8 }, provider.writes.get(1));
+    }
+
+    @Test
+    public void testHighAndLowWriteAllGroupPins() {
+        GpioPinDigitalOutput a = output(5);
+        GpioPinDigitalOutput b = output(6);
+        GpioPinGroup group = controller.createPinGroup(a, b);
+
+        group.high();
+        assertArrayEquals(new int[] { 0, 1 << 5 | 1 << 6, 0 }, provider.writes.get(0));
+
+        group.setState(PinState.LOW);
+        assertArrayEquals(new int[] { 0, 0, 1 << 5 | 1 << 6 }, provider.writes.get(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyGroup() {
+        controller.createPinGroup();
+    }
+}
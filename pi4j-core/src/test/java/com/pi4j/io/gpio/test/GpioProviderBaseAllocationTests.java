@@ -0,0 +1,97 @@
+package com.pi4j.io.gpio.test;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioProviderBaseAllocationTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.MemoryMappedPin;
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.PinMode;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.exception.InvalidPinException;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies that the digital state hot path of the provider base does not allocate once a pin is exported.
+ */
+public class GpioProviderBaseAllocationTests {
+
+    private static final int ITERATIONS = 200_000;
+
+    private MockGpioProvider provider;
+    private com.sun.management.ThreadMXBean threadBean;
+
+    @Before
+    public void setup() {
+        provider = new MockGpioProvider();
+        provider.export(MockPin.DIGITAL_OUTPUT_PIN, PinMode.DIGITAL_OUTPUT);
+
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    private long toggle(Pin pin, int iterations) {
+        long high = 0;
+        for (int i = 0; i < iterations; i++) {
+            provider.setState(pin, (i & 1) == 0 ? PinState.HIGH : PinState.LOW);
+            if (provider.getState(pin) == PinState.HIGH) {
+                high++;
+            }
+        }
+        return high;
+    }
+
+    @Test
+    public void testSetAndGetStateDoNotAllocate() {
+        Pin pin = MockPin.DIGITAL_OUTPUT_PIN;
+        long threadId = Thread.currentThread().getId();
+
+        // warm up (class loading, JIT compilation)
+        toggle(pin, ITERATIONS);
+
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        long high = toggle(pin, ITERATIONS);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(ITERATIONS / 2, high);
+        // allow for a few bytes of measurement overhead; any per call allocation would be megabytes
+        assertTrue("allocated " + allocated + " bytes for " + ITERATIONS + " iterations", allocated < 1024);
+    }
+
+    @Test(expected = InvalidPinException.class)
+    public void testForeignPinIsRejected() {
+        provider.setState(MemoryMappedPin.getGpio(2), PinState.HIGH);
+    }
+}
@@ -0,0 +1,258 @@
+package com.pi4j.io.gpio.test;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  GpioQuadratureEncoderTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.pi4j.io.gpio.GpioController;
+import com.pi4j.io.gpio.GpioPinDigitalInput;
+import com.pi4j.io.gpio.GpioQuadratureEncoder;
+import com.pi4j.io.gpio.GpioQuadratureEncoderProvider;
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.PinMode;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.event.GpioQuadratureEncoderEvent;
+import com.pi4j.io.gpio.exception.GpioPinNotProvisionedException;
+import com.pi4j.io.gpio.impl.GpioControllerImpl;
+import com.pi4j.io.gpio.impl.GpioPinImpl;
+import com.pi4j.io.gpio.impl.GpioQuadratureEncoderImpl;
+
+public class GpioQuadratureEncoderTests {
+
+    private static final Pin PIN_A = MockPin.DIGITAL_INPUT_PIN;
+    private static final Pin PIN_B = MockPin.DIGITAL_BIDIRECTIONAL_PIN;
+
+    private EncoderMockProvider provider;
+    private GpioController gpio;
+    private GpioPinDigitalInput pinA;
+    private GpioPinDigitalInput pinB;
+    private GpioQuadratureEncoder encoder;
+
+    @Before
+    public void setup() {
+        provider = new EncoderMockProvider();
+        gpio = new GpioControllerImpl(provider);
+        pinA = gpio.provisionDigitalInputPin(PIN_A);
+        pinB = gpio.provisionDigitalInputPin(PIN_B);
+        provider.setMockState(PIN_A, PinState.LOW);
+        provider.setMockState(PIN_B, PinState.LOW);
+    }
+
+    @After
+    public void teardown() {
+        if (encoder != null) {
+            encoder.close();
+        }
+    }
+
+    // one full encoder cycle with channel A leading channel B (4 steps)
+    private void forward() {
+        provider.setMockState(PIN_A, PinState.HIGH);
+        provider.setMockState(PIN_B, PinState.HIGH);
+        provider.setMockState(PIN_A, PinState.LOW);
+        provider.setMockState(PIN_B, PinState.LOW);
+    }
+
+    // one full encoder cycle with channel B leading channel A (4 steps)
+    private void reverse() {
+        provider.setMockState(PIN_B, PinState.HIGH);
+        provider.setMockState(PIN_A, PinState.HIGH);
+        provider.setMockState(PIN_B, PinState.LOW);
+        provider.setMockState(PIN_A, PinState.LOW);
+    }
+
+    @Test(expected = GpioPinNotProvisionedException.class)
+    public void testUnprovisionedPin() {
+        new GpioControllerImpl(provider).createQuadratureEncoder(pinA, pinB);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSamePin() {
+        gpio.createQuadratureEncoder(pinA, pinA);
+    }
+
+    @Test
+    public void testDecode() {
+        encoder = gpio.createQuadratureEncoder(pinA, pinB);
+        assertEquals(0, encoder.getPosition());
+        assertEquals(0, encoder.getLastStepTime());
+
+        for (int i = 0; i < 10; i++) {
+            forward();
+        }
+        assertEquals(40, encoder.getPosition());
+        assertTrue(encoder.getLastStepTime() > 0);
+
+        // repeated states are not steps
+        provider.setMockState(PIN_A, PinState.LOW);
+        provider.setMockState(PIN_B, PinState.LOW);
+        assertEquals(40, encoder.getPosition());
+
+        for (int i = 0; i < 15; i++) {
+            reverse();
+        }
+        assertEquals(-20, encoder.getPosition());
+
+        // a single step back and forth (jitter on one channel) cancels out
+        provider.setMockState(PIN_A, PinState.HIGH);
+        provider.setMockState(PIN_A, PinState.LOW);
+        assertEquals(-20, encoder.getPosition());
+        assertEquals(0, encoder.getErrors());
+    }
+
+    @Test
+    public void testPosition() {
+        encoder = gpio.createQuadratureEncoder(pinA, pinB);
+        forward();
+        encoder.setPosition(100);
+        assertEquals(100, encoder.getPosition());
+        reverse();
+        assertEquals(96, encoder.getPosition());
+        encoder.reset();
+        assertEquals(0, encoder.getPosition());
+        forward();
+        assertEquals(4, encoder.getPosition());
+    }
+
+    @Test
+    public void testMissedEdge() {
+        encoder = gpio.createQuadratureEncoder(pinA, pinB);
+
+        // channel B changed without an event before channel A changed
+        provider.setMockStateQuietly(PIN_B, PinState.HIGH);
+        provider.setMockState(PIN_A, PinState.HIGH);
+        assertEquals(1, encoder.getErrors());
+        assertEquals(0, encoder.getPosition());
+
+        // decoding continues from the sampled state of both channels (B falling while A is high steps back)
+        provider.setMockState(PIN_B, PinState.LOW);
+        assertEquals(-1, encoder.getPosition());
+    }
+
+    @Test
+    public void testClose() {
+        encoder = gpio.createQuadratureEncoder(pinA, pinB);
+        forward();
+        encoder.close();
+        forward();
+        assertEquals(4, encoder.getPosition());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSharedChannelRejected() {
+        encoder = gpio.createQuadratureEncoder(pinA, pinB);
+        gpio.createQuadratureEncoder(pinB, pinA);
+    }
+
+    @Test
+    public void testUnprovisionClosesEncoder() {
+        encoder = gpio.createQuadratureEncoder(pinA, pinB);
+        forward();
+        gpio.unprovisionPin(pinB);
+        forward();
+        assertEquals(4, encoder.getPosition());
+    }
+
+    @Test
+    public void testPositionEvents() throws InterruptedException {
+        encoder = gpio.createQuadratureEncoder(pinA, pinB);
+        AtomicInteger events = new AtomicInteger();
+        AtomicReference<GpioQuadratureEncoderEvent> last = new AtomicReference<>();
+        CountDownLatch moved = new CountDownLatch(1);
+        encoder.addListener(event -> {
+            events.incrementAndGet();
+            last.set(event);
+            moved.countDown();
+        });
+        encoder.setEventInterval(20, TimeUnit.MILLISECONDS);
+
+        // many steps between two events are reported as a single position event
+        for (int i = 0; i < 100; i++) {
+            forward();
+        }
+        assertTrue(moved.await(5, TimeUnit.SECONDS));
+        GpioQuadratureEncoderEvent event = last.get();
+        assertSame(encoder, event.getEncoder());
+        assertEquals(400, event.getPosition());
+        assertEquals(400, event.getDelta());
+
+        // no events while the encoder does not move
+        Thread.sleep(100);
+        encoder.setEventInterval(0, TimeUnit.MILLISECONDS);
+        assertEquals(1, events.get());
+    }
+
+    @Test
+    public void testProviderEncoder() {
+        // providers implementing GpioQuadratureEncoderProvider decode the encoder themselves
+        DecodingProvider decodingProvider = new DecodingProvider();
+        decodingProvider.export(PIN_A, PinMode.DIGITAL_INPUT);
+        decodingProvider.export(PIN_B, PinMode.DIGITAL_INPUT);
+        GpioPinDigitalInput inputA = new GpioPinImpl(null, decodingProvider, PIN_A);
+        GpioPinDigitalInput inputB = new GpioPinImpl(null, decodingProvider, PIN_B);
+
+        encoder = new GpioQuadratureEncoderImpl(inputA, inputB);
+        assertNotNull(decodingProvider.encoder);
+        decodingProvider.encoder.putLong(GpioQuadratureEncoderProvider.ENCODER_POSITION * Long.BYTES, -5_000_000_000L);
+        assertEquals(-5_000_000_000L, encoder.getPosition());
+
+        encoder.close();
+        assertNull(decodingProvider.encoder);
+    }
+
+    private static class EncoderMockProvider extends MockGpioProvider {
+        // change the pin state without raising an event (a missed edge)
+        public void setMockStateQuietly(Pin pin, PinState state) {
+            getPinCache(pin).setState(state);
+        }
+    }
+
+    private static class DecodingProvider extends MockGpioProvider implements GpioQuadratureEncoderProvider {
+        private ByteBuffer encoder;
+
+        @Override
+        public void enableQuadratureEncoder(Pin pinA, Pin pinB, ByteBuffer encoder) {
+            this.encoder = encoder;
+        }
+
+        @Override
+        public void disableQuadratureEncoder(Pin pinA, Pin pinB) {
+            this.encoder = null;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.pi4j.io.gpio.test;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  MemoryMappedGpioProviderTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.pi4j.io.gpio.GpioController;
+import com.pi4j.io.gpio.GpioPinDigitalInput;
+import com.pi4j.io.gpio.MemoryMappedGpioProvider;
+import com.pi4j.io.gpio.MemoryMappedPin;
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.PinMode;
+import com.pi4j.io.gpio.PinPullResistance;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
+import com.pi4j.io.gpio.exception.InvalidPinModeException;
+import com.pi4j.io.gpio.impl.GpioControllerImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MemoryMappedGpioProviderTests {
+
+    private File registerFile;
+    private MemoryMappedGpioProvider provider;
+    private ByteBuffer registers;
+
+    @Before
+    public void setup() throws Exception {
+        // a zero filled file stands in for the GPIO register block
+        registerFile = File.createTempFile("gpiomem", ".bin");
+        try (RandomAccessFile raf = new RandomAccessFile(registerFile, "rw")) {
+            raf.setLength(MemoryMappedGpioProvider.REGISTER_BLOCK_SIZE);
+        }
+        provider = new MemoryMappedGpioProvider(registerFile.getAbsolutePath());
+        registers = MemoryMappedGpioProvider.map(registerFile.getAbsolutePath(), MemoryMappedGpioProvider.REGISTER_BLOCK_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @After
+    public void teardown() {
+        provider.shutdown();
+        registerFile.delete();
+    }
+
+    @Test
+    public void testSetHighAndLowWriteSetAndClearRegisters() {
+        provider.setHigh(17);
+        assertEquals(1 << 17, registers.getInt(MemoryMappedGpioProvider.GPSET0));
+        provider.setLow(4);
+        assertEquals(1 << 4, registers.getInt(MemoryMappedGpioProvider.GPCLR0));
+        provider.setHigh(40);
+        assertEquals(1 << 8, registers.getInt(MemoryMappedGpioProvider.GPSET0 + 4));
+    }
+
+    @Test
+    public void testBankMasks() {
+        provider.setBits(0, 0x0F0F);
+        provider.clearBits(1, 0x00F0);
+        assertEquals(0x0F0F, registers.getInt(MemoryMappedGpioProvider.GPSET0));
+        assertEquals(0x00F0, registers.getInt(MemoryMappedGpioProvider.GPCLR0 + 4));
+
+        registers.putInt(MemoryMappedGpioProvider.GPLEV0, 0x12345678);
+        assertEquals(0x12345678, provider.readBank(0));
+        assertTrue(provider.isHigh(3));
+        assertFalse(provider.isHigh(0));
+    }
+
+    @Test
+    public void testExportSelectsFunction() {
+        Pin output = MemoryMappedPin.getGpio(12);
+        Pin input = MemoryMappedPin.getGpio(13);
+
+        registers.putInt(MemoryMappedGpioProvider.GPFSEL0 + 4, 0xFFFFFFFF);
+        provider.export(output, PinMode.DIGITAL_OUTPUT, PinState.HIGH);
+        provider.export(input, PinMode.DIGITAL_INPUT);
+
+        int fsel1 = registers.getInt(MemoryMappedGpioProvider.GPFSEL0 + 4);
+        assertEquals(1, (fsel1 >>> 6) & 7);
+        assertEquals(0, (fsel1 >>> 9) & 7);
+        assertEquals(7, (fsel1 >>> 12) & 7);
+        assertEquals(1 << 12, registers.getInt(MemoryMappedGpioProvider.GPSET0));
+    }
+
+    @Test
+    public void testStateAndPullResistance() {
+        Pin pin = MemoryMappedPin.getGpio(21);
+        provider.export(pin, PinMode.DIGITAL_OUTPUT);
+
+        provider.setState(pin, PinState.LOW);
+        assertEquals(1 << 21, registers.getInt(MemoryMappedGpioProvider.GPCLR0));
+
+        registers.putInt(MemoryMappedGpioProvider.GPLEV0, 1 << 21);
+        assertEquals(PinState.HIGH, provider.getState(pin));
+
+        provider.setMode(pin, PinMode.DIGITAL_INPUT);
+        provider.setPullResistance(pin, PinPullResistance.PULL_DOWN);
+        int pull = registers.getInt(MemoryMappedGpioProvider.GPIO_PUP_PDN_CNTRL_REG0 + 4);
+        assertEquals(2, (pull >>> 10) & 3);
+    }
+
+    @Test
+    public void testBankStateDispatchesEvents() {
+        Pin a = MemoryMappedPin.getGpio(5);
+        Pin b = MemoryMappedPin.getGpio(6);
+        provider.export(a, PinMode.DIGITAL_OUTPUT);
+        provider.export(b, PinMode.DIGITAL_OUTPUT);
+        List<PinDigitalStateChangeEvent> events = new ArrayList<>();
+        provider.addListener(a, event -> events.add((PinDigitalStateChangeEvent) event));
+        provider.addListener(b, event -> events.add((PinDigitalStateChangeEvent) event));
+
+        provider.setBankState(0, 1 << 5, 1 << 6);
+        assertEquals(1 << 5, registers.getInt(MemoryMappedGpioProvider.GPSET0));
+        assertEquals(1 << 6, registers.getInt(MemoryMappedGpioProvider.GPCLR0));
+        assertEquals(2, events.size());
+        assertEquals(PinState.HIGH, events.get(0).getState());
+        assertEquals(PinState.LOW, events.get(1).getState());
+    }
+
+    @Test
+    public void testBankStateRejectsInputPins() {
+        Pin output = MemoryMappedPin.getGpio(5);
+        Pin input = MemoryMappedPin.getGpio(6);
+        provider.export(output, PinMode.DIGITAL_OUTPUT);
+        provider.export(input, PinMode.DIGITAL_INPUT);
+
+        try {
+            provider.setBankState(0, (1 << 5) | (1 << 6), 0);
+            fail("expected InvalidPinModeException");
+        } catch (InvalidPinModeException e) {
+            // nothing is written when a pin is not an output
+            assertEquals(0, registers.getInt(MemoryMappedGpioProvider.GPSET0));
+        }
+    }
+
+    @Test
+    public void testBankSnapshot() {
+        GpioController controller = new GpioControllerImpl(provider);
+        GpioPinDigitalInput a = controller.provisionDigitalInputPin(provider, MemoryMappedPin.getGpio(2));
+        GpioPinDigitalInput b = controller.provisionDigitalInputPin(provider, MemoryMappedPin.getGpio(3));
+        GpioPinDigitalInput c = controller.provisionDigitalInputPin(provider, MemoryMappedPin.getGpio(45));
+
+        registers.putInt(MemoryMappedGpioProvider.GPLEV0, 1 << 3);
+        registers.putInt(MemoryMappedGpioProvider.GPLEV0 + 4, 1 << 13);
+        assertEquals(0b110, controller.getStates(a, b, c));
+
+        BitSet states = new BitSet();
+        states.set(0);
+        controller.getStates(states, a, b, c);
+        assertFalse(states.get(0));
+        assertTrue(states.get(1));
+        assertTrue(states.get(2));
+    }
+}
@@ -50,6 +50,14 @@ public class MockGpioProvider extends GpioProviderBase implements GpioProvider {
         dispatchPinDigitalStateChangeEvent(pin, state);
     }
 
+    public void setMockState(Pin pin, PinState state, long timestamp, long sequence) {
+        // cache pin state
+        getPinCache(pin).setState(state);
+
+        // dispatch event with a source timestamp
+        dispatchPinDigitalStateChangeEvent(pin, state, timestamp, sequence);
+    }
+
     public void setMockAnalogValue(Pin pin, double value) {
         // cache pin state
         getPinCache(pin).setAnalogValue(value);
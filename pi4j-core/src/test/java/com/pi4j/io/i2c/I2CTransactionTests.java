@@ -0,0 +1,161 @@
+package com.pi4j.io.i2c;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  I2CTransactionTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class I2CTransactionTests {
+
+    @Test
+    public void encodesMessagesAndIoctlData() {
+        byte[] values = new byte[] {(byte) 0xAA, (byte) 0xBB};
+        byte[] result = new byte[6];
+        I2CTransaction transaction = new I2CTransaction()
+                .writeRegister(0x20, 0x10, values, 0, 2)
+                .readRegister(0x68, 0x3B, result, 0, 6);
+        assertEquals(3, transaction.size());
+
+        transaction.encode();
+        ByteBuffer data = transaction.getData();
+        IntBuffer offsets = transaction.getOffsets();
+        int head = 3 * I2CTransaction.MESSAGE_SIZE;
+        int payload = head + I2CTransaction.IOCTL_DATA_SIZE;
+
+        assertTrue(data.isDirect());
+        assertEquals(head, data.position());
+
+        // message 0: write register 0x10 + 2 bytes
+        assertEquals(0x20, data.getShort(0));
+        assertEquals(0, data.getShort(2));
+        assertEquals(3, data.getShort(4));
+        assertEquals(0x10, data.get(payload));
+        assertEquals((byte) 0xBB, data.get(payload + 2));
+
+        // message 1: write register address; message 2: read 6 bytes
+        int message2 = 2 * I2CTransaction.MESSAGE_SIZE;
+        assertEquals(1, data.getShort(I2CTransaction.MESSAGE_SIZE + 4));
+        assertEquals((byte) 0x3B, data.get(payload + 3));
+        assertEquals(0x68, data.getShort(message2));
+        assertEquals(I2CConstants.I2C_M_RD, data.getShort(message2 + 2));
+        assertEquals(6, data.getShort(message2 + 4));
+
+        // message count in the ioctl data
+        assertEquals(3, data.getInt(head + I2CTransaction.IOCTL_DATA_SIZE / 2));
+
+        // pointer fixups: one per message buffer plus the message array
+        assertEquals(8, offsets.remaining());
+        assertEquals(I2CTransaction.MESSAGE_BUFFER_OFFSET, offsets.get(0));
+        assertEquals(payload, offsets.get(1));
+        assertEquals(message2 + I2CTransaction.MESSAGE_BUFFER_OFFSET, offsets.get(4));
+        assertEquals(payload + 4, offsets.get(5));
+        assertEquals(head, offsets.get(6));
+        assertEquals(0, offsets.get(7));
+    }
+
+    @Test
+    public void decodesReadMessagesIntoBuffers() {
+        byte[] result = new byte[8];
+        I2CTransaction transaction = new I2CTransaction().readRegister(0x68, 0x3B, result, 2, 3);
+        transaction.encode();
+
+        // simulate the kernel filling the read payload
+        int payload = 2 * I2CTransaction.MESSAGE_SIZE + I2CTransaction.IOCTL_DATA_SIZE + 1;
+        transaction.getData().put(payload, (byte) 1).put(payload + 1, (byte) 2).put(payload + 2, (byte) 3);
+        transaction.decode();
+
+        assertArrayEquals(new byte[] {0, 0, 1, 2, 3, 0, 0, 0}, result);
+    }
+
+    @Test
+    public void reusesNativeBuffers() {
+        byte[] result = new byte[2];
+        I2CTransaction transaction = new I2CTransaction().read(0x10, result, 0, 2);
+        transaction.encode();
+        ByteBuffer data = transaction.getData();
+
+        transaction.clear().read(0x11, result, 0, 2);
+        transaction.encode();
+        assertTrue(data == transaction.getData());
+    }
+
+    @Test
+    public void busWithoutCombinedTransfersRunsMessagesSequentially() throws IOException {
+        List<String> calls = new ArrayList<>();
+        I2CBus bus = new I2CBus() {
+            @Override
+            public I2CDevice getDevice(int address) {
+                return (I2CDevice) Proxy.newProxyInstance(I2CDevice.class.getClassLoader(), new Class<?>[] {I2CDevice.class},
+                        (proxy, method, args) -> {
+                            calls.add(address + ":" + method.getName() + ":" + args.length);
+                            if (method.getName().equals("read")) {
+                                Arrays.fill((byte[]) args[0], (int) args[1], (int) args[1] + (int) args[2], (byte) 7);
+                                return args[2];
+                            }
+                            return null;
+                        });
+            }
+
+            @Override
+            public int getBusNumber() {
+                return 1;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        byte[] result = new byte[3];
+        bus.execute(new I2CTransaction()
+                .writeRegister(0x20, 0x10, new byte[] {1, 2}, 0, 2)
+                .readRegister(0x68, 0x3B, result, 1, 2));
+
+        assertEquals(Arrays.asList("32:write:4", "104:write:1", "104:read:3"), calls);
+        assertArrayEquals(new byte[] {0, 7, 7}, result);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void limitsMessageCount() {
+        I2CTransaction transaction = new I2CTransaction();
+        for (int i = 0; i <= I2CTransaction.MAX_MESSAGES; i++) {
+            transaction.write(0x10, new byte[1], 0, 1);
+        }
+    }
+}
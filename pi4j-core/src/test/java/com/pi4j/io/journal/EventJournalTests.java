@@ -0,0 +1,288 @@
+package com.pi4j.io.journal;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  EventJournalTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.RaspiPin;
+import com.pi4j.io.gpio.SimulatedGpioProvider;
+import com.pi4j.io.gpio.event.PinAnalogValueChangeEvent;
+import com.pi4j.io.gpio.event.PinDigitalStateChangeEvent;
+import com.pi4j.io.gpio.event.PinEvent;
+import com.pi4j.io.serial.SimulatedSerial;
+
+public class EventJournalTests {
+
+    private static final int SEGMENT_SIZE = EventJournal.HEADER_SIZE + 8 * EventJournal.RECORD_SIZE;
+
+    private Path directory;
+
+    @Before
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("pi4j-journal");
+    }
+
+    @After
+    public void teardown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testRecordsRoundTrip() throws Exception {
+        byte[] payload = "a serial payload of more than sixteen bytes".getBytes(StandardCharsets.US_ASCII);
+        try (EventJournal journal = new EventJournal(directory)) {
+            journal.digital(4, PinState.HIGH, 100);
+            journal.analog(5, 3.25, 200);
+            journal.serial(7, payload, 0, payload.length);
+            journal.digital(4, PinState.LOW, 300);
+        }
+
+        try (EventJournalReader reader = new EventJournalReader(directory)) {
+            assertTrue(reader.next());
+            assertEquals(EventJournal.Source.DIGITAL, reader.getSource());
+            assertEquals(4, reader.getId());
+            assertEquals(100, reader.getTimestamp());
+            assertEquals(PinState.HIGH, reader.getState());
+
+            assertTrue(reader.next());
+            assertEquals(EventJournal.Source.ANALOG, reader.getSource());
+            assertEquals(5, reader.getId());
+            assertEquals(3.25, reader.getAnalogValue(), 0.0);
+
+            // the payload is split into records of up to 16 bytes
+            byte[] received = new byte[payload.length];
+            int length = 0;
+            int records = 0;
+            do {
+                assertTrue(reader.next());
+                assertEquals(EventJournal.Source.SERIAL, reader.getSource());
+                assertEquals(7, reader.getId());
+                length += reader.getPayload(received, length);
+                records++;
+            } while (reader.isContinued());
+            assertEquals(3, records);
+            assertArrayEquals(payload, received);
+
+            assertTrue(reader.next());
+            assertEquals(PinState.LOW, reader.getState());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    public void testSegmentsRollOver() throws Exception {
+        try (EventJournal journal = new EventJournal(directory, SEGMENT_SIZE, 0)) {
+            for (int i = 0; i < 20; i++) {
+                journal.analog(1, i, i);
+            }
+        }
+        assertEquals(3, EventJournalReader.segments(directory).size());
+        assertEquals(range(0, 20), readAnalogValues());
+    }
+
+    @Test
+    public void testOldestSegmentsAreDeleted() throws Exception {
+        try (EventJournal journal = new EventJournal(directory, SEGMENT_SIZE, 2)) {
+            for (int i = 0; i < 20; i++) {
+                journal.analog(1, i, i);
+            }
+        }
+        List<Path> segments = EventJournalReader.segments(directory);
+        assertEquals(2, segments.size());
+        assertEquals(1, EventJournalReader.segmentIndex(segments.get(0)));
+        assertEquals(range(8, 20), readAnalogValues());
+    }
+
+    @Test
+    public void testAppendsAfterExistingSegments() throws Exception {
+        try (EventJournal journal = new EventJournal(directory, SEGMENT_SIZE, 0)) {
+            journal.analog(1, 0, 0);
+        }
+        try (EventJournal journal = new EventJournal(directory, SEGMENT_SIZE, 0)) {
+            journal.analog(1, 1, 1);
+        }
+        assertEquals(range(0, 2), readAnalogValues());
+    }
+
+    @Test
+    public void testConcurrentAppends() throws Exception {
+        final int threads = 4;
+        final int events = 5000;
+        try (EventJournal journal = new EventJournal(directory, 64 * 1024, 0)) {
+            CountDownLatch done = new CountDownLatch(threads);
+            for (int t = 0; t < threads; t++) {
+                final int pin = t;
+                new Thread(() -> {
+                    for (int i = 0; i < events; i++) {
+                        journal.analog(pin, i, i);
+                    }
+                    done.countDown();
+                }).start();
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        }
+
+        // every record is complete and the records of each pin are in order
+        double[] last = new double[threads];
+        Arrays.fill(last, -1);
+        int count = 0;
+        try (EventJournalReader reader = new EventJournalReader(directory)) {
+            while (reader.next()) {
+                assertEquals(EventJournal.Source.ANALOG, reader.getSource());
+                assertEquals(last[reader.getId()] + 1, reader.getAnalogValue(), 0.0);
+                last[reader.getId()] = reader.getAnalogValue();
+                count++;
+            }
+        }
+        assertEquals(threads * events, count);
+    }
+
+    @Test
+    public void testRecordsProviderEvents() throws Exception {
+        SimulatedGpioProvider provider = new SimulatedGpioProvider();
+        try (EventJournal journal = new EventJournal(directory)) {
+            provider.addListener(RaspiPin.GPIO_02, journal);
+            provider.setState(RaspiPin.GPIO_02, PinState.HIGH);
+            provider.setAnalogValue(RaspiPin.GPIO_02, 0.5);
+            provider.removeListener(RaspiPin.GPIO_02, journal);
+            provider.setState(RaspiPin.GPIO_02, PinState.LOW);
+        }
+
+        try (EventJournalReader reader = new EventJournalReader(directory)) {
+            assertTrue(reader.next());
+            assertEquals(EventJournal.Source.DIGITAL, reader.getSource());
+            assertEquals(RaspiPin.GPIO_02.getAddress(), reader.getId());
+            assertEquals(PinState.HIGH, reader.getState());
+            assertTrue(reader.next());
+            assertEquals(EventJournal.Source.ANALOG, reader.getSource());
+            assertEquals(0.5, reader.getAnalogValue(), 0.0);
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    public void testReplay() throws Exception {
+        byte[] payload = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+        try (EventJournal journal = new EventJournal(directory)) {
+            journal.digital(RaspiPin.GPIO_02.getAddress(), PinState.HIGH, 0);
+            journal.serial(3, payload, 0, payload.length);
+            journal.analog(RaspiPin.GPIO_03.getAddress(), 0.75, 10);
+            journal.digital(RaspiPin.GPIO_02.getAddress(), PinState.LOW, 20);
+            journal.digital(RaspiPin.GPIO_04.getAddress(), PinState.HIGH, 30); // not replayed
+        }
+
+        SimulatedGpioProvider provider = new SimulatedGpioProvider();
+        List<PinEvent> events = Collections.synchronizedList(new ArrayList<>());
+        provider.addListener(RaspiPin.GPIO_02, events::add);
+        provider.addListener(RaspiPin.GPIO_03, events::add);
+
+        SimulatedSerial serial = new SimulatedSerial();
+        serial.setBufferingDataReceived(false);
+        serial.open("/dev/ttyS0", 115200);
+        List<byte[]> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch receivedLatch = new CountDownLatch(1);
+        serial.addListener(event -> {
+            try {
+                received.add(event.getBytes());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            receivedLatch.countDown();
+        });
+        try {
+            EventJournalReplayer replayer = new EventJournalReplayer(provider, RaspiPin.GPIO_02, RaspiPin.GPIO_03);
+            replayer.setSerial(3, serial);
+            assertEquals(4, replayer.replay(directory, EventJournalReplayer.AS_FAST_AS_POSSIBLE));
+
+            assertEquals(3, events.size());
+            assertEquals(PinState.HIGH, ((PinDigitalStateChangeEvent) events.get(0)).getState());
+            assertEquals(0.75, ((PinAnalogValueChangeEvent) events.get(1)).getValue(), 0.0);
+            assertEquals(PinState.LOW, ((PinDigitalStateChangeEvent) events.get(2)).getState());
+
+            assertTrue(receivedLatch.await(5, TimeUnit.SECONDS));
+            assertArrayEquals(payload, received.get(0));
+        } finally {
+            serial.close();
+        }
+    }
+
+    @Test
+    public void testReplayPace() throws Exception {
+        final long span = TimeUnit.MILLISECONDS.toNanos(100);
+        try (EventJournal journal = new EventJournal(directory)) {
+            journal.digital(RaspiPin.GPIO_02.getAddress(), PinState.HIGH, 0);
+            journal.digital(RaspiPin.GPIO_02.getAddress(), PinState.LOW, span);
+        }
+        EventJournalReplayer replayer = new EventJournalReplayer(new SimulatedGpioProvider());
+
+        // ten times the recorded pace
+        long start = System.nanoTime();
+        assertEquals(2, replayer.replay(directory, 10));
+        long elapsed = System.nanoTime() - start;
+        assertTrue(elapsed >= span / 10);
+        assertTrue(elapsed < span);
+    }
+
+    private List<Double> readAnalogValues() throws IOException {
+        List<Double> values = new ArrayList<>();
+        try (EventJournalReader reader = new EventJournalReader(directory)) {
+            while (reader.next()) {
+                values.add(reader.getAnalogValue());
+            }
+        }
+        return values;
+    }
+
+    private static List<Double> range(int from, int to) {
+        List<Double> values = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            values.add((double) i);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,135 @@
+package com.pi4j.io.serial.frame;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SerialFrameAssemblerTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class SerialFrameAssemblerTests {
+
+    private final List<byte[]> frames = new ArrayList<>();
+
+    private void receive(SerialFrameAssembler assembler, byte... data) {
+        assembler.receive(ByteBuffer.wrap(data), frame -> {
+            assertTrue(frame.isReadOnly());
+            byte[] copy = new byte[frame.remaining()];
+            frame.get(copy);
+            frames.add(copy);
+        });
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void delimiterFramesSpanningReceivedChunks() {
+        SerialFrameAssembler assembler = new SerialFrameAssembler(
+                new DelimiterFrameDecoder(DelimiterFrameDecoder.CRLF, 82));
+
+        receive(assembler, ascii("$GPGGA,1\r\n$GPR"));
+        receive(assembler, ascii("MC,2\r"));
+        assertEquals(1, frames.size());
+        receive(assembler, ascii("\n$X\r\n"));
+
+        assertEquals(3, frames.size());
+        assertArrayEquals(ascii("$GPGGA,1"), frames.get(0));
+        assertArrayEquals(ascii("$GPRMC,2"), frames.get(1));
+        assertArrayEquals(ascii("$X"), frames.get(2));
+        assertEquals(0, assembler.getPendingLength());
+    }
+
+    @Test
+    public void delimiterDecoderDiscardsOversizedData() {
+        SerialFrameAssembler assembler = new SerialFrameAssembler(new DelimiterFrameDecoder(DelimiterFrameDecoder.LF, 4));
+        receive(assembler, ascii("0123456789"));
+        receive(assembler, ascii("\nok\n"));
+        assertEquals(1, frames.size());
+        assertArrayEquals(ascii("ok"), frames.get(0));
+    }
+
+    @Test
+    public void fixedLengthFrames() {
+        SerialFrameAssembler assembler = new SerialFrameAssembler(new FixedLengthFrameDecoder(3));
+        receive(assembler, (byte) 1, (byte) 2);
+        receive(assembler, (byte) 3, (byte) 4, (byte) 5, (byte) 6, (byte) 7);
+        assertEquals(2, frames.size());
+        assertArrayEquals(new byte[] {4, 5, 6}, frames.get(1));
+        assertEquals(1, assembler.getPendingLength());
+    }
+
+    @Test
+    public void lengthFieldFramesStripHeader() {
+        // 1 sync byte, 2 byte big endian length, payload
+        SerialFrameAssembler assembler = new SerialFrameAssembler(
+                new LengthFieldFrameDecoder(1, 2, ByteOrder.BIG_ENDIAN, 0, 3, 64));
+        receive(assembler, (byte) 0x7e, (byte) 0, (byte) 2, (byte) 9);
+        receive(assembler, (byte) 8, (byte) 0x7e, (byte) 0, (byte) 1, (byte) 7);
+        assertEquals(2, frames.size());
+        assertArrayEquals(new byte[] {9, 8}, frames.get(0));
+        assertArrayEquals(new byte[] {7}, frames.get(1));
+    }
+
+    @Test
+    public void cobsFrames() {
+        SerialFrameAssembler assembler = new SerialFrameAssembler(new CobsFrameDecoder(16));
+        // {0x11, 0x00, 0x22} and {0x00}
+        receive(assembler, (byte) 0x02, (byte) 0x11, (byte) 0x02);
+        receive(assembler, (byte) 0x22, (byte) 0x00, (byte) 0x01, (byte) 0x01, (byte) 0x00);
+        assertEquals(2, frames.size());
+        assertArrayEquals(new byte[] {0x11, 0x00, 0x22}, frames.get(0));
+        assertArrayEquals(new byte[] {0x00}, frames.get(1));
+    }
+
+    @Test
+    public void slipFrames() {
+        SerialFrameAssembler assembler = new SerialFrameAssembler(new SlipFrameDecoder(16));
+        receive(assembler, SlipFrameDecoder.END, (byte) 1, SlipFrameDecoder.ESC, SlipFrameDecoder.ESC_END,
+                (byte) 2, SlipFrameDecoder.ESC, SlipFrameDecoder.ESC_ESC, SlipFrameDecoder.END);
+        assertEquals(1, frames.size());
+        assertArrayEquals(new byte[] {1, SlipFrameDecoder.END, 2, SlipFrameDecoder.ESC}, frames.get(0));
+    }
+
+    @Test
+    public void partialFrameLargerThanPendingBufferIsDiscarded() {
+        SerialFrameAssembler assembler = new SerialFrameAssembler(new DelimiterFrameDecoder(DelimiterFrameDecoder.LF, 64), 4);
+        receive(assembler, ascii("abcdefgh"));
+        receive(assembler, ascii("\nxy\n"));
+        assertTrue(assembler.getDiscardedCount() > 0);
+        assertArrayEquals(ascii("xy"), frames.get(frames.size() - 1));
+    }
+}
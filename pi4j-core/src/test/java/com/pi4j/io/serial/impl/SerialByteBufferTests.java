@@ -0,0 +1,128 @@
+package com.pi4j.io.serial.impl;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SerialByteBufferTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.BufferOverflowException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class SerialByteBufferTests {
+
+    @Test
+    public void growsAndKeepsWrappedDataInOrder() throws Exception {
+        SerialByteBuffer buffer = new SerialByteBuffer(4);
+        byte[] out = new byte[8];
+
+        buffer.write(new byte[] {1, 2, 3});
+        assertEquals(2, buffer.getInputStream().read(out, 0, 2));
+        buffer.write(new byte[] {4, 5, 6, 7, 8});
+
+        assertEquals(6, buffer.available());
+        assertTrue(buffer.capacity() >= 6);
+        assertEquals(6, buffer.getInputStream().read(out, 0, 8));
+        assertArrayEquals(new byte[] {3, 4, 5, 6, 7, 8}, Arrays.copyOf(out, 6));
+    }
+
+    @Test
+    public void timedReadReturnsZeroOnTimeout() throws Exception {
+        SerialByteBuffer buffer = new SerialByteBuffer();
+        long start = System.nanoTime();
+        assertEquals(0, buffer.getInputStream().read(new byte[4], 0, 4, 20));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    public void blockedReaderIsWokenByWrite() throws Exception {
+        SerialByteBuffer buffer = new SerialByteBuffer();
+        Thread writer = new Thread(() -> {
+            try {
+                Thread.sleep(20);
+                buffer.write(new byte[] {42});
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+        writer.start();
+
+        long start = System.nanoTime();
+        assertEquals(42, buffer.getInputStream().read());
+        // well below the 100 ms poll interval of a sleeping reader
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(90));
+        writer.join();
+    }
+
+    @Test
+    public void dropOldestKeepsNewestBytes() throws Exception {
+        SerialByteBuffer buffer = new SerialByteBuffer(2, 4, SerialByteBuffer.OverflowPolicy.DROP_OLDEST);
+        buffer.write(new byte[] {1, 2, 3});
+        buffer.write(new byte[] {4, 5, 6});
+
+        byte[] out = new byte[4];
+        assertEquals(4, buffer.capacity());
+        assertEquals(4, buffer.getInputStream().read(out));
+        assertArrayEquals(new byte[] {3, 4, 5, 6}, out);
+        assertEquals(2, buffer.getOverflowCount());
+
+        buffer.write(new byte[] {7, 8, 9, 10, 11, 12});
+        assertEquals(4, buffer.getInputStream().read(out));
+        assertArrayEquals(new byte[] {9, 10, 11, 12}, out);
+    }
+
+    @Test
+    public void rejectKeepsBufferedBytes() throws Exception {
+        SerialByteBuffer buffer = new SerialByteBuffer(4, 4, SerialByteBuffer.OverflowPolicy.REJECT);
+        buffer.write(new byte[] {1, 2, 3});
+        try {
+            buffer.write(new byte[] {4, 5});
+            fail("expected overflow");
+        } catch (BufferOverflowException e) {
+            // expected
+        }
+
+        byte[] out = new byte[3];
+        assertEquals(3, buffer.getInputStream().read(out));
+        assertArrayEquals(new byte[] {1, 2, 3}, out);
+        assertEquals(2, buffer.getOverflowCount());
+    }
+
+    @Test
+    public void skipDiscardsAvailableBytes() throws Exception {
+        SerialByteBuffer buffer = new SerialByteBuffer();
+        buffer.write(new byte[] {1, 2, 3});
+        assertEquals(2, buffer.getInputStream().skip(2));
+        assertEquals(3, buffer.getInputStream().read());
+        assertEquals(0, buffer.available());
+    }
+}
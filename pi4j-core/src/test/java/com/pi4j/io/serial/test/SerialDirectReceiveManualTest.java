@@ -0,0 +1,154 @@
+package com.pi4j.io.serial.test;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SerialDirectReceiveManualTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.pi4j.io.serial.Serial;
+import com.pi4j.io.serial.SerialConfig;
+import com.pi4j.io.serial.SerialFactory;
+
+/**
+ * This is a receive path benchmark for the serial data events that is intended to be run
+ * manually and not as part of the JUnit testing.  It opens a pseudo terminal pair (created
+ * with 'socat', which must be installed) as a stand-in for a serial port, streams data
+ * through it at the byte rate of 1, 2 and 3 Mbaud (10 bits per byte) and compares the
+ * default heap receive path (one byte array per data event) with the direct receive ring
+ * (a view of the ring per data event).  It prints the delivered rate and the number of
+ * garbage collections during each run.
+ *
+ * Usage: SerialDirectReceiveManualTest [seconds-per-run] [direct-buffer-size]
+ */
+public class SerialDirectReceiveManualTest {
+
+    private static final Pattern PTY_PATTERN = Pattern.compile("PTY is (\\S+)");
+    private static final int CHUNK_SIZE = 256;
+    private static final int[] BAUD_RATES = { 1000000, 2000000, 3000000 };
+
+    public static void main(String[] args) throws Exception {
+        int seconds = (args.length > 0) ? Integer.parseInt(args[0]) : 5;
+        int directSize = (args.length > 1) ? Integer.parseInt(args[1]) : 65536;
+
+        System.out.println("   baud  mode    delivered bytes/sec  events  gc count");
+        for (int baud : BAUD_RATES) {
+            for (int size : new int[] { 0, directSize }) {
+                run(baud, size, seconds);
+            }
+        }
+        SerialFactory.shutdown();
+    }
+
+    private static void run(int baud, int directSize, int seconds) throws Exception {
+        Process socat = new ProcessBuilder("socat", "-d", "-d",
+                "pty,raw,echo=0", "pty,raw,echo=0").start();
+        try {
+            // socat reports both pty device names on stderr
+            BufferedReader stderr = new BufferedReader(new InputStreamReader(socat.getErrorStream()));
+            List<String> names = new ArrayList<>();
+            String line;
+            while (names.size() < 2 && (line = stderr.readLine()) != null) {
+                Matcher matcher = PTY_PATTERN.matcher(line);
+                if (matcher.find()) {
+                    names.add(matcher.group(1));
+                }
+            }
+            if (names.size() < 2) {
+                throw new IOException("Unable to create pty pair with socat.");
+            }
+
+            // the pty ignores the configured baud rate; the writer paces itself instead
+            Serial writer = SerialFactory.createInstance();
+            Serial reader = SerialFactory.createInstance();
+            writer.open(new SerialConfig().device(names.get(0)));
+            reader.open(new SerialConfig().device(names.get(1)).directReceiveBufferSize(directSize));
+            reader.setBufferingDataReceived(false);
+
+            AtomicLong received = new AtomicLong();
+            AtomicLong events = new AtomicLong();
+            reader.addListener(event -> {
+                try {
+                    // consume the payload without copying it when it is a ring view
+                    received.addAndGet(event.getByteBuffer().remaining());
+                    events.incrementAndGet();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            });
+
+            long collections = gcCount();
+            long start = System.nanoTime();
+            writeAtRate(writer, baud / 10, start + TimeUnit.SECONDS.toNanos(seconds));
+            long elapsed = System.nanoTime() - start;
+            collections = gcCount() - collections;
+
+            System.out.printf("%7d  %-6s  %19d  %6d  %8d%n", baud, (directSize > 0) ? "direct" : "heap",
+                    received.get() * TimeUnit.SECONDS.toNanos(1) / elapsed, events.get(), collections);
+
+            writer.close();
+            reader.close();
+        } finally {
+            socat.destroy();
+        }
+    }
+
+    private static void writeAtRate(Serial serial, int bytesPerSecond, long deadline) {
+        byte[] chunk = new byte[CHUNK_SIZE];
+        long interval = TimeUnit.SECONDS.toNanos(1) * CHUNK_SIZE / bytesPerSecond;
+        long next = System.nanoTime();
+        while (next < deadline) {
+            try {
+                serial.write(chunk);
+                next += interval;
+            } catch (IOException e) {
+                // the pty transmit buffer is full (non-blocking descriptor); retry
+            }
+            LockSupport.parkNanos(next - System.nanoTime());
+        }
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(gc.getCollectionCount(), 0);
+        }
+        return count;
+    }
+}
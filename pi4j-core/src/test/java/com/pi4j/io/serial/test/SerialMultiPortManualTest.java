@@ -0,0 +1,151 @@
+package com.pi4j.io.serial.test;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SerialMultiPortManualTest.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.pi4j.jni.Serial;
+
+/**
+ * This is a throughput benchmark for the com.pi4j.jni.Serial class that is intended
+ * to be run manually and not as part of the JUnit testing.  It opens 1..N pseudo
+ * terminal pairs (created with 'socat', which must be installed) as stand-ins for
+ * serial ports, streams data through all pairs in parallel and prints the aggregate
+ * receive rate for each port count.  With per port locking the aggregate rate should
+ * grow with the number of ports instead of staying flat.
+ *
+ * Usage: SerialMultiPortManualTest [max-ports] [seconds-per-run]
+ */
+public class SerialMultiPortManualTest {
+
+    private static final Pattern PTY_PATTERN = Pattern.compile("PTY is (\\S+)");
+    private static final int CHUNK_SIZE = 256;
+
+    public static void main(String[] args) throws Exception {
+        int maxPorts = (args.length > 0) ? Integer.parseInt(args[0]) : 5;
+        int seconds = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+
+        System.out.println("ports  aggregate bytes/sec  per port bytes/sec");
+        for (int ports = 1; ports <= maxPorts; ports++) {
+            long bytes = run(ports, seconds);
+            long rate = bytes / seconds;
+            System.out.printf("%5d  %19d  %18d%n", ports, rate, rate / ports);
+        }
+    }
+
+    private static long run(int ports, int seconds) throws Exception {
+        List<Process> processes = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        List<Integer> descriptors = new ArrayList<>();
+        AtomicLong received = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        try {
+            for (int port = 0; port < ports; port++) {
+                Process socat = new ProcessBuilder("socat", "-d", "-d",
+                        "pty,raw,echo=0", "pty,raw,echo=0").start();
+                processes.add(socat);
+
+                // socat reports both pty device names on stderr
+                BufferedReader stderr = new BufferedReader(new InputStreamReader(socat.getErrorStream()));
+                List<String> names = new ArrayList<>();
+                String line;
+                while (names.size() < 2 && (line = stderr.readLine()) != null) {
+                    Matcher matcher = PTY_PATTERN.matcher(line);
+                    if (matcher.find()) {
+                        names.add(matcher.group(1));
+                    }
+                }
+                if (names.size() < 2) {
+                    throw new IOException("Unable to create pty pair with socat.");
+                }
+
+                int writeFd = Serial.open(names.get(0), Serial.BAUD_RATE_230400);
+                int readFd = Serial.open(names.get(1), Serial.BAUD_RATE_230400);
+                descriptors.add(writeFd);
+                descriptors.add(readFd);
+
+                threads.add(new Thread(() -> writeUntil(writeFd, deadline)));
+                threads.add(new Thread(() -> readUntil(readFd, deadline, received)));
+            }
+
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            return received.get();
+        } finally {
+            for (int fd : descriptors) {
+                Serial.close(fd);
+            }
+            for (Process process : processes) {
+                process.destroy();
+            }
+        }
+    }
+
+    private static void writeUntil(int fd, long deadline) {
+        byte[] chunk = new byte[CHUNK_SIZE];
+        while (System.nanoTime() < deadline) {
+            try {
+                Serial.write(fd, chunk);
+            } catch (IOException e) {
+                // the pty transmit buffer is full (non-blocking descriptor); back off briefly
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            }
+        }
+    }
+
+    private static void readUntil(int fd, long deadline, AtomicLong received) {
+        while (System.nanoTime() < deadline) {
+            try {
+                byte[] data = Serial.read(fd);
+                if (data.length == 0) {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                }
+                received.addAndGet(data.length);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+        }
+    }
+}
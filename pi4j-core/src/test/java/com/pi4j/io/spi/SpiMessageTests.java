@@ -0,0 +1,141 @@
+package com.pi4j.io.spi;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SpiMessageTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import org.junit.Test;
+
+public class SpiMessageTests {
+
+    @Test
+    public void encodesTransfersAndPointers() {
+        ByteBuffer tx = ByteBuffer.allocateDirect(16);
+        ByteBuffer rx = ByteBuffer.allocateDirect(16);
+        tx.position(2);
+        SpiMessage message = new SpiMessage()
+                .transfer(tx, rx, 3, 500000, 10, true)
+                .read(rx);
+        assertEquals(2, message.size());
+        assertEquals(3 + 16, message.length());
+        assertEquals(2, tx.position());
+
+        ByteBuffer data = message.getData();
+        assertTrue(data.isDirect());
+
+        // transfer 0: full duplex with its own speed, delay and chip select change
+        assertEquals(3, data.getInt(SpiMessage.LEN_OFFSET));
+        assertEquals(500000, data.getInt(SpiMessage.SPEED_HZ_OFFSET));
+        assertEquals(10, data.getShort(SpiMessage.DELAY_USECS_OFFSET));
+        assertEquals(1, data.get(SpiMessage.CS_CHANGE_OFFSET));
+
+        // transfer 1: read only (no tx pointer, zeros are transmitted)
+        int transfer1 = SpiMessage.TRANSFER_SIZE;
+        assertEquals(16, data.getInt(transfer1 + SpiMessage.LEN_OFFSET));
+        assertEquals(0, data.getLong(transfer1 + SpiMessage.TX_BUF_OFFSET));
+        assertEquals(0, data.get(transfer1 + SpiMessage.CS_CHANGE_OFFSET));
+
+        // pointers: (struct offset, buffer index, buffer offset)
+        IntBuffer pointers = message.getPointers();
+        assertEquals(9, pointers.remaining());
+        assertEquals(SpiMessage.TX_BUF_OFFSET, pointers.get(0));
+        assertTrue(tx == message.getBuffers()[pointers.get(1)]);
+        assertEquals(2, pointers.get(2));
+        assertEquals(SpiMessage.RX_BUF_OFFSET, pointers.get(3));
+        assertTrue(rx == message.getBuffers()[pointers.get(4)]);
+        assertEquals(transfer1 + SpiMessage.RX_BUF_OFFSET, pointers.get(6));
+        assertEquals(0, pointers.get(8));
+    }
+
+    @Test
+    public void encodesIoctlCommand() {
+        // SPI_IOC_MESSAGE(1) and SPI_IOC_MESSAGE(2) from linux/spi/spidev.h
+        assertEquals(0x40206B00L, SpiMessage.command(1));
+        assertEquals(0x40406B00L, SpiMessage.command(2));
+    }
+
+    @Test
+    public void encodesConfigurationIoctlCommands() {
+        // SPI_IOC_WR_MODE, SPI_IOC_WR_BITS_PER_WORD and SPI_IOC_WR_MAX_SPEED_HZ
+        assertEquals(0x40016B01L, SpiMessage.command(1, 1));
+        assertEquals(0x40016B03L, SpiMessage.command(3, 1));
+        assertEquals(0x40046B04L, SpiMessage.command(4, 4));
+    }
+
+    @Test
+    public void reusesNativeBuffers() {
+        ByteBuffer tx = ByteBuffer.allocateDirect(4);
+        SpiMessage message = new SpiMessage().write(tx);
+        ByteBuffer data = message.getData();
+
+        message.clear();
+        assertEquals(0, message.size());
+        assertEquals(0, message.length());
+        assertNull(message.getBuffers()[0]);
+
+        message.write(tx);
+        assertTrue(data == message.getData());
+    }
+
+    @Test
+    public void growsNativeBuffers() {
+        ByteBuffer tx = ByteBuffer.allocateDirect(1);
+        SpiMessage message = new SpiMessage();
+        for (int i = 0; i < 40; i++) {
+            message.transfer(tx, tx);
+        }
+        assertEquals(40, message.size());
+        assertEquals(80 * 3, message.getPointers().remaining());
+        assertEquals(1, message.getData().getInt(39 * SpiMessage.TRANSFER_SIZE + SpiMessage.LEN_OFFSET));
+        assertEquals(39 * SpiMessage.TRANSFER_SIZE + SpiMessage.RX_BUF_OFFSET, message.getPointers().get(79 * 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsHeapBuffers() {
+        new SpiMessage().write(ByteBuffer.allocate(4));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsShortReceiveBuffers() {
+        new SpiMessage().transfer(ByteBuffer.allocateDirect(4), ByteBuffer.allocateDirect(2));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void limitsTransferCount() {
+        ByteBuffer tx = ByteBuffer.allocateDirect(1);
+        SpiMessage message = new SpiMessage();
+        for (int i = 0; i <= SpiMessage.MAX_TRANSFERS; i++) {
+            message.write(tx);
+        }
+    }
+}
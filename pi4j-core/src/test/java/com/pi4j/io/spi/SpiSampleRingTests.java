@@ -0,0 +1,104 @@
+package com.pi4j.io.spi;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SpiSampleRingTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class SpiSampleRingTests {
+
+    @Test
+    public void roundsCapacityToFourBlocks() {
+        SpiSampleRing ring = new SpiSampleRing(10, 2, 8);
+        assertEquals(32, ring.capacity());
+        assertTrue(ring.buffer().isDirect());
+        assertEquals(SpiSampleRing.DATA_OFFSET + 32 * Integer.BYTES, ring.buffer().capacity());
+    }
+
+    @Test
+    public void readsSamplesInSequence() {
+        SpiSampleRing ring = new SpiSampleRing(64, 2, 4);
+        ring.write(new int[] {1, 2, 3, 4});
+        ring.write(new int[] {5, 6, 7, 8});
+        assertEquals(8, ring.available());
+        assertEquals(2, ring.blocks());
+
+        int[] samples = new int[6];
+        assertEquals(6, ring.read(samples, 0, 6));
+        assertArrayEquals(new int[] {1, 2, 3, 4, 5, 6}, samples);
+        assertEquals(6, ring.sequence());
+
+        assertEquals(2, ring.read(samples, 0, 6));
+        assertEquals(7, samples[0]);
+        assertEquals(0, ring.read(samples, 0, 6));
+        assertEquals(0, ring.overruns());
+    }
+
+    @Test
+    public void skipsToNextScanOnOverrun() {
+        // capacity 16, block 6 (scans of 3): readable samples are limited to capacity - block
+        SpiSampleRing ring = new SpiSampleRing(16, 3, 6);
+        assertEquals(32, ring.capacity());
+        for (int block = 0; block < 8; block++) {
+            int[] samples = new int[6];
+            for (int i = 0; i < 6; i++) {
+                samples[i] = block * 6 + i;
+            }
+            ring.write(samples);
+        }
+
+        // 48 samples produced, oldest safe sample is 48 + 6 - 32 = 22, next scan starts at 24
+        int[] samples = new int[32];
+        int count = ring.read(samples, 0, samples.length);
+        assertEquals(24, ring.overruns());
+        assertEquals(24, count);
+        assertEquals(24, samples[0]);
+        assertEquals(47, samples[23]);
+        assertEquals(0, ring.sequence() % 3);
+    }
+
+    @Test
+    public void awaitReturnsWhenStopped() throws InterruptedException {
+        SpiSampleRing ring = new SpiSampleRing(16, 1, 4);
+        ring.write(new int[] {1, 2, 3, 4});
+        assertTrue(ring.await(4, 0, TimeUnit.MILLISECONDS));
+        assertFalse(ring.isRunning());
+        assertFalse(ring.await(8, 1, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsPartialScanBlocks() {
+        new SpiSampleRing(64, 3, 4);
+    }
+}
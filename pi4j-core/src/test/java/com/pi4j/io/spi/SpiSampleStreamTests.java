@@ -0,0 +1,113 @@
+package com.pi4j.io.spi;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SpiSampleStreamTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import org.junit.Test;
+
+public class SpiSampleStreamTests {
+
+    @Test
+    public void compilesTransferBlock() {
+        SpiSampleStream stream = new SpiSampleStream(SpiChannel.CS0, 3600000, SpiMode.MODE_0)
+                .mcp3008(0)
+                .mcp3008(7);
+        stream.prepare(1024, 4, 4096);
+
+        // 4 scans of 2 conversions, 3 bytes each
+        SpiMessage message = stream.getMessage();
+        assertEquals(8, message.size());
+        assertEquals(24, message.length());
+        SpiSampleRing ring = stream.ring();
+        assertEquals(2, ring.scanLength());
+        assertEquals(8, ring.blockLength());
+        assertEquals(1024, ring.capacity());
+
+        ByteBuffer tx = stream.getTransmitBuffer();
+        assertEquals(0x01, tx.get(0));
+        assertEquals((byte) 0x80, tx.get(1));
+        assertEquals((byte) 0xF0, tx.get(4));
+        assertEquals((byte) 0xF0, tx.get(22));
+
+        // each conversion is a chip select frame; chip select is released after the block
+        ByteBuffer data = message.getData();
+        assertEquals(3, data.getInt(SpiMessage.LEN_OFFSET));
+        assertEquals(3600000, data.getInt(SpiMessage.SPEED_HZ_OFFSET));
+        assertEquals(1, data.get(SpiMessage.CS_CHANGE_OFFSET));
+        assertEquals(0, data.get(7 * SpiMessage.TRANSFER_SIZE + SpiMessage.CS_CHANGE_OFFSET));
+
+        // sample fields: (rx offset, bytes, shift, bits | signed)
+        IntBuffer fields = stream.getFields();
+        assertEquals(8 * 4, fields.remaining());
+        assertEquals(1, fields.get(0));
+        assertEquals(2, fields.get(1));
+        assertEquals(0, fields.get(2));
+        assertEquals(10, fields.get(3));
+        assertEquals(7 * 3 + 1, fields.get(7 * 4));
+    }
+
+    @Test
+    public void limitsBlockToMessage() {
+        SpiSampleStream stream = new SpiSampleStream(SpiChannel.CS0, 1000000, SpiMode.MODE_0);
+        for (int channel = 0; channel < 8; channel++) {
+            stream.mcp3008(channel);
+        }
+
+        // 511 transfers / 8 conversions = 63 scans (1512 bytes)
+        stream.prepare(0, 0, 4096);
+        assertEquals(63 * 8, stream.ring().blockLength());
+
+        // 1024 bytes / 24 bytes per scan = 42 scans
+        stream.prepare(0, 0, 1024);
+        assertEquals(42 * 8, stream.ring().blockLength());
+    }
+
+    @Test
+    public void encodesSignedFields() {
+        SpiSampleStream stream = new SpiSampleStream(SpiChannel.CS1, 1000000, SpiMode.MODE_1)
+                .conversion(new byte[] {0x10, 0, 0, 0}, 1, 3, 4, 20, true);
+        stream.prepare(0, 1, 4096);
+        IntBuffer fields = stream.getFields();
+        assertEquals(20 | 0x100, fields.get(3));
+        assertEquals(4, fields.get(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsFieldOutsideCommand() {
+        new SpiSampleStream(SpiChannel.CS0, 1000000, SpiMode.MODE_0).conversion(new byte[] {1, 0}, 1, 2, 0, 10, false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOversizedBlock() {
+        new SpiSampleStream(SpiChannel.CS0, 1000000, SpiMode.MODE_0).mcp3008(0).prepare(0, 512, 4096);
+    }
+}
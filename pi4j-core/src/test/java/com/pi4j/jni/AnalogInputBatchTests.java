@@ -0,0 +1,80 @@
+package com.pi4j.jni;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  AnalogInputBatchTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class AnalogInputBatchTests {
+
+    private static AnalogInputBatch batch(int[] pins, double[] values, long timestamp) {
+        // records are written in native byte order, the native buffer itself is handed over big endian
+        ByteBuffer records = ByteBuffer.allocateDirect(pins.length * AnalogInputBatch.RECORD_SIZE).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < pins.length; i++) {
+            records.putInt(i * AnalogInputBatch.RECORD_SIZE + AnalogInputBatch.PIN_OFFSET, pins[i]);
+            records.putDouble(i * AnalogInputBatch.RECORD_SIZE + AnalogInputBatch.VALUE_OFFSET, values[i]);
+        }
+        AnalogInputBatch batch = new AnalogInputBatch();
+        batch.wrap(records.order(ByteOrder.BIG_ENDIAN), pins.length, timestamp);
+        return batch;
+    }
+
+    @Test
+    public void readsChangeRecords() {
+        AnalogInputBatch batch = batch(new int[] {100, 107}, new double[] {512.0, 1023.0}, 42L);
+        assertEquals(2, batch.size());
+        assertEquals(42L, batch.getTimestamp());
+        assertEquals(100, batch.getPin(0));
+        assertEquals(512.0, batch.getValue(0), 0.0);
+        assertEquals(107, batch.getPin(1));
+        assertEquals(1023.0, batch.getValue(1), 0.0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void indexBeyondSizeFails() {
+        batch(new int[] {100}, new double[] {1.0}, 0L).getValue(1);
+    }
+
+    @Test
+    public void defaultListenerReceivesEventPerChange() {
+        List<AnalogInputEvent> events = new ArrayList<>();
+        AnalogInputListener listener = events::add;
+        listener.pinValuesChange(batch(new int[] {100, 101, 102}, new double[] {1.0, 2.0, 3.0}, 0L));
+
+        assertEquals(3, events.size());
+        assertEquals(101, events.get(1).getPin());
+        assertEquals(2.0, events.get(1).getValue(), 0.0);
+        assertEquals(listener, events.get(1).getSource());
+    }
+}
@@ -0,0 +1,88 @@
+package com.pi4j.jni;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  AnalogSampleRingTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class AnalogSampleRingTests {
+
+    @Test
+    public void capacityIsRoundedToPowerOfTwo() {
+        AnalogSampleRing ring = new AnalogSampleRing(1000);
+        assertEquals(1024, ring.capacity());
+        assertTrue(ring.buffer().isDirect());
+        assertEquals(ByteOrder.nativeOrder(), ring.buffer().order());
+        assertEquals(AnalogSampleRing.DATA_OFFSET + 1024 * Double.BYTES, ring.buffer().capacity());
+        assertEquals(2, new AnalogSampleRing(1).capacity());
+    }
+
+    @Test
+    public void latestSample() {
+        AnalogSampleRing ring = new AnalogSampleRing(4);
+        assertTrue(Double.isNaN(ring.latest()));
+        ring.write(1.5);
+        ring.write(2.5);
+        assertEquals(2, ring.count());
+        assertEquals(2.5, ring.latest(), 0.0);
+    }
+
+    @Test
+    public void readsMostRecentSamplesInOrder() {
+        AnalogSampleRing ring = new AnalogSampleRing(8);
+        double[] out = new double[8];
+
+        for (int i = 1; i <= 3; i++) {
+            ring.write(i);
+        }
+        assertEquals(3, ring.read(out, 0, 8));
+        assertArrayEquals(new double[] {1, 2, 3}, Arrays.copyOf(out, 3), 0.0);
+
+        // the ring overwrites the oldest samples; the slot written next is never read
+        for (int i = 4; i <= 20; i++) {
+            ring.write(i);
+        }
+        assertEquals(20, ring.count());
+        assertEquals(7, ring.read(out, 0, 8));
+        assertArrayEquals(new double[] {14, 15, 16, 17, 18, 19, 20}, Arrays.copyOf(out, 7), 0.0);
+        assertEquals(2, ring.read(out, 1, 2));
+        assertEquals(19, out[1], 0.0);
+        assertEquals(20, out[2], 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidCapacityFails() {
+        new AnalogSampleRing(0);
+    }
+}
@@ -0,0 +1,255 @@
+package com.pi4j.jni;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  SerialReceiveRingTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import com.pi4j.io.journal.EventJournal;
+import com.pi4j.io.journal.EventJournalReader;
+import com.pi4j.io.serial.SimulatedSerial;
+
+public class SerialReceiveRingTests {
+
+    @Test
+    public void capacityIsRoundedToPowerOfTwo() {
+        SerialReceiveRing ring = new SerialReceiveRing(1000);
+        assertEquals(1024, ring.capacity());
+        assertTrue(ring.buffer().isDirect());
+        assertEquals(SerialReceiveRing.DATA_OFFSET + 1024, ring.buffer().capacity());
+    }
+
+    @Test
+    public void readsWrappedDataInOrder() {
+        SerialReceiveRing ring = new SerialReceiveRing(8);
+        byte[] out = new byte[8];
+
+        assertEquals(6, ring.write(new byte[] {1, 2, 3, 4, 5, 6}, 0, 6));
+        assertEquals(4, ring.read(out, 0, 4));
+        assertEquals(6, ring.write(new byte[] {7, 8, 9, 10, 11, 12}, 0, 6));
+        assertEquals(8, ring.available());
+
+        // ring is full; the producer must not overwrite unread data
+        assertEquals(0, ring.write(new byte[] {13}, 0, 1));
+
+        assertEquals(8, ring.read(out, 0, 8));
+        assertArrayEquals(new byte[] {5, 6, 7, 8, 9, 10, 11, 12}, out);
+        assertEquals(0, ring.available());
+    }
+
+    @Test
+    public void peekSharesRingMemoryUntilReleased() {
+        SerialReceiveRing ring = new SerialReceiveRing(8);
+        ring.write(new byte[] {1, 2, 3}, 0, 3);
+
+        ByteBuffer view = ring.peek(3);
+        assertTrue(view.isReadOnly());
+        assertTrue(view.isDirect());
+        assertEquals(3, view.remaining());
+        assertEquals(1, view.get(0));
+        assertEquals(3, ring.available());
+
+        ring.release(3);
+        assertEquals(0, ring.available());
+    }
+
+    @Test
+    public void peekCopiesWrappedData() {
+        SerialReceiveRing ring = new SerialReceiveRing(4);
+        ring.write(new byte[] {1, 2, 3}, 0, 3);
+        ring.release(3);
+        ring.write(new byte[] {4, 5, 6}, 0, 3);
+
+        ByteBuffer view = ring.peek(3);
+        byte[] out = new byte[3];
+        view.get(out);
+        assertArrayEquals(new byte[] {4, 5, 6}, out);
+    }
+
+    @Test
+    public void dataViewKeepsConsumedBytes() {
+        SerialReceiveRing ring = new SerialReceiveRing(8);
+        ring.write(new byte[] {1, 2, 3, 4, 5, 6}, 0, 6);
+        ring.release(6);
+        ring.write(new byte[] {7, 8, 9}, 0, 3);
+
+        // ring index 6..8 wraps around the end of the data
+        ByteBuffer data = ring.data();
+        assertTrue(data.isReadOnly());
+        assertEquals(8, data.capacity());
+        assertEquals(3, data.get(2));
+        assertEquals(7, data.get(6));
+        assertEquals(9, data.get(0));
+    }
+
+    @Test
+    public void journalRecordsLatestBytesWithLaggingConsumer() throws Exception {
+        Path directory = Files.createTempDirectory("pi4j-journal");
+        RingSerial serial = new RingSerial(new SerialReceiveRing(8));
+        try (EventJournal journal = new EventJournal(directory)) {
+            serial.open("/dev/ttyS0", 115200);
+            serial.setEventJournal(journal);
+
+            // buffered data is not consumed between the two receives
+            serial.receiveDirect(new byte[] {1, 2, 3});
+            serial.receiveDirect(new byte[] {4, 5, 6, 7});
+            assertEquals(7, serial.available());
+            serial.close();
+        }
+
+        try (EventJournalReader reader = new EventJournalReader(directory)) {
+            byte[] out = new byte[4];
+            assertTrue(reader.next());
+            assertEquals(3, reader.getPayload(out, 0));
+            assertArrayEquals(new byte[] {1, 2, 3}, Arrays.copyOf(out, 3));
+            assertTrue(reader.next());
+            assertEquals(4, reader.getPayload(out, 0));
+            assertArrayEquals(new byte[] {4, 5, 6, 7}, out);
+            assertFalse(reader.next());
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void journalRecordsConsumedAndWrappedBytes() throws Exception {
+        Path directory = Files.createTempDirectory("pi4j-journal");
+        RingSerial serial = new RingSerial(new SerialReceiveRing(8));
+        try (EventJournal journal = new EventJournal(directory)) {
+            serial.open("/dev/ttyS0", 115200);
+            serial.setEventJournal(journal);
+            serial.receiveDirect(new byte[] {1, 2, 3, 4, 5, 6});
+            serial.read(6);
+
+            // a buffered reader consumes the wrapping data before the notification is handled
+            serial.receiveDirect(new byte[] {7, 8, 9, 10}, true);
+            assertEquals(0, serial.available());
+            serial.close();
+        }
+
+        try (EventJournalReader reader = new EventJournalReader(directory)) {
+            byte[] out = new byte[6];
+            assertTrue(reader.next());
+            assertEquals(6, reader.getPayload(out, 0));
+            assertTrue(reader.next());
+            assertEquals(2, reader.getPayload(out, 0));
+            assertArrayEquals(new byte[] {7, 8}, Arrays.copyOf(out, 2));
+            assertTrue(reader.next());
+            assertEquals(2, reader.getPayload(out, 0));
+            assertArrayEquals(new byte[] {9, 10}, Arrays.copyOf(out, 2));
+            assertFalse(reader.next());
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void releaseBeyondAvailableFails() {
+        new SerialReceiveRing(4).release(1);
+    }
+
+    @Test
+    public void blockedReaderIsWokenByReceivedData() throws Exception {
+        SerialReceiveRing ring = new SerialReceiveRing(16);
+        int[] result = new int[] {-2};
+        Thread reader = new Thread(() -> {
+            try {
+                result[0] = ring.getInputStream().read();
+            } catch (Exception e) {
+                result[0] = -3;
+            }
+        });
+        reader.start();
+
+        // wait until the reader blocks, then produce a byte
+        while (reader.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        ring.write(new byte[] {42}, 0, 1);
+        reader.join(5000);
+        assertEquals(42, result[0]);
+    }
+
+    @Test
+    public void inputStreamReadsFromRing() throws Exception {
+        SerialReceiveRing ring = new SerialReceiveRing(16);
+        InputStream stream = ring.getInputStream();
+        ring.write(new byte[] {(byte) 0xff, 2, 3}, 0, 3);
+
+        assertEquals(3, stream.available());
+        assertEquals(0xff, stream.read());
+        assertEquals(1, stream.skip(1));
+        byte[] out = new byte[4];
+        assertEquals(1, stream.read(out, 0, 4));
+        assertEquals(3, out[0]);
+    }
+
+    /**
+     * Simulated serial port receiving into a direct receive ring, as the native monitor does.
+     */
+    private static class RingSerial extends SimulatedSerial {
+
+        private long end = 0;
+
+        private RingSerial(SerialReceiveRing ring) {
+            receiveRing = ring;
+        }
+
+        private void receiveDirect(byte[] data) throws IOException {
+            receiveDirect(data, false);
+        }
+
+        private void receiveDirect(byte[] data, boolean consumeFirst) throws IOException {
+            assertEquals(data.length, receiveRing.write(data, 0, data.length));
+            end += data.length;
+            if (consumeFirst) {
+                read(data.length);
+            }
+            receiveDirect(data.length, end);
+        }
+    }
+}
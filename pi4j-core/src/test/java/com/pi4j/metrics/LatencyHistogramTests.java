@@ -0,0 +1,133 @@
+package com.pi4j.metrics;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  LatencyHistogramTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class LatencyHistogramTests {
+
+    private static LatencyHistogram histogram() {
+        return new LatencyHistogram("test", Collections.emptyMap());
+    }
+
+    @Test
+    public void testBuckets() {
+        assertEquals(0, LatencyHistogram.bucket(-5));
+        assertEquals(0, LatencyHistogram.bucket(0));
+        assertEquals(1, LatencyHistogram.bucket(1));
+        assertEquals(2, LatencyHistogram.bucket(2));
+        assertEquals(2, LatencyHistogram.bucket(3));
+        assertEquals(3, LatencyHistogram.bucket(4));
+        assertEquals(11, LatencyHistogram.bucket(1024));
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucket(Long.MAX_VALUE));
+
+        // every value lies below the upper bound of its bucket
+        for (long value : new long[] { 1, 2, 3, 7, 8, 1000, 1_000_000, 123_456_789 }) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue(value <= LatencyHistogram.upperBound(bucket));
+            assertTrue(value > LatencyHistogram.upperBound(bucket - 1));
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = histogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMean(), 0);
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.get99thPercentile());
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = histogram();
+        // 90 samples of 1us and 10 samples of 1ms
+        for (int i = 0; i < 90; i++) {
+            histogram.record(1_000);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(1_000_000);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals((90 * 1_000 + 10 * 1_000_000) / 100.0, histogram.getMean(), 0.001);
+
+        // percentiles report the upper bound of the bucket (within a factor of two)
+        long p50 = histogram.get50thPercentile();
+        assertTrue(p50 >= 1_000 && p50 < 2_000);
+        long p90 = histogram.getPercentile(90);
+        assertTrue(p90 >= 1_000 && p90 < 2_000);
+
+        // never above the observed maximum
+        assertEquals(1_000_000, histogram.get99thPercentile());
+        assertEquals(1_000_000, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testReset() {
+        LatencyHistogram histogram = histogram();
+        histogram.record(500);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertArrayEquals(new long[LatencyHistogram.BUCKETS], histogram.getBuckets());
+    }
+
+    @Test
+    public void testConcurrentRecording() throws Exception {
+        final int threads = 4;
+        final int samples = 10000;
+        LatencyHistogram histogram = histogram();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch done = new CountDownLatch(threads);
+            for (int t = 0; t < threads; t++) {
+                final long value = (t + 1) * 100;
+                executor.execute(() -> {
+                    for (int i = 0; i < samples; i++) {
+                        histogram.record(value);
+                    }
+                    done.countDown();
+                });
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(threads * samples, histogram.getCount());
+            assertEquals(threads * 100, histogram.getMax());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.pi4j.metrics;
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Library (Core)
+ * FILENAME      :  MetricsTests.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+public class MetricsTests {
+
+    @Test
+    public void testCounterIsShared() {
+        Counter counter = Metrics.counter("test.shared", "pin", "1");
+        try {
+            counter.increment();
+            Metrics.counter("test.shared", "pin", "1").add(4);
+            assertEquals(5, counter.getCount());
+            assertSame(counter, Metrics.getMetric("test.shared", "pin", "1"));
+            assertNull(Metrics.getMetric("test.shared", "pin", "2"));
+        } finally {
+            Metrics.remove(counter);
+        }
+    }
+
+    @Test
+    public void testIdIncludesTags() {
+        Counter counter = Metrics.counter("test.id", "bus", "1", "address", "0x40");
+        try {
+            assertEquals("test.id{bus=1,address=0x40}", counter.getId());
+            assertEquals("0x40", counter.getTags().get("address"));
+        } finally {
+            Metrics.remove(counter);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOddTags() {
+        Metrics.counter("test.odd", "pin");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingName() {
+        Metrics.counter("");
+    }
+
+    @Test
+    public void testTypeConflict() {
+        Counter counter = Metrics.counter("test.conflict");
+        try {
+            Metrics.histogram("test.conflict");
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        } finally {
+            Metrics.remove(counter);
+        }
+    }
+
+    @Test
+    public void testSnapshot() {
+        AtomicLong value = new AtomicLong(7);
+        Counter counter = Metrics.counter("test.snapshot.counter");
+        Gauge gauge = Metrics.gauge("test.snapshot.gauge", value::get);
+        LatencyHistogram histogram = Metrics.histogram("test.snapshot.latency");
+        try {
+            counter.add(3);
+            histogram.record(100);
+            histogram.record(300);
+            value.set(9);
+
+            Map<String, Long> snapshot = Metrics.snapshot();
+            assertEquals(Long.valueOf(3), snapshot.get("test.snapshot.counter"));
+            assertEquals(Long.valueOf(9), snapshot.get("test.snapshot.gauge"));
+            assertEquals(Long.valueOf(2), snapshot.get("test.snapshot.latency.count"));
+            assertEquals(Long.valueOf(200), snapshot.get("test.snapshot.latency.mean"));
+            assertEquals(Long.valueOf(300), snapshot.get("test.snapshot.latency.max"));
+
+            Metrics.reset();
+            assertEquals(0, counter.getCount());
+            assertEquals(0, histogram.getCount());
+            assertEquals(9, gauge.getValue());
+        } finally {
+            Metrics.remove(counter);
+            Metrics.remove(gauge);
+            Metrics.remove(histogram);
+        }
+    }
+
+    @Test
+    public void testJmxExport() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        Counter counter = Metrics.counter("test.jmx", "port", "/dev/ttyAMA0");
+        ObjectName name = Metrics.objectName(counter);
+        try {
+            assertEquals("com.pi4j", name.getDomain());
+            assertTrue(server.isRegistered(name));
+            counter.add(42);
+            assertEquals(42L, server.getAttribute(name, "Count"));
+            server.invoke(name, "reset", null, null);
+            assertEquals(0, counter.getCount());
+        } finally {
+            Metrics.remove(counter);
+        }
+        assertFalse(server.isRegistered(name));
+        assertNull(Metrics.getMetric("test.jmx", "port", "/dev/ttyAMA0"));
+    }
+}
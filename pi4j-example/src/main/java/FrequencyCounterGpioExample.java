@@ -0,0 +1,79 @@
+// START SNIPPET: frequency-counter-gpio-snippet
+
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Examples
+ * FILENAME      :  FrequencyCounterGpioExample.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import com.pi4j.io.gpio.GpioController;
+import com.pi4j.io.gpio.GpioEdgeCounter;
+import com.pi4j.io.gpio.GpioFactory;
+import com.pi4j.io.gpio.GpioPinDigitalInput;
+import com.pi4j.io.gpio.PinEdge;
+import com.pi4j.io.gpio.PinPullResistance;
+import com.pi4j.io.gpio.RaspiPin;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This example code demonstrates how to count the rising edges
+ * of a signal applied to a GPIO input pin and report its frequency
+ * once per second.  The edges are counted by the native interrupt
+ * layer, so no Java code runs for the individual edges.
+ */
+public class FrequencyCounterGpioExample {
+
+    public static void main(String[] args) throws InterruptedException {
+
+        System.out.println("<--Pi4J--> GPIO Frequency Counter Example ... started.");
+
+        // create gpio controller
+        final GpioController gpio = GpioFactory.getInstance();
+
+        // provision gpio pin #02 as an input pin with its internal pull down resistor enabled
+        final GpioPinDigitalInput input = gpio.provisionDigitalInputPin(RaspiPin.GPIO_02, PinPullResistance.PULL_DOWN);
+
+        // count the rising edges on the input pin and report a summary every second
+        final GpioEdgeCounter counter = gpio.createEdgeCounter(input, PinEdge.RISING);
+        counter.addListener(event ->
+            System.out.println(" --> EDGES: " + event.getCount() + " (+" + event.getDelta() + "), FREQUENCY: "
+                    + String.format("%.1f", event.getFrequency()) + " Hz"));
+        counter.setSummaryInterval(1, TimeUnit.SECONDS);
+
+        System.out.println(" ... apply a signal to GPIO #02 to measure its frequency.");
+
+        // keep program running until user aborts (CTRL-C)
+        while(true) {
+            Thread.sleep(500);
+        }
+
+        // stop all GPIO activity/threads by shutting down the GPIO controller
+        // (this method will forcefully shutdown all GPIO monitoring threads and scheduled tasks)
+        // gpio.shutdown();   <--- implement this method call if you wish to terminate the Pi4J GPIO controller
+    }
+}
+//END SNIPPET: frequency-counter-gpio-snippet
@@ -34,6 +34,7 @@ import com.pi4j.util.ConsoleColor;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -115,15 +116,23 @@ public class GpioInputPollingAllExample {
         console.box("Polling for GPIO state changes.", "The GPIO input pins states will be displayed below.");
         console.emptyLine();
 
+        // read the states of all provisioned pins with a single snapshot per polling cycle
+        GpioPinDigitalInput[] inputs = provisionedPins.toArray(new GpioPinDigitalInput[0]);
+        BitSet states = new BitSet(inputs.length);
+
         // display pin state
         while(!console.exiting()) {
 
+            // take a snapshot of all pin states
+            gpio.getStates(states, inputs);
+
             // display pin states for all pins
-            for(GpioPinDigitalInput input : provisionedPins) {
+            for(int index = 0; index < inputs.length; index++) {
 
                 // get pin address and current state
+                GpioPinDigitalInput input = inputs[index];
                 Integer address = input.getPin().getAddress();
-                PinState state = input.getState();
+                PinState state = PinState.getState(states.get(index));
 
                 // if the pin state has changed, then print out new pin state
                 if(lastKnownState.containsKey(address) && lastKnownState.get(address) != state){
@@ -132,7 +141,7 @@ public class GpioInputPollingAllExample {
                             state.isHigh(),      // conditional expression
                             ConsoleColor.GREEN,  // positive conditional color
                             ConsoleColor.RED,    // negative conditional color
-                            input.getState()));
+                            state));
                 }
             }
             Thread.sleep(50);
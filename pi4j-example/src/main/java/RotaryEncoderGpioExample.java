@@ -0,0 +1,79 @@
+// START SNIPPET: rotary-encoder-gpio-snippet
+
+
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: Java Examples
+ * FILENAME      :  RotaryEncoderGpioExample.java
+ *
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import com.pi4j.io.gpio.GpioController;
+import com.pi4j.io.gpio.GpioFactory;
+import com.pi4j.io.gpio.GpioPinDigitalInput;
+import com.pi4j.io.gpio.GpioQuadratureEncoder;
+import com.pi4j.io.gpio.PinPullResistance;
+import com.pi4j.io.gpio.RaspiPin;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This example code demonstrates how to track the position of a
+ * rotary (quadrature) encoder connected to two GPIO input pins.
+ * The transitions of both channels are decoded by the native
+ * interrupt layer; position events are limited to one every
+ * 50 milliseconds while the encoder turns.
+ */
+public class RotaryEncoderGpioExample {
+
+    public static void main(String[] args) throws InterruptedException {
+
+        System.out.println("<--Pi4J--> GPIO Rotary Encoder Example ... started.");
+
+        // create gpio controller
+        final GpioController gpio = GpioFactory.getInstance();
+
+        // provision gpio pins #02 and #03 as input pins with their internal pull up resistors enabled
+        final GpioPinDigitalInput channelA = gpio.provisionDigitalInputPin(RaspiPin.GPIO_02, PinPullResistance.PULL_UP);
+        final GpioPinDigitalInput channelB = gpio.provisionDigitalInputPin(RaspiPin.GPIO_03, PinPullResistance.PULL_UP);
+
+        // decode the encoder and report its position while it turns
+        final GpioQuadratureEncoder encoder = gpio.createQuadratureEncoder(channelA, channelB);
+        encoder.addListener(event ->
+            System.out.println(" --> POSITION: " + event.getPosition() + " (" + (event.getDelta() > 0 ? "+" : "") + event.getDelta() + ")"));
+        encoder.setEventInterval(50, TimeUnit.MILLISECONDS);
+
+        System.out.println(" ... turn the encoder connected to GPIO #02 and #03 to see its position.");
+
+        // keep program running until user aborts (CTRL-C)
+        while(true) {
+            Thread.sleep(500);
+        }
+
+        // stop all GPIO activity/threads by shutting down the GPIO controller
+        // (this method will forcefully shutdown all GPIO monitoring threads and scheduled tasks)
+        // gpio.shutdown();   <--- implement this method call if you wish to terminate the Pi4J GPIO controller
+    }
+}
+//END SNIPPET: rotary-encoder-gpio-snippet
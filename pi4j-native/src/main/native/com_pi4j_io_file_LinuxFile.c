@@ -94,6 +94,24 @@ JNIEXPORT jlong JNICALL Java_com_pi4j_io_file_LinuxFile_mmap
     return (jlong)(uintptr_t)addr;
 }
 
+/*
+ * Class:     com_pi4j_io_file_LinuxFile
+ * Method:    mmapBuffer
+ * Signature: (IIIII)Ljava/nio/ByteBuffer;
+ *
+ * Maps a file region and wraps it in a direct ByteBuffer (NULL on error; see errno).
+ */
+JNIEXPORT jobject JNICALL Java_com_pi4j_io_file_LinuxFile_mmapBuffer
+  (JNIEnv *env, jclass obj, jint fd, jint length, jint prot, jint flags, jint offset)
+{
+    void *addr = mmap(NULL, length, prot, flags, fd, offset);
+
+    if(addr == MAP_FAILED)
+        return NULL;
+
+    return (*env)->NewDirectByteBuffer(env, addr, (jlong)length);
+}
+
 /*
  * Class:     com_pi4j_io_file_LinuxFile
  * Method:    munmapDirect
@@ -119,6 +137,50 @@ JNIEXPORT jint JNICALL Java_com_pi4j_io_file_LinuxFile_directIOCTLStructure
     return directIOCTLStructure(fd, command, dataBuffer, (size_t)dataOffset, offsetBuffer + offsetMapOffset, offsetCapacity);
 }
 
+/*
+ * Class:     com_pi4j_io_file_LinuxFile
+ * Method:    directIOCTLBuffers
+ * Signature: (IJLjava/nio/ByteBuffer;I[Ljava/nio/ByteBuffer;Ljava/nio/IntBuffer;II)I
+ *
+ * Runs an ioctl on a structure whose 64-bit pointer fields (e.g. spi_ioc_transfer.tx_buf)
+ * refer to other direct buffers.  The pointer map holds (pointer offset in data, buffer index,
+ * byte offset in buffer) triples; the bounds are validated by the caller.
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_io_file_LinuxFile_directIOCTLBuffers
+  (JNIEnv *env, jclass obj, jint fd, jlong command, jobject data, jint dataOffset, jobjectArray buffers, jobject pointerMap, jint pointerMapOffset, jint pointerCount)
+{
+    uint8_t *dataBuffer = (uint8_t *)((*env)->GetDirectBufferAddress(env, data));
+    uint32_t *map = (uint32_t *)((*env)->GetDirectBufferAddress(env, pointerMap));
+    jint i;
+
+    if(dataBuffer == NULL || map == NULL) {
+        errno = EFAULT;
+        return -1;
+    }
+    map += pointerMapOffset;
+
+    for(i = 0 ; i < pointerCount ; i++) {
+        uint32_t pointerOffset = map[i * 3];
+        jobject buffer = (*env)->GetObjectArrayElement(env, buffers, (jsize)map[i * 3 + 1]);
+        uint8_t *address = (buffer == NULL) ? NULL : (uint8_t *)((*env)->GetDirectBufferAddress(env, buffer));
+        uint64_t pointer;
+
+        if(buffer != NULL) {
+            (*env)->DeleteLocalRef(env, buffer);
+        }
+        if(address == NULL) {
+            errno = EFAULT;
+            return -1;
+        }
+
+        // pointer fields are __u64 regardless of the native word size
+        pointer = (uint64_t)(uintptr_t)(address + map[i * 3 + 2]);
+        memcpy(dataBuffer + pointerOffset, &pointer, sizeof(pointer));
+    }
+
+    return ioctl(fd, command, dataBuffer + dataOffset);
+}
+
 int directIOCTLStructure
   (int fd, unsigned long command, void *data, size_t headOffset, uint32_t *offsetMap, uint32_t offsetSize)
 {
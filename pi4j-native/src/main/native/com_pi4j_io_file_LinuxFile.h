@@ -66,6 +66,22 @@ JNIEXPORT jint JNICALL Java_com_pi4j_io_file_LinuxFile_directIOCTL
 JNIEXPORT jlong JNICALL Java_com_pi4j_io_file_LinuxFile_mmap
   (JNIEnv *env, jclass obj, jint fd, jint length, jint prot, jint flags, jint offset);
 
+/*
+ * Class:     com_pi4j_io_file_LinuxFile
+ * Method:    directIOCTLBuffers
+ * Signature: (IJLjava/nio/ByteBuffer;I[Ljava/nio/ByteBuffer;Ljava/nio/IntBuffer;II)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_io_file_LinuxFile_directIOCTLBuffers
+  (JNIEnv *env, jclass obj, jint fd, jlong command, jobject data, jint dataOffset, jobjectArray buffers, jobject pointerMap, jint pointerMapOffset, jint pointerCount);
+
+/*
+ * Class:     com_pi4j_io_file_LinuxFile
+ * Method:    mmapBuffer
+ * Signature: (IIIII)Ljava/nio/ByteBuffer;
+ */
+JNIEXPORT jobject JNICALL Java_com_pi4j_io_file_LinuxFile_mmapBuffer
+  (JNIEnv *env, jclass obj, jint fd, jint length, jint prot, jint flags, jint offset);
+
 /*
  * Class:     com_pi4j_io_file_LinuxFile
  * Method:    munmapDirect
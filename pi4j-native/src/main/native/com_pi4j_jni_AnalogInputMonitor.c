@@ -36,6 +36,8 @@
 #include <pthread.h>
 #include <termios.h>
 #include <unistd.h>
+#include <time.h>
+#include <errno.h>
 #include <sys/ioctl.h>
 #include <sys/types.h>
 #include <sys/stat.h>
@@ -44,6 +46,12 @@
 #include "com_pi4j_wiringpi_GpioUtil.h"
 #include "com_pi4j_jni_AnalogInputMonitor.h"
 
+// constants
+#define ANALOG_MAX_CHANNELS          64     // analog pins (including wiringPi node pins) sampled at once
+#define ANALOG_DEFAULT_POLLING_RATE  50     // milliseconds
+#define ANALOG_MIN_INTERVAL          100    // microseconds
+#define ANALOG_SAMPLES_OFFSET        64     // sample ring data offset (see AnalogSampleRing)
+
 /*
  * Analog input monitor JVM instance to perform callbacks on
  */
@@ -53,138 +61,356 @@ JavaVM *analog_input_monitor_callback_jvm;
 jclass analog_input_monitor_callback_class;
 jmethodID analog_input_monitor_callback_method;
 
-// monitoring thread data structure
-struct analog_input_monitor_data{
-   int  thread_id;
-   int  pin;
-   int  pollingRate;
-   double  changeThreshold;
-   double  lastKnownValue;
-   int  running;
+// sampled channel data structure
+struct analog_input_channel{
+   int      pin;
+   int      running;
+   int64_t  interval;         // sampling interval (nanoseconds)
+   int64_t  nextSample;       // monotonic time of the next sample (nanoseconds)
+   double   changeThreshold;  // deadband around the last reported value
+   double   lastKnownValue;   // last value reported to java
+   int64_t  *samples;         // sample ring write index (java direct buffer) or NULL
+   double   *sampleData;      // sample ring data
+   int64_t  sampleMask;       // sample ring capacity - 1
+};
+
+// value change record shared with java (see AnalogInputBatch)
+struct analog_input_change{
+   int32_t  pin;
+   int32_t  reserved;
+   double   value;
 };
 
-// monitoring thread data structure array
-struct analog_input_monitor_data analog_input_monitor_data_array[MAX_GPIO_PINS];
+// sampled channel array
+struct analog_input_channel analog_input_channels[ANALOG_MAX_CHANNELS];
+
+// value changes of the current sampling tick (wrapped by a direct buffer for java)
+struct analog_input_change analog_input_changes[ANALOG_MAX_CHANNELS];
 
-// monitoring threads array
-pthread_t analog_input_monitor_threads[MAX_GPIO_PINS];
+// guards the channel array and the sampler state; the condition wakes the sampler on changes
+pthread_mutex_t analog_input_lock = PTHREAD_MUTEX_INITIALIZER;
+pthread_cond_t analog_input_changed;
+
+// single sampler thread servicing all channels
+pthread_t analog_input_sampler_thread;
+volatile int analog_input_sampler_running = 0;
 
 
 /**
  * --------------------------------------------------------
- * GPIO ANALOG PIN MONITORING HANDLER
+ * MONOTONIC TIME
  * --------------------------------------------------------
- * This method is invoked in a new thread for each pin that
- * is being monitored.  This way multiple pins can be
- * monitored simultaneously and discretely.
+ * CLOCK_MONOTONIC is the same time source as Java's
+ * System.nanoTime().
  */
-int analog_input_monitor_pin(void *threadarg)
+int64_t analogMonotonicTime()
 {
-	// obtain the monitoring data structure from the thread argument
-	struct analog_input_monitor_data *monitorData;
-	monitorData = (struct analog_input_monitor_data *) threadarg;
-
-	// cache a local pin value variable
-	int pin = monitorData->pin;
+	struct timespec now;
+	clock_gettime(CLOCK_MONOTONIC, &now);
+	return ((int64_t)now.tv_sec * 1000000000LL) + now.tv_nsec;
+}
 
-	// debug
-	//printf("\nNATIVE (AnalogInputMonitor) MONITORING PIN %d\n", pin);
+/**
+ * --------------------------------------------------------
+ * SAMPLE ANALOG INPUT CHANNEL
+ * --------------------------------------------------------
+ * Read the channel, append the value to its sample ring and
+ * apply the change threshold.  Returns '1' when the change
+ * must be reported to java.
+ * Must be called while holding 'analog_input_lock'.
+ */
+int sampleAnalogChannel(struct analog_input_channel *channel, double *value)
+{
+	// read latest analog input value
+	double immediateValue = analogRead(channel->pin);
 
- 	// set the running state of the instance monitor data structure
-	monitorData->running = 1;
+	// publish the sample to the ring (the write index is released after the sample)
+	if(channel->samples != NULL)
+	{
+		int64_t write = __atomic_load_n(channel->samples, __ATOMIC_RELAXED);
+		channel->sampleData[write & channel->sampleMask] = immediateValue;
+		__atomic_store_n(channel->samples, write + 1, __ATOMIC_RELEASE);
+	}
 
-	// initialize last known value and cache the value as the last known value
-	monitorData->lastKnownValue = analogRead(pin);
+	// only changes beyond the deadband around the last reported value cross into java
+	if(fabs(immediateValue - channel->lastKnownValue) > channel->changeThreshold)
+	{
+		channel->lastKnownValue = immediateValue;
+		*value = immediateValue;
+		return 1;
+	}
+	return 0;
+}
 
-	// continuous thread loop
-	while(monitorData->running > 0)
+/**
+ * --------------------------------------------------------
+ * GPIO ANALOG INPUT SAMPLER
+ * --------------------------------------------------------
+ * This method is invoked in a single thread that samples
+ * all monitored channels.  The thread sleeps until the
+ * earliest channel is due, samples every channel that is
+ * due in that tick and reports all changes of the tick to
+ * java with a single callback.  The thread stays attached
+ * to the JVM for its lifetime.
+ */
+int analogInputSampler(void *threadarg)
+{
+	// get attached JVM
+	JNIEnv *env;
+	if ((*analog_input_monitor_callback_jvm)->AttachCurrentThread(analog_input_monitor_callback_jvm, (void **)&env, NULL) != JNI_OK)
 	{
-		// sleep
-		delay(monitorData->pollingRate); // milliseconds
+		perror("AttachCurrentThread()");
+		analog_input_sampler_running = 0;
+		return 5;
+	}
 
-		// read latest analog input value
-		double immediateValue = analogRead(pin);
+	// the change records are handed to java as one direct buffer for the lifetime of the thread
+	jobject changes = (*env)->NewDirectByteBuffer(env, analog_input_changes, sizeof(analog_input_changes));
+	if (changes != NULL)
+	{
+		jobject local = changes;
+		changes = (*env)->NewGlobalRef(env, local);
+		(*env)->DeleteLocalRef(env, local);
+	}
 
-        //printf("\nNATIVE (AnalogInputMonitor) ANALOG VALUE (PIN %d) = %f\n", pin, compareResult);
+	pthread_mutex_lock(&analog_input_lock);
+	while(analog_input_sampler_running)
+	{
+		// find the earliest channel that is due
+		int64_t nextSample = INT64_MAX;
+		int index;
+		for(index = 0; index < ANALOG_MAX_CHANNELS; index++)
+		{
+			if(analog_input_channels[index].running > 0 && analog_input_channels[index].nextSample < nextSample)
+			{
+				nextSample = analog_input_channels[index].nextSample;
+			}
+		}
 
-        // get absolute value of the difference between the last known analog value and the current analog value
-        double change = fabs(immediateValue - monitorData->lastKnownValue);
+		// wait until the channel is due or the channels change
+		int64_t now = analogMonotonicTime();
+		if(nextSample > now)
+		{
+			if(nextSample == INT64_MAX)
+			{
+				pthread_cond_wait(&analog_input_changed, &analog_input_lock);
+			}
+			else
+			{
+				struct timespec deadline;
+				deadline.tv_sec = nextSample / 1000000000LL;
+				deadline.tv_nsec = nextSample % 1000000000LL;
+				pthread_cond_timedwait(&analog_input_changed, &analog_input_lock, &deadline);
+			}
+			continue;
+		}
 
-		// check for change in analog value
-		if(change > monitorData->changeThreshold)
+		// sample all channels that are due in this tick
+		int changeCount = 0;
+		for(index = 0; index < ANALOG_MAX_CHANNELS; index++)
 		{
-			// cache new last known value in the instance data structure
-			monitorData->lastKnownValue = immediateValue;
+			struct analog_input_channel *channel = &analog_input_channels[index];
+			if(channel->running <= 0 || channel->nextSample > now)
+			{
+				continue;
+			}
 
-			// ensure the callback class and method are available
-			if (analog_input_monitor_callback_class != NULL && analog_input_monitor_callback_method != NULL)
+			double value;
+			if(sampleAnalogChannel(channel, &value))
 			{
-				// get attached JVM
-				JNIEnv *env;
-				(*analog_input_monitor_callback_jvm)->AttachCurrentThread(analog_input_monitor_callback_jvm, (void **)&env, NULL);
-
-				// ensure that the JVM exists
-				if(analog_input_monitor_callback_jvm != NULL)
-				{
-					// invoke the java callback method to notify event listeners
-					(*env)->CallStaticVoidMethod(env, analog_input_monitor_callback_class, analog_input_monitor_callback_method, (jint)pin, (jdouble)immediateValue);
-				}
-
-				// detach from thread
-				(*analog_input_monitor_callback_jvm)->DetachCurrentThread(analog_input_monitor_callback_jvm);
+				analog_input_changes[changeCount].pin = channel->pin;
+				analog_input_changes[changeCount].value = value;
+				changeCount++;
+			}
+
+			// keep a fixed sampling rate; skip the samples missed while the sampler was late
+			channel->nextSample += channel->interval;
+			if(channel->nextSample <= now)
+			{
+				channel->nextSample = now + channel->interval;
 			}
 		}
+		pthread_mutex_unlock(&analog_input_lock);
+
+		// report all changes of this tick with a single callback
+		if (changeCount > 0 && changes != NULL &&
+			analog_input_monitor_callback_class != NULL && analog_input_monitor_callback_method != NULL)
+		{
+			(*env)->CallStaticVoidMethod(env, analog_input_monitor_callback_class, analog_input_monitor_callback_method,
+					changes, (jint)changeCount, (jlong)now);
+			if ((*env)->ExceptionCheck(env))
+			{
+				(*env)->ExceptionDescribe(env);
+				(*env)->ExceptionClear(env);
+			}
+		}
+
+		pthread_mutex_lock(&analog_input_lock);
 	}
+	pthread_mutex_unlock(&analog_input_lock);
 
+	// release the change record buffer and detach from thread
+	if (changes != NULL)
+	{
+		(*env)->DeleteGlobalRef(env, changes);
+	}
+	if ((*analog_input_monitor_callback_jvm)->DetachCurrentThread(analog_input_monitor_callback_jvm) != JNI_OK)
+	{
+		perror("DetachCurrentThread()");
+		return 8;
+	}
 	return 0;
 }
 
+/**
+ * --------------------------------------------------------
+ * START THE GPIO ANALOG INPUT SAMPLER
+ * --------------------------------------------------------
+ * Lazily create the sampler thread.
+ * Must be called while holding 'analog_input_lock'.
+ */
+int startAnalogInputSampler()
+{
+	// nothing to do if the sampler is already running
+	if(analog_input_sampler_running > 0)
+	{
+		return 0;
+	}
+
+	// create the single sampler thread
+	analog_input_sampler_running = 1;
+	if(pthread_create(&analog_input_sampler_thread, NULL, (void*) analogInputSampler, NULL) != 0)
+	{
+		analog_input_sampler_running = 0;
+		perror("pthread_create()");
+		return -1;
+	}
+	return 1;
+}
+
+/**
+ * --------------------------------------------------------
+ * ENABLE ANALOG INPUT CHANNEL
+ * --------------------------------------------------------
+ * Add a pin to the sampler.  Returns '1' when the channel
+ * was added, '0' when the pin is already sampled or a
+ * negative error code.
+ */
+int enableAnalogChannel(int pin, int64_t interval, double changeThreshold, int64_t *samples, int64_t sampleMask)
+{
+	// ensure that the requested pin is valid
+	if(pin < 0)
+	{
+		return -1;
+	}
+
+	pthread_mutex_lock(&analog_input_lock);
+
+	// only add the channel if the pin is not already sampled
+	int index, freeIndex = -1;
+	for(index = 0; index < ANALOG_MAX_CHANNELS; index++)
+	{
+		if(analog_input_channels[index].running > 0)
+		{
+			if(analog_input_channels[index].pin == pin)
+			{
+				pthread_mutex_unlock(&analog_input_lock);
+				return 0;
+			}
+		}
+		else if(freeIndex < 0)
+		{
+			freeIndex = index;
+		}
+	}
+	if(freeIndex < 0)
+	{
+		pthread_mutex_unlock(&analog_input_lock);
+		return -2; // all channels in use
+	}
+
+	// ensure the sampler thread exists
+	if(startAnalogInputSampler() < 0)
+	{
+		pthread_mutex_unlock(&analog_input_lock);
+		return -3;
+	}
+
+	// configure the channel; the first sample reports the initial value only if it changes later
+	struct analog_input_channel *channel = &analog_input_channels[freeIndex];
+	channel->pin = pin;
+	channel->interval = interval;
+	channel->changeThreshold = changeThreshold;
+	channel->lastKnownValue = analogRead(pin);
+	channel->samples = samples;
+	channel->sampleData = (samples != NULL) ? (double *)((char *)samples + ANALOG_SAMPLES_OFFSET) : NULL;
+	channel->sampleMask = sampleMask;
+	channel->nextSample = analogMonotonicTime() + interval;
+	channel->running = 1;
+
+	// wake the sampler so the new channel is scheduled
+	pthread_cond_signal(&analog_input_changed);
+	pthread_mutex_unlock(&analog_input_lock);
+	return 1;
+}
+
 /*
  * --------------------------------------------------------
  * ENABLE ANALOG PIN MONITORING (for callback notifications)
  * --------------------------------------------------------
  * Class:     com_pi4j_jni_AnalogInputMonitor
  * Method:    enablePinValueChangeCallback
- * Signature: (I)IID
+ * Signature: (IID)I
  */
 JNIEXPORT jint JNICALL Java_com_pi4j_jni_AnalogInputMonitor_enablePinValueChangeCallback
   (JNIEnv *env, jclass class, jint pin, jint pollingRate, jdouble changeThreshold)
 {
-	// get the index position for the requested pin number
-	int index = pin;
+	// assign a polling rate for the channel (milliseconds)
+	if(pollingRate < 0) pollingRate = ANALOG_DEFAULT_POLLING_RATE; // bounds validation
+	int64_t interval = (int64_t)pollingRate * 1000;
+	if(interval < ANALOG_MIN_INTERVAL) interval = ANALOG_MIN_INTERVAL;
 
-	// ensure that the requested pin index is valid
-	if(index >= 0)
-	{
-		// only start this thread monitor if it has not already been started
-		if(analog_input_monitor_data_array[index].running <= 0)
-		{
-			// configure the monitor instance data
-			analog_input_monitor_data_array[index].thread_id = index;
-			analog_input_monitor_data_array[index].pin = pin;
+	// assign a change threshold for event notifications
+	if(changeThreshold < 0) changeThreshold = 0; // bounds validation
 
-			// assign a polling rate for the monitoring thread
-			if(pollingRate < 0) pollingRate = 50; // bounds validation
-			analog_input_monitor_data_array[index].pollingRate = pollingRate;
+	return enableAnalogChannel(pin, interval * 1000, changeThreshold, NULL, 0);
+}
 
-			// assign a change threshold for event notifications in the monitoring thread
-			if(changeThreshold < 0) changeThreshold = 0; // bounds validation
-			analog_input_monitor_data_array[index].changeThreshold = changeThreshold;
+/*
+ * --------------------------------------------------------
+ * ENABLE ANALOG PIN SAMPLING (into a sample ring)
+ * --------------------------------------------------------
+ * Class:     com_pi4j_jni_AnalogInputMonitor
+ * Method:    enablePinValueSampler
+ * Signature: (IIDLjava/nio/ByteBuffer;)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_AnalogInputMonitor_enablePinValueSampler
+  (JNIEnv *env, jclass class, jint pin, jint samplingInterval, jdouble changeThreshold, jobject samples)
+{
+	// assign a sampling interval for the channel (microseconds)
+	int64_t interval = samplingInterval;
+	if(interval < ANALOG_MIN_INTERVAL) interval = ANALOG_MIN_INTERVAL;
 
-			// create monitoring instance thread
-			pthread_create(&analog_input_monitor_threads[index], NULL, (void*) analog_input_monitor_pin, (void *) &analog_input_monitor_data_array[index]);
+	// assign a change threshold for event notifications
+	if(changeThreshold < 0) changeThreshold = 0; // bounds validation
 
-			// return '1' when a thread was actively created and started
-			return 1;
+	// the sample ring must be an aligned direct buffer holding a power of two number of samples
+	int64_t *block = NULL;
+	int64_t sampleMask = 0;
+	if(samples != NULL)
+	{
+		block = (int64_t *)(*env)->GetDirectBufferAddress(env, samples);
+		jlong capacity = (*env)->GetDirectBufferCapacity(env, samples) - ANALOG_SAMPLES_OFFSET;
+		int64_t count = capacity / (jlong)sizeof(double);
+		if(block == NULL || ((uintptr_t)block % sizeof(int64_t)) != 0 ||
+		   count < 2 || (count & (count - 1)) != 0 || capacity != count * (jlong)sizeof(double))
+		{
+			return -7;
 		}
-
-		// return '0' when no action was taken;
-		// (monitor already running)
-		return 0;
+		sampleMask = count - 1;
 	}
 
-	// return '-1' on error; not a valid pin
-	return -1;
+	return enableAnalogChannel(pin, interval * 1000, changeThreshold, block, sampleMask);
 }
 
 /*
@@ -198,25 +424,29 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_AnalogInputMonitor_enablePinValueChange
 JNIEXPORT jint JNICALL Java_com_pi4j_jni_AnalogInputMonitor_disablePinValueChangeCallback
   (JNIEnv *env, jclass class, jint pin)
 {
-	// get the index position for the requested pin number
-	int index = pin;
-
-	// ensure that the requested pin index is valid
-	if(index >= 0)
+	// ensure that the requested pin is valid
+	if(pin >= 0)
 	{
-		// kill the monitoring thread
-		if(analog_input_monitor_data_array[index].running > 0)
-		{
-			// cancel monitoring thread
-			pthread_cancel(analog_input_monitor_threads[index]);
+		pthread_mutex_lock(&analog_input_lock);
 
-            // reset running flag
-            analog_input_monitor_data_array[index].running = 0;
+		// remove the channel from the sampler
+		int index;
+		for(index = 0; index < ANALOG_MAX_CHANNELS; index++)
+		{
+			if(analog_input_channels[index].running > 0 && analog_input_channels[index].pin == pin)
+			{
+				analog_input_channels[index].running = 0;
+				analog_input_channels[index].samples = NULL;
+				analog_input_channels[index].sampleData = NULL;
+				pthread_mutex_unlock(&analog_input_lock);
 
-			// return '1' when a thread was actively killed
-			return 1;
+				// return '1' when a channel was actively removed
+				return 1;
+			}
 		}
 
+		pthread_mutex_unlock(&analog_input_lock);
+
 		// return '0' when no action was taken
 		// (monitor is not currently active/running)
 		return 0;
@@ -243,6 +473,13 @@ jint AnalogInputMonitor_JNI_OnLoad(JavaVM *jvm)
 	// cache the JavaVM pointer
 	analog_input_monitor_callback_jvm = jvm;
 
+	// the sampler waits for its deadlines on the monotonic clock
+	pthread_condattr_t condattr;
+	pthread_condattr_init(&condattr);
+	pthread_condattr_setclock(&condattr, CLOCK_MONOTONIC);
+	pthread_cond_init(&analog_input_changed, &condattr);
+	pthread_condattr_destroy(&condattr);
+
 	// ensure that the calling environment is a supported JNI version
     if ((*jvm)->GetEnv(jvm, (void **)&env, JNI_VERSION_1_2))
     {
@@ -269,12 +506,12 @@ jint AnalogInputMonitor_JNI_OnLoad(JavaVM *jvm)
         return JNI_ERR;
     }
 
-    // lookup and cache the static method ID for the 'pinValueChangeCallback' callback
-    analog_input_monitor_callback_method = (*env)->GetStaticMethodID(env, cls, "pinValueChangeCallback", "(ID)V");
+    // lookup and cache the static method ID for the 'pinValuesChangeCallback' callback
+    analog_input_monitor_callback_method = (*env)->GetStaticMethodID(env, cls, "pinValuesChangeCallback", "(Ljava/nio/ByteBuffer;IJ)V");
     if (analog_input_monitor_callback_method == NULL)
     {
     	// callback method could not be found in attached java class
-    	printf("NATIVE (AnalogInputMonitor) ERROR; Static method 'AnalogInputMonitor.pinValueChangeCallback()' could not be found.\n");
+    	printf("NATIVE (AnalogInputMonitor) ERROR; Static method 'AnalogInputMonitor.pinValuesChangeCallback()' could not be found.\n");
         return JNI_ERR;
     }
 
@@ -287,24 +524,24 @@ jint AnalogInputMonitor_JNI_OnLoad(JavaVM *jvm)
  * --------------------------------------------------------
  * JNI LIBRARY UNLOADED
  * --------------------------------------------------------
- * stop all monitoring threads and clean up references
+ * stop the sampler thread and clean up references
  */
 void AnalogInputMonitor_JNI_OnUnload(JavaVM *jvm)
 {
     //printf("\nNATIVE (AnalogInputMonitor) UNLOADING\n");
 
-	// kill all running monitor threads
+	// remove all channels and stop the sampler thread
+	pthread_mutex_lock(&analog_input_lock);
 	int index = 0;
-	for(index = 0; index < MAX_GPIO_PINS; index++)
+	for(index = 0; index < ANALOG_MAX_CHANNELS; index++)
 	{
-		if(analog_input_monitor_data_array[index].running > 0){
-            // kill monitoring thread
-            pthread_cancel(analog_input_monitor_threads[index]);
-
-            // reset running flag
-            analog_input_monitor_data_array[index].running = 0;
-		}
+		analog_input_channels[index].running = 0;
+		analog_input_channels[index].samples = NULL;
+		analog_input_channels[index].sampleData = NULL;
 	}
+	analog_input_sampler_running = 0;
+	pthread_cond_signal(&analog_input_changed);
+	pthread_mutex_unlock(&analog_input_lock);
 
 	// destroy cached java references
 	JNIEnv *env;
@@ -41,6 +41,14 @@ extern "C" {
 JNIEXPORT jint JNICALL Java_com_pi4j_jni_AnalogInputMonitor_enablePinValueChangeCallback
   (JNIEnv *, jclass, jint, jint, jdouble);
 
+/*
+ * Class:     com_pi4j_jni_AnalogInputMonitor
+ * Method:    enablePinValueSampler
+ * Signature: (IIDLjava/nio/ByteBuffer;)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_AnalogInputMonitor_enablePinValueSampler
+  (JNIEnv *, jclass, jint, jint, jdouble, jobject);
+
 /*
  * Class:     com_pi4j_jni_AnalogInputMonitor
  * Method:    disablePinValueChangeCallback
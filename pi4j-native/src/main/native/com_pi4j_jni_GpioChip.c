@@ -0,0 +1,286 @@
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: JNI Native Library
+ * FILENAME      :  com_pi4j_jni_GpioChip.c
+ * 
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+#include <stdio.h>
+#include <stdint.h>
+#include <stdlib.h>
+#include <fcntl.h>
+#include <string.h>
+#include <errno.h>
+#include <unistd.h>
+#include <jni.h>
+#include <sys/ioctl.h>
+#include <sys/types.h>
+#include <sys/stat.h>
+#include <sys/epoll.h>
+#include <linux/gpio.h>
+
+#include "com_pi4j_jni_GpioChip.h"
+
+// constants
+#define GPIOCHIP_MAX_READY       GPIO_V2_LINES_MAX
+#define GPIOCHIP_CONSUMER_LEN    GPIO_MAX_NAME_SIZE
+
+/**
+ * --------------------------------------------------------
+ * BUILD GPIO LINE CONFIGURATION
+ * --------------------------------------------------------
+ * Populate a v2 line configuration structure for a single
+ * line with the requested flags and optional debounce
+ * period and initial output value attributes.
+ */
+void buildLineConfig(struct gpio_v2_line_config *config, jlong flags, jint debounceMicros, jint initialValue)
+{
+    memset(config, 0x00, sizeof(struct gpio_v2_line_config));
+    config->flags = (uint64_t)flags;
+
+    // hardware/software debounce period applies to line 0 of the request
+    if(debounceMicros > 0)
+    {
+        config->attrs[config->num_attrs].mask = 1;
+        config->attrs[config->num_attrs].attr.id = GPIO_V2_LINE_ATTR_ID_DEBOUNCE;
+        config->attrs[config->num_attrs].attr.debounce_period_us = (uint32_t)debounceMicros;
+        config->num_attrs++;
+    }
+
+    // initial output value applies to line 0 of the request
+    if(initialValue >= 0 && (flags & GPIO_V2_LINE_FLAG_OUTPUT))
+    {
+        config->attrs[config->num_attrs].mask = 1;
+        config->attrs[config->num_attrs].attr.id = GPIO_V2_LINE_ATTR_ID_OUTPUT_VALUES;
+        config->attrs[config->num_attrs].attr.values = (initialValue > 0) ? 1 : 0;
+        config->num_attrs++;
+    }
+}
+
+/*
+ * Class:     com_pi4j_jni_GpioChip
+ * Method:    open
+ * Signature: (Ljava/lang/String;)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_GpioChip_open
+  (JNIEnv *env, jclass obj, jstring device)
+{
+    char fileName[256];
+    memset(fileName, 0x00, sizeof(fileName));
+    if((*env)->GetStringUTFLength(env, device) >= (jsize)sizeof(fileName))
+    {
+        return -ENAMETOOLONG;
+    }
+    (*env)->GetStringUTFRegion(env, device, 0, (*env)->GetStringLength(env, device), fileName);
+
+    int fd = open(fileName, O_RDWR | O_CLOEXEC);
+    return (fd < 0) ? -errno : fd;
+}
+
+/*
+ * Class:     com_pi4j_jni_GpioChip
+ * Method:    close
+ * Signature: (I)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_GpioChip_close
+  (JNIEnv *env, jclass obj, jint fd)
+{
+    return (close(fd) < 0) ? -errno : 0;
+}
+
+/*
+ * Class:     com_pi4j_jni_GpioChip
+ * Method:    requestLine
+ * Signature: (IIJIILjava/lang/String;)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_GpioChip_requestLine
+  (JNIEnv *env, jclass obj, jint chipFd, jint offset, jlong flags, jint debounceMicros, jint initialValue, jstring consumer)
+{
+    struct gpio_v2_line_request request;
+    memset(&request, 0x00, sizeof(request));
+
+    request.offsets[0] = (uint32_t)offset;
+    request.num_lines = 1;
+
+    // let the kernel choose the default event buffer size (16 events per line)
+    request.event_buffer_size = 0;
+
+    // copy the consumer label (truncated to the kernel limit)
+    if(consumer != NULL)
+    {
+        const char *label = (*env)->GetStringUTFChars(env, consumer, NULL);
+        if(label != NULL)
+        {
+            strncpy(request.consumer, label, GPIOCHIP_CONSUMER_LEN - 1);
+            (*env)->ReleaseStringUTFChars(env, consumer, label);
+        }
+    }
+
+    buildLineConfig(&request.config, flags, debounceMicros, initialValue);
+
+    // the kernel returns the line request file descriptor in the request structure
+    if(ioctl(chipFd, GPIO_V2_GET_LINE_IOCTL, &request) < 0)
+    {
+        return -errno;
+    }
+    return request.fd;
+}
+
+/*
+ * Class:     com_pi4j_jni_GpioChip
+ * Method:    setLineConfig
+ * Signature: (IJII)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_GpioChip_setLineConfig
+  (JNIEnv *env, jclass obj, jint lineFd, jlong flags, jint debounceMicros, jint initialValue)
+{
+    struct gpio_v2_line_config config;
+    buildLineConfig(&config, flags, debounceMicros, initialValue);
+    return (ioctl(lineFd, GPIO_V2_LINE_SET_CONFIG_IOCTL, &config) < 0) ? -errno : 0;
+}
+
+/*
+ * Class:     com_pi4j_jni_GpioChip
+ * Method:    getValue
+ * Signature: (I)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_GpioChip_getValue
+  (JNIEnv *env, jclass obj, jint lineFd)
+{
+    struct gpio_v2_line_values values;
+    values.bits = 0;
+    values.mask = 1;
+    if(ioctl(lineFd, GPIO_V2_LINE_GET_VALUES_IOCTL, &values) < 0)
+    {
+        return -errno;
+    }
+    return (values.bits & 1) ? 1 : 0;
+}
+
+/*
+ * Class:     com_pi4j_jni_GpioChip
+ * Method:    setValue
+ * Signature: (II)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_GpioChip_setValue
+  (JNIEnv *env, jclass obj, jint lineFd, jint value)
+{
+    struct gpio_v2_line_values values;
+    values.bits = (value > 0) ? 1 : 0;
+    values.mask = 1;
+    return (ioctl(lineFd, GPIO_V2_LINE_SET_VALUES_IOCTL, &values) < 0) ? -errno : 0;
+}
+
+/*
+ * Class:     com_pi4j_jni_GpioChip
+ * Method:    createEventSet
+ * Signature: ()I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_GpioChip_createEventSet
+  (JNIEnv *env, jclass obj)
+{
+    int epfd = epoll_create1(EPOLL_CLOEXEC);
+    return (epfd < 0) ? -errno : epfd;
+}
+
+/*
+ * Class:     com_pi4j_jni_GpioChip
+ * Method:    addEventSource
+ * Signature: (II)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_GpioChip_addEventSource
+  (JNIEnv *env, jclass obj, jint setFd, jint lineFd)
+{
+    struct epoll_event ev;
+    memset(&ev, 0x00, sizeof(ev));
+    ev.events = EPOLLIN;
+    ev.data.fd = lineFd;
+    if(epoll_ctl(setFd, EPOLL_CTL_ADD, lineFd, &ev) < 0 && errno != EEXIST)
+    {
+        return -errno;
+    }
+    return 0;
+}
+
+/*
+ * Class:     com_pi4j_jni_GpioChip
+ * Method:    removeEventSource
+ * Signature: (II)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_GpioChip_removeEventSource
+  (JNIEnv *env, jclass obj, jint setFd, jint lineFd)
+{
+    if(epoll_ctl(setFd, EPOLL_CTL_DEL, lineFd, NULL) < 0 && errno != ENOENT)
+    {
+        return -errno;
+    }
+    return 0;
+}
+
+/*
+ * --------------------------------------------------------
+ * READ GPIO LINE EVENTS
+ * --------------------------------------------------------
+ * Wait for edge events on any line in the event set and
+ * copy the raw 'gpio_v2_line_event' records into the
+ * supplied direct buffer.  Each ready line is drained
+ * with a single read() of as many records as fit into
+ * the remaining buffer space.
+ *
+ * Class:     com_pi4j_jni_GpioChip
+ * Method:    readEvents
+ * Signature: (ILjava/nio/ByteBuffer;I)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_GpioChip_readEvents
+  (JNIEnv *env, jclass obj, jint setFd, jobject buffer, jint timeout)
+{
+    uint8_t *data = (uint8_t *)((*env)->GetDirectBufferAddress(env, buffer));
+    jlong capacity = (*env)->GetDirectBufferCapacity(env, buffer);
+    if(data == NULL || capacity < (jlong)sizeof(struct gpio_v2_line_event))
+    {
+        return -EINVAL;
+    }
+
+    struct epoll_event ready[GPIOCHIP_MAX_READY];
+    int count = epoll_wait(setFd, ready, GPIOCHIP_MAX_READY, timeout);
+    if(count < 0)
+    {
+        return (errno == EINTR) ? 0 : -errno;
+    }
+
+    size_t recordSize = sizeof(struct gpio_v2_line_event);
+    size_t available = (size_t)capacity - ((size_t)capacity % recordSize);
+    size_t position = 0;
+    int i;
+    for(i = 0; i < count && position < available; i++)
+    {
+        ssize_t ret = read(ready[i].data.fd, data + position, available - position);
+        if(ret < 0)
+        {
+            if(errno == EAGAIN || errno == EINTR)
+                continue;
+            return -errno;
+        }
+        position += (size_t)ret - ((size_t)ret % recordSize);
+    }
+    return (jint)(position / recordSize);
+}
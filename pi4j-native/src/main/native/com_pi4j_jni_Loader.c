@@ -34,6 +34,7 @@
 #include "com_pi4j_jni_SerialInterrupt.h"
 #include "com_pi4j_wiringpi_GpioInterrupt.h"
 #include "com_pi4j_jni_AnalogInputMonitor.h"
+#include "com_pi4j_jni_SpiStream.h"
 
 /**
  * --------------------------------------------------------
@@ -105,5 +106,8 @@ JNIEXPORT void JNICALL JNI_OnUnload(JavaVM *jvm, void *reserved)
     // call the JNI_OnLoad method inside the AnalogInputMonitor class
     AnalogInputMonitor_JNI_OnUnload(jvm);
 
+    // stop all SPI stream threads
+    SpiStream_JNI_OnUnload(jvm);
+
 	return;
 }
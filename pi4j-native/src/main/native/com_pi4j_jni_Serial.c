@@ -382,10 +382,10 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_Serial_open
 
 /*
  * Class:     com_pi4j_jni_Serial
- * Method:    close
+ * Method:    nativeClose
  * Signature: (I)V
  */
-JNIEXPORT void JNICALL Java_com_pi4j_jni_Serial_close
+JNIEXPORT void JNICALL Java_com_pi4j_jni_Serial_nativeClose
   (JNIEnv *env, jclass obj, jint fd)
 {
     // close serial port
@@ -860,10 +860,10 @@ JNIEXPORT void JNICALL Java_com_pi4j_jni_Serial_writeBuffer
 
 /*
  * Class:     com_pi4j_jni_Serial
- * Method:    read
+ * Method:    nativeRead
  * Signature: (II)[B
  */
-JNIEXPORT jbyteArray JNICALL Java_com_pi4j_jni_Serial_read__II
+JNIEXPORT jbyteArray JNICALL Java_com_pi4j_jni_Serial_nativeRead__II
   (JNIEnv *env, jclass obj, jint fd, jint length)
 {
     // determine result data array length from the number of bytes available on the receive buffer
@@ -922,10 +922,10 @@ JNIEXPORT jbyteArray JNICALL Java_com_pi4j_jni_Serial_read__II
 
 /*
  * Class:     com_pi4j_jni_Serial
- * Method:    read
+ * Method:    nativeRead
  * Signature: (I)[B
  */
-JNIEXPORT jbyteArray JNICALL Java_com_pi4j_jni_Serial_read__I
+JNIEXPORT jbyteArray JNICALL Java_com_pi4j_jni_Serial_nativeRead__I
   (JNIEnv *env, jclass obj, jint fd)
 {
     // determine result data array length from the number of bytes available on the receive buffer
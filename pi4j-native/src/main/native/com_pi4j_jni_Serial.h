@@ -43,10 +43,10 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_Serial_open
 
 /*
  * Class:     com_pi4j_jni_Serial
- * Method:    close
+ * Method:    nativeClose
  * Signature: (I)V
  */
-JNIEXPORT void JNICALL Java_com_pi4j_jni_Serial_close
+JNIEXPORT void JNICALL Java_com_pi4j_jni_Serial_nativeClose
   (JNIEnv *, jclass, jint);
 
 /*
@@ -179,18 +179,18 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_Serial_available
 
 /*
  * Class:     com_pi4j_jni_Serial
- * Method:    read
+ * Method:    nativeRead
  * Signature: (I)[B
  */
-JNIEXPORT jbyteArray JNICALL Java_com_pi4j_jni_Serial_read__I
+JNIEXPORT jbyteArray JNICALL Java_com_pi4j_jni_Serial_nativeRead__I
   (JNIEnv *, jclass, jint);
 
 /*
  * Class:     com_pi4j_jni_Serial
- * Method:    read
+ * Method:    nativeRead
  * Signature: (II)[B
  */
-JNIEXPORT jbyteArray JNICALL Java_com_pi4j_jni_Serial_read__II
+JNIEXPORT jbyteArray JNICALL Java_com_pi4j_jni_Serial_nativeRead__II
   (JNIEnv *, jclass, jint, jint);
 
 /*
@@ -24,6 +24,7 @@
  * limitations under the License.
  * #L%
  */
+#define _GNU_SOURCE  // ppoll()
 #include <stdio.h>
 #include <stdint.h>
 #include <stdarg.h>
@@ -41,14 +42,24 @@
 #include <errno.h>
 #include <sys/epoll.h>
 #include <linux/serial.h>
+#include <time.h>
+#include "com_pi4j_jni_SerialInterrupt.h"
 
 // constants
 #define SERIAL_MAX_LISTENERS   32
 #define SERIAL_POLL_TIMEOUT    30000 // 30 seconds
+#define SERIAL_RX_BUFFER_SIZE  4096
+#define SERIAL_RING_FULL_WAIT  1000  // microseconds
+
+// shared receive ring layout (see com.pi4j.jni.SerialReceiveRing)
+#define SERIAL_RING_WRITE_INDEX_OFFSET  0
+#define SERIAL_RING_READ_INDEX_OFFSET   64
+#define SERIAL_RING_DATA_OFFSET         128
 
 // java callback variables
 jclass serial_callback_class;
 jmethodID serial_callback_method;
+jmethodID serial_available_callback_method;
 JavaVM *serial_callback_jvm;
 
 // monitoring thread data structure
@@ -56,23 +67,166 @@ struct serial_monitor_data{
    int  thread_id;
    int  fileDescriptor;
    int  running;
+   volatile int minimumLength;     // deliver once at least this many bytes are received (VMIN)
+   volatile int interByteTimeout;  // microseconds of line idle time that end a frame (VTIME)
+   jbyte * volatile ringBase;      // optional direct receive ring shared with java
+   volatile jlong ringCapacity;    // ring data capacity (power of two)
+   jobject ringRef;                // global reference keeping the ring buffer alive
+   jobject retiredRingRef;         // replaced ring the monitor thread may still be using
 };
 
+// guards the ring fields of all monitors (held only to snapshot or swap a ring)
+pthread_mutex_t serial_ring_mutex = PTHREAD_MUTEX_INITIALIZER;
+
 // monitoring thread data structure array
 struct serial_monitor_data serial_monitor_data_array[SERIAL_MAX_LISTENERS];
 
 // monitoring serial_monitor_threads array
 pthread_t serial_monitor_threads[SERIAL_MAX_LISTENERS];
 
-// determine result data array length from the number of bytes available on the receive buffer
-int getAvailableDataLength(int fd){
-    int length;
-    if (ioctl (fd, FIONREAD, &length) == -1){
+/**
+ * Read up to 'size' bytes of the data currently queued in the RX queue.
+ * The serial port is in blocking mode (VMIN=0, VTIME=100), so a read()
+ * on an empty queue would wait for the VTIME timeout; each read is
+ * therefore limited to the FIONREAD count and never blocks.
+ * Returns the number of bytes read, 0 if no data is queued or -1 on an error.
+ */
+int readQueuedData(int fileDescriptor, jbyte *buffer, int size)
+{
+    int queued;
+    if(ioctl(fileDescriptor, FIONREAD, &queued) == -1)
+    {
         return -1;
     }
+    if(queued <= 0)
+    {
+        return 0;
+    }
+    if(queued > size)
+    {
+        queued = size;
+    }
+
+    ssize_t count;
+    do
+    {
+        count = read(fileDescriptor, buffer, queued);
+    }
+    while(count < 0 && errno == EINTR);
+
+    if(count < 0)
+    {
+        return (errno == EAGAIN || errno == EWOULDBLOCK) ? 0 : -1;
+    }
+    return (int)count;
+}
+
+/**
+ * --------------------------------------------------------
+ * SERIAL PORT DATA RECEIVE FRAMING
+ * --------------------------------------------------------
+ * Read everything currently in the RX queue into the buffer
+ * (bulk read; one syscall per chunk rather than per byte).
+ * Returns the new buffer length or -1 on a read error.
+ */
+int readAvailableData(int fileDescriptor, jbyte *buffer, int length)
+{
+    while(length < SERIAL_RX_BUFFER_SIZE)
+    {
+        int count = readQueuedData(fileDescriptor, buffer + length, SERIAL_RX_BUFFER_SIZE - length);
+        if(count < 0)
+        {
+            return -1;
+        }
+        if(count == 0)
+        {
+            break; // no more data queued
+        }
+        length += count;
+    }
     return length;
 }
 
+/**
+ * --------------------------------------------------------
+ * SERIAL PORT DIRECT RECEIVE RING
+ * --------------------------------------------------------
+ * Free space (bytes) in the shared receive ring.
+ */
+jlong ringFree(jbyte *ringBase, jlong capacity)
+{
+    int64_t written = __atomic_load_n((int64_t *)(ringBase + SERIAL_RING_WRITE_INDEX_OFFSET), __ATOMIC_RELAXED);
+    int64_t consumed = __atomic_load_n((int64_t *)(ringBase + SERIAL_RING_READ_INDEX_OFFSET), __ATOMIC_ACQUIRE);
+    return capacity - (written - consumed);
+}
+
+/**
+ * Read everything currently in the RX queue (or as much as fits) straight
+ * into the shared receive ring.  The write index is published with release
+ * semantics after each read so the java consumer never sees unwritten bytes.
+ * Returns the number of bytes added or -1 on a read error.
+ */
+int readIntoRing(int fileDescriptor, jbyte *ringBase, jlong capacity)
+{
+    int64_t *writeIndex = (int64_t *)(ringBase + SERIAL_RING_WRITE_INDEX_OFFSET);
+    jbyte *data = ringBase + SERIAL_RING_DATA_OFFSET;
+    int64_t written = __atomic_load_n(writeIndex, __ATOMIC_RELAXED);
+    int total = 0;
+
+    while(1)
+    {
+        jlong space = ringFree(ringBase, capacity);
+        if(space <= 0)
+        {
+            break; // ring is full; leave the rest in the kernel queue
+        }
+
+        // read up to the end of the ring (the next read continues at the start)
+        int64_t offset = written & (capacity - 1);
+        int64_t span = capacity - offset;
+        if(span > space)
+        {
+            span = space;
+        }
+
+        int count = readQueuedData(fileDescriptor, data + offset, (int)span);
+        if(count < 0)
+        {
+            return -1;
+        }
+        if(count == 0)
+        {
+            break; // no more data queued
+        }
+        written += count;
+        total += count;
+        __atomic_store_n(writeIndex, written, __ATOMIC_RELEASE);
+    }
+    return total;
+}
+
+/**
+ * Wait up to the given number of microseconds for more receive data.
+ * Returns 1 if data is available, 0 on timeout and -1 on error.
+ */
+int waitForData(int fileDescriptor, int microseconds)
+{
+    struct pollfd pfd;
+    struct timespec timeout;
+
+    pfd.fd = fileDescriptor;
+    pfd.events = POLLIN;
+    timeout.tv_sec = microseconds / 1000000;
+    timeout.tv_nsec = (microseconds % 1000000) * 1000L;
+
+    int ret = ppoll(&pfd, 1, &timeout, NULL);
+    if(ret < 0)
+    {
+        return (errno == EINTR) ? 1 : -1;
+    }
+    return (ret > 0) ? 1 : 0;
+}
+
 /**
  * --------------------------------------------------------
  * SERIAL PORT DATA RECEIVE MONITORING HANDLER
@@ -80,6 +234,14 @@ int getAvailableDataLength(int fd){
  * This method is invoked in a new thread for each serial port
  * this is being monitored.  This way multiple ports can be
  * monitored simultaneously and discretely.
+ *
+ * The thread stays attached to the JVM for its whole life and
+ * reads received data in bulk into a reusable buffer.  Data is
+ * delivered as soon as it arrives unless framing is configured:
+ * with a minimum length the thread keeps collecting until that
+ * many bytes are buffered, and with an inter-byte timeout the
+ * frame ends once the line has been idle for that many
+ * microseconds (like the termios VMIN/VTIME settings).
  */
 int monitorSerialInterrupt(void *threadarg)
 {
@@ -95,6 +257,7 @@ int monitorSerialInterrupt(void *threadarg)
     // monitoring instance variables
     struct epoll_event ev;
     struct epoll_event events;
+    jbyte buffer[SERIAL_RX_BUFFER_SIZE];
 
     // create epoll
     int epfd = epoll_create(1); // argument must be greater than 0; but value is not used
@@ -111,11 +274,21 @@ int monitorSerialInterrupt(void *threadarg)
 
 		// return error; unable to get serial polling control options
 		perror("ERROR SERIAL EPOLL  CTL");
+		close(epfd);
+		monitor->running = 0;
 		return res;
     }
 
-	// set the running state of the instance monitor data structure
-	monitor->running = 1;
+    // attach this thread to the JVM once for the lifetime of the monitor
+    // (as a daemon so that an active monitor does not prevent JVM shutdown)
+    JNIEnv *env;
+    if((*serial_callback_jvm)->AttachCurrentThreadAsDaemon(serial_callback_jvm, (void **)&env, NULL) != JNI_OK)
+    {
+		perror("ERROR SERIAL ATTACH THREAD");
+		close(epfd);
+		monitor->running = 0;
+		return -1;
+    }
 
 	// continuous thread loop while running state is enabled
 	while(monitor->running)
@@ -129,14 +302,17 @@ int monitorSerialInterrupt(void *threadarg)
 		// need to restart
         if(ret < 0)
         {
+            if(errno == EINTR)
+            {
+                continue;
+            }
+
             perror("SERIAL EPOLL failed\n");
             //printf("SERIAL EPOLL failed\n");
-            close(epfd);
 
             // reset the running state of the instance monitor data structure
             monitor->running = 0;
-
-            return ret;
+            break;
         }
 
 		// if the return value is equal to '0' then
@@ -148,69 +324,190 @@ int monitorSerialInterrupt(void *threadarg)
         }
 
 		// if the return value is greater than '0' then
-		// data have been received on the serial port
-
-       // sleep a little before raising event notification (callback)
-       usleep (50000) ;	// 50mS
-
-       int length = getAvailableDataLength(fileDescriptor);
-
-       // only fire event if there is data length
-       if(length > 0){
-           //printf("SERIAL EPOLL - Bytes available: %d\n", length);
-
-           // create a new payload result byte array
-           jbyte result[length];
+		// data have been received on the serial port;
+		// it is read into the shared direct ring if one is registered
+		// (snapshot the ring once for this frame), else into the local buffer
+        pthread_mutex_lock(&serial_ring_mutex);
+        jlong ringCapacity = monitor->ringCapacity;
+        jbyte *ringBase = monitor->ringBase;
+        jobject retiredRing = monitor->retiredRingRef;
+        monitor->retiredRingRef = NULL;
+        pthread_mutex_unlock(&serial_ring_mutex);
+
+        // a ring replaced before this snapshot is no longer used by this thread
+        if(retiredRing != NULL)
+        {
+            (*env)->DeleteGlobalRef(env, retiredRing);
+        }
 
-           // copy the data bytes from the serial receive buffer into the payload result
-           int i;
-           for (i = 0; i < length; i++) {
+        int length = (ringBase != NULL)
+            ? readIntoRing(fileDescriptor, ringBase, ringCapacity)
+            : readAvailableData(fileDescriptor, buffer, 0);
 
-                // read a single byte from the RX buffer
-                uint8_t x ;
-                if (read (fileDescriptor, &x, 1) != 1){
-                    int err_number = errno;
-                    char err_message[100];
-                    sprintf(err_message, "Failed to read data from serial port. (Error #%d)", err_number);
-                    perror("SERIAL FAILED TO READ DATA\n");
-                    close(epfd);
-                    continue;
+        // collect the rest of the frame if framing is configured
+        while(length >= 0 && monitor->running)
+        {
+            if((ringBase != NULL) ? (ringFree(ringBase, ringCapacity) <= 0) : (length >= SERIAL_RX_BUFFER_SIZE))
+            {
+                break; // no room for more data; deliver what we have
+            }
+
+            int minimumLength = monitor->minimumLength;
+            int interByteTimeout = monitor->interByteTimeout;
+
+            if(length >= minimumLength && interByteTimeout <= 0)
+            {
+                break; // immediate delivery
+            }
+
+            // wait for the next byte; without a gap timeout, wait up to the poll timeout
+            int wait = waitForData(fileDescriptor, (interByteTimeout > 0) ? interByteTimeout : SERIAL_POLL_TIMEOUT * 1000);
+            if(wait < 0)
+            {
+                length = -1;
+            }
+            else if(wait == 0)
+            {
+                // the line has been idle for the inter-byte timeout
+                if(length >= minimumLength)
+                {
+                    break;
                 }
+            }
+            else if(ringBase != NULL)
+            {
+                int count = readIntoRing(fileDescriptor, ringBase, ringCapacity);
+                length = (count < 0) ? -1 : length + count;
+            }
+            else
+            {
+                length = readAvailableData(fileDescriptor, buffer, length);
+            }
+        }
 
-                // assign the single byte; cast to unsigned char
-                result[i] = (unsigned char)(((int)x) & 0xFF);
-           }
-
-           // ensure the callback class and method are available
-           if (serial_callback_class != NULL && serial_callback_method != NULL)
-           {
-                // get attached JVM
-                JNIEnv *env;
-                (*serial_callback_jvm)->AttachCurrentThread(serial_callback_jvm, (void **)&env, NULL);
+        if(length < 0)
+        {
+            perror("SERIAL FAILED TO READ DATA\n");
+            continue;
+        }
 
-                // create a java array object and copy the raw payload bytes
-                jbyteArray payload = (*env)->NewByteArray(env, length);
-                (*env)->SetByteArrayRegion(env, payload, 0, length, result);
+        // the java consumer has not yet released space in the ring; back off briefly
+        // instead of spinning on the (level triggered) receive readiness
+        if(length == 0 && ringBase != NULL)
+        {
+            usleep(SERIAL_RING_FULL_WAIT);
+            continue;
+        }
 
-                // ensure that the JVM exists
-                if(serial_callback_jvm != NULL)
+        // with a shared ring the data is already in place; only the frame length and the
+        // write index ending the frame are passed
+        if(length > 0 && ringBase != NULL)
+        {
+            if(serial_callback_class != NULL && serial_available_callback_method != NULL)
+            {
+                jlong end = (jlong)__atomic_load_n((int64_t *)(ringBase + SERIAL_RING_WRITE_INDEX_OFFSET), __ATOMIC_RELAXED);
+                (*env)->CallStaticVoidMethod(env, serial_callback_class, serial_available_callback_method, (jint)fileDescriptor, (jint)length, end);
+                if((*env)->ExceptionCheck(env))
                 {
-                    // invoke callback to java state method to notify event listeners
-                    (*env)->CallStaticVoidMethod(env, serial_callback_class, serial_callback_method, (jint)fileDescriptor, payload);
+                    (*env)->ExceptionDescribe(env);
+                    (*env)->ExceptionClear(env);
                 }
+            }
+        }
 
-                // detach from thread
-                (*serial_callback_jvm)->DetachCurrentThread(serial_callback_jvm);
-           }
-       }
+        // only fire event if there is data length
+        else if(length > 0 && serial_callback_class != NULL && serial_callback_method != NULL)
+        {
+            //printf("SERIAL EPOLL - Bytes received: %d\n", length);
+
+            // create a java array object and copy the raw payload bytes
+            jbyteArray payload = (*env)->NewByteArray(env, length);
+            (*env)->SetByteArrayRegion(env, payload, 0, length, buffer);
+
+            // invoke callback to java state method to notify event listeners
+            (*env)->CallStaticVoidMethod(env, serial_callback_class, serial_callback_method, (jint)fileDescriptor, payload);
+            if((*env)->ExceptionCheck(env))
+            {
+                (*env)->ExceptionDescribe(env);
+                (*env)->ExceptionClear(env);
+            }
+
+            // this thread never returns to java, so local references must be released explicitly
+            (*env)->DeleteLocalRef(env, payload);
+        }
     }
 
-	// close the epoll file descriptor and exit the monitoring thread
+	// release a replaced ring that was kept for this thread
+	pthread_mutex_lock(&serial_ring_mutex);
+	jobject retiredRing = monitor->retiredRingRef;
+	monitor->retiredRingRef = NULL;
+	pthread_mutex_unlock(&serial_ring_mutex);
+	if(retiredRing != NULL)
+	{
+	    (*env)->DeleteGlobalRef(env, retiredRing);
+	}
+
+	// detach from the JVM, close the epoll file descriptor and exit the monitoring thread
+	(*serial_callback_jvm)->DetachCurrentThread(serial_callback_jvm);
 	close(epfd);
 	return 0;
 }
 
 
+/**
+ * Replace the shared receive ring of a monitor (NULL to remove it).
+ * Returns 1 on success and -1 if the buffer is not a valid ring.
+ */
+int setReceiveRing(JNIEnv *env, struct serial_monitor_data *monitor, jobject buffer)
+{
+    jbyte *base = NULL;
+    jlong capacity = 0;
+
+    if(buffer != NULL)
+    {
+        base = (*env)->GetDirectBufferAddress(env, buffer);
+        capacity = (*env)->GetDirectBufferCapacity(env, buffer) - SERIAL_RING_DATA_OFFSET;
+
+        // the ring data capacity must be a power of two
+        if(base == NULL || capacity <= 0 || (capacity & (capacity - 1)) != 0)
+        {
+            return -1;
+        }
+    }
+
+    jobject ringRef = (buffer != NULL) ? (*env)->NewGlobalRef(env, buffer) : NULL;
+    jobject released = NULL;
+
+    // swap the rings under the ring mutex; the monitor thread may still be using its snapshot
+    // of the old ring for the current frame, so the old ring is only released by the monitor
+    // thread once it has taken a new snapshot
+    pthread_mutex_lock(&serial_ring_mutex);
+    if(monitor->ringRef != NULL)
+    {
+        if(monitor->retiredRingRef == NULL)
+        {
+            monitor->retiredRingRef = monitor->ringRef;
+        }
+        else
+        {
+            // the monitor thread has not taken a snapshot since the previous swap,
+            // so it has never seen the current ring
+            released = monitor->ringRef;
+        }
+    }
+    monitor->ringRef = ringRef;
+    monitor->ringCapacity = capacity;
+    monitor->ringBase = base;
+    pthread_mutex_unlock(&serial_ring_mutex);
+
+    if(released != NULL)
+    {
+        (*env)->DeleteGlobalRef(env, released);
+    }
+    return 1;
+}
+
+
 int findSerialMonitorIndex(int fileDescriptor)
 {
    int index;
@@ -267,6 +564,13 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_SerialInterrupt_enableSerialDataReceive
 			// configure the monitor instance data
 			serial_monitor_data_array[index].thread_id = index;
 			serial_monitor_data_array[index].fileDescriptor = fileDescriptor;
+			serial_monitor_data_array[index].minimumLength = 0;
+			serial_monitor_data_array[index].interByteTimeout = 0;
+			setReceiveRing(env, &serial_monitor_data_array[index], NULL);
+
+			// the monitor is running from now on; this prevents a second thread from being
+			// started for this port and lets the receive timing be configured right away
+			serial_monitor_data_array[index].running = 1;
 
 			// create monitoring instance thread
 			pthread_create(&serial_monitor_threads[index], NULL, (void*) monitorSerialInterrupt, (void *) &serial_monitor_data_array[index]);
@@ -325,6 +629,67 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_SerialInterrupt_disableSerialDataReceiv
 }
 
 
+/*
+ * --------------------------------------------------------
+ * CONFIGURE SERIAL DATA RECEIVE TIMING
+ * --------------------------------------------------------
+ *
+ * Class:     com_pi4j_jni_SerialInterrupt
+ * Method:    setReceiveTiming
+ * Signature: (III)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_SerialInterrupt_setReceiveTiming
+  (JNIEnv *env, jclass class, jint fileDescriptor, jint minimumLength, jint interByteTimeout)
+{
+	// get the index position for the requested file descriptor
+	int index = findSerialMonitorIndex(fileDescriptor);
+
+	// the port must be actively monitored
+	if(index >= 0 && serial_monitor_data_array[index].running > 0 &&
+	   serial_monitor_data_array[index].fileDescriptor == fileDescriptor)
+	{
+		// a minimum length beyond the receive buffer could never be satisfied
+		if(minimumLength > SERIAL_RX_BUFFER_SIZE)
+		{
+			minimumLength = SERIAL_RX_BUFFER_SIZE;
+		}
+		serial_monitor_data_array[index].minimumLength = (minimumLength > 0) ? minimumLength : 0;
+		serial_monitor_data_array[index].interByteTimeout = (interByteTimeout > 0) ? interByteTimeout : 0;
+		return 1;
+	}
+
+	// return '-1' on error; serial port is not being monitored
+	return -1;
+}
+
+
+/*
+ * --------------------------------------------------------
+ * REGISTER SERIAL DIRECT RECEIVE RING
+ * --------------------------------------------------------
+ *
+ * Class:     com_pi4j_jni_SerialInterrupt
+ * Method:    setReceiveBuffer
+ * Signature: (ILjava/nio/ByteBuffer;)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_SerialInterrupt_setReceiveBuffer
+  (JNIEnv *env, jclass class, jint fileDescriptor, jobject buffer)
+{
+	// get the index position for the requested file descriptor
+	int index = findSerialMonitorIndex(fileDescriptor);
+
+	// the port must be actively monitored
+	if(index >= 0 && serial_monitor_data_array[index].running > 0 &&
+	   serial_monitor_data_array[index].fileDescriptor == fileDescriptor)
+	{
+		return setReceiveRing(env, &serial_monitor_data_array[index], buffer);
+	}
+
+	// return '-1' on error; serial port is not being monitored
+	return -1;
+}
+
+
 /**
  * --------------------------------------------------------
  * JNI LIBRARY LOADED
@@ -376,6 +741,15 @@ jint SerialInterrupt_JNI_OnLoad(JavaVM *jvm)
         return JNI_ERR;
     }
 
+    // lookup and cache the static method ID for the 'onDataAvailableCallback' callback
+    serial_available_callback_method = (*env)->GetStaticMethodID(env, cls, "onDataAvailableCallback", "(IIJ)V");
+    if (serial_available_callback_method == NULL)
+    {
+    	// callback method could not be found in attached java class
+    	printf("NATIVE (SerialInterrupt) ERROR; Static method 'SerialInterrupt.onDataAvailableCallback()' could not be found.\n");
+        return JNI_ERR;
+    }
+
 	// return JNI version; success
 	return JNI_VERSION_1_2;
 }
@@ -50,6 +50,23 @@ JNIEXPORT jint JNICALL Java_com_pi4j_jni_SerialInterrupt_disableSerialDataReceiv
   (JNIEnv *, jclass, jint);
 
 
+/*
+ * Class:     com_pi4j_jni_SerialInterrupt
+ * Method:    setReceiveTiming
+ * Signature: (III)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_SerialInterrupt_setReceiveTiming
+  (JNIEnv *, jclass, jint, jint, jint);
+
+/*
+ * Class:     com_pi4j_jni_SerialInterrupt
+ * Method:    setReceiveBuffer
+ * Signature: (ILjava/nio/ByteBuffer;)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_SerialInterrupt_setReceiveBuffer
+  (JNIEnv *, jclass, jint, jobject);
+
+
 /*
  * Class:     com_pi4j_jni_SerialInterrupt
  * Method:    SerialInterrupt_JNI_OnLoad
@@ -0,0 +1,353 @@
+/*
+ * #%L
+ * **********************************************************************
+ * ORGANIZATION  :  Pi4J
+ * PROJECT       :  Pi4J :: JNI Native Library
+ * FILENAME      :  com_pi4j_jni_SpiStream.c
+ * 
+ * This file is part of the Pi4J project. More information about
+ * this project can be found here:  https://pi4j.com/
+ * **********************************************************************
+ * %%
+ * Copyright (C) 2012 - 2021 Pi4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+#include <stdio.h>
+#include <stdint.h>
+#include <stdlib.h>
+#include <jni.h>
+#include <string.h>
+#include <pthread.h>
+#include <sched.h>
+#include <unistd.h>
+#include <errno.h>
+#include <sys/ioctl.h>
+#include <linux/spi/spidev.h>
+#include "com_pi4j_io_file_LinuxFile.h"
+#include "com_pi4j_jni_SpiStream.h"
+
+// constants
+#define SPI_STREAM_MAX_STREAMS        8
+#define SPI_STREAM_MAX_ERRORS         100    // consecutive transfer errors before the stream stops
+
+// sample ring layout (see SpiSampleRing)
+#define SPI_STREAM_WRITE_INDEX_OFFSET 0      // int64 samples produced
+#define SPI_STREAM_BLOCKS_OFFSET      8      // int64 transfer blocks completed
+#define SPI_STREAM_ERRORS_OFFSET      16     // int64 failed transfer blocks
+#define SPI_STREAM_ERRNO_OFFSET       24     // int32 errno of the last failed transfer
+#define SPI_STREAM_RUNNING_OFFSET     28     // int32 '1' while the stream thread runs
+#define SPI_STREAM_DATA_OFFSET        64     // int32 sample data
+
+// decoded sample field (see SpiSampleStream)
+struct spi_stream_field{
+   int32_t  offset;           // offset of the first (most significant) byte in the rx block
+   int32_t  bytes;            // number of big endian bytes (1 - 4)
+   int32_t  shift;            // right shift of the raw value
+   int32_t  format;           // bits (0 - 7) and signed flag (bit 8)
+};
+
+// streaming acquisition state
+struct spi_stream{
+   int      used;
+   volatile int running;
+   int      fd;
+   int      priority;
+   pthread_t thread;
+   struct spi_ioc_transfer *transfers;  // precompiled transfer list (private copy)
+   int      transferCount;
+   uint8_t  *rx;                        // rx block (java direct buffer)
+   struct spi_stream_field *fields;     // decoded fields of one block (private copy)
+   int      fieldCount;
+   uint8_t  *ring;                      // sample ring (java direct buffer)
+   int64_t  mask;                       // sample ring capacity - 1
+};
+
+struct spi_stream spi_streams[SPI_STREAM_MAX_STREAMS];
+
+// guards the stream table
+pthread_mutex_t spi_stream_lock = PTHREAD_MUTEX_INITIALIZER;
+
+
+/**
+ * --------------------------------------------------------
+ * DECODE SAMPLE FIELD
+ * --------------------------------------------------------
+ * Extract a big endian bit field from the rx block.
+ */
+static inline int32_t spiStreamDecode(const uint8_t *rx, const struct spi_stream_field *field)
+{
+	uint32_t raw = 0;
+	int index;
+	for(index = 0; index < field->bytes; index++)
+	{
+		raw = (raw << 8) | rx[field->offset + index];
+	}
+	raw >>= field->shift;
+
+	int bits = field->format & 0xFF;
+	if(bits < 32)
+	{
+		uint32_t mask = (1u << bits) - 1;
+		raw &= mask;
+		// sign extend
+		if((field->format & 0x100) && (raw & (1u << (bits - 1))))
+		{
+			raw |= ~mask;
+		}
+	}
+	return (int32_t)raw;
+}
+
+/**
+ * --------------------------------------------------------
+ * SPI STREAM THREAD
+ * --------------------------------------------------------
+ * Issue the precompiled transfer list back to back and
+ * decode every block into the sample ring.  The write
+ * index is published once per block.
+ */
+void *spiStreamThread(void *argument)
+{
+	struct spi_stream *stream = (struct spi_stream *)argument;
+	int64_t *writeIndex = (int64_t *)(stream->ring + SPI_STREAM_WRITE_INDEX_OFFSET);
+	int64_t *blocks = (int64_t *)(stream->ring + SPI_STREAM_BLOCKS_OFFSET);
+	int64_t *errors = (int64_t *)(stream->ring + SPI_STREAM_ERRORS_OFFSET);
+	int32_t *error = (int32_t *)(stream->ring + SPI_STREAM_ERRNO_OFFSET);
+	int32_t *running = (int32_t *)(stream->ring + SPI_STREAM_RUNNING_OFFSET);
+	int32_t *samples = (int32_t *)(stream->ring + SPI_STREAM_DATA_OFFSET);
+
+	// run at a real-time priority if requested (and permitted)
+	if(stream->priority > 0)
+	{
+		struct sched_param param;
+		memset(&param, 0, sizeof(param));
+		param.sched_priority = stream->priority;
+		if(pthread_setschedparam(pthread_self(), SCHED_FIFO, &param) != 0)
+		{
+			perror("pthread_setschedparam()");
+		}
+	}
+
+	int failures = 0;
+	int64_t write = __atomic_load_n(writeIndex, __ATOMIC_RELAXED);
+	while(stream->running)
+	{
+		if(ioctl(stream->fd, SPI_IOC_MESSAGE(stream->transferCount), stream->transfers) < 0)
+		{
+			int code = errno;
+			__atomic_store_n(error, code, __ATOMIC_RELAXED);
+			__atomic_store_n(errors, __atomic_load_n(errors, __ATOMIC_RELAXED) + 1, __ATOMIC_RELEASE);
+			if(code == EINTR)
+			{
+				continue;
+			}
+			// the device is gone or the transfer list is not accepted; give up after repeated errors
+			if(code == EBADF || code == ENODEV || code == EINVAL || code == EMSGSIZE || ++failures >= SPI_STREAM_MAX_ERRORS)
+			{
+				break;
+			}
+			continue;
+		}
+		failures = 0;
+
+		// decode the block and publish it
+		int index;
+		for(index = 0; index < stream->fieldCount; index++)
+		{
+			samples[(write + index) & stream->mask] = spiStreamDecode(stream->rx, &stream->fields[index]);
+		}
+		write += stream->fieldCount;
+		__atomic_store_n(writeIndex, write, __ATOMIC_RELEASE);
+		__atomic_store_n(blocks, __atomic_load_n(blocks, __ATOMIC_RELAXED) + 1, __ATOMIC_RELEASE);
+	}
+
+	__atomic_store_n(running, 0, __ATOMIC_RELEASE);
+	return NULL;
+}
+
+/**
+ * --------------------------------------------------------
+ * RELEASE STREAM
+ * --------------------------------------------------------
+ * Free the private copies of a stream slot.
+ * Must be called while holding 'spi_stream_lock'.
+ */
+void spiStreamRelease(struct spi_stream *stream)
+{
+	free(stream->transfers);
+	free(stream->fields);
+	memset(stream, 0, sizeof(struct spi_stream));
+}
+
+/*
+ * Class:     com_pi4j_jni_SpiStream
+ * Method:    start
+ * Signature: (Ljava/io/FileDescriptor;Ljava/nio/ByteBuffer;I[Ljava/nio/ByteBuffer;Ljava/nio/IntBuffer;ILjava/nio/ByteBuffer;Ljava/nio/IntBuffer;ILjava/nio/ByteBuffer;I)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_SpiStream_start
+  (JNIEnv *env, jclass class, jobject fileDescriptor, jobject transfers, jint transferCount, jobjectArray buffers,
+   jobject pointers, jint pointerCount, jobject rx, jobject fields, jint fieldCount, jobject ring, jint priority)
+{
+	int fd = Java_com_pi4j_io_file_LinuxFile_getPosixFD(env, class, fileDescriptor);
+	if(fd < 0)
+	{
+		return -EBADF;
+	}
+
+	uint8_t *transferData = (*env)->GetDirectBufferAddress(env, transfers);
+	int32_t *pointerData = (*env)->GetDirectBufferAddress(env, pointers);
+	uint8_t *rxData = (*env)->GetDirectBufferAddress(env, rx);
+	int32_t *fieldData = (*env)->GetDirectBufferAddress(env, fields);
+	uint8_t *ringData = (*env)->GetDirectBufferAddress(env, ring);
+	jlong ringSize = (*env)->GetDirectBufferCapacity(env, ring);
+	if(transferData == NULL || pointerData == NULL || rxData == NULL || fieldData == NULL || ringData == NULL)
+	{
+		return -EINVAL;
+	}
+	if(transferCount <= 0 || transferCount > 511 || fieldCount <= 0 || ringSize <= SPI_STREAM_DATA_OFFSET)
+	{
+		return -EINVAL;
+	}
+	int64_t capacity = (ringSize - SPI_STREAM_DATA_OFFSET) / sizeof(int32_t);
+	if((capacity & (capacity - 1)) != 0)
+	{
+		return -EINVAL;
+	}
+
+	pthread_mutex_lock(&spi_stream_lock);
+
+	// find a free stream slot
+	int id;
+	for(id = 0; id < SPI_STREAM_MAX_STREAMS; id++)
+	{
+		if(!spi_streams[id].used)
+		{
+			break;
+		}
+	}
+	if(id == SPI_STREAM_MAX_STREAMS)
+	{
+		pthread_mutex_unlock(&spi_stream_lock);
+		return -EBUSY;
+	}
+	struct spi_stream *stream = &spi_streams[id];
+	stream->used = 1;
+	stream->fd = fd;
+	stream->priority = priority;
+	stream->rx = rxData;
+	stream->ring = ringData;
+	stream->mask = capacity - 1;
+	stream->transferCount = transferCount;
+	stream->fieldCount = fieldCount;
+	stream->transfers = malloc(transferCount * sizeof(struct spi_ioc_transfer));
+	stream->fields = malloc(fieldCount * sizeof(struct spi_stream_field));
+	if(stream->transfers == NULL || stream->fields == NULL)
+	{
+		spiStreamRelease(stream);
+		pthread_mutex_unlock(&spi_stream_lock);
+		return -ENOMEM;
+	}
+	memcpy(stream->transfers, transferData, transferCount * sizeof(struct spi_ioc_transfer));
+	memcpy(stream->fields, fieldData, fieldCount * sizeof(struct spi_stream_field));
+
+	// resolve the tx_buf / rx_buf pointers of the transfer list once
+	jsize bufferCount = (*env)->GetArrayLength(env, buffers);
+	int index;
+	for(index = 0; index < pointerCount; index++)
+	{
+		int32_t pointerOffset = pointerData[index * 3];
+		int32_t bufferIndex = pointerData[index * 3 + 1];
+		int32_t byteOffset = pointerData[index * 3 + 2];
+		uint8_t *address = NULL;
+		if(bufferIndex >= 0 && bufferIndex < bufferCount &&
+		   pointerOffset >= 0 && pointerOffset + 8 <= transferCount * (int)sizeof(struct spi_ioc_transfer))
+		{
+			jobject buffer = (*env)->GetObjectArrayElement(env, buffers, bufferIndex);
+			address = (buffer != NULL) ? (*env)->GetDirectBufferAddress(env, buffer) : NULL;
+			if(buffer != NULL)
+			{
+				(*env)->DeleteLocalRef(env, buffer);
+			}
+		}
+		if(address == NULL)
+		{
+			spiStreamRelease(stream);
+			pthread_mutex_unlock(&spi_stream_lock);
+			return -EINVAL;
+		}
+		uint64_t pointer = (uint64_t)(uintptr_t)(address + byteOffset);
+		memcpy(((uint8_t *)stream->transfers) + pointerOffset, &pointer, sizeof(pointer));
+	}
+
+	// start the stream thread
+	__atomic_store_n((int32_t *)(ringData + SPI_STREAM_RUNNING_OFFSET), 1, __ATOMIC_RELEASE);
+	stream->running = 1;
+	if(pthread_create(&stream->thread, NULL, spiStreamThread, stream) != 0)
+	{
+		perror("pthread_create()");
+		__atomic_store_n((int32_t *)(ringData + SPI_STREAM_RUNNING_OFFSET), 0, __ATOMIC_RELEASE);
+		spiStreamRelease(stream);
+		pthread_mutex_unlock(&spi_stream_lock);
+		return -EAGAIN;
+	}
+
+	pthread_mutex_unlock(&spi_stream_lock);
+	return id;
+}
+
+/*
+ * Class:     com_pi4j_jni_SpiStream
+ * Method:    stop
+ * Signature: (I)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_jni_SpiStream_stop
+  (JNIEnv *env, jclass class, jint id)
+{
+	if(id < 0 || id >= SPI_STREAM_MAX_STREAMS)
+	{
+		return -EINVAL;
+	}
+
+	pthread_mutex_lock(&spi_stream_lock);
+	struct spi_stream *stream = &spi_streams[id];
+	if(!stream->used)
+	{
+		// return '0' when the stream is not running
+		pthread_mutex_unlock(&spi_stream_lock);
+		return 0;
+	}
+
+	// the thread stops after the current block
+	stream->running = 0;
+	pthread_join(stream->thread, NULL);
+	spiStreamRelease(stream);
+	pthread_mutex_unlock(&spi_stream_lock);
+	return 1;
+}
+
+/**
+ * --------------------------------------------------------
+ * JNI LIBRARY UNLOADED
+ * --------------------------------------------------------
+ * stop all stream threads
+ */
+void SpiStream_JNI_OnUnload(JavaVM *jvm)
+{
+	int id;
+	for(id = 0; id < SPI_STREAM_MAX_STREAMS; id++)
+	{
+		Java_com_pi4j_jni_SpiStream_stop(NULL, NULL, id);
+	}
+}
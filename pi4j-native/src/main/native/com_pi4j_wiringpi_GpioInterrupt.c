@@ -35,9 +35,13 @@
 #include <pthread.h>
 #include <termios.h>
 #include <unistd.h>
+#include <errno.h>
+#include <time.h>
 #include <sys/ioctl.h>
 #include <sys/types.h>
 #include <sys/stat.h>
+#include <sys/epoll.h>
+#include <sys/eventfd.h>
 #include "com_pi4j_wiringpi_GpioPin.h"
 #include "com_pi4j_wiringpi_GpioInterrupt.h"
 #include "com_pi4j_wiringpi_GpioUtil.h"
@@ -45,6 +49,32 @@
 // constants
 #define GPIO_POLL_TIMEOUT    30000 // 30 seconds
 #define GPIO_RDBUF_LEN       5
+#define GPIO_REACTOR_WAKEUP  -1    // epoll data marker for the reactor wakeup descriptor
+
+// edge counter block layout (64-bit slots; see GpioEdgeCounterProvider)
+#define GPIO_COUNTER_SEQUENCE   0
+#define GPIO_COUNTER_COUNT      1
+#define GPIO_COUNTER_FIRST_EDGE 2
+#define GPIO_COUNTER_LAST_EDGE  3
+#define GPIO_COUNTER_PERIOD     4
+#define GPIO_COUNTER_SLOTS      5
+
+// quadrature encoder block layout (64-bit slots; see GpioQuadratureEncoderProvider)
+#define GPIO_ENCODER_POSITION   0
+#define GPIO_ENCODER_ERRORS     1
+#define GPIO_ENCODER_LAST_EDGE  2
+#define GPIO_ENCODER_SLOTS      3
+
+// quadrature transition table indexed by (previous AB << 2) | current AB;
+// A leading B counts up, B leading A counts down and a change of both
+// channels at once (a missed edge) is flagged with GPIO_ENCODER_INVALID
+#define GPIO_ENCODER_INVALID    2
+static const int gpio_encoder_transitions[16] = {
+	 0, -1,  1,  2,
+	 1,  0,  2, -1,
+	-1,  2,  0,  1,
+	 2,  1, -1,  0
+};
 
 
 // java callback variables
@@ -52,180 +82,509 @@ jclass gpio_callback_class;
 jmethodID gpio_callback_method;
 JavaVM *gpio_callback_jvm;
 
-// monitoring thread data structure
+// pin monitor data structure
 struct gpio_monitor_data{
-   int  thread_id;
    int  pin;
    int  edgePin;
+   int  fd;
    int  lastKnownState;
-   int  running;
+   int  running;         // value file registered with the reactor
+   int  callbacks;       // state changes are reported to java
+   jlong sampledAt;      // reactor wakeup in which the value file was last read
+   int  counterEdge;     // edges counted into the counter block (EDGE_NONE when not counting)
+   int64_t *counters;    // edge counter block (java direct buffer)
+   jobject  countersRef; // global reference keeping the edge counter buffer alive
+   int64_t *encoder;     // quadrature encoder block shared with the peer pin (java direct buffer)
+   jobject  encoderRef;  // global reference keeping the encoder buffer alive (shared with the peer pin)
+   int  encoderPeer;     // pin index of the other encoder channel
+   int  encoderChannel;  // encoder channel of this pin (0 = A, 1 = B)
+};
+
+// pending state change callback collected while holding the monitor lock
+struct gpio_state_change{
+   int  pin;
+   int  state;
 };
 
-// monitoring thread data structure array
+// pin monitor data structure array
 struct gpio_monitor_data gpio_monitor_data_array[MAX_GPIO_PINS];
 
-// monitoring threads array
-pthread_t gpio_monitor_threads[MAX_GPIO_PINS];
+// guards the pin monitor data structure array and the reactor state
+pthread_mutex_t gpio_monitor_lock = PTHREAD_MUTEX_INITIALIZER;
+
+// single reactor thread servicing all monitored pins
+pthread_t gpio_reactor_thread;
+int gpio_reactor_epfd = -1;
+int gpio_reactor_wakefd = -1;
+volatile int gpio_reactor_running = 0;
 
 
 /**
  * --------------------------------------------------------
- * GPIO PIN MONITORING HANDLER
+ * READ GPIO PIN VALUE FILE
  * --------------------------------------------------------
- * This method is invoked in a new thread for each pin that
- * is being monitored.  This way multiple pins can be
- * monitored simultaneously and discretely.
+ * Rewind and read the sysfs value file; reading the file
+ * also acknowledges the pending edge notification.
+ * Returns '0' for HIGH, non-zero for LOW or a negative
+ * number on a read error.
  */
-int monitorPinInterrupt(void *threadarg)
+int readPinValue(int fd)
 {
-	// obtain the monitoring data structure from the thread argument
-	struct gpio_monitor_data *monitorData;
-	monitorData = (struct gpio_monitor_data *) threadarg;
-
-	// cache a local pin value variable
-	int pin = monitorData->pin;
-	int edgePin = monitorData->edgePin;
-
-	//printf("\nNATIVE (GpioInterrupt) MONITORING PIN %d @ EDGE %d\n", pin, edgePin);
-
-    // monitoring instance variables
-	char fn[GPIO_FN_MAXLEN];
-	int fd,ret;
-	struct pollfd pfd;
 	char rdbuf[GPIO_RDBUF_LEN];
-
-	// allocate memory
 	memset(rdbuf, 0x00, GPIO_RDBUF_LEN);
-	memset(fn, 0x00, GPIO_FN_MAXLEN);
 
-	// attempt to access the pin state from the linux sysfs
-	// (each GPIO pin value is stored in file: '/sys/class/gpio/gpio#/value' )
-	getGpioPinValueFile(fn, edgePin);
-	fd=open(fn, O_RDONLY);
-	if(fd<0)
+	// seek to the fist position in the data file
+	lseek(fd, 0, SEEK_SET);
+
+	// read the data from the file into the data buffer
+	if(read(fd, rdbuf, GPIO_RDBUF_LEN-1) < 0)
 	{
-		// return error; unable to get file descriptor
-		// (this is likely because the pin has not been exported)
-		perror(fn);
-		return 2;
+		return -1;
 	}
 
-	// set polling config structure
-	pfd.fd=fd;
-	pfd.events=POLLPRI; // High priority data may be read.
+	// only compare the first character; rdbuff may have more junk chars
+	return (strncmp(rdbuf, "1", 1) == 0) ? 0 : 1;
+}
 
-	// attempt to read the pin state from the linux sysfs
-	ret=read(fd, rdbuf, GPIO_RDBUF_LEN-1);
-	if(ret<0)
+/**
+ * --------------------------------------------------------
+ * COUNT GPIO PIN EDGES
+ * --------------------------------------------------------
+ * Add the rising and falling edges observed in one wakeup
+ * to the edge counter block of a pin (only the configured
+ * edges are counted; the period is averaged over them).
+ * The block is written under a sequence lock (odd while an
+ * update is in progress) so Java can read a consistent
+ * snapshot without locking; every slot is stored atomically
+ * (also on 32-bit).
+ * Must be called while holding 'gpio_monitor_lock'.
+ */
+void countPinEdges(struct gpio_monitor_data *monitorData, int rising, int falling, jlong timestamp)
+{
+	int edges;
+	switch(monitorData->counterEdge)
 	{
-		// return error; unable to read the data file
-		// (this is likely because the user has insufficient permissions)
-		perror("read()");
-		return 4;
+		case com_pi4j_wiringpi_GpioUtil_EDGE_BOTH:    edges = rising + falling; break;
+		case com_pi4j_wiringpi_GpioUtil_EDGE_RISING:  edges = rising; break;
+		case com_pi4j_wiringpi_GpioUtil_EDGE_FALLING: edges = falling; break;
+		default:                                      edges = 0; break;
+	}
+	if(edges <= 0)
+	{
+		return;
 	}
 
-	//printf("value is: %s\n", rdbuf);
+	int64_t *counters = monitorData->counters;
+	int64_t sequence = __atomic_load_n(&counters[GPIO_COUNTER_SEQUENCE], __ATOMIC_RELAXED);
+	__atomic_store_n(&counters[GPIO_COUNTER_SEQUENCE], sequence + 1, __ATOMIC_RELAXED);
+	__atomic_thread_fence(__ATOMIC_RELEASE);
 
-	// set the running state of the instance monitor data structure
-	monitorData->running = 1;
+	int64_t previous = __atomic_load_n(&counters[GPIO_COUNTER_COUNT], __ATOMIC_RELAXED);
+	int64_t count = previous + edges;
+	if(previous == 0)
+	{
+		__atomic_store_n(&counters[GPIO_COUNTER_FIRST_EDGE], timestamp, __ATOMIC_RELAXED);
+	}
+	else
+	{
+		int64_t last = __atomic_load_n(&counters[GPIO_COUNTER_LAST_EDGE], __ATOMIC_RELAXED);
+		__atomic_store_n(&counters[GPIO_COUNTER_PERIOD], (timestamp - last) / edges, __ATOMIC_RELAXED);
+	}
+	__atomic_store_n(&counters[GPIO_COUNTER_LAST_EDGE], timestamp, __ATOMIC_RELAXED);
+	__atomic_store_n(&counters[GPIO_COUNTER_COUNT], count, __ATOMIC_RELAXED);
 
-	// initialize last known value and cache the value as the last known state
-	int compareLastKnown = strncmp(rdbuf, "1", 1); // only compare the first character; rdbuff may have more junk chars
-	monitorData->lastKnownState = compareLastKnown;
+	__atomic_store_n(&counters[GPIO_COUNTER_SEQUENCE], sequence + 2, __ATOMIC_RELEASE);
+}
 
-  // get attached JVM
-  JNIEnv *env;
-  if ((*gpio_callback_jvm)->AttachCurrentThread(gpio_callback_jvm, (void **)&env, NULL) != JNI_OK)
-  {
-    perror("AttachCurrentThread()");
-    close(fd);
-    return 5;
-  }
+/**
+ * --------------------------------------------------------
+ * DECODE QUADRATURE ENCODER TRANSITION
+ * --------------------------------------------------------
+ * Decode the transition of an encoder from the last known
+ * states of both channels to their current states and
+ * update the position in the encoder block.  The reactor is
+ * the only writer; every slot is stored atomically so Java
+ * can read the 64-bit position lock-free (also on 32-bit).
+ * A notification of the pin whose state is unchanged means
+ * sysfs coalesced an edge pair of the channel (see
+ * applyPinState); those steps are lost and counted as an
+ * error.
+ * Must be called while holding 'gpio_monitor_lock' and
+ * before the last known states are updated.
+ */
+void decodePinEncoder(struct gpio_monitor_data *monitorData, struct gpio_monitor_data *peerData,
+                      int state, int peerState, jlong timestamp)
+{
+	// pin states are '0' for HIGH; channel A is the high bit
+	struct gpio_monitor_data *a = (monitorData->encoderChannel == 0) ? monitorData : peerData;
+	struct gpio_monitor_data *b = (monitorData->encoderChannel == 0) ? peerData : monitorData;
+	int stateA = (a == monitorData) ? state : peerState;
+	int stateB = (b == monitorData) ? state : peerState;
+	int previous = ((a->lastKnownState == 0) << 1) | (b->lastKnownState == 0);
+	int current = ((stateA == 0) << 1) | (stateB == 0);
 
-	// continuous thread loop
-	for(;;)
+	int64_t *encoder = monitorData->encoder;
+	if(state == monitorData->lastKnownState && monitorData->sampledAt != timestamp)
 	{
-		// clear/reset the data buffer
-		memset(rdbuf, 0x00, GPIO_RDBUF_LEN);
+		__atomic_store_n(&encoder[GPIO_ENCODER_ERRORS],
+				__atomic_load_n(&encoder[GPIO_ENCODER_ERRORS], __ATOMIC_RELAXED) + 1, __ATOMIC_RELEASE);
+	}
 
-		// seek to the fist position in the data file
-		lseek(fd, 0, SEEK_SET);
+	int step = gpio_encoder_transitions[(previous << 2) | current];
+	if(step == 0)
+	{
+		return;
+	}
+	if(step == GPIO_ENCODER_INVALID)
+	{
+		// both channels changed; the direction of the missed edges is unknown
+		__atomic_store_n(&encoder[GPIO_ENCODER_ERRORS],
+				__atomic_load_n(&encoder[GPIO_ENCODER_ERRORS], __ATOMIC_RELAXED) + 1, __ATOMIC_RELEASE);
+		return;
+	}
+	__atomic_store_n(&encoder[GPIO_ENCODER_LAST_EDGE], timestamp, __ATOMIC_RELAXED);
+	__atomic_store_n(&encoder[GPIO_ENCODER_POSITION],
+			__atomic_load_n(&encoder[GPIO_ENCODER_POSITION], __ATOMIC_RELAXED) + step, __ATOMIC_RELEASE);
+}
 
-		// wait for data to be written to the GPIO value file
-		// (timeout every 10 seconds and restart)
-		ret=poll(&pfd, 1, GPIO_POLL_TIMEOUT);
+/**
+ * --------------------------------------------------------
+ * APPLY GPIO PIN STATE
+ * --------------------------------------------------------
+ * Cache a changed pin state, count the edges and collect the
+ * state change callback for pins with callbacks enabled.
+ * 'notified' is set for the pin whose notification woke the
+ * reactor (and not for an encoder peer sampled alongside).
+ *
+ * sysfs only signals that the value changed since the file
+ * was last read, so edges arriving before the reactor reads
+ * the file are coalesced into a single notification.  A
+ * notification that finds the state unchanged is counted as
+ * one pulse (a rising and a falling edge); any further
+ * coalesced pulses are lost.  Edge counts are therefore
+ * exact only while the edges are slower than the reactor
+ * wakeup latency (a few kHz per pin at most).
+ * Must be called while holding 'gpio_monitor_lock'.
+ */
+void applyPinState(struct gpio_monitor_data *monitorData, int state, jlong timestamp, int notified,
+                   struct gpio_state_change *changes, int *changeCount)
+{
+	if(state < 0)
+	{
+		return;
+	}
 
-		// if the return value is less than '0' then
-		// an error was thrown; bail out of the thread
-		if(ret<0)
+	// a pin already read in this wakeup (as an encoder peer) has no unread notification left
+	int sampled = (monitorData->sampledAt == timestamp);
+	monitorData->sampledAt = timestamp;
+
+	if(state == monitorData->lastKnownState)
+	{
+		// the notification of an unchanged state stems from a coalesced edge pair
+		if(notified && !sampled && monitorData->counters != NULL)
 		{
-			perror("poll()");
-			close(fd);
-			return 6;
+			countPinEdges(monitorData, 1, 1, timestamp);
 		}
+		return;
+	}
+
+	// cache new last known state in the instance data structure
+	monitorData->lastKnownState = state;
+
+	// edges of counting pins are accumulated here without crossing into java
+	// ('state' is '0' for HIGH, a rising edge)
+	if(monitorData->counters != NULL)
+	{
+		countPinEdges(monitorData, state == 0, state != 0, timestamp);
+	}
+
+	// only pins with callbacks enabled report the state change to java
+	if(monitorData->callbacks > 0)
+	{
+		changes[*changeCount].pin = monitorData->pin;
+		changes[*changeCount].state = state;
+		(*changeCount)++;
+	}
+}
+
+/**
+ * --------------------------------------------------------
+ * GPIO INTERRUPT REACTOR
+ * --------------------------------------------------------
+ * This method is invoked in a single thread that waits on
+ * one epoll set containing the sysfs value file of every
+ * monitored pin.  Pins are added and removed from the set
+ * dynamically as monitoring is enabled and disabled, and
+ * the thread stays attached to the JVM for its lifetime.
+ */
+int monitorPinInterrupts(void *threadarg)
+{
+    // monitoring instance variables
+	struct epoll_event events[MAX_GPIO_PINS];
+	int ret, i;
+
+	//printf("\nNATIVE (GpioInterrupt) REACTOR STARTED\n");
+
+	// get attached JVM
+	JNIEnv *env;
+	if ((*gpio_callback_jvm)->AttachCurrentThread(gpio_callback_jvm, (void **)&env, NULL) != JNI_OK)
+	{
+		perror("AttachCurrentThread()");
+		gpio_reactor_running = 0;
+		return 5;
+	}
 
-		// if the return value is equal to '0' then
-		// the polling simply timed out and we can restart
-		else if(ret==0)
+	// continuous thread loop while running state is enabled
+	while(gpio_reactor_running)
+	{
+		// wait for an edge on any of the monitored GPIO value files
+		// (timeout every 30 seconds and restart)
+		ret = epoll_wait(gpio_reactor_epfd, events, MAX_GPIO_PINS, GPIO_POLL_TIMEOUT);
+
+		// if the return value is less than '0' then an error
+		// was thrown; retry when interrupted, else bail out
+		if(ret < 0)
 		{
-			//printf("timeout\n");
-			continue;
+			if(errno == EINTR)
+				continue;
+			perror("epoll_wait()");
+			break;
 		}
 
-		// if the return value is greater than '0' then
-		// a change to the GPIO data file occurred
-		else
+		// capture the time of this wakeup once for all ready pins
+		// (CLOCK_MONOTONIC is the same time source as Java's System.nanoTime())
+		struct timespec now;
+		clock_gettime(CLOCK_MONOTONIC, &now);
+		jlong timestamp = ((jlong)now.tv_sec * 1000000000LL) + now.tv_nsec;
+
+		// dispatch each ready pin
+		// (a return value of '0' simply means the polling timed out)
+		for(i = 0; i < ret; i++)
 		{
-			// read the data from the file into the data buffer
-			ret=read(fd, rdbuf, GPIO_RDBUF_LEN-1);
-			if(ret<0)
+			int index = events[i].data.u32;
+
+			// the wakeup descriptor only serves to unblock the wait
+			if(index < 0 || index >= MAX_GPIO_PINS)
 			{
-				// data read error
-				perror("read()");
 				continue;
 			}
 
-			//printf("interrupt, value is: %s\n", rdbuf);
+			struct gpio_state_change changes[2];
+			int changeCount = 0;
 
-			// compare the data in the data buffer with the last known value state
+			// compare the current value with the last known value state
 			// (we do this to prevent double event invocation for the same value)
-			int compareResult = strncmp(rdbuf, "1", 1); // only compare the first character; rdbuff may have more junk chars
-			if(compareResult != monitorData->lastKnownState)
+			pthread_mutex_lock(&gpio_monitor_lock);
+			struct gpio_monitor_data *monitorData = &gpio_monitor_data_array[index];
+			if(monitorData->running > 0)
 			{
-				// cache new last known state in the instance data structure
-				monitorData->lastKnownState = compareResult;
-
-				// ensure the callback class and method are available
-				if (gpio_callback_class != NULL && gpio_callback_method != NULL)
+				int compareResult = readPinValue(monitorData->fd);
+				if(monitorData->encoder != NULL)
 				{
-					// ensure that the JVM exists
-					if(gpio_callback_jvm != NULL)
+					// sample both encoder channels together so the transition is decoded
+					// from a consistent pair of states (this also acknowledges the peer)
+					struct gpio_monitor_data *peerData = &gpio_monitor_data_array[monitorData->encoderPeer];
+					int peerResult = readPinValue(peerData->fd);
+					if(compareResult >= 0 && peerResult >= 0)
 					{
-						// invoke callback to java state method to notify event listeners
-						if(compareResult == 0)
-							(*env)->CallStaticVoidMethod(env, gpio_callback_class, gpio_callback_method, (jint)pin, (jboolean)1);
-						else
-							(*env)->CallStaticVoidMethod(env, gpio_callback_class, gpio_callback_method, (jint)pin, (jboolean)0);
+						decodePinEncoder(monitorData, peerData, compareResult, peerResult, timestamp);
 					}
+					applyPinState(peerData, peerResult, timestamp, 0, changes, &changeCount);
 				}
+				applyPinState(monitorData, compareResult, timestamp, 1, changes, &changeCount);
+			}
+			pthread_mutex_unlock(&gpio_monitor_lock);
+
+			// ensure the callback class and method are available
+			int change;
+			for(change = 0; change < changeCount && gpio_callback_class != NULL && gpio_callback_method != NULL; change++)
+			{
+				// invoke callback to java state method to notify event listeners
+				(*env)->CallStaticVoidMethod(env, gpio_callback_class, gpio_callback_method,
+						(jint)changes[change].pin, (jboolean)(changes[change].state == 0 ? 1 : 0), timestamp);
 			}
 		}
 	}
 
 	// detach from thread
-  if ((*gpio_callback_jvm)->DetachCurrentThread(gpio_callback_jvm) != JNI_OK)
-  {
-    perror("DetachCurrentThread()");
-    close(fd);
-    return 8;
-  }
-
-	// if we reached this code (unlikely),
-	// then close the data file and exit the thread
-	close(fd);
+	if ((*gpio_callback_jvm)->DetachCurrentThread(gpio_callback_jvm) != JNI_OK)
+	{
+		perror("DetachCurrentThread()");
+		return 8;
+	}
+
+	//printf("\nNATIVE (GpioInterrupt) REACTOR STOPPED\n");
 	return 0;
 }
 
+/**
+ * --------------------------------------------------------
+ * START THE GPIO INTERRUPT REACTOR
+ * --------------------------------------------------------
+ * Lazily create the epoll set and the reactor thread.
+ * Must be called while holding 'gpio_monitor_lock'.
+ */
+int startPinInterruptReactor()
+{
+	// nothing to do if the reactor is already running
+	if(gpio_reactor_running > 0)
+	{
+		return 0;
+	}
+
+	// create epoll set and the wakeup descriptor used to unblock the reactor
+	if(gpio_reactor_epfd < 0)
+	{
+		gpio_reactor_epfd = epoll_create1(EPOLL_CLOEXEC);
+		if(gpio_reactor_epfd < 0)
+		{
+			perror("epoll_create1()");
+			return -1;
+		}
+
+		gpio_reactor_wakefd = eventfd(0, EFD_CLOEXEC | EFD_NONBLOCK);
+		if(gpio_reactor_wakefd >= 0)
+		{
+			struct epoll_event ev;
+			ev.events = EPOLLIN;
+			ev.data.fd = GPIO_REACTOR_WAKEUP;
+			epoll_ctl(gpio_reactor_epfd, EPOLL_CTL_ADD, gpio_reactor_wakefd, &ev);
+		}
+	}
+
+	// create the single reactor thread
+	gpio_reactor_running = 1;
+	if(pthread_create(&gpio_reactor_thread, NULL, (void*) monitorPinInterrupts, NULL) != 0)
+	{
+		gpio_reactor_running = 0;
+		perror("pthread_create()");
+		return -1;
+	}
+	return 1;
+}
+
+/**
+ * --------------------------------------------------------
+ * REGISTER GPIO PIN WITH THE REACTOR
+ * --------------------------------------------------------
+ * Configure edge detection on both edges, open the value
+ * file and add it to the reactor's epoll set.
+ * Must be called while holding 'gpio_monitor_lock'.
+ * Returns '1' on success or a negative error code.
+ */
+int registerPin(JNIEnv *env, jclass class, int index, int pin, int edgePin)
+{
+    // get existing pin edge trigger
+    int edge;
+    edge = (int)Java_com_pi4j_wiringpi_GpioUtil_getEdgeDetection(env, class, pin);
+
+    // if pin edge trigger is not set to "both", then attempt to set it now
+    if(edge != com_pi4j_wiringpi_GpioUtil_EDGE_BOTH){
+        int retval;
+        retval = (int)Java_com_pi4j_wiringpi_GpioUtil_setEdgeDetection(env, class, pin, com_pi4j_wiringpi_GpioUtil_EDGE_BOTH);
+
+        // exit if pin edge trigger configuration was not successful
+        if(retval <= 0){
+            return -2; // unable to set edge trigger
+        }
+    }
+
+	// attempt to access the pin state from the linux sysfs
+	// (each GPIO pin value is stored in file: '/sys/class/gpio/gpio#/value' )
+	char fn[GPIO_FN_MAXLEN];
+	memset(fn, 0x00, GPIO_FN_MAXLEN);
+	getGpioPinValueFile(fn, edgePin);
+	int fd = open(fn, O_RDONLY | O_CLOEXEC);
+	if(fd < 0)
+	{
+		// return error; unable to get file descriptor
+		// (this is likely because the pin has not been exported)
+		perror(fn);
+		return -3;
+	}
+
+	// initialize last known value and cache the value as the last known state;
+	// this initial read also clears any pending notification
+	int lastKnownState = readPinValue(fd);
+	if(lastKnownState < 0)
+	{
+		// return error; unable to read the data file
+		// (this is likely because the user has insufficient permissions)
+		perror("read()");
+		close(fd);
+		return -4;
+	}
+
+	// ensure the reactor thread and its epoll set exist
+	if(startPinInterruptReactor() < 0)
+	{
+		close(fd);
+		return -5;
+	}
+
+	// configure the monitor instance data
+	gpio_monitor_data_array[index].pin = pin;
+	gpio_monitor_data_array[index].edgePin = edgePin;
+	gpio_monitor_data_array[index].fd = fd;
+	gpio_monitor_data_array[index].lastKnownState = lastKnownState;
+	gpio_monitor_data_array[index].sampledAt = 0;
+	gpio_monitor_data_array[index].running = 1;
+
+	// register the value file with the reactor's epoll set
+	// (sysfs signals value changes as high priority data)
+	struct epoll_event ev;
+	memset(&ev, 0x00, sizeof(ev));
+	ev.events = EPOLLPRI | EPOLLERR;
+	ev.data.u32 = (uint32_t)index;
+	if(epoll_ctl(gpio_reactor_epfd, EPOLL_CTL_ADD, fd, &ev) < 0)
+	{
+		perror("epoll_ctl()");
+		gpio_monitor_data_array[index].running = 0;
+		gpio_monitor_data_array[index].fd = -1;
+		close(fd);
+		return -6;
+	}
+	return 1;
+}
+
+/**
+ * --------------------------------------------------------
+ * UNREGISTER GPIO PIN FROM THE REACTOR
+ * --------------------------------------------------------
+ * Must be called while holding 'gpio_monitor_lock'.
+ */
+void unregisterPin(JNIEnv *env, jclass class, int index)
+{
+    // remove existing pin edge trigger
+    Java_com_pi4j_wiringpi_GpioUtil_setEdgeDetection(env, class, gpio_monitor_data_array[index].pin, com_pi4j_wiringpi_GpioUtil_EDGE_NONE);
+
+	// unregister and close the value file
+	epoll_ctl(gpio_reactor_epfd, EPOLL_CTL_DEL, gpio_monitor_data_array[index].fd, NULL);
+	close(gpio_monitor_data_array[index].fd);
+	gpio_monitor_data_array[index].fd = -1;
+
+    // reset running flag
+    gpio_monitor_data_array[index].running = 0;
+}
+
+/**
+ * --------------------------------------------------------
+ * RELEASE GPIO PIN FROM THE REACTOR
+ * --------------------------------------------------------
+ * Unregister the pin once it no longer has callbacks, an
+ * edge counter or a quadrature encoder enabled.
+ * Must be called while holding 'gpio_monitor_lock'.
+ */
+void releasePin(JNIEnv *env, jclass class, int index)
+{
+	struct gpio_monitor_data *monitorData = &gpio_monitor_data_array[index];
+	if(monitorData->running > 0 && monitorData->callbacks <= 0 &&
+	   monitorData->counters == NULL && monitorData->encoder == NULL)
+	{
+		unregisterPin(env, class, index);
+	}
+}
+
 /*
  * --------------------------------------------------------
  * ENABLE PIN STATE CHANGES (for callback notifications)
@@ -242,38 +601,33 @@ JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_enablePinStateChange
 	int edgePin = getEdgePin(index);
 
 	// ensure that the requested pin index is valid
-	if(index >= 0 && edgePin >= 0)
+	if(index >= 0 && index < MAX_GPIO_PINS && edgePin >= 0)
 	{
-		// only start this thread monitor if it has not already been started
-		if(gpio_monitor_data_array[index].running <= 0)
+		pthread_mutex_lock(&gpio_monitor_lock);
+
+		// only enable callbacks if they are not already enabled for this pin
+		if(gpio_monitor_data_array[index].callbacks <= 0)
 		{
-            // get existing pin edge trigger
-            int edge;
-            edge = (int)Java_com_pi4j_wiringpi_GpioUtil_getEdgeDetection(env, class, pin);
-
-            // if pin edge trigger is not set to "both", then attempt to set it now
-            if(edge != com_pi4j_wiringpi_GpioUtil_EDGE_BOTH){
-                int retval;
-                retval = (int)Java_com_pi4j_wiringpi_GpioUtil_setEdgeDetection(env, class, pin, com_pi4j_wiringpi_GpioUtil_EDGE_BOTH);
-
-                // exit if pin edge trigger configuration was not successful
-                if(retval <= 0){
-                    return -2; // unable to set edge trigger
-                }
-            }
-
-			// configure the monitor instance data
-			gpio_monitor_data_array[index].thread_id = index;
-			gpio_monitor_data_array[index].pin = pin;
-			gpio_monitor_data_array[index].edgePin = edgePin;
-
-			// create monitoring instance thread
-			pthread_create(&gpio_monitor_threads[index], NULL, (void*) monitorPinInterrupt, (void *) &gpio_monitor_data_array[index]);
-
-			// return '1' when a thread was actively created and started
+			// register the pin with the reactor unless it is already registered
+			if(gpio_monitor_data_array[index].running <= 0)
+			{
+				int ret = registerPin(env, class, index, pin, edgePin);
+				if(ret < 0)
+				{
+					pthread_mutex_unlock(&gpio_monitor_lock);
+					return ret;
+				}
+			}
+			gpio_monitor_data_array[index].callbacks = 1;
+
+			pthread_mutex_unlock(&gpio_monitor_lock);
+
+			// return '1' when a pin monitor was actively registered
 			return 1;
 		}
 
+		pthread_mutex_unlock(&gpio_monitor_lock);
+
 		// return '0' when no action was taken;
 		// (monitor already running)
 		return 0;
@@ -298,24 +652,24 @@ JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_disablePinStateChang
 	int index = pin;
 
 	// ensure that the requested pin index is valid
-	if(index >= 0)
+	if(index >= 0 && index < MAX_GPIO_PINS)
 	{
-		// kill the monitoring thread
-		if(gpio_monitor_data_array[index].running > 0)
-		{
-            // remove existing pin edge trigger
-            Java_com_pi4j_wiringpi_GpioUtil_setEdgeDetection(env, class, pin, com_pi4j_wiringpi_GpioUtil_EDGE_NONE);
+		pthread_mutex_lock(&gpio_monitor_lock);
 
-			// cancel monitoring thread
-			pthread_cancel(gpio_monitor_threads[index]);
+		// disable callbacks; remove the pin from the reactor unless it is still counting edges or decoding an encoder
+		if(gpio_monitor_data_array[index].callbacks > 0)
+		{
+			gpio_monitor_data_array[index].callbacks = 0;
+			releasePin(env, class, index);
 
-            // reset running flag
-            gpio_monitor_data_array[index].running = 0;
+			pthread_mutex_unlock(&gpio_monitor_lock);
 
-			// return '1' when a thread was actively killed
+			// return '1' when a pin monitor was actively removed
 			return 1;
 		}
 
+		pthread_mutex_unlock(&gpio_monitor_lock);
+
 		// return '0' when no action was taken
 		// (monitor is not currently active/running)
 		return 0;
@@ -325,6 +679,238 @@ JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_disablePinStateChang
 	return -1;
 }
 
+/*
+ * --------------------------------------------------------
+ * ENABLE PIN EDGE COUNTER
+ * --------------------------------------------------------
+ * Class:     com_pi4j_wiringpi_GpioInterrupt
+ * Method:    enablePinEdgeCounter
+ * Signature: (IILjava/nio/ByteBuffer;)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_enablePinEdgeCounter
+  (JNIEnv *env, jclass class, jint pin, jint edge, jobject counters)
+{
+	// get the index position for the requested pin number
+	int index = pin;
+	int edgePin = getEdgePin(index);
+
+	// ensure that the requested pin index and edge are valid
+	if(index < 0 || index >= MAX_GPIO_PINS || edgePin < 0 ||
+	   edge < com_pi4j_wiringpi_GpioUtil_EDGE_BOTH || edge > com_pi4j_wiringpi_GpioUtil_EDGE_FALLING)
+	{
+		return -1;
+	}
+
+	// the counter block must be an aligned direct buffer large enough for all counter slots
+	int64_t *block = (int64_t *)(*env)->GetDirectBufferAddress(env, counters);
+	if(block == NULL || ((uintptr_t)block % sizeof(int64_t)) != 0 ||
+	   (*env)->GetDirectBufferCapacity(env, counters) < (jlong)(GPIO_COUNTER_SLOTS * sizeof(int64_t)))
+	{
+		return -7;
+	}
+
+	pthread_mutex_lock(&gpio_monitor_lock);
+
+	// a pin can only have a single edge counter
+	if(gpio_monitor_data_array[index].counters != NULL)
+	{
+		pthread_mutex_unlock(&gpio_monitor_lock);
+		return -8;
+	}
+
+	// keep the counter buffer alive while the reactor writes into it
+	jobject ref = (*env)->NewGlobalRef(env, counters);
+	if(ref == NULL)
+	{
+		pthread_mutex_unlock(&gpio_monitor_lock);
+		return -7;
+	}
+
+	// register the pin with the reactor unless it is already registered
+	if(gpio_monitor_data_array[index].running <= 0)
+	{
+		int ret = registerPin(env, class, index, pin, edgePin);
+		if(ret < 0)
+		{
+			(*env)->DeleteGlobalRef(env, ref);
+			pthread_mutex_unlock(&gpio_monitor_lock);
+			return ret;
+		}
+	}
+	gpio_monitor_data_array[index].counterEdge = edge;
+	gpio_monitor_data_array[index].counters = block;
+	gpio_monitor_data_array[index].countersRef = ref;
+
+	pthread_mutex_unlock(&gpio_monitor_lock);
+	return 1;
+}
+
+/*
+ * --------------------------------------------------------
+ * DISABLE PIN EDGE COUNTER
+ * --------------------------------------------------------
+ * Class:     com_pi4j_wiringpi_GpioInterrupt
+ * Method:    disablePinEdgeCounter
+ * Signature: (I)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_disablePinEdgeCounter
+  (JNIEnv *env, jclass class, jint pin)
+{
+	// get the index position for the requested pin number
+	int index = pin;
+
+	// ensure that the requested pin index is valid
+	if(index >= 0 && index < MAX_GPIO_PINS)
+	{
+		pthread_mutex_lock(&gpio_monitor_lock);
+
+		// stop counting; remove the pin from the reactor unless it is still used otherwise
+		if(gpio_monitor_data_array[index].counters != NULL)
+		{
+			gpio_monitor_data_array[index].counters = NULL;
+			gpio_monitor_data_array[index].counterEdge = com_pi4j_wiringpi_GpioUtil_EDGE_NONE;
+			releasePin(env, class, index);
+
+			// the reactor no longer writes into the buffer (it only does so while holding the lock)
+			(*env)->DeleteGlobalRef(env, gpio_monitor_data_array[index].countersRef);
+			gpio_monitor_data_array[index].countersRef = NULL;
+
+			pthread_mutex_unlock(&gpio_monitor_lock);
+			return 1;
+		}
+
+		pthread_mutex_unlock(&gpio_monitor_lock);
+		return 0;
+	}
+
+	// return '-1' on error; not a valid pin
+	return -1;
+}
+
+/*
+ * --------------------------------------------------------
+ * ENABLE PIN QUADRATURE ENCODER
+ * --------------------------------------------------------
+ * Class:     com_pi4j_wiringpi_GpioInterrupt
+ * Method:    enablePinQuadratureEncoder
+ * Signature: (IILjava/nio/ByteBuffer;)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_enablePinQuadratureEncoder
+  (JNIEnv *env, jclass class, jint pinA, jint pinB, jobject encoder)
+{
+	// ensure that the requested pin indexes are valid and distinct
+	int edgePinA = getEdgePin(pinA);
+	int edgePinB = getEdgePin(pinB);
+	if(pinA < 0 || pinA >= MAX_GPIO_PINS || edgePinA < 0 ||
+	   pinB < 0 || pinB >= MAX_GPIO_PINS || edgePinB < 0 || pinA == pinB)
+	{
+		return -1;
+	}
+
+	// the encoder block must be an aligned direct buffer large enough for all encoder slots
+	int64_t *block = (int64_t *)(*env)->GetDirectBufferAddress(env, encoder);
+	if(block == NULL || ((uintptr_t)block % sizeof(int64_t)) != 0 ||
+	   (*env)->GetDirectBufferCapacity(env, encoder) < (jlong)(GPIO_ENCODER_SLOTS * sizeof(int64_t)))
+	{
+		return -7;
+	}
+
+	pthread_mutex_lock(&gpio_monitor_lock);
+
+	// a pin can only be a channel of a single encoder
+	if(gpio_monitor_data_array[pinA].encoder != NULL || gpio_monitor_data_array[pinB].encoder != NULL)
+	{
+		pthread_mutex_unlock(&gpio_monitor_lock);
+		return -8;
+	}
+
+	// keep the encoder buffer alive while the reactor writes into it
+	jobject ref = (*env)->NewGlobalRef(env, encoder);
+	if(ref == NULL)
+	{
+		pthread_mutex_unlock(&gpio_monitor_lock);
+		return -7;
+	}
+
+	// register both channels with the reactor unless they are already registered
+	if(gpio_monitor_data_array[pinA].running <= 0)
+	{
+		int ret = registerPin(env, class, pinA, pinA, edgePinA);
+		if(ret < 0)
+		{
+			(*env)->DeleteGlobalRef(env, ref);
+			pthread_mutex_unlock(&gpio_monitor_lock);
+			return ret;
+		}
+	}
+	if(gpio_monitor_data_array[pinB].running <= 0)
+	{
+		int ret = registerPin(env, class, pinB, pinB, edgePinB);
+		if(ret < 0)
+		{
+			releasePin(env, class, pinA);
+			(*env)->DeleteGlobalRef(env, ref);
+			pthread_mutex_unlock(&gpio_monitor_lock);
+			return ret;
+		}
+	}
+
+	gpio_monitor_data_array[pinA].encoderPeer = pinB;
+	gpio_monitor_data_array[pinA].encoderChannel = 0;
+	gpio_monitor_data_array[pinA].encoder = block;
+	gpio_monitor_data_array[pinB].encoderPeer = pinA;
+	gpio_monitor_data_array[pinB].encoderChannel = 1;
+	gpio_monitor_data_array[pinB].encoder = block;
+	gpio_monitor_data_array[pinA].encoderRef = ref;
+	gpio_monitor_data_array[pinB].encoderRef = ref;
+
+	pthread_mutex_unlock(&gpio_monitor_lock);
+	return 1;
+}
+
+/*
+ * --------------------------------------------------------
+ * DISABLE PIN QUADRATURE ENCODER
+ * --------------------------------------------------------
+ * Class:     com_pi4j_wiringpi_GpioInterrupt
+ * Method:    disablePinQuadratureEncoder
+ * Signature: (I)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_disablePinQuadratureEncoder
+  (JNIEnv *env, jclass class, jint pin)
+{
+	// ensure that the requested pin index is valid
+	if(pin >= 0 && pin < MAX_GPIO_PINS)
+	{
+		pthread_mutex_lock(&gpio_monitor_lock);
+
+		// stop decoding on both channels; remove them from the reactor unless they are still used otherwise
+		if(gpio_monitor_data_array[pin].encoder != NULL)
+		{
+			int peer = gpio_monitor_data_array[pin].encoderPeer;
+			jobject ref = gpio_monitor_data_array[pin].encoderRef;
+			gpio_monitor_data_array[pin].encoder = NULL;
+			gpio_monitor_data_array[peer].encoder = NULL;
+			gpio_monitor_data_array[pin].encoderRef = NULL;
+			gpio_monitor_data_array[peer].encoderRef = NULL;
+			releasePin(env, class, pin);
+			releasePin(env, class, peer);
+
+			// the reactor no longer writes into the buffer (it only does so while holding the lock)
+			(*env)->DeleteGlobalRef(env, ref);
+
+			pthread_mutex_unlock(&gpio_monitor_lock);
+			return 1;
+		}
+
+		pthread_mutex_unlock(&gpio_monitor_lock);
+		return 0;
+	}
+
+	// return '-1' on error; not a valid pin
+	return -1;
+}
+
 
 /**
  * --------------------------------------------------------
@@ -369,7 +955,7 @@ jint GpioInterrupt_JNI_OnLoad(JavaVM *jvm)
     }
 
     // lookup and cache the static method ID for the 'pinStateChangeCallback' callback
-    gpio_callback_method = (*env)->GetStaticMethodID(env, cls, "pinStateChangeCallback", "(IZ)V");
+    gpio_callback_method = (*env)->GetStaticMethodID(env, cls, "pinStateChangeCallback", "(IZJ)V");
     if (gpio_callback_method == NULL)
     {
     	// callback method could not be found in attached java class
@@ -390,13 +976,36 @@ jint GpioInterrupt_JNI_OnLoad(JavaVM *jvm)
  */
 void GpioInterrupt_JNI_OnUnload(JavaVM *jvm)
 {
-	// kill all running monitor threads
+	// stop the reactor thread and release all monitored value files
+	pthread_mutex_lock(&gpio_monitor_lock);
 	int index = 0;
 	for(index = 0; index < MAX_GPIO_PINS; index++)
 	{
 		if(gpio_monitor_data_array[index].running > 0)
-			pthread_cancel(gpio_monitor_threads[index]);
+		{
+			close(gpio_monitor_data_array[index].fd);
+			gpio_monitor_data_array[index].fd = -1;
+			gpio_monitor_data_array[index].running = 0;
+		}
+		gpio_monitor_data_array[index].callbacks = 0;
+		gpio_monitor_data_array[index].counters = NULL;
+		gpio_monitor_data_array[index].encoder = NULL;
+	}
+	if(gpio_reactor_running > 0)
+	{
+		gpio_reactor_running = 0;
+		if(gpio_reactor_wakefd >= 0)
+		{
+			uint64_t wake = 1;
+			if(write(gpio_reactor_wakefd, &wake, sizeof(wake)) < 0)
+				perror("write()");
+		}
+		else
+		{
+			pthread_cancel(gpio_reactor_thread);
+		}
 	}
+	pthread_mutex_unlock(&gpio_monitor_lock);
 
 	// destroy cached java references
 	JNIEnv *env;
@@ -406,5 +1015,23 @@ void GpioInterrupt_JNI_OnUnload(JavaVM *jvm)
 	}
 	(*env)->DeleteWeakGlobalRef(env, gpio_callback_class);
 
+	// release the edge counter and encoder buffers (encoder references are shared by both channels)
+	for(index = 0; index < MAX_GPIO_PINS; index++)
+	{
+		if(gpio_monitor_data_array[index].countersRef != NULL)
+		{
+			(*env)->DeleteGlobalRef(env, gpio_monitor_data_array[index].countersRef);
+			gpio_monitor_data_array[index].countersRef = NULL;
+		}
+		if(gpio_monitor_data_array[index].encoderRef != NULL)
+		{
+			if(gpio_monitor_data_array[index].encoderChannel == 0)
+			{
+				(*env)->DeleteGlobalRef(env, gpio_monitor_data_array[index].encoderRef);
+			}
+			gpio_monitor_data_array[index].encoderRef = NULL;
+		}
+	}
+
 	return;
 }
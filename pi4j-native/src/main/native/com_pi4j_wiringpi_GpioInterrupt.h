@@ -49,6 +49,38 @@ JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_enablePinStateChange
 JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_disablePinStateChangeCallback
   (JNIEnv *, jclass, jint);
 
+/*
+ * Class:     com_pi4j_wiringpi_GpioInterrupt
+ * Method:    enablePinEdgeCounter
+ * Signature: (IILjava/nio/ByteBuffer;)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_enablePinEdgeCounter
+  (JNIEnv *, jclass, jint, jint, jobject);
+
+/*
+ * Class:     com_pi4j_wiringpi_GpioInterrupt
+ * Method:    disablePinEdgeCounter
+ * Signature: (I)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_disablePinEdgeCounter
+  (JNIEnv *, jclass, jint);
+
+/*
+ * Class:     com_pi4j_wiringpi_GpioInterrupt
+ * Method:    enablePinQuadratureEncoder
+ * Signature: (IILjava/nio/ByteBuffer;)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_enablePinQuadratureEncoder
+  (JNIEnv *, jclass, jint, jint, jobject);
+
+/*
+ * Class:     com_pi4j_wiringpi_GpioInterrupt
+ * Method:    disablePinQuadratureEncoder
+ * Signature: (I)I
+ */
+JNIEXPORT jint JNICALL Java_com_pi4j_wiringpi_GpioInterrupt_disablePinQuadratureEncoder
+  (JNIEnv *, jclass, jint);
+
 
 /*
  * Class:     com_pi4j_wiringpi_GpioInterrupt